@@ -0,0 +1,926 @@
+package myAdapter;
+
+/**
+ * Classe astratta che fornisce un'implementazione scheletrica dell'interfaccia
+ * {@link HMap}, per ridurre al minimo lo sforzo necessario a realizzare nuove
+ * implementazioni di mappa.
+ * <p>
+ * Una sottoclasse deve implementare soltanto le operazioni di base
+ * ({@code size}, {@code get}, {@code put}, {@code remove}, {@code clear}) e
+ * l'iteratore sulle entry {@link #entryIterator()}. Le tre viste
+ * {@code keySet()}, {@code values()} ed {@code entrySet()} sono costruite sopra
+ * quell'iteratore e hanno la stessa semantica delle viste di
+ * {@link MapAdapter}: sono "backed" dalla mappa, non supportano
+ * {@code add}/{@code addAll}, lanciano {@code NullPointerException} sugli
+ * argomenti {@code null} e, nel caso dell'entry set,
+ * {@code ClassCastException} sugli oggetti che non sono {@link HEntry}.
+ * <p>
+ * Come in {@link MapAdapter}, chiavi e valori {@code null} non sono ammessi.
+ * Le sottoclassi che dispongono di una struttura dati più efficiente possono
+ * ridefinire {@link #keyIterator()}, {@link #valueIterator()} e i metodi di
+ * interrogazione come {@code containsValue}.
+ *
+ * @see HMap
+ * @see MapAdapter
+ */
+public abstract class AbstractHMap implements HMap {
+    /**
+     * Tipo di vista restituito da {@link #viewKind(HCollection)} per la vista
+     * delle chiavi.
+     */
+    static final int KEY_VIEW = 0;
+
+    /**
+     * Tipo di vista per la vista dei valori.
+     */
+    static final int VALUE_VIEW = 1;
+
+    /**
+     * Tipo di vista per l'entry set.
+     */
+    static final int ENTRY_VIEW = 2;
+
+    /**
+     * Costruttore protetto, invocato implicitamente dalle sottoclassi.
+     */
+    protected AbstractHMap() {
+    }
+
+    // ---------------------- METODI ASTRATTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry di questa mappa.
+     * Ogni elemento restituito è una {@link HEntry}; il metodo
+     * {@code remove()} dell'iteratore deve rimuovere dalla mappa l'ultima
+     * entry restituita.
+     *
+     * @return un {@link HIterator} sulle entry della mappa.
+     */
+    protected abstract HIterator entryIterator();
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa non contiene mappature
+     * chiave-valore.
+     *
+     * @return {@code true} se la mappa è vuota, {@code false} altrimenti.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     * Poiché i valori {@code null} non sono ammessi, la verifica viene delegata
+     * a {@code get}.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return get(key) != null;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. L'implementazione scorre tutte le entry della mappa.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        HIterator it = valueIterator();
+        while (it.hasNext()) {
+            if (value.equals(it.next()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Copia tutte le mappature dalla mappa specificata a questa mappa.
+     * La mappa sorgente viene visitata una sola volta tramite il suo entry set.
+     *
+     * @param sourceHMap la mappa le cui mappature devono essere copiate.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    @Override
+    public void putAll(HMap sourceHMap) {
+        if (sourceHMap == null)
+            throw new NullPointerException();
+        // Copiare una mappa su se stessa non ha alcun effetto.
+        if (sourceHMap == this)
+            return;
+
+        HIterator it = sourceHMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            Object key = e.getKey();
+            Object value = e.getValue();
+            if (key == null || value == null)
+                throw new NullPointerException();
+            put(key, value);
+        }
+    }
+
+    /**
+     * Restituisce una vista {@link HSet} delle chiavi contenute in questa
+     * mappa.
+     *
+     * @return una vista set delle chiavi contenute in questa mappa.
+     */
+    @Override
+    public HSet keySet() {
+        return new KeyView();
+    }
+
+    /**
+     * Restituisce una vista {@link HCollection} dei valori contenuti in questa
+     * mappa.
+     *
+     * @return una vista collezione dei valori contenuti in questa mappa.
+     */
+    @Override
+    public HCollection values() {
+        return new ValueView();
+    }
+
+    /**
+     * Restituisce una vista {@link HSet} delle mappature contenute in questa
+     * mappa. Ogni elemento del set è una {@link HEntry}.
+     *
+     * @return una vista set delle mappature contenute in questa mappa.
+     */
+    @Override
+    public HSet entrySet() {
+        return new EntryView();
+    }
+
+    /**
+     * Confronta l'oggetto specificato con questa mappa per l'uguaglianza.
+     * Due mappe sono uguali se i loro entry set sono uguali.
+     *
+     * @param o l'oggetto da confrontare con questa mappa.
+     * @return {@code true} se l'oggetto specificato è una mappa con le stesse
+     *         mappature.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this)
+            return true;
+        if (!(o instanceof HMap))
+            return false;
+
+        HMap tmp = (HMap) o;
+        if (tmp.size() != size())
+            return false;
+        return entrySet().equals(tmp.entrySet());
+    }
+
+    /**
+     * Restituisce il codice hash per questa mappa, definito come la somma dei
+     * codici hash di ogni entry.
+     *
+     * @return il codice hash per questa mappa.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        HIterator it = entryIterator();
+        while (it.hasNext())
+            h += it.next().hashCode();
+        return h;
+    }
+
+    /**
+     * Restituisce una rappresentazione testuale di questa mappa, nello stesso
+     * formato di {@link MapAdapter#toString()}: "{chiave1: valore1, ...}".
+     *
+     * @return una rappresentazione stringa della mappa.
+     */
+    @Override
+    public String toString() {
+        HIterator it = entryIterator();
+        if (it.hasNext() == false)
+            return "{}";
+
+        StringBuffer s = new StringBuffer("{");
+        while (it.hasNext()) {
+            HEntry entry = (HEntry) it.next();
+            s.append(entry.getKey()).append(": ").append(entry.getValue());
+            if (it.hasNext())
+                s.append(", ");
+        }
+        return s.append('}').toString();
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle chiavi di questa mappa.
+     * L'implementazione predefinita estrae la chiave da ogni entry restituita da
+     * {@link #entryIterator()}; le sottoclassi possono ridefinirlo per evitare
+     * l'allocazione delle entry.
+     *
+     * @return un {@link HIterator} sulle chiavi della mappa.
+     */
+    protected HIterator keyIterator() {
+        return new EntryProjection(entryIterator(), true);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori di questa mappa.
+     * L'implementazione predefinita estrae il valore da ogni entry restituita da
+     * {@link #entryIterator()}.
+     *
+     * @return un {@link HIterator} sui valori della mappa.
+     */
+    protected HIterator valueIterator() {
+        return new EntryProjection(entryIterator(), false);
+    }
+
+    /**
+     * Restituisce il valore associato alla chiave specificata, o {@code null}
+     * se la chiave è assente. L'entry set lo usa per verificare la presenza di
+     * una mappatura, quindi anche {@code equals}. L'implementazione
+     * predefinita invoca {@code get}; le sottoclassi in cui {@code get} ha
+     * effetti collaterali, come l'aggiornamento dell'ordine di accesso o dei
+     * contatori, devono ridefinirlo con una ricerca che non ne abbia.
+     *
+     * @param key la chiave da cercare.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    protected Object lookup(Object key) {
+        return get(key);
+    }
+
+    // ---------------------- METODI PACKAGE-PRIVATE ----------------------
+
+    /**
+     * Restituisce la mappa di cui la collezione è una vista.
+     *
+     * @param c la collezione.
+     * @return la mappa, o {@code null} se la collezione non è una vista di una
+     *         {@code AbstractHMap}.
+     */
+    static AbstractHMap viewOwner(HCollection c) {
+        return c instanceof ValueView ? ((ValueView) c).owner() : null;
+    }
+
+    /**
+     * Restituisce il tipo di una vista.
+     *
+     * @param c una vista di una {@code AbstractHMap}.
+     * @return {@link #KEY_VIEW}, {@link #VALUE_VIEW} o {@link #ENTRY_VIEW}.
+     */
+    static int viewKind(HCollection c) {
+        if (c instanceof KeyView)
+            return KEY_VIEW;
+        return c instanceof EntryView ? ENTRY_VIEW : VALUE_VIEW;
+    }
+
+    // ---------------------- CLASSI INTERNE ----------------------
+
+    /**
+     * Implementazione di base di una {@link HEntry}: fornisce {@code equals},
+     * {@code hashCode} e {@code toString} con la stessa semantica delle entry
+     * di {@link MapAdapter}. Le sottoclassi devono solo fornire l'accesso a
+     * chiave e valore.
+     */
+    protected abstract static class AbstractEntry implements HEntry {
+
+        /**
+         * Costruttore protetto, invocato implicitamente dalle sottoclassi.
+         */
+        protected AbstractEntry() {
+        }
+
+        /**
+         * Confronta questa entry con un altro oggetto per l'uguaglianza.
+         *
+         * @param o l'oggetto da confrontare.
+         * @return {@code true} se l'oggetto è un'entry con la stessa chiave e lo
+         *         stesso valore.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof HEntry == false)
+                return false;
+
+            HEntry e = (HEntry) o;
+            Object value = getValue();
+            return getKey().equals(e.getKey()) && value != null && value.equals(e.getValue());
+        }
+
+        /**
+         * Restituisce il codice hash per questa entry, definito come lo XOR dei
+         * codici hash di chiave e valore.
+         *
+         * @return il codice hash.
+         */
+        @Override
+        public int hashCode() {
+            Object value = getValue();
+            return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+        /**
+         * Restituisce una rappresentazione testuale di questa entry nel formato
+         * "chiave: valore".
+         *
+         * @return una stringa che rappresenta la coppia chiave-valore.
+         */
+        @Override
+        public String toString() {
+            return getKey() + ": " + getValue();
+        }
+    }
+
+    /**
+     * Iteratore che proietta le entry di un altro iteratore sulla loro chiave o
+     * sul loro valore. La rimozione viene delegata all'iteratore sottostante.
+     */
+    private static class EntryProjection implements HIterator {
+        private HIterator entries;
+        private boolean keys;
+
+        /**
+         * Costruisce una proiezione dell'iteratore di entry specificato.
+         *
+         * @param entries l'iteratore sulle entry.
+         * @param keys    {@code true} per restituire le chiavi, {@code false} per
+         *                restituire i valori.
+         */
+        public EntryProjection(HIterator entries, boolean keys) {
+            this.entries = entries;
+            this.keys = keys;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        /**
+         * Restituisce la chiave o il valore della prossima entry.
+         *
+         * @return il prossimo elemento.
+         * @throws java.util.NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            HEntry e = (HEntry) entries.next();
+            return keys ? e.getKey() : e.getValue();
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultima entry restituita.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                              {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            entries.remove();
+        }
+    }
+
+    /**
+     * Vista dei valori della mappa. Ha la stessa semantica di
+     * {@link ValueCollection}: ammette duplicati e le rimozioni si riflettono
+     * sulla mappa.
+     */
+    private class ValueView implements HCollection {
+
+        /**
+         * Restituisce la mappa di cui questa è una vista.
+         *
+         * @return la mappa.
+         */
+        AbstractHMap owner() {
+            return AbstractHMap.this;
+        }
+
+        /**
+         * Restituisce il numero di valori, pari alla dimensione della mappa.
+         *
+         * @return il numero di valori nella collezione.
+         */
+        @Override
+        public int size() {
+            return AbstractHMap.this.size();
+        }
+
+        /**
+         * Verifica se questa collezione è vuota.
+         *
+         * @return {@code true} se la collezione non contiene valori.
+         */
+        @Override
+        public boolean isEmpty() {
+            return AbstractHMap.this.isEmpty();
+        }
+
+        /**
+         * Verifica se questa collezione contiene il valore specificato.
+         *
+         * @param o il valore da cercare.
+         * @return {@code true} se almeno una chiave è associata al valore.
+         * @throws NullPointerException se il valore è {@code null}.
+         */
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        /**
+         * Restituisce un iteratore sui valori della mappa.
+         *
+         * @return un {@link HIterator} sui valori.
+         */
+        @Override
+        public HIterator iterator() {
+            return valueIterator();
+        }
+
+        /**
+         * Restituisce un array contenente tutti gli elementi di questa collezione.
+         *
+         * @return un nuovo array con gli elementi della collezione.
+         */
+        @Override
+        public Object[] toArray() {
+            Object[] arr = new Object[size()];
+            HIterator it = iterator();
+            for (int i = 0; it.hasNext(); i++)
+                arr[i] = it.next();
+            return arr;
+        }
+
+        /**
+         * Restituisce un array contenente tutti gli elementi di questa collezione,
+         * usando l'array specificato se è abbastanza grande.
+         *
+         * @param a l'array in cui inserire gli elementi, se sufficientemente grande.
+         * @return un array contenente gli elementi della collezione.
+         * @throws NullPointerException se l'array specificato è {@code null}.
+         * @throws ArrayStoreException  se un elemento non è compatibile con il tipo
+         *                              dell'array.
+         */
+        @Override
+        public Object[] toArray(Object[] a) {
+            if (a == null)
+                throw new NullPointerException();
+
+            Object[] collectionArray = toArray();
+            Class componentType = a.getClass().getComponentType();
+            for (int i = 0; i < collectionArray.length; i++) {
+                if (!componentType.isInstance(collectionArray[i]))
+                    throw new ArrayStoreException();
+            }
+
+            if (a.length < collectionArray.length)
+                return collectionArray;
+
+            System.arraycopy(collectionArray, 0, a, 0, collectionArray.length);
+            for (int i = collectionArray.length; i < a.length; i++)
+                a[i] = null;
+            return a;
+        }
+
+        /**
+         * Operazione non supportata.
+         *
+         * @param o l'oggetto da aggiungere.
+         * @return mai, poiché lancia sempre un'eccezione.
+         * @throws UnsupportedOperationException sempre.
+         */
+        @Override
+        public boolean add(Object o) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Rimuove una singola mappatura il cui valore è uguale a quello specificato.
+         *
+         * @param o il valore da rimuovere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se il valore è {@code null}.
+         */
+        @Override
+        public boolean remove(Object o) {
+            if (o == null)
+                throw new NullPointerException();
+
+            HIterator it = iterator();
+            while (it.hasNext()) {
+                if (o.equals(it.next())) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Verifica se questa collezione contiene tutti gli elementi di {@code c}.
+         *
+         * @param c la collezione da verificare.
+         * @return {@code true} se tutti gli elementi sono contenuti.
+         * @throws NullPointerException se la collezione è {@code null} o contiene
+         *                              elementi {@code null}.
+         */
+        @Override
+        public boolean containsAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                if (!contains(it.next()))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Operazione non supportata.
+         *
+         * @param c la collezione di elementi da aggiungere.
+         * @return mai, poiché lancia sempre un'eccezione.
+         * @throws UnsupportedOperationException sempre.
+         */
+        @Override
+        public boolean addAll(HCollection c) {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Rimuove ogni mappatura il cui valore è contenuto in {@code c}. Gli
+         * elementi di {@code c} vengono prima copiati in una tabella hash, come
+         * in {@link ValueCollection#removeAll(HCollection)}.
+         *
+         * @param c la collezione dei valori da rimuovere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se la collezione è {@code null} o
+         *                              contiene elementi {@code null}.
+         */
+        @Override
+        public boolean removeAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+            if (c.isEmpty())
+                return false;
+
+            return removeMatching(c, true);
+        }
+
+        /**
+         * Mantiene solo le mappature il cui valore è contenuto in {@code c}.
+         *
+         * @param c la collezione dei valori da mantenere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se la collezione è {@code null}.
+         */
+        @Override
+        public boolean retainAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            return removeMatching(c, false);
+        }
+
+        /**
+         * Rimuove, con un'unica scansione della mappa, le mappature il cui
+         * elemento è contenuto (o non è contenuto) nella collezione
+         * specificata, con la stessa semantica di {@link ValueCollection}: gli
+         * elementi di {@code c} vengono copiati in un {@link ObjectCounter},
+         * così che il {@code contains} di un set di tipo diverso (per esempio
+         * un entry set interrogato con un valore) non possa rifiutare
+         * l'elemento. Solo per {@code retainAll} un {@code HSet} viene
+         * interrogato direttamente.
+         *
+         * @param c         la collezione di riferimento.
+         * @param contained {@code true} per rimuovere gli elementi contenuti in
+         *                  {@code c}, {@code false} per rimuovere quelli non
+         *                  contenuti.
+         * @return {@code true} se la mappa è stata modificata.
+         * @throws NullPointerException se {@code c} contiene elementi
+         *                              {@code null} e viene copiata.
+         */
+        private boolean removeMatching(HCollection c, boolean contained) {
+            ObjectCounter members = null;
+            if (contained || !(c instanceof HSet)) {
+                members = new ObjectCounter(c.size());
+                HIterator it = c.iterator();
+                while (it.hasNext())
+                    members.add(it.next());
+            }
+
+            boolean modified = false;
+            HIterator it = iterator();
+            while (it.hasNext()) {
+                Object element = it.next();
+                boolean member = members != null ? members.contains(element) : c.contains(element);
+                if (member == contained) {
+                    it.remove();
+                    modified = true;
+                }
+            }
+            return modified;
+        }
+
+        /**
+         * Rimuove tutti i valori, svuotando la mappa.
+         */
+        @Override
+        public void clear() {
+            AbstractHMap.this.clear();
+        }
+
+        /**
+         * Confronta questa collezione con un'altra collezione (non set) come
+         * multiinsieme: stessi elementi con la stessa cardinalità.
+         *
+         * @param o l'oggetto da confrontare.
+         * @return {@code true} se l'oggetto specificato è uguale a questa collezione.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof HCollection == false || o instanceof HSet == true)
+                return false;
+
+            HCollection c = (HCollection) o;
+            if (c.size() != size())
+                return false;
+
+            // Confronto delle cardinalità di ogni elemento, come in
+            // ValueCollection.equals.
+            ObjectCounter frequencies = new ObjectCounter(size());
+            HIterator it = iterator();
+            while (it.hasNext())
+                frequencies.add(it.next());
+
+            it = c.iterator();
+            while (it.hasNext()) {
+                if (!frequencies.remove(it.next()))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Restituisce la somma degli hash code degli elementi.
+         *
+         * @return l'hash code della collezione.
+         */
+        @Override
+        public int hashCode() {
+            int hashCode = 0;
+            HIterator it = iterator();
+            while (it.hasNext())
+                hashCode += it.next().hashCode();
+            return hashCode;
+        }
+
+        /**
+         * Restituisce una rappresentazione testuale nel formato "[e1, e2, ...]".
+         *
+         * @return una rappresentazione stringa della collezione.
+         */
+        @Override
+        public String toString() {
+            HIterator it = iterator();
+            if (it.hasNext() == false)
+                return "[]";
+
+            StringBuffer s = new StringBuffer("[");
+            while (it.hasNext()) {
+                s.append(it.next());
+                if (it.hasNext())
+                    s.append(", ");
+            }
+            return s.append(']').toString();
+        }
+    }
+
+    /**
+     * Vista delle chiavi della mappa. Ha la stessa semantica di {@link KeySet}.
+     */
+    private class KeyView extends ValueView implements HSet {
+
+        /**
+         * Verifica se la mappa contiene la chiave specificata.
+         *
+         * @param o la chiave da cercare.
+         * @return {@code true} se la chiave è presente.
+         * @throws NullPointerException se la chiave è {@code null}.
+         */
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        /**
+         * Restituisce un iteratore sulle chiavi della mappa.
+         *
+         * @return un {@link HIterator} sulle chiavi.
+         */
+        @Override
+        public HIterator iterator() {
+            return keyIterator();
+        }
+
+        /**
+         * Rimuove la chiave specificata (e la sua mappatura) dalla mappa.
+         *
+         * @param o la chiave da rimuovere.
+         * @return {@code true} se il set è stato modificato.
+         * @throws NullPointerException se la chiave è {@code null}.
+         */
+        @Override
+        public boolean remove(Object o) {
+            if (o == null)
+                throw new NullPointerException();
+
+            return AbstractHMap.this.remove(o) != null;
+        }
+
+        /**
+         * Rimuove dalla mappa tutte le chiavi contenute in {@code c}.
+         *
+         * @param c la collezione delle chiavi da rimuovere.
+         * @return {@code true} se il set è stato modificato.
+         * @throws NullPointerException se la collezione è {@code null} o contiene
+         *                              elementi {@code null}.
+         */
+        @Override
+        public boolean removeAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            boolean modified = false;
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                if (remove(it.next()))
+                    modified = true;
+            }
+            return modified;
+        }
+
+        /**
+         * Confronta questo set con un altro set.
+         *
+         * @param o l'oggetto da confrontare.
+         * @return {@code true} se l'oggetto è un set con gli stessi elementi.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof HSet == false)
+                return false;
+
+            HSet tmp = (HSet) o;
+            return size() == tmp.size() && containsAll(tmp);
+        }
+    }
+
+    /**
+     * Vista delle entry della mappa. Ha la stessa semantica dell'entry set di
+     * {@link MapAdapter}.
+     */
+    private class EntryView extends ValueView implements HSet {
+
+        /**
+         * Verifica se la mappa contiene la mappatura specificata.
+         *
+         * @param o l'entry da cercare.
+         * @return {@code true} se la mappa associa la chiave dell'entry al suo valore.
+         * @throws NullPointerException se l'oggetto è {@code null}.
+         * @throws ClassCastException   se l'oggetto non è una {@link HEntry}.
+         */
+        @Override
+        public boolean contains(Object o) {
+            if (o == null)
+                throw new NullPointerException();
+            if (!(o instanceof HEntry))
+                throw new ClassCastException();
+
+            HEntry tmp = (HEntry) o;
+            Object value = lookup(tmp.getKey());
+            return value != null && value.equals(tmp.getValue());
+        }
+
+        /**
+         * Restituisce un iteratore sulle entry della mappa.
+         *
+         * @return un {@link HIterator} sulle entry.
+         */
+        @Override
+        public HIterator iterator() {
+            return entryIterator();
+        }
+
+        /**
+         * Rimuove la mappatura specificata, se presente.
+         *
+         * @param o l'entry da rimuovere.
+         * @return {@code true} se il set è stato modificato.
+         * @throws NullPointerException se l'oggetto è {@code null}.
+         * @throws ClassCastException   se l'oggetto non è una {@link HEntry}.
+         */
+        @Override
+        public boolean remove(Object o) {
+            if (contains(o))
+                return AbstractHMap.this.remove(((HEntry) o).getKey()) != null;
+            return false;
+        }
+
+        /**
+         * Verifica se la mappa contiene tutte le mappature di {@code c}.
+         *
+         * @param c la collezione di entry da verificare.
+         * @return {@code true} se tutte le entry sono contenute.
+         * @throws NullPointerException se la collezione è {@code null} o contiene
+         *                              elementi {@code null}.
+         * @throws ClassCastException   se un elemento non è una {@link HEntry}.
+         */
+        @Override
+        public boolean containsAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                if (!contains(it.next()))
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * Rimuove dalla mappa tutte le mappature contenute in {@code c}.
+         *
+         * @param c la collezione di entry da rimuovere.
+         * @return {@code true} se il set è stato modificato.
+         * @throws NullPointerException se la collezione è {@code null} o contiene
+         *                              elementi {@code null}.
+         * @throws ClassCastException   se un elemento non è una {@link HEntry}.
+         */
+        @Override
+        public boolean removeAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            boolean modified = false;
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                if (remove(it.next()))
+                    modified = true;
+            }
+            return modified;
+        }
+
+        /**
+         * Confronta questo set con un altro set.
+         *
+         * @param o l'oggetto da confrontare.
+         * @return {@code true} se l'oggetto è un set con gli stessi elementi.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (o == this)
+                return true;
+            if (o instanceof HSet == false)
+                return false;
+
+            HSet tmp = (HSet) o;
+            return size() == tmp.size() && containsAll(tmp);
+        }
+    }
+}
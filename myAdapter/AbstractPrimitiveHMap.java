@@ -0,0 +1,553 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+import java.util.Vector;
+
+/**
+ * Scheletro comune delle mappe specializzate per chiavi o valori primitivi
+ * ({@link IntObjectHMap}, {@link LongObjectHMap}, {@link ObjectIntHMap},
+ * {@link ObjectLongHMap}, {@link LongLongHMap}).
+ * <p>
+ * Tutte usano la stessa tabella a indirizzamento aperto di
+ * {@link OpenHashMap}: array paralleli di dimensione pari a una potenza di
+ * due, scansione lineare e rimozione con spostamento all'indietro (backward
+ * shift). Gli array sono però tipizzati ({@code int[]}, {@code long[]}), quindi
+ * le operazioni specializzate delle sottoclassi non allocano oggetti
+ * involucro.
+ * <p>
+ * Questa classe gestisce la parte indipendente dal tipo degli array
+ * (dimensionamento, spostamento delle celle, iteratori delle viste) e accede
+ * alle celle tramite pochi metodi astratti. Le chiavi e i valori vengono
+ * convertiti in oggetti ({@code Integer}, {@code Long}) solo quando si passa
+ * dall'interfaccia generica {@link HMap} o dalle sue viste.
+ * <p>
+ * Classe di supporto interna al package.
+ */
+abstract class AbstractPrimitiveHMap extends AbstractHMap {
+    /**
+     * Capacità iniziale predefinita della tabella.
+     */
+    static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Fattore di carico predefinito.
+     */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * Capacità massima della tabella.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Maschera usata per ridurre un hash a un indice ({@code capacità - 1}).
+     */
+    int mask;
+
+    /**
+     * Numero di mappature presenti.
+     */
+    int size;
+
+    /**
+     * Numero di mappature oltre il quale la tabella viene raddoppiata.
+     */
+    int maxFill;
+
+    /**
+     * Il fattore di carico della tabella.
+     */
+    private final float loadFactor;
+
+    /**
+     * Costruisce la parte comune di una mappa vuota; la sottoclasse deve poi
+     * invocare {@link #allocate(int)} con la capacità restituita da
+     * {@link #capacityFor(int)}.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico, compreso tra 0 (escluso) e 1
+     *                     (escluso).
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo o se
+     *                                  il fattore di carico non è valido.
+     */
+    AbstractPrimitiveHMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Dimensione attesa negativa: " + expectedSize);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Fattore di carico non valido: " + loadFactor);
+
+        this.loadFactor = loadFactor;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copia tutte le mappature dalla mappa specificata a questa mappa.
+     * Prima della copia la tabella viene dimensionata per contenere entrambe le
+     * mappe, così da evitare ridimensionamenti ripetuti.
+     *
+     * @param sourceHMap la mappa le cui mappature devono essere copiate.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     * @throws ClassCastException   se una chiave o un valore non sono del tipo
+     *                              gestito da questa mappa.
+     */
+    @Override
+    public void putAll(HMap sourceHMap) {
+        if (sourceHMap == null)
+            throw new NullPointerException();
+
+        int capacity = capacityFor(size + sourceHMap.size());
+        if (capacity > mask + 1)
+            rehash(capacity);
+        super.putAll(sourceHMap);
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa. La capacità della tabella
+     * resta invariata.
+     */
+    @Override
+    public void clear() {
+        if (size == 0)
+            return;
+
+        for (int i = mask + 1; i-- != 0;)
+            clearSlot(i);
+        size = 0;
+    }
+
+    /**
+     * Restituisce il codice hash per questa mappa, calcolato scorrendo
+     * direttamente le celle della tabella senza allocare entry.
+     *
+     * @return il codice hash per questa mappa.
+     */
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = mask + 1; i-- != 0;) {
+            if (!isFree(i))
+                h += entryHashAt(i);
+        }
+        return h;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new SlotIterator(SlotIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore sulle chiavi che non alloca entry.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new SlotIterator(SlotIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori che non alloca entry.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new SlotIterator(SlotIterator.VALUES);
+    }
+
+    // ---------------------- ACCESSO ALLE CELLE ----------------------
+
+    /**
+     * Verifica se la cella specificata è vuota.
+     *
+     * @param slot l'indice della cella.
+     * @return {@code true} se la cella non contiene una mappatura.
+     */
+    abstract boolean isFree(int slot);
+
+    /**
+     * Restituisce l'hash mescolato della chiave contenuta nella cella.
+     *
+     * @param slot l'indice di una cella occupata.
+     * @return l'hash della chiave, già passato per {@link #mix(int)}.
+     */
+    abstract int hashAt(int slot);
+
+    /**
+     * Restituisce il codice hash dell'entry contenuta nella cella, secondo la
+     * definizione di {@link HEntry#hashCode()} applicata alle forme oggetto di
+     * chiave e valore.
+     *
+     * @param slot l'indice di una cella occupata.
+     * @return il codice hash dell'entry.
+     */
+    abstract int entryHashAt(int slot);
+
+    /**
+     * Restituisce la chiave contenuta nella cella, convertita in oggetto.
+     *
+     * @param slot l'indice di una cella occupata.
+     * @return la chiave.
+     */
+    abstract Object keyAt(int slot);
+
+    /**
+     * Restituisce il valore contenuto nella cella, convertito in oggetto.
+     *
+     * @param slot l'indice di una cella occupata.
+     * @return il valore.
+     */
+    abstract Object valueAt(int slot);
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata in forma
+     * oggetto.
+     *
+     * @param key la chiave, presente nella mappa.
+     * @return l'indice della cella.
+     */
+    abstract int slotOf(Object key);
+
+    /**
+     * Copia la mappatura della cella {@code from} nella cella {@code to}.
+     *
+     * @param from la cella di origine.
+     * @param to   la cella di destinazione.
+     */
+    abstract void moveSlot(int from, int to);
+
+    /**
+     * Svuota la cella specificata, rilasciando gli eventuali riferimenti.
+     *
+     * @param slot l'indice della cella.
+     */
+    abstract void clearSlot(int slot);
+
+    /**
+     * Alloca array vuoti della capacità specificata. Le implementazioni devono
+     * invocare {@link #setCapacity(int)}.
+     *
+     * @param capacity la nuova capacità (potenza di due).
+     */
+    abstract void allocate(int capacity);
+
+    /**
+     * Ricostruisce la tabella con la nuova capacità, reinserendo ogni
+     * mappatura.
+     *
+     * @param newCapacity la nuova capacità (potenza di due).
+     */
+    abstract void rehash(int newCapacity);
+
+    // ---------------------- METODI DI SUPPORTO ----------------------
+
+    /**
+     * Mescola i bit di un codice hash, con la stessa funzione di
+     * {@link OpenHashMap}.
+     *
+     * @param h il codice hash originale.
+     * @return il codice hash mescolato.
+     */
+    static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Mescola i bit di una chiave {@code long}, ripiegando prima la metà alta
+     * su quella bassa.
+     *
+     * @param k la chiave.
+     * @return il codice hash mescolato.
+     */
+    static int mix(long k) {
+        return mix((int) (k ^ (k >>> 32)));
+    }
+
+    /**
+     * Calcola la capacità (potenza di due) necessaria a contenere il numero di
+     * mappature specificato senza superare il fattore di carico.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @return la capacità della tabella.
+     */
+    final int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / loadFactor) + 1;
+        int capacity = 2;
+        while (capacity < needed && capacity < MAXIMUM_CAPACITY)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Aggiorna maschera e soglia di riempimento per la capacità specificata.
+     *
+     * @param capacity la nuova capacità (potenza di due).
+     */
+    final void setCapacity(int capacity) {
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Registra l'inserimento di una nuova mappatura, raddoppiando la tabella
+     * se viene superata la soglia di riempimento.
+     */
+    final void inserted() {
+        if (++size > maxFill)
+            rehash((mask + 1) * 2);
+    }
+
+    /**
+     * Rimuove la mappatura contenuta nella cella specificata.
+     *
+     * @param slot l'indice di una cella occupata.
+     */
+    final void removeAt(int slot) {
+        size--;
+        shiftKeys(slot, null);
+    }
+
+    /**
+     * Verifica se un'entry la cui posizione iniziale è {@code slot}, trovata
+     * in {@code pos}, può essere spostata nella cella libera {@code last}
+     * senza interrompere la propria sequenza di scansione.
+     *
+     * @param last la cella libera.
+     * @param slot la posizione iniziale dell'entry.
+     * @param pos  la posizione attuale dell'entry.
+     * @return {@code true} se l'entry può essere spostata in {@code last}.
+     */
+    private static boolean canShift(int last, int slot, int pos) {
+        return last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos);
+    }
+
+    /**
+     * Libera la cella specificata e sposta all'indietro le entry successive
+     * della stessa sequenza di scansione. Se è indicato un iteratore, le entry
+     * spostate da una cella non ancora visitata a una già visitata vengono
+     * annotate nella sua lista.
+     *
+     * @param pos     la cella da liberare.
+     * @param tracker l'iteratore da informare degli spostamenti, o
+     *                {@code null}.
+     */
+    private void shiftKeys(int pos, SlotIterator tracker) {
+        int m = mask;
+        int last;
+        for (;;) {
+            pos = ((last = pos) + 1) & m;
+            for (;;) {
+                if (isFree(pos)) {
+                    clearSlot(last);
+                    return;
+                }
+                if (canShift(last, hashAt(pos) & m, pos))
+                    break;
+                pos = (pos + 1) & m;
+            }
+            if (tracker != null && pos < last)
+                tracker.wrapped(keyAt(pos));
+            moveSlot(pos, last);
+        }
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set, con chiave e valore in
+     * forma oggetto. Il valore è quello letto durante la visita; la scrittura
+     * tramite {@link #setValue(Object)} aggiorna direttamente la mappa.
+     */
+    private class Entry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo direttamente nella
+         * mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         * @throws ClassCastException   se il valore non è del tipo gestito
+         *                              dalla mappa.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            put(key, value);
+            Object old = this.value;
+            this.value = value;
+            return old;
+        }
+    }
+
+    /**
+     * Iteratore sulle celle della tabella, usato da tutte e tre le viste.
+     * Segue lo schema di quello di {@link OpenHashMap}: la tabella viene
+     * percorsa dall'ultima cella alla prima e le entry che la rimozione sposta
+     * in celle già visitate vengono restituite al termine della scansione.
+     */
+    private class SlotIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private int pos; // Prossima cella da esaminare (a scendere)
+        private int last = -1; // Cella dell'ultimo elemento restituito, -1 se nessuno
+        private int remaining; // Elementi ancora da restituire
+        private Vector wrapped; // Chiavi spostate in celle già visitate
+        private Object lastKey; // Chiave dell'ultimo elemento della lista
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        public SlotIterator(int mode) {
+            this.mode = mode;
+            this.pos = mask + 1;
+            this.remaining = size;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            remaining--;
+            int slot = nextSlot();
+            if (mode == KEYS)
+                return keyAt(slot);
+            if (mode == VALUES)
+                return valueAt(slot);
+            return new Entry(keyAt(slot), valueAt(slot));
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultimo elemento restituito da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+
+            if (pos >= 0) {
+                size--;
+                shiftKeys(last, this);
+            } else {
+                // Elemento della lista delle chiavi spostate: la sua cella non
+                // è più significativa, si rimuove per chiave.
+                AbstractPrimitiveHMap.this.remove(lastKey);
+            }
+            last = -1;
+        }
+
+        /**
+         * Annota una chiave spostata da una cella non ancora visitata a una
+         * già visitata.
+         *
+         * @param key la chiave spostata.
+         */
+        void wrapped(Object key) {
+            if (wrapped == null)
+                wrapped = new Vector(2);
+            wrapped.addElement(key);
+        }
+
+        /**
+         * Avanza fino alla prossima cella occupata, oppure al prossimo elemento
+         * della lista delle chiavi spostate una volta terminata la tabella.
+         *
+         * @return la cella dell'elemento da restituire.
+         */
+        private int nextSlot() {
+            for (;;) {
+                if (--pos < 0) {
+                    lastKey = wrapped.elementAt(-pos - 1);
+                    last = Integer.MIN_VALUE; // Qualsiasi valore diverso da -1
+                    return slotOf(lastKey);
+                }
+                if (!isFree(pos))
+                    return last = pos;
+            }
+        }
+    }
+}
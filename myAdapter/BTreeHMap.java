@@ -0,0 +1,1182 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HSortedMap} basata su un B+ albero.
+ * <p>
+ * Le mappature sono memorizzate nelle foglie dell'albero, ognuna con fino a
+ * {@value #MAX_KEYS} chiavi ordinate in un array e collegata alla foglia
+ * successiva; i nodi interni contengono solo chiavi separatrici. Rispetto a
+ * un albero binario bilanciato l'albero è molto più basso (per un milione di
+ * chiavi bastano 4-5 livelli) e una ricerca percorre pochi array contigui
+ * invece di un nodo allocato per ogni chiave.
+ * <p>
+ * Ricerca, inserimento e rimozione costano O(log n). Le viste restituite da
+ * {@link #subMap(Object, Object)}, {@link #headMap(Object)} e
+ * {@link #tailMap(Object)} individuano il primo elemento dell'intervallo con
+ * una discesa dell'albero e proseguono lungo la catena delle foglie: una
+ * scansione di k chiavi costa O(log n + k).
+ * <p>
+ * Gli iteratori delle viste restituiscono le mappature in ordine crescente di
+ * chiave. Se la mappa viene modificata durante l'iterazione (anche tramite
+ * l'iteratore stesso), l'iteratore riprende dalla prima chiave maggiore
+ * dell'ultima restituita. Chiavi e valori {@code null} non sono ammessi. La
+ * classe non è sincronizzata.
+ *
+ * @see HSortedMap
+ * @see HComparator
+ */
+public class BTreeHMap extends AbstractHMap implements HSortedMap {
+    /**
+     * Ordinamento lessicografico delle chiavi {@code String}.
+     */
+    public static final HComparator STRING_ORDER = new HComparator() {
+        public int compare(Object a, Object b) {
+            return ((String) a).compareTo((String) b);
+        }
+    };
+
+    /**
+     * Ordinamento numerico delle chiavi {@code Integer}.
+     */
+    public static final HComparator INTEGER_ORDER = new HComparator() {
+        public int compare(Object a, Object b) {
+            int x = ((Integer) a).intValue();
+            int y = ((Integer) b).intValue();
+            return x < y ? -1 : (x == y ? 0 : 1);
+        }
+    };
+
+    /**
+     * Ordinamento numerico delle chiavi {@code Long}.
+     */
+    public static final HComparator LONG_ORDER = new HComparator() {
+        public int compare(Object a, Object b) {
+            long x = ((Long) a).longValue();
+            long y = ((Long) b).longValue();
+            return x < y ? -1 : (x == y ? 0 : 1);
+        }
+    };
+
+    /**
+     * Numero massimo di chiavi in un nodo (foglia o nodo interno).
+     */
+    private static final int MAX_KEYS = 32;
+
+    /**
+     * Numero minimo di chiavi in un nodo diverso dalla radice.
+     */
+    private static final int MIN_KEYS = MAX_KEYS / 2;
+
+    /**
+     * La funzione di confronto delle chiavi.
+     */
+    private final HComparator comparator;
+
+    /**
+     * La radice dell'albero; una foglia vuota se la mappa è vuota.
+     */
+    private Node root;
+
+    /**
+     * Numero di mappature presenti.
+     */
+    private int size;
+
+    /**
+     * Numero di modifiche strutturali (inserimenti e rimozioni di chiavi),
+     * usato dagli iteratori per accorgersi che devono riposizionarsi.
+     */
+    private int modCount;
+
+    /**
+     * Nodo separato dall'ultima divisione, da inserire nel nodo padre.
+     */
+    private Node splitNode;
+
+    /**
+     * Chiave separatrice dell'ultima divisione.
+     */
+    private Object splitKey;
+
+    /**
+     * Costruisce una nuova mappa vuota ordinata secondo la funzione di
+     * confronto specificata.
+     *
+     * @param comparator la funzione di confronto delle chiavi.
+     * @throws NullPointerException se la funzione di confronto è {@code null}.
+     */
+    public BTreeHMap(HComparator comparator) {
+        if (comparator == null)
+            throw new NullPointerException();
+
+        this.comparator = comparator;
+        this.root = new Leaf();
+    }
+
+    /**
+     * Costruisce una nuova mappa ordinata secondo la funzione di confronto
+     * specificata e contenente le stesse mappature della mappa specificata.
+     *
+     * @param comparator la funzione di confronto delle chiavi.
+     * @param m          la mappa da cui copiare le mappature.
+     * @throws NullPointerException se un argomento è {@code null} o la mappa
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public BTreeHMap(HComparator comparator, HMap m) {
+        this(comparator);
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     * @throws ClassCastException   se la chiave non è confrontabile con quelle
+     *                              della mappa.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Node node = root;
+        while (node instanceof Inner)
+            node = ((Inner) node).children[upperBound(node, key)];
+        Leaf leaf = (Leaf) node;
+        int pos = lowerBound(leaf, key);
+        if (pos < leaf.n && comparator.compare(leaf.keys[pos], key) == 0)
+            return leaf.vals[pos];
+        return null;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. Le foglie vengono scandite direttamente.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.n; i++) {
+                if (value.equals(leaf.vals[i]))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     * @throws ClassCastException   se la chiave non è confrontabile con quelle
+     *                              della mappa.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        Object old = insert(root, key, value);
+        if (splitNode != null) {
+            Inner newRoot = new Inner();
+            newRoot.keys[0] = splitKey;
+            newRoot.children[0] = root;
+            newRoot.children[1] = splitNode;
+            newRoot.n = 1;
+            root = newRoot;
+            splitNode = null;
+            splitKey = null;
+        }
+        return old;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     * @throws ClassCastException   se la chiave non è confrontabile con quelle
+     *                              della mappa.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Object old = delete(root, key);
+        if (root instanceof Inner && root.n == 0)
+            root = ((Inner) root).children[0];
+        return old;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa.
+     */
+    @Override
+    public void clear() {
+        root = new Leaf();
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Restituisce la funzione di confronto che ordina le chiavi di questa
+     * mappa.
+     *
+     * @return la funzione di confronto.
+     */
+    @Override
+    public HComparator comparator() {
+        return comparator;
+    }
+
+    /**
+     * Restituisce la chiave più piccola di questa mappa.
+     *
+     * @return la prima chiave.
+     * @throws NoSuchElementException se la mappa è vuota.
+     */
+    @Override
+    public Object firstKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+
+        return firstLeaf().keys[0];
+    }
+
+    /**
+     * Restituisce la chiave più grande di questa mappa.
+     *
+     * @return l'ultima chiave.
+     * @throws NoSuchElementException se la mappa è vuota.
+     */
+    @Override
+    public Object lastKey() {
+        if (size == 0)
+            throw new NoSuchElementException();
+
+        return lastKey(root);
+    }
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi da
+     * {@code fromKey} (incluso) a {@code toKey} (escluso).
+     *
+     * @param fromKey l'estremo inferiore, incluso.
+     * @param toKey   l'estremo superiore, escluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException     se un estremo è {@code null}.
+     * @throws IllegalArgumentException se {@code fromKey} è maggiore di
+     *                                  {@code toKey}.
+     */
+    @Override
+    public HSortedMap subMap(Object fromKey, Object toKey) {
+        if (fromKey == null || toKey == null)
+            throw new NullPointerException();
+        if (comparator.compare(fromKey, toKey) > 0)
+            throw new IllegalArgumentException("Estremo inferiore maggiore di quello superiore");
+
+        return new SubMap(fromKey, toKey);
+    }
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi
+     * strettamente minori di {@code toKey}.
+     *
+     * @param toKey l'estremo superiore, escluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException se l'estremo è {@code null}.
+     */
+    @Override
+    public HSortedMap headMap(Object toKey) {
+        if (toKey == null)
+            throw new NullPointerException();
+
+        return new SubMap(null, toKey);
+    }
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi maggiori
+     * o uguali a {@code fromKey}.
+     *
+     * @param fromKey l'estremo inferiore, incluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException se l'estremo è {@code null}.
+     */
+    @Override
+    public HSortedMap tailMap(Object fromKey) {
+        if (fromKey == null)
+            throw new NullPointerException();
+
+        return new SubMap(fromKey, null);
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore ordinato sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new RangeIterator(null, null, RangeIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore ordinato sulle chiavi che non alloca entry.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new RangeIterator(null, null, RangeIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori, in ordine di chiave, che non alloca
+     * entry.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new RangeIterator(null, null, RangeIterator.VALUES);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Restituisce la posizione della prima chiave del nodo maggiore o uguale
+     * alla chiave specificata.
+     *
+     * @param node il nodo.
+     * @param key  la chiave.
+     * @return una posizione tra 0 e {@code node.n}.
+     */
+    private int lowerBound(Node node, Object key) {
+        int lo = 0;
+        int hi = node.n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(node.keys[mid], key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Restituisce la posizione della prima chiave del nodo strettamente
+     * maggiore della chiave specificata. In un nodo interno è l'indice del
+     * figlio in cui la chiave va cercata.
+     *
+     * @param node il nodo.
+     * @param key  la chiave.
+     * @return una posizione tra 0 e {@code node.n}.
+     */
+    private int upperBound(Node node, Object key) {
+        int lo = 0;
+        int hi = node.n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (comparator.compare(node.keys[mid], key) <= 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Restituisce la foglia più a sinistra dell'albero.
+     *
+     * @return la prima foglia.
+     */
+    private Leaf firstLeaf() {
+        Node node = root;
+        while (node instanceof Inner)
+            node = ((Inner) node).children[0];
+        return (Leaf) node;
+    }
+
+    /**
+     * Restituisce la chiave più grande del sottoalbero specificato.
+     *
+     * @param node la radice del sottoalbero, non vuoto.
+     * @return l'ultima chiave.
+     */
+    private static Object lastKey(Node node) {
+        while (node instanceof Inner)
+            node = ((Inner) node).children[node.n];
+        return node.keys[node.n - 1];
+    }
+
+    /**
+     * Restituisce la chiave più grande strettamente minore di quella
+     * specificata.
+     *
+     * @param node la radice del sottoalbero in cui cercare.
+     * @param key  la chiave.
+     * @return la chiave trovata, o {@code null} se non esiste.
+     */
+    private Object lowerKey(Node node, Object key) {
+        if (node instanceof Leaf) {
+            int pos = lowerBound(node, key);
+            return pos > 0 ? node.keys[pos - 1] : null;
+        }
+
+        Inner inner = (Inner) node;
+        int i = upperBound(inner, key);
+        Object found = lowerKey(inner.children[i], key);
+        if (found == null && i > 0)
+            found = lastKey(inner.children[i - 1]);
+        return found;
+    }
+
+    /**
+     * Restituisce la foglia e la posizione della prima chiave maggiore (o
+     * maggiore o uguale) della chiave specificata.
+     *
+     * @param key       la chiave, o {@code null} per la prima chiave della
+     *                  mappa.
+     * @param inclusive {@code true} per includere la chiave stessa.
+     * @param cursor    riceve la posizione trovata.
+     */
+    private void seek(Object key, boolean inclusive, RangeIterator cursor) {
+        if (key == null) {
+            cursor.leaf = firstLeaf();
+            cursor.index = 0;
+        } else {
+            Node node = root;
+            while (node instanceof Inner)
+                node = ((Inner) node).children[upperBound(node, key)];
+            cursor.leaf = (Leaf) node;
+            cursor.index = inclusive ? lowerBound(node, key) : upperBound(node, key);
+        }
+        if (cursor.index == cursor.leaf.n) {
+            cursor.leaf = cursor.leaf.next;
+            cursor.index = 0;
+        }
+    }
+
+    /**
+     * Inserisce una mappatura nel sottoalbero specificato. Se il nodo deve
+     * essere diviso, la nuova metà destra e la sua chiave separatrice vengono
+     * lasciate in {@link #splitNode} e {@link #splitKey}.
+     *
+     * @param node  la radice del sottoalbero.
+     * @param key   la chiave.
+     * @param value il valore.
+     * @return il valore precedente, o {@code null}.
+     */
+    private Object insert(Node node, Object key, Object value) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf, key);
+            if (pos < leaf.n && comparator.compare(leaf.keys[pos], key) == 0) {
+                Object old = leaf.vals[pos];
+                leaf.vals[pos] = value;
+                return old;
+            }
+
+            System.arraycopy(leaf.keys, pos, leaf.keys, pos + 1, leaf.n - pos);
+            System.arraycopy(leaf.vals, pos, leaf.vals, pos + 1, leaf.n - pos);
+            leaf.keys[pos] = key;
+            leaf.vals[pos] = value;
+            leaf.n++;
+            size++;
+            modCount++;
+            if (leaf.n > MAX_KEYS)
+                splitLeaf(leaf);
+            return null;
+        }
+
+        Inner inner = (Inner) node;
+        int i = upperBound(inner, key);
+        Object old = insert(inner.children[i], key, value);
+        if (splitNode != null) {
+            System.arraycopy(inner.keys, i, inner.keys, i + 1, inner.n - i);
+            System.arraycopy(inner.children, i + 1, inner.children, i + 2, inner.n - i);
+            inner.keys[i] = splitKey;
+            inner.children[i + 1] = splitNode;
+            inner.n++;
+            splitNode = null;
+            splitKey = null;
+            if (inner.n > MAX_KEYS)
+                splitInner(inner);
+        }
+        return old;
+    }
+
+    /**
+     * Divide a metà una foglia piena.
+     *
+     * @param leaf la foglia, con {@code MAX_KEYS + 1} chiavi.
+     */
+    private void splitLeaf(Leaf leaf) {
+        Leaf right = new Leaf();
+        int half = leaf.n / 2;
+        right.n = leaf.n - half;
+        System.arraycopy(leaf.keys, half, right.keys, 0, right.n);
+        System.arraycopy(leaf.vals, half, right.vals, 0, right.n);
+        clear(leaf.keys, half, leaf.n);
+        clear(leaf.vals, half, leaf.n);
+        leaf.n = half;
+        right.next = leaf.next;
+        leaf.next = right;
+        splitNode = right;
+        splitKey = right.keys[0];
+    }
+
+    /**
+     * Divide a metà un nodo interno pieno; la chiave centrale sale nel nodo
+     * padre.
+     *
+     * @param inner il nodo, con {@code MAX_KEYS + 1} chiavi.
+     */
+    private void splitInner(Inner inner) {
+        Inner right = new Inner();
+        int mid = inner.n / 2;
+        right.n = inner.n - mid - 1;
+        System.arraycopy(inner.keys, mid + 1, right.keys, 0, right.n);
+        System.arraycopy(inner.children, mid + 1, right.children, 0, right.n + 1);
+        splitKey = inner.keys[mid];
+        clear(inner.keys, mid, inner.n);
+        clear(inner.children, mid + 1, inner.n + 1);
+        inner.n = mid;
+        splitNode = right;
+    }
+
+    /**
+     * Rimuove una chiave dal sottoalbero specificato, ribilanciando i figli
+     * rimasti con meno di {@link #MIN_KEYS} chiavi.
+     *
+     * @param node la radice del sottoalbero.
+     * @param key  la chiave.
+     * @return il valore rimosso, o {@code null} se la chiave non era presente.
+     */
+    private Object delete(Node node, Object key) {
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            int pos = lowerBound(leaf, key);
+            if (pos == leaf.n || comparator.compare(leaf.keys[pos], key) != 0)
+                return null;
+
+            Object old = leaf.vals[pos];
+            System.arraycopy(leaf.keys, pos + 1, leaf.keys, pos, leaf.n - pos - 1);
+            System.arraycopy(leaf.vals, pos + 1, leaf.vals, pos, leaf.n - pos - 1);
+            leaf.n--;
+            leaf.keys[leaf.n] = null;
+            leaf.vals[leaf.n] = null;
+            size--;
+            modCount++;
+            return old;
+        }
+
+        Inner inner = (Inner) node;
+        int i = upperBound(inner, key);
+        Object old = delete(inner.children[i], key);
+        if (old != null && inner.children[i].n < MIN_KEYS)
+            rebalance(inner, i);
+        return old;
+    }
+
+    /**
+     * Riporta sopra il minimo il figlio {@code i} del nodo specificato,
+     * prendendo in prestito una chiave da un fratello o unendolo a esso.
+     *
+     * @param parent il nodo padre.
+     * @param i      l'indice del figlio con troppe poche chiavi.
+     */
+    private void rebalance(Inner parent, int i) {
+        Node child = parent.children[i];
+        Node left = i > 0 ? parent.children[i - 1] : null;
+        Node right = i < parent.n ? parent.children[i + 1] : null;
+
+        if (left != null && left.n > MIN_KEYS) {
+            if (child instanceof Leaf) {
+                Leaf c = (Leaf) child;
+                Leaf l = (Leaf) left;
+                System.arraycopy(c.keys, 0, c.keys, 1, c.n);
+                System.arraycopy(c.vals, 0, c.vals, 1, c.n);
+                c.keys[0] = l.keys[l.n - 1];
+                c.vals[0] = l.vals[l.n - 1];
+                c.n++;
+                l.n--;
+                l.keys[l.n] = null;
+                l.vals[l.n] = null;
+                parent.keys[i - 1] = c.keys[0];
+            } else {
+                Inner c = (Inner) child;
+                Inner l = (Inner) left;
+                System.arraycopy(c.keys, 0, c.keys, 1, c.n);
+                System.arraycopy(c.children, 0, c.children, 1, c.n + 1);
+                c.keys[0] = parent.keys[i - 1];
+                c.children[0] = l.children[l.n];
+                c.n++;
+                parent.keys[i - 1] = l.keys[l.n - 1];
+                l.keys[l.n - 1] = null;
+                l.children[l.n] = null;
+                l.n--;
+            }
+        } else if (right != null && right.n > MIN_KEYS) {
+            if (child instanceof Leaf) {
+                Leaf c = (Leaf) child;
+                Leaf r = (Leaf) right;
+                c.keys[c.n] = r.keys[0];
+                c.vals[c.n] = r.vals[0];
+                c.n++;
+                r.n--;
+                System.arraycopy(r.keys, 1, r.keys, 0, r.n);
+                System.arraycopy(r.vals, 1, r.vals, 0, r.n);
+                r.keys[r.n] = null;
+                r.vals[r.n] = null;
+                parent.keys[i] = r.keys[0];
+            } else {
+                Inner c = (Inner) child;
+                Inner r = (Inner) right;
+                c.keys[c.n] = parent.keys[i];
+                c.children[c.n + 1] = r.children[0];
+                c.n++;
+                parent.keys[i] = r.keys[0];
+                System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+                System.arraycopy(r.children, 1, r.children, 0, r.n);
+                r.n--;
+                r.keys[r.n] = null;
+                r.children[r.n + 1] = null;
+            }
+        } else if (left != null) {
+            merge(parent, i - 1);
+        } else {
+            merge(parent, i);
+        }
+    }
+
+    /**
+     * Unisce il figlio {@code i + 1} del nodo specificato al figlio {@code i}
+     * e rimuove dal padre la chiave che li separava.
+     *
+     * @param parent il nodo padre.
+     * @param i      l'indice del figlio sinistro.
+     */
+    private void merge(Inner parent, int i) {
+        Node left = parent.children[i];
+        Node right = parent.children[i + 1];
+        if (left instanceof Leaf) {
+            Leaf l = (Leaf) left;
+            Leaf r = (Leaf) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.vals, 0, l.vals, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+        } else {
+            Inner l = (Inner) left;
+            Inner r = (Inner) right;
+            l.keys[l.n] = parent.keys[i];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+
+        System.arraycopy(parent.keys, i + 1, parent.keys, i, parent.n - i - 1);
+        System.arraycopy(parent.children, i + 2, parent.children, i + 1, parent.n - i - 1);
+        parent.n--;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n + 1] = null;
+    }
+
+    /**
+     * Azzera una porzione di un array, per non trattenere riferimenti.
+     *
+     * @param a    l'array.
+     * @param from il primo indice, incluso.
+     * @param to   l'ultimo indice, escluso.
+     */
+    private static void clear(Object[] a, int from, int to) {
+        for (int i = from; i < to; i++)
+            a[i] = null;
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Nodo dell'albero: un array ordinato di chiavi. Gli array hanno spazio
+     * per una chiave in più del massimo, così che un nodo possa essere diviso
+     * dopo l'inserimento.
+     */
+    private abstract static class Node {
+        final Object[] keys = new Object[MAX_KEYS + 1];
+        int n; // Numero di chiavi presenti
+    }
+
+    /**
+     * Foglia: chiavi, valori paralleli e collegamento alla foglia successiva.
+     */
+    private static final class Leaf extends Node {
+        final Object[] vals = new Object[MAX_KEYS + 1];
+        Leaf next;
+    }
+
+    /**
+     * Nodo interno: {@code n} chiavi separatrici e {@code n + 1} figli. Le
+     * chiavi del figlio {@code i} sono minori di {@code keys[i]}, quelle del
+     * figlio {@code i + 1} maggiori o uguali.
+     */
+    private static final class Inner extends Node {
+        final Node[] children = new Node[MAX_KEYS + 2];
+    }
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set. Contiene il valore letto
+     * durante l'iterazione; {@code setValue} aggiorna sia l'entry sia la
+     * mappa.
+     */
+    private final class Entry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo nella mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore dell'entry.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            put(key, value);
+            Object old = this.value;
+            this.value = value;
+            return old;
+        }
+    }
+
+    /**
+     * Iteratore ordinato sulle chiavi di un intervallo, usato da tutte e tre
+     * le viste della mappa e delle sue sotto-mappe. Percorre la catena delle
+     * foglie; dopo una modifica strutturale della mappa si riposiziona con
+     * una discesa dell'albero sulla prima chiave maggiore dell'ultima
+     * restituita.
+     */
+    private final class RangeIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private final Object lo; // Estremo inferiore incluso, null se assente
+        private final Object hi; // Estremo superiore escluso, null se assente
+        private Leaf leaf; // Foglia del prossimo elemento, null se terminata
+        private int index; // Posizione del prossimo elemento nella foglia
+        private Object lastKey; // Ultima chiave restituita
+        private boolean canRemove;
+        private int expectedModCount;
+
+        /**
+         * Costruisce un iteratore sull'intervallo specificato.
+         *
+         * @param lo   l'estremo inferiore incluso, o {@code null}.
+         * @param hi   l'estremo superiore escluso, o {@code null}.
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        public RangeIterator(Object lo, Object hi, int mode) {
+            this.mode = mode;
+            this.lo = lo;
+            this.hi = hi;
+            this.expectedModCount = modCount;
+            seek(lo, true, this);
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            if (expectedModCount != modCount) {
+                if (lastKey != null)
+                    seek(lastKey, false, this);
+                else
+                    seek(lo, true, this);
+                expectedModCount = modCount;
+            }
+            return leaf != null && (hi == null || comparator.compare(leaf.keys[index], hi) < 0);
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Leaf l = leaf;
+            int i = index;
+            if (++index == l.n) {
+                leaf = l.next;
+                index = 0;
+            }
+            lastKey = l.keys[i];
+            canRemove = true;
+            if (mode == KEYS)
+                return lastKey;
+            if (mode == VALUES)
+                return l.vals[i];
+            return new Entry(lastKey, l.vals[i]);
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultimo elemento restituito da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (!canRemove)
+                throw new IllegalStateException();
+
+            BTreeHMap.this.remove(lastKey);
+            canRemove = false;
+        }
+    }
+
+    /**
+     * Vista su un intervallo di chiavi della mappa, restituita da
+     * {@code subMap}, {@code headMap} e {@code tailMap}.
+     */
+    private final class SubMap extends AbstractHMap implements HSortedMap {
+        private final Object lo; // Estremo inferiore incluso, null se assente
+        private final Object hi; // Estremo superiore escluso, null se assente
+
+        /**
+         * Costruisce la vista sull'intervallo specificato.
+         *
+         * @param lo l'estremo inferiore incluso, o {@code null}.
+         * @param hi l'estremo superiore escluso, o {@code null}.
+         */
+        public SubMap(Object lo, Object hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        /**
+         * Restituisce il numero di mappature nell'intervallo, contandole.
+         *
+         * @return il numero di entry nella vista.
+         */
+        @Override
+        public int size() {
+            int count = 0;
+            HIterator it = keyIterator();
+            while (it.hasNext()) {
+                it.next();
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Restituisce {@code true} se l'intervallo non contiene mappature.
+         *
+         * @return {@code true} se la vista è vuota.
+         */
+        @Override
+        public boolean isEmpty() {
+            return !keyIterator().hasNext();
+        }
+
+        /**
+         * Restituisce il valore a cui è mappata la chiave, se appartiene
+         * all'intervallo.
+         *
+         * @param key la chiave.
+         * @return il valore associato, o {@code null}.
+         * @throws NullPointerException se la chiave è {@code null}.
+         */
+        @Override
+        public Object get(Object key) {
+            if (key == null)
+                throw new NullPointerException();
+
+            return inRange(key) ? BTreeHMap.this.get(key) : null;
+        }
+
+        /**
+         * Associa il valore alla chiave nella mappa.
+         *
+         * @param key   la chiave, interna all'intervallo.
+         * @param value il valore.
+         * @return il valore precedente, o {@code null}.
+         * @throws NullPointerException     se la chiave o il valore sono
+         *                                  {@code null}.
+         * @throws IllegalArgumentException se la chiave è esterna
+         *                                  all'intervallo.
+         */
+        @Override
+        public Object put(Object key, Object value) {
+            if (key == null || value == null)
+                throw new NullPointerException();
+            if (!inRange(key))
+                throw new IllegalArgumentException("Chiave fuori dall'intervallo: " + key);
+
+            return BTreeHMap.this.put(key, value);
+        }
+
+        /**
+         * Rimuove la mappatura della chiave dalla mappa, se appartiene
+         * all'intervallo.
+         *
+         * @param key la chiave.
+         * @return il valore rimosso, o {@code null}.
+         * @throws NullPointerException se la chiave è {@code null}.
+         */
+        @Override
+        public Object remove(Object key) {
+            if (key == null)
+                throw new NullPointerException();
+
+            return inRange(key) ? BTreeHMap.this.remove(key) : null;
+        }
+
+        /**
+         * Rimuove dalla mappa tutte le mappature dell'intervallo.
+         */
+        @Override
+        public void clear() {
+            HIterator it = keyIterator();
+            while (it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        /**
+         * Restituisce la funzione di confronto della mappa.
+         *
+         * @return la funzione di confronto.
+         */
+        @Override
+        public HComparator comparator() {
+            return comparator;
+        }
+
+        /**
+         * Restituisce la chiave più piccola dell'intervallo.
+         *
+         * @return la prima chiave.
+         * @throws NoSuchElementException se la vista è vuota.
+         */
+        @Override
+        public Object firstKey() {
+            return keyIterator().next();
+        }
+
+        /**
+         * Restituisce la chiave più grande dell'intervallo.
+         *
+         * @return l'ultima chiave.
+         * @throws NoSuchElementException se la vista è vuota.
+         */
+        @Override
+        public Object lastKey() {
+            Object key;
+            if (hi == null)
+                key = size == 0 ? null : BTreeHMap.lastKey(root);
+            else
+                key = lowerKey(root, hi);
+            if (key == null || (lo != null && comparator.compare(key, lo) < 0))
+                throw new NoSuchElementException();
+            return key;
+        }
+
+        /**
+         * Restituisce una vista su una parte di questo intervallo.
+         *
+         * @param fromKey l'estremo inferiore, incluso.
+         * @param toKey   l'estremo superiore, escluso.
+         * @return la vista.
+         * @throws NullPointerException     se un estremo è {@code null}.
+         * @throws IllegalArgumentException se {@code fromKey} è maggiore di
+         *                                  {@code toKey} o un estremo è esterno
+         *                                  a questo intervallo.
+         */
+        @Override
+        public HSortedMap subMap(Object fromKey, Object toKey) {
+            if (fromKey == null || toKey == null)
+                throw new NullPointerException();
+            if (comparator.compare(fromKey, toKey) > 0)
+                throw new IllegalArgumentException("Estremo inferiore maggiore di quello superiore");
+            checkBound(fromKey);
+            checkBound(toKey);
+
+            return new SubMap(fromKey, toKey);
+        }
+
+        /**
+         * Restituisce una vista sulla parte di questo intervallo minore della
+         * chiave specificata.
+         *
+         * @param toKey l'estremo superiore, escluso.
+         * @return la vista.
+         * @throws NullPointerException     se l'estremo è {@code null}.
+         * @throws IllegalArgumentException se l'estremo è esterno a questo
+         *                                  intervallo.
+         */
+        @Override
+        public HSortedMap headMap(Object toKey) {
+            if (toKey == null)
+                throw new NullPointerException();
+            checkBound(toKey);
+
+            return new SubMap(lo, toKey);
+        }
+
+        /**
+         * Restituisce una vista sulla parte di questo intervallo maggiore o
+         * uguale alla chiave specificata.
+         *
+         * @param fromKey l'estremo inferiore, incluso.
+         * @return la vista.
+         * @throws NullPointerException     se l'estremo è {@code null}.
+         * @throws IllegalArgumentException se l'estremo è esterno a questo
+         *                                  intervallo.
+         */
+        @Override
+        public HSortedMap tailMap(Object fromKey) {
+            if (fromKey == null)
+                throw new NullPointerException();
+            checkBound(fromKey);
+
+            return new SubMap(fromKey, hi);
+        }
+
+        /**
+         * Restituisce un iteratore ordinato sulle entry dell'intervallo.
+         *
+         * @return un {@link HIterator} sulle entry.
+         */
+        @Override
+        protected HIterator entryIterator() {
+            return new RangeIterator(lo, hi, RangeIterator.ENTRIES);
+        }
+
+        /**
+         * Restituisce un iteratore ordinato sulle chiavi dell'intervallo.
+         *
+         * @return un {@link HIterator} sulle chiavi.
+         */
+        @Override
+        protected HIterator keyIterator() {
+            return new RangeIterator(lo, hi, RangeIterator.KEYS);
+        }
+
+        /**
+         * Restituisce un iteratore sui valori dell'intervallo, in ordine di
+         * chiave.
+         *
+         * @return un {@link HIterator} sui valori.
+         */
+        @Override
+        protected HIterator valueIterator() {
+            return new RangeIterator(lo, hi, RangeIterator.VALUES);
+        }
+
+        /**
+         * Verifica se una chiave appartiene all'intervallo.
+         *
+         * @param key la chiave.
+         * @return {@code true} se la chiave è compresa tra gli estremi.
+         */
+        private boolean inRange(Object key) {
+            return (lo == null || comparator.compare(key, lo) >= 0)
+                    && (hi == null || comparator.compare(key, hi) < 0);
+        }
+
+        /**
+         * Verifica che l'estremo di una sotto-vista sia compreso tra gli
+         * estremi di questa vista (l'estremo superiore è ammesso).
+         *
+         * @param key l'estremo.
+         * @throws IllegalArgumentException se l'estremo è esterno.
+         */
+        private void checkBound(Object key) {
+            if ((lo != null && comparator.compare(key, lo) < 0) || (hi != null && comparator.compare(key, hi) > 0))
+                throw new IllegalArgumentException("Estremo fuori dall'intervallo: " + key);
+        }
+    }
+}
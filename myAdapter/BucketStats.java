@@ -0,0 +1,187 @@
+package myAdapter;
+
+/**
+ * Fotografia della distribuzione delle chiavi di una {@link MapAdapter} tra i
+ * bucket della sua {@code Hashtable} interna, restituita da
+ * {@link MapAdapter#bucketStats()}.
+ * <p>
+ * La {@code Hashtable} non espone i propri bucket: la distribuzione viene
+ * ricostruita applicando a ogni chiave lo stesso calcolo dell'indice,
+ * {@code (hashCode & 0x7FFFFFFF) % capacità}, con la capacità ricavata dalla
+ * politica di crescita della tabella. In ogni bucket le chiavi formano una
+ * lista: cercare una chiave presente costa in media {@link #hitCost()}
+ * confronti, cercarne una assente {@link #missCost()}.
+ * <p>
+ * Per distinguere un codice hash mal distribuito da uno che genera molti
+ * duplicati, la fotografia riporta anche il numero di codici hash distinti:
+ * chiavi con lo stesso codice finiscono sempre nello stesso bucket, qualunque
+ * sia la capacità.
+ *
+ * @see MapAdapter#bucketStats()
+ */
+public final class BucketStats {
+    private final int capacity;
+    private final int size;
+    private final int distinctHashCodes;
+    private final int occupiedBuckets;
+    private final int[] histogram; // histogram[c]: bucket con c chiavi
+    private final long hitComparisons; // somma delle posizioni delle chiavi nelle liste
+
+    /**
+     * Costruisce la fotografia a partire dalle lunghezze delle liste.
+     *
+     * @param capacity          il numero di bucket.
+     * @param chains            la lunghezza della lista di ogni bucket.
+     * @param distinctHashCodes il numero di codici hash distinti tra le chiavi.
+     */
+    BucketStats(int capacity, int[] chains, int distinctHashCodes) {
+        this.capacity = capacity;
+        this.distinctHashCodes = distinctHashCodes;
+
+        int longest = 0;
+        for (int b = 0; b < chains.length; b++)
+            longest = Math.max(longest, chains[b]);
+        histogram = new int[longest + 1];
+        int n = 0;
+        long comparisons = 0;
+        for (int b = 0; b < chains.length; b++) {
+            int c = chains[b];
+            histogram[c]++;
+            n += c;
+            comparisons += (long) c * (c + 1) / 2;
+        }
+        size = n;
+        occupiedBuckets = capacity - histogram[0];
+        hitComparisons = comparisons;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di bucket della tabella.
+     *
+     * @return la capacità della tabella.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Restituisce il numero di chiavi contate.
+     *
+     * @return il numero di chiavi.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce il fattore di carico, cioè il numero medio di chiavi per
+     * bucket.
+     *
+     * @return il rapporto tra chiavi e bucket.
+     */
+    public double loadFactor() {
+        return (double) size / capacity;
+    }
+
+    /**
+     * Restituisce il numero di bucket che contengono almeno una chiave.
+     *
+     * @return il numero di bucket occupati.
+     */
+    public int occupiedBuckets() {
+        return occupiedBuckets;
+    }
+
+    /**
+     * Restituisce la lunghezza della lista più lunga.
+     *
+     * @return il massimo numero di chiavi in un bucket.
+     */
+    public int longestChain() {
+        return histogram.length - 1;
+    }
+
+    /**
+     * Restituisce il numero di bucket con esattamente il numero di chiavi
+     * specificato.
+     *
+     * @param length la lunghezza della lista.
+     * @return il numero di bucket con quella lunghezza, 0 se la lunghezza è
+     *         negativa o maggiore di {@link #longestChain()}.
+     */
+    public int bucketsWithChainLength(int length) {
+        return length >= 0 && length < histogram.length ? histogram[length] : 0;
+    }
+
+    /**
+     * Restituisce il numero di codici hash distinti tra le chiavi.
+     *
+     * @return il numero di codici hash distinti; se è molto minore di
+     *         {@link #size()}, il metodo {@code hashCode} delle chiavi genera
+     *         collisioni indipendentemente dalla capacità.
+     */
+    public int distinctHashCodes() {
+        return distinctHashCodes;
+    }
+
+    /**
+     * Restituisce il numero medio di chiavi confrontate per trovare una chiave
+     * presente, supponendo che tutte le chiavi siano cercate con la stessa
+     * frequenza.
+     *
+     * @return il costo medio di una ricerca con successo, 0 se la mappa è
+     *         vuota.
+     */
+    public double hitCost() {
+        return size == 0 ? 0 : (double) hitComparisons / size;
+    }
+
+    /**
+     * Restituisce il numero medio di chiavi confrontate per una chiave
+     * assente, cioè la lunghezza media di una lista.
+     *
+     * @return il costo medio di una ricerca senza successo.
+     */
+    public double missCost() {
+        return loadFactor();
+    }
+
+    /**
+     * Restituisce il costo medio atteso di una ricerca con successo se i
+     * codici hash fossero distribuiti uniformemente, da confrontare con
+     * {@link #hitCost()}.
+     *
+     * @return il costo atteso con una distribuzione uniforme, 0 se la mappa è
+     *         vuota.
+     */
+    public double uniformHitCost() {
+        return size == 0 ? 0 : 1 + (size - 1) / (2.0 * capacity);
+    }
+
+    /**
+     * Restituisce una rappresentazione testuale della fotografia.
+     *
+     * @return una stringa con capacità, chiavi, fattore di carico, lista più
+     *         lunga, costi medi e istogramma delle lunghezze.
+     */
+    @Override
+    public String toString() {
+        StringBuffer sb = new StringBuffer();
+        sb.append("{capacity=").append(capacity);
+        sb.append(", size=").append(size);
+        sb.append(", distinctHashCodes=").append(distinctHashCodes);
+        sb.append(", loadFactor=").append(loadFactor());
+        sb.append(", longestChain=").append(longestChain());
+        sb.append(", hitCost=").append(hitCost());
+        sb.append(", uniformHitCost=").append(uniformHitCost());
+        sb.append(", histogram=[");
+        for (int c = 0; c < histogram.length; c++) {
+            if (c > 0)
+                sb.append(", ");
+            sb.append(histogram[c]);
+        }
+        return sb.append("]}").toString();
+    }
+}
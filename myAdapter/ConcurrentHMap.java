@@ -0,0 +1,732 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HMap} pensata per l'accesso concorrente da parte
+ * di più thread.
+ * <p>
+ * Una {@link MapAdapter} condivisa va protetta da un unico monitor (quello
+ * della sua {@code Hashtable} o uno esterno): ogni {@code get} e ogni
+ * {@code put} vengono serializzati.
+ * Questa classe suddivide invece la tabella in segmenti (lock striping), ognuno
+ * con la propria tabella hash e il proprio lock:
+ * <ul>
+ * <li>le scritture ({@code put}, {@code remove}, {@code clear}) acquisiscono
+ * solo il lock del segmento interessato, quindi thread che scrivono su
+ * segmenti diversi procedono in parallelo;</li>
+ * <li>le letture ({@code get}, {@code containsKey}, {@code containsValue},
+ * {@code size}) non acquisiscono alcun lock. I nodi delle liste di
+ * collisione hanno chiave e successore immutabili e valore {@code volatile};
+ * ogni scrittura termina con l'aggiornamento del contatore {@code volatile}
+ * del segmento, che ogni lettura legge per primo, così che il lettore veda
+ * sempre una lista coerente.</li>
+ * </ul>
+ * Gli iteratori delle viste sono <i>debolmente consistenti</i>: non lanciano
+ * mai eccezioni a causa di modifiche concorrenti, restituiscono ogni
+ * mappatura presente alla loro creazione al più una volta e possono
+ * riflettere o meno le modifiche successive. Le entry restituite dall'entry
+ * set contengono il valore letto durante l'iterazione; {@code setValue}
+ * aggiorna sia l'entry sia la mappa.
+ * <p>
+ * {@code size()} e le operazioni che scorrono l'intera mappa ({@code equals},
+ * {@code hashCode}, {@code toString}) non bloccano la mappa e restituiscono
+ * quindi una fotografia approssimata in presenza di scritture concorrenti.
+ * Chiavi e valori {@code null} non sono ammessi.
+ *
+ * @see AbstractHMap
+ */
+public class ConcurrentHMap extends AbstractHMap {
+    /**
+     * Numero predefinito di segmenti.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * Capacità iniziale complessiva predefinita.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Numero massimo di segmenti.
+     */
+    private static final int MAX_SEGMENTS = 1 << 16;
+
+    /**
+     * Capacità massima della tabella di un segmento.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Fattore di carico dei segmenti.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * I segmenti, ognuno con tabella e lock propri.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Numero di bit di cui spostare l'hash per scegliere il segmento.
+     */
+    private final int segmentShift;
+
+    /**
+     * Maschera per ridurre l'hash spostato a un indice di segmento.
+     */
+    private final int segmentMask;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità e numero di segmenti
+     * predefiniti.
+     */
+    public ConcurrentHMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota con la capacità iniziale e il livello di
+     * concorrenza specificati.
+     *
+     * @param initialCapacity  la capacità iniziale complessiva.
+     * @param concurrencyLevel il numero stimato di thread che scrivono
+     *                         contemporaneamente; determina il numero di
+     *                         segmenti.
+     * @throws IllegalArgumentException se la capacità è negativa o il livello
+     *                                  di concorrenza non è positivo.
+     */
+    public ConcurrentHMap(int initialCapacity, int concurrencyLevel) {
+        if (initialCapacity < 0)
+            throw new IllegalArgumentException("Capacità negativa: " + initialCapacity);
+        if (concurrencyLevel <= 0)
+            throw new IllegalArgumentException("Livello di concorrenza non valido: " + concurrencyLevel);
+
+        if (concurrencyLevel > MAX_SEGMENTS)
+            concurrencyLevel = MAX_SEGMENTS;
+        int shift = 0;
+        int count = 1;
+        while (count < concurrencyLevel) {
+            shift++;
+            count <<= 1;
+        }
+        segmentShift = 32 - shift;
+        segmentMask = count - 1;
+
+        int perSegment = initialCapacity / count;
+        if (perSegment * count < initialCapacity)
+            perSegment++;
+        int capacity = 1;
+        while (capacity < perSegment && capacity < MAXIMUM_CAPACITY)
+            capacity <<= 1;
+
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment(capacity);
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public ConcurrentHMap(HMap m) {
+        this(Math.max((int) (m.size() / LOAD_FACTOR) + 1, DEFAULT_CAPACITY), DEFAULT_CONCURRENCY_LEVEL);
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature, sommando i contatori dei segmenti
+     * senza acquisire lock. In presenza di scritture concorrenti il risultato
+     * è una stima.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        long sum = 0;
+        for (int i = 0; i < segments.length; i++)
+            sum += segments[i].count;
+        return sum > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) sum;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa non contiene mappature.
+     *
+     * @return {@code true} se la mappa è vuota, {@code false} altrimenti.
+     */
+    @Override
+    public boolean isEmpty() {
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].count != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata. Non acquisisce alcun lock.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se la mappa contiene una mappatura per la chiave.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. Scorre tutti i segmenti senza acquisire lock.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].containsValue(value))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null}. Non acquisisce alcun lock.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int h = hash(key);
+        return segmentFor(h).get(key, h);
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata, acquisendo solo il
+     * lock del segmento della chiave.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        int h = hash(key);
+        return segmentFor(h).put(key, h, value);
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave, acquisendo solo il lock del
+     * segmento della chiave.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int h = hash(key);
+        return segmentFor(h).remove(key, h);
+    }
+
+    /**
+     * Rimuove tutte le mappature, svuotando un segmento alla volta. Le
+     * scritture concorrenti su segmenti già svuotati restano visibili.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < segments.length; i++)
+            segments[i].clear();
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore debolmente consistente sulle entry.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new NodeIterator(NodeIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore debolmente consistente sulle chiavi.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new NodeIterator(NodeIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore debolmente consistente sui valori.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new NodeIterator(NodeIterator.VALUES);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Mescola i bit dell'hash della chiave: i bit alti scelgono il segmento,
+     * quelli bassi la lista all'interno del segmento.
+     *
+     * @param key la chiave (non {@code null}).
+     * @return l'hash mescolato.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Restituisce il segmento a cui appartiene l'hash specificato.
+     *
+     * @param h l'hash mescolato della chiave.
+     * @return il segmento.
+     */
+    private Segment segmentFor(int h) {
+        return segments[(h >>> segmentShift) & segmentMask];
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Nodo di una lista di collisione. Chiave, hash e successore sono
+     * immutabili: una rimozione ricrea i nodi che precedono quello rimosso
+     * invece di modificare i collegamenti, così che un lettore senza lock veda
+     * sempre una lista valida.
+     */
+    private static final class Node {
+        final Object key;
+        final int hash;
+        final Node next;
+        volatile Object value;
+
+        /**
+         * Costruisce un nodo.
+         *
+         * @param key   la chiave.
+         * @param hash  l'hash mescolato della chiave.
+         * @param next  il nodo successivo nella lista.
+         * @param value il valore.
+         */
+        Node(Object key, int hash, Node next, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.next = next;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Un segmento: una tabella hash con liste di collisione, protetta dal
+     * proprio monitor per le scritture e leggibile senza lock.
+     */
+    private static final class Segment {
+        /**
+         * Numero di mappature del segmento. Ogni scrittura lo aggiorna per
+         * ultimo e ogni lettura lo legge per primo: questa coppia di accessi
+         * {@code volatile} rende visibili ai lettori le modifiche alla tabella.
+         */
+        volatile int count;
+
+        /**
+         * La tabella delle liste di collisione.
+         */
+        volatile Node[] table;
+
+        /**
+         * Numero di mappature oltre il quale la tabella viene raddoppiata.
+         */
+        int threshold;
+
+        /**
+         * Costruisce un segmento con la capacità specificata.
+         *
+         * @param capacity la capacità iniziale (potenza di due).
+         */
+        Segment(int capacity) {
+            setTable(new Node[capacity]);
+        }
+
+        /**
+         * Installa una nuova tabella e ricalcola la soglia.
+         *
+         * @param newTable la nuova tabella.
+         */
+        void setTable(Node[] newTable) {
+            threshold = (int) (newTable.length * LOAD_FACTOR);
+            table = newTable;
+        }
+
+        /**
+         * Legge il valore di un nodo acquisendo il lock. Serve solo nel caso,
+         * teoricamente possibile, in cui un nodo appena pubblicato sia visto
+         * prima dell'inizializzazione del suo valore.
+         *
+         * @param n il nodo.
+         * @return il valore del nodo.
+         */
+        synchronized Object readValueUnderLock(Node n) {
+            return n.value;
+        }
+
+        /**
+         * Cerca la chiave senza acquisire lock.
+         *
+         * @param key la chiave.
+         * @param h   l'hash mescolato della chiave.
+         * @return il valore associato, o {@code null}.
+         */
+        Object get(Object key, int h) {
+            if (count != 0) { // Lettura volatile: rende visibile la tabella
+                Node[] tab = table;
+                for (Node n = tab[h & (tab.length - 1)]; n != null; n = n.next) {
+                    if (n.hash == h && key.equals(n.key)) {
+                        Object v = n.value;
+                        return v != null ? v : readValueUnderLock(n);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Cerca il valore in tutte le liste del segmento senza acquisire lock.
+         *
+         * @param value il valore da cercare.
+         * @return {@code true} se il valore è presente.
+         */
+        boolean containsValue(Object value) {
+            if (count != 0) {
+                Node[] tab = table;
+                for (int i = 0; i < tab.length; i++) {
+                    for (Node n = tab[i]; n != null; n = n.next) {
+                        Object v = n.value;
+                        if (v == null)
+                            v = readValueUnderLock(n);
+                        if (value.equals(v))
+                            return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Inserisce o sostituisce una mappatura sotto il lock del segmento.
+         *
+         * @param key   la chiave.
+         * @param h     l'hash mescolato della chiave.
+         * @param value il valore.
+         * @return il valore precedente, o {@code null}.
+         */
+        synchronized Object put(Object key, int h, Object value) {
+            int c = count;
+            if (c + 1 > threshold)
+                rehash();
+            Node[] tab = table;
+            int index = h & (tab.length - 1);
+            Node first = tab[index];
+            for (Node n = first; n != null; n = n.next) {
+                if (n.hash == h && key.equals(n.key)) {
+                    Object old = n.value;
+                    n.value = value;
+                    return old;
+                }
+            }
+            tab[index] = new Node(key, h, first, value);
+            count = c + 1; // Scrittura volatile: pubblica il nuovo nodo
+            return null;
+        }
+
+        /**
+         * Rimuove una mappatura sotto il lock del segmento. I nodi che
+         * precedono quello rimosso vengono ricreati, perché i successori sono
+         * immutabili.
+         *
+         * @param key la chiave.
+         * @param h   l'hash mescolato della chiave.
+         * @return il valore rimosso, o {@code null}.
+         */
+        synchronized Object remove(Object key, int h) {
+            Node[] tab = table;
+            int index = h & (tab.length - 1);
+            Node first = tab[index];
+            Node n = first;
+            while (n != null && (n.hash != h || !key.equals(n.key)))
+                n = n.next;
+            if (n == null)
+                return null;
+
+            Object old = n.value;
+            Node newFirst = n.next;
+            for (Node p = first; p != n; p = p.next)
+                newFirst = new Node(p.key, p.hash, newFirst, p.value);
+            tab[index] = newFirst;
+            count = count - 1; // Scrittura volatile: pubblica la nuova lista
+            return old;
+        }
+
+        /**
+         * Svuota il segmento sotto il suo lock.
+         */
+        synchronized void clear() {
+            if (count != 0) {
+                Node[] tab = table;
+                for (int i = 0; i < tab.length; i++)
+                    tab[i] = null;
+                count = 0;
+            }
+        }
+
+        /**
+         * Raddoppia la tabella del segmento. La parte finale di ogni lista che
+         * ricade nella stessa nuova posizione viene riutilizzata così com'è;
+         * solo i nodi che la precedono vengono ricreati. La vecchia tabella
+         * resta valida per i lettori che la stanno ancora scorrendo.
+         */
+        void rehash() {
+            Node[] oldTable = table;
+            int oldCapacity = oldTable.length;
+            if (oldCapacity >= MAXIMUM_CAPACITY)
+                return;
+
+            Node[] newTable = new Node[oldCapacity << 1];
+            int sizeMask = newTable.length - 1;
+            for (int i = 0; i < oldCapacity; i++) {
+                Node e = oldTable[i];
+                if (e == null)
+                    continue;
+
+                // Individua la coda della lista i cui nodi finiscono tutti
+                // nella stessa nuova posizione.
+                Node lastRun = e;
+                int lastIdx = e.hash & sizeMask;
+                for (Node last = e.next; last != null; last = last.next) {
+                    int k = last.hash & sizeMask;
+                    if (k != lastIdx) {
+                        lastIdx = k;
+                        lastRun = last;
+                    }
+                }
+                newTable[lastIdx] = lastRun;
+
+                // Ricrea i nodi che precedono la coda.
+                for (Node p = e; p != lastRun; p = p.next) {
+                    int k = p.hash & sizeMask;
+                    newTable[k] = new Node(p.key, p.hash, newTable[k], p.value);
+                }
+            }
+            setTable(newTable);
+        }
+    }
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set: contiene il valore letto
+     * durante l'iterazione e scrive nella mappa a ogni {@code setValue}.
+     */
+    private final class WriteThroughEntry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore letto durante l'iterazione.
+         */
+        WriteThroughEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore letto durante l'iterazione o impostato con
+         * {@code setValue}.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry e della mappa. Se la chiave è
+         * stata rimossa nel frattempo, la mappatura viene reinserita.
+         *
+         * @param v il nuovo valore.
+         * @return il valore precedente nella mappa, o {@code null} in caso di
+         *         reinserimento.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object v) {
+            if (v == null)
+                throw new NullPointerException();
+
+            value = v;
+            return put(key, v);
+        }
+    }
+
+    /**
+     * Iteratore debolmente consistente: scorre i segmenti e le loro tabelle
+     * così come sono al momento della visita, senza acquisire lock.
+     */
+    private final class NodeIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private int nextSegmentIndex;
+        private int nextTableIndex;
+        private Node[] currentTable;
+        private Node nextNode;
+        private Object nextValue; // Valore letto insieme a nextNode
+        private Node lastReturned;
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        NodeIterator(int mode) {
+            this.mode = mode;
+            nextSegmentIndex = segments.length - 1;
+            nextTableIndex = -1;
+            advance();
+        }
+
+        /**
+         * Posiziona {@code nextNode} sul prossimo nodo con un valore valido.
+         */
+        private void advance() {
+            if (nextNode != null && (nextNode = nextNode.next) != null && readValue())
+                return;
+
+            for (;;) {
+                while (nextNode != null) {
+                    if (readValue())
+                        return;
+                    nextNode = nextNode.next;
+                }
+                if (nextTableIndex >= 0) {
+                    nextNode = currentTable[nextTableIndex--];
+                    continue;
+                }
+                if (nextSegmentIndex < 0)
+                    return;
+                Segment seg = segments[nextSegmentIndex--];
+                if (seg.count != 0) {
+                    currentTable = seg.table;
+                    nextTableIndex = currentTable.length - 1;
+                }
+            }
+        }
+
+        /**
+         * Legge il valore di {@code nextNode}.
+         *
+         * @return {@code true} se il nodo ha un valore (non è in corso di
+         *         pubblicazione).
+         */
+        private boolean readValue() {
+            nextValue = nextNode.value;
+            return nextValue != null;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (nextNode == null)
+                throw new NoSuchElementException();
+
+            lastReturned = nextNode;
+            Object value = nextValue;
+            advance();
+            if (mode == KEYS)
+                return lastReturned.key;
+            if (mode == VALUES)
+                return value;
+            return new WriteThroughEntry(lastReturned.key, value);
+        }
+
+        /**
+         * Rimuove dalla mappa la chiave dell'ultimo elemento restituito.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+
+            ConcurrentHMap.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+    }
+}
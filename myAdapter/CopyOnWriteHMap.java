@@ -0,0 +1,702 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+import java.util.Vector;
+
+/**
+ * Implementazione di {@link HMap} "copy-on-write", pensata per le mappe
+ * condivise da molti thread che vengono lette continuamente e modificate di
+ * rado (ad esempio la configurazione di un'applicazione).
+ * <p>
+ * Il contenuto della mappa è una tabella a indirizzamento aperto che, una
+ * volta pubblicata, non viene più modificata. La mappa ne conserva il
+ * riferimento in un campo {@code volatile}:
+ * <ul>
+ * <li>le letture ({@code get}, {@code containsKey}, {@code containsValue},
+ * {@code size}, {@code hashCode}) leggono il riferimento e consultano la
+ * tabella senza acquisire alcun lock;</li>
+ * <li>ogni scrittura copia la tabella, modifica la copia e la pubblica
+ * sostituendo il riferimento. Le scritture sono serializzate dal monitor
+ * della mappa, che i lettori non acquisiscono mai.</li>
+ * </ul>
+ * Poiché una scrittura costa una copia dell'intera tabella, più modifiche
+ * dovrebbero essere raggruppate: {@code putAll} e le modifiche registrate in
+ * un {@link Batch} producono una sola copia e vengono pubblicate
+ * atomicamente, quindi nessun lettore vede uno stato intermedio. Le scritture
+ * che non cambiano il contenuto (rimozione di una chiave assente, inserimento
+ * dello stesso valore già presente) non copiano la tabella.
+ * <p>
+ * Gli iteratori delle viste lavorano sulla tabella pubblicata al momento
+ * della loro creazione: non lanciano mai eccezioni per modifiche concorrenti
+ * e non ne riflettono gli effetti. La rimozione tramite iteratore e
+ * {@link HEntry#setValue(Object)} modificano la mappa, non la fotografia
+ * percorsa dall'iteratore. Chiavi e valori {@code null} non sono ammessi.
+ *
+ * @see ConcurrentHMap
+ * @see OpenHashMap
+ */
+public class CopyOnWriteHMap extends AbstractHMap {
+    /**
+     * Fattore di carico delle tabelle.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Capacità massima di una tabella.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * La tabella pubblicata; non viene mai modificata dopo l'assegnamento.
+     */
+    private volatile Table table;
+
+    /**
+     * Costruisce una nuova mappa vuota.
+     */
+    public CopyOnWriteHMap() {
+        table = new Table(0);
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public CopyOnWriteHMap(HMap m) {
+        this();
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     * Non acquisisce alcun lock.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Table t = table;
+        int pos = t.indexOf(key);
+        return pos < 0 ? null : t.vals[pos];
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. Scorre la tabella pubblicata senza acquisire alcun lock.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        Object[] v = table.vals;
+        for (int i = v.length; i-- != 0;) {
+            if (v[i] != null && value.equals(v[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa,
+     * pubblicando una copia modificata della tabella.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        Table t = table;
+        int pos = t.indexOf(key);
+        if (pos >= 0 && t.vals[pos] == value)
+            return value;
+
+        Table copy = t.copy(t.size + 1);
+        Object old = copy.put(key, value);
+        table = copy;
+        return old;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente,
+     * pubblicando una copia modificata della tabella.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Table t = table;
+        if (t.indexOf(key) < 0)
+            return null;
+
+        Table copy = t.copy(t.size);
+        Object old = copy.remove(key);
+        table = copy;
+        return old;
+    }
+
+    /**
+     * Copia tutte le mappature dalla mappa specificata a questa mappa con una
+     * sola copia della tabella. Le nuove mappature diventano visibili ai
+     * lettori tutte insieme; se la mappa specificata contiene chiavi o valori
+     * {@code null}, questa mappa non viene modificata.
+     *
+     * @param sourceHMap la mappa le cui mappature devono essere copiate.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    @Override
+    public synchronized void putAll(HMap sourceHMap) {
+        if (sourceHMap == null)
+            throw new NullPointerException();
+        if (sourceHMap == this || sourceHMap.isEmpty())
+            return;
+
+        Table t = table;
+        Table copy = t.copy(t.size + sourceHMap.size());
+        HIterator it = sourceHMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            Object key = e.getKey();
+            Object value = e.getValue();
+            if (key == null || value == null)
+                throw new NullPointerException();
+            copy.put(key, value);
+        }
+        table = copy;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa, pubblicando una tabella
+     * vuota.
+     */
+    @Override
+    public synchronized void clear() {
+        if (table.size != 0)
+            table = new Table(0);
+    }
+
+    /**
+     * Restituisce il codice hash per questa mappa, mantenuto a ogni
+     * scrittura.
+     *
+     * @return il codice hash per questa mappa.
+     */
+    @Override
+    public int hashCode() {
+        return table.hashSum;
+    }
+
+    /**
+     * Restituisce un nuovo gruppo di modifiche vuoto per questa mappa.
+     *
+     * @return un {@link Batch} le cui modifiche verranno applicate a questa
+     *         mappa da {@link Batch#commit()}.
+     */
+    public Batch batch() {
+        return new Batch();
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della tabella pubblicata.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new SnapshotIterator(SnapshotIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore sulle chiavi della tabella pubblicata che non
+     * alloca entry.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new SnapshotIterator(SnapshotIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori della tabella pubblicata che non
+     * alloca entry.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new SnapshotIterator(SnapshotIterator.VALUES);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Applica con una sola copia della tabella le modifiche registrate da un
+     * {@link Batch}.
+     *
+     * @param keys   le chiavi, nell'ordine di registrazione.
+     * @param values i valori corrispondenti; {@code null} indica una
+     *               rimozione.
+     * @param puts   il numero di inserimenti registrati.
+     */
+    private synchronized void apply(Vector keys, Vector values, int puts) {
+        Table t = table;
+        Table copy = t.copy(t.size + puts);
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = values.elementAt(i);
+            if (value == null)
+                copy.remove(keys.elementAt(i));
+            else
+                copy.put(keys.elementAt(i), value);
+        }
+        table = copy;
+    }
+
+    /**
+     * Mescola i bit di un codice hash, con la stessa funzione di
+     * {@link OpenHashMap}.
+     *
+     * @param h il codice hash originale.
+     * @return il codice hash mescolato.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ---------------------- CLASSI PUBBLICHE ----------------------
+
+    /**
+     * Gruppo di modifiche da applicare alla mappa con una sola copia della
+     * tabella.
+     * <p>
+     * Le modifiche vengono registrate nell'ordine delle chiamate e applicate
+     * nello stesso ordine da {@link #commit()}; fino ad allora la mappa non
+     * cambia. I lettori vedono la mappa com'era prima del commit oppure con
+     * tutte le modifiche applicate, mai uno stato intermedio. Un gruppo non è
+     * sincronizzato e va usato da un solo thread.
+     */
+    public final class Batch {
+        private final Vector keys = new Vector();
+        private final Vector values = new Vector(); // null indica una rimozione
+        private int puts;
+
+        /**
+         * Costruttore privato: un gruppo si ottiene con
+         * {@link CopyOnWriteHMap#batch()}.
+         */
+        private Batch() {
+        }
+
+        /**
+         * Registra l'associazione del valore specificato alla chiave.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         * @return questo gruppo, per concatenare le chiamate.
+         * @throws NullPointerException se la chiave o il valore sono
+         *                              {@code null}.
+         */
+        public Batch put(Object key, Object value) {
+            if (key == null || value == null)
+                throw new NullPointerException();
+
+            keys.addElement(key);
+            values.addElement(value);
+            puts++;
+            return this;
+        }
+
+        /**
+         * Registra la rimozione della mappatura per la chiave specificata.
+         *
+         * @param key la chiave.
+         * @return questo gruppo, per concatenare le chiamate.
+         * @throws NullPointerException se la chiave è {@code null}.
+         */
+        public Batch remove(Object key) {
+            if (key == null)
+                throw new NullPointerException();
+
+            keys.addElement(key);
+            values.addElement(null);
+            return this;
+        }
+
+        /**
+         * Restituisce il numero di modifiche registrate e non ancora
+         * applicate.
+         *
+         * @return il numero di modifiche in attesa.
+         */
+        public int size() {
+            return keys.size();
+        }
+
+        /**
+         * Applica alla mappa tutte le modifiche registrate, con una sola copia
+         * della tabella, e svuota il gruppo, che può essere riutilizzato.
+         */
+        public void commit() {
+            if (keys.isEmpty())
+                return;
+
+            apply(keys, values, puts);
+            keys.removeAllElements();
+            values.removeAllElements();
+            puts = 0;
+        }
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Tabella a indirizzamento aperto con scansione lineare. Viene modificata
+     * solo finché è una copia privata di uno scrittore; dopo la pubblicazione
+     * viene soltanto letta.
+     */
+    private static final class Table {
+        Object[] keys;
+        Object[] vals;
+        int size;
+        int hashSum; // Somma dei codici hash delle entry
+        private int mask;
+
+        /**
+         * Costruisce una tabella vuota dimensionata per il numero di mappature
+         * specificato.
+         *
+         * @param expectedSize il numero di mappature attese.
+         */
+        Table(int expectedSize) {
+            long needed = (long) Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+            int capacity = 2;
+            while (capacity < needed && capacity < MAXIMUM_CAPACITY)
+                capacity <<= 1;
+            keys = new Object[capacity];
+            vals = new Object[capacity];
+            mask = capacity - 1;
+        }
+
+        /**
+         * Costruisce una tabella sugli array specificati.
+         *
+         * @param keys le chiavi.
+         * @param vals i valori.
+         */
+        private Table(Object[] keys, Object[] vals) {
+            this.keys = keys;
+            this.vals = vals;
+            mask = keys.length - 1;
+        }
+
+        /**
+         * Restituisce una copia di questa tabella in grado di contenere il
+         * numero di mappature specificato. Se la capacità attuale basta gli
+         * array vengono copiati così come sono, altrimenti le mappature vengono
+         * reinserite in una tabella più grande.
+         *
+         * @param expectedSize il numero di mappature che la copia deve poter
+         *                     contenere.
+         * @return la copia.
+         */
+        Table copy(int expectedSize) {
+            if (expectedSize <= (int) (keys.length * LOAD_FACTOR) || keys.length == MAXIMUM_CAPACITY) {
+                Object[] k = new Object[keys.length];
+                Object[] v = new Object[vals.length];
+                System.arraycopy(keys, 0, k, 0, k.length);
+                System.arraycopy(vals, 0, v, 0, v.length);
+                Table copy = new Table(k, v);
+                copy.size = size;
+                copy.hashSum = hashSum;
+                return copy;
+            }
+
+            Table copy = new Table(expectedSize);
+            Object[] k = copy.keys;
+            int m = copy.mask;
+            for (int i = keys.length; i-- != 0;) {
+                if (keys[i] == null)
+                    continue;
+                int pos = mix(keys[i].hashCode()) & m;
+                while (k[pos] != null)
+                    pos = (pos + 1) & m;
+                k[pos] = keys[i];
+                copy.vals[pos] = vals[i];
+            }
+            copy.size = size;
+            copy.hashSum = hashSum;
+            return copy;
+        }
+
+        /**
+         * Restituisce la cella che contiene la chiave specificata, o
+         * {@code -1} se la chiave non è presente.
+         *
+         * @param key la chiave da cercare (non {@code null}).
+         * @return l'indice della cella, o {@code -1}.
+         */
+        int indexOf(Object key) {
+            Object[] k = keys;
+            int m = mask;
+            int pos = mix(key.hashCode()) & m;
+            Object curr;
+            while ((curr = k[pos]) != null) {
+                if (curr == key || curr.equals(key))
+                    return pos;
+                pos = (pos + 1) & m;
+            }
+            return -1;
+        }
+
+        /**
+         * Associa il valore alla chiave, ingrandendo la tabella se viene
+         * superato il fattore di carico.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         * @return il valore precedente, o {@code null}.
+         */
+        Object put(Object key, Object value) {
+            int m = mask;
+            int pos = mix(key.hashCode()) & m;
+            Object curr;
+            while ((curr = keys[pos]) != null) {
+                if (curr == key || curr.equals(key)) {
+                    Object old = vals[pos];
+                    vals[pos] = value;
+                    int h = curr.hashCode();
+                    hashSum += (h ^ value.hashCode()) - (h ^ old.hashCode());
+                    return old;
+                }
+                pos = (pos + 1) & m;
+            }
+            keys[pos] = key;
+            vals[pos] = value;
+            hashSum += key.hashCode() ^ value.hashCode();
+            if (++size > (int) (keys.length * LOAD_FACTOR) && keys.length < MAXIMUM_CAPACITY) {
+                Table bigger = copy(size);
+                keys = bigger.keys;
+                vals = bigger.vals;
+                mask = bigger.mask;
+            }
+            return null;
+        }
+
+        /**
+         * Rimuove la mappatura per la chiave, spostando all'indietro le entry
+         * successive della stessa sequenza di scansione.
+         *
+         * @param key la chiave.
+         * @return il valore rimosso, o {@code null} se la chiave non era
+         *         presente.
+         */
+        Object remove(Object key) {
+            int pos = indexOf(key);
+            if (pos < 0)
+                return null;
+
+            Object old = vals[pos];
+            hashSum -= keys[pos].hashCode() ^ old.hashCode();
+            size--;
+
+            int m = mask;
+            int last;
+            Object curr;
+            for (;;) {
+                pos = ((last = pos) + 1) & m;
+                for (;;) {
+                    if ((curr = keys[pos]) == null) {
+                        keys[last] = null;
+                        vals[last] = null;
+                        return old;
+                    }
+                    int slot = mix(curr.hashCode()) & m;
+                    if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos))
+                        break;
+                    pos = (pos + 1) & m;
+                }
+                keys[last] = curr;
+                vals[last] = vals[pos];
+            }
+        }
+    }
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set. Contiene il valore letto
+     * dalla fotografia; {@code setValue} aggiorna sia l'entry sia la mappa.
+     */
+    private final class Entry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo nella mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore dell'entry.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            put(key, value);
+            Object old = this.value;
+            this.value = value;
+            return old;
+        }
+    }
+
+    /**
+     * Iteratore sulla tabella pubblicata al momento della sua creazione, usato
+     * da tutte e tre le viste.
+     */
+    private final class SnapshotIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private final Table snapshot;
+        private int pos = -1; // Cella dell'ultimo elemento restituito
+        private int remaining; // Elementi ancora da restituire
+        private Object lastKey; // Chiave dell'ultimo elemento, null se rimosso
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        public SnapshotIterator(int mode) {
+            this.mode = mode;
+            this.snapshot = table;
+            this.remaining = snapshot.size;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            Object[] k = snapshot.keys;
+            while (k[++pos] == null)
+                ;
+            remaining--;
+            lastKey = k[pos];
+            if (mode == KEYS)
+                return lastKey;
+            if (mode == VALUES)
+                return snapshot.vals[pos];
+            return new Entry(lastKey, snapshot.vals[pos]);
+        }
+
+        /**
+         * Rimuove dalla mappa la chiave dell'ultimo elemento restituito da
+         * {@code next()}. La fotografia percorsa dall'iteratore non cambia.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (lastKey == null)
+                throw new IllegalStateException();
+
+            CopyOnWriteHMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
@@ -0,0 +1,643 @@
+package myAdapter;
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HMap} in cui le mappature possono scadere dopo un
+ * tempo di vita (TTL, time-to-live).
+ * <p>
+ * Ogni {@code put} può specificare un tempo di vita in millisecondi; le
+ * mappature inserite senza tempo di vita usano quello predefinito della mappa
+ * oppure, se non è stato specificato, non scadono mai. Sostituire il valore
+ * di una chiave con {@code put} ne fa ripartire il tempo di vita, mentre
+ * {@code setValue} delle entry lo lascia invariato.
+ * <p>
+ * Una mappatura scaduta non è più visibile: nessuna operazione la
+ * restituisce né la conta. Le scadenze sono gestite da una ruota temporale
+ * gerarchica (hierarchical timer wheel) con risoluzione di un millisecondo:
+ * {@value #LEVELS} livelli di {@value #SLOTS} celle, dove ogni cella del
+ * livello {@code L} copre {@code 64^L} millisecondi. Una mappatura viene
+ * collegata alla cella del livello più basso che contiene la sua scadenza e
+ * scende di livello (cascade) quando il tempo raggiunge l'inizio della sua
+ * cella, finché viene rimossa dalla cella del livello 0. Ogni operazione
+ * pubblica fa prima avanzare la ruota fino all'istante corrente; una maschera
+ * di bit per livello permette di saltare le celle vuote, quindi il costo
+ * dell'avanzamento dipende dal numero di celle occupate e non dal tempo
+ * trascorso. Inserimento e rimozione di una scadenza costano O(1) e nessuna
+ * operazione scorre l'intera tabella.
+ * <p>
+ * Il tempo è letto con {@link #currentTimeMillis()}, che le sottoclassi
+ * possono ridefinire. Come {@link MapAdapter}, le singole operazioni sono
+ * sincronizzate sulla mappa; l'iterazione va sincronizzata esternamente.
+ * Chiavi e valori {@code null} non sono ammessi.
+ *
+ * @see AbstractHMap
+ * @see MapAdapter
+ */
+public class ExpiringHMap extends AbstractHMap {
+    /**
+     * Numero di livelli della ruota: con {@value #SLOTS} celle per livello la
+     * ruota copre 2^36 millisecondi (circa 795 giorni). Le scadenze più
+     * lontane vengono ricollocate a ogni giro del livello più alto.
+     */
+    private static final int LEVELS = 6;
+
+    /**
+     * Numero di celle di ogni livello.
+     */
+    private static final int SLOTS = 64;
+
+    /**
+     * Numero di bit dell'indice di cella di un livello.
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * Scadenza delle mappature che non scadono mai.
+     */
+    private static final long NEVER = Long.MAX_VALUE;
+
+    /**
+     * Costante di de Bruijn per il calcolo di {@link #trailingZeros(long)}.
+     */
+    private static final long DE_BRUIJN = 0x03f79d71b4cb0a89L;
+
+    /**
+     * Posizione del bit meno significativo, indicizzata dai 6 bit più alti del
+     * prodotto tra quel bit e {@link #DE_BRUIJN}.
+     */
+    private static final byte[] DE_BRUIJN_INDEX = { 0, 1, 48, 2, 57, 49, 28, 3, 61, 58, 50, 42, 38, 29, 17, 4,
+            62, 55, 59, 36, 53, 51, 43, 22, 45, 39, 33, 30, 24, 18, 12, 5, 63, 47, 56, 27, 60, 41, 37, 16, 54,
+            35, 52, 21, 44, 32, 23, 11, 46, 26, 40, 15, 34, 20, 31, 10, 25, 14, 19, 9, 13, 8, 7, 6 };
+
+    /**
+     * Associa ogni chiave al proprio nodo.
+     */
+    private final Hashtable nodes;
+
+    /**
+     * Tempo di vita predefinito in millisecondi, 0 se le mappature non
+     * scadono.
+     */
+    private final long defaultTtl;
+
+    /**
+     * Le celle della ruota: {@code wheel[L][s]} è la testa della lista dei
+     * nodi collegati alla cella {@code s} del livello {@code L}.
+     */
+    private final Node[][] wheel;
+
+    /**
+     * Per ogni livello, il bit {@code s} è impostato se la cella {@code s}
+     * non è vuota.
+     */
+    private final long[] occupied;
+
+    /**
+     * Il prossimo millisecondo da elaborare; tutte le scadenze collegate alla
+     * ruota sono maggiori o uguali.
+     */
+    private long currentTick;
+
+    /**
+     * Numero di nodi collegati alla ruota.
+     */
+    private int timed;
+
+    /**
+     * Costruisce una nuova mappa vuota le cui mappature non scadono, salvo
+     * che {@code put} specifichi un tempo di vita.
+     */
+    public ExpiringHMap() {
+        this.nodes = new Hashtable();
+        this.defaultTtl = 0;
+        this.wheel = new Node[LEVELS][SLOTS];
+        this.occupied = new long[LEVELS];
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota con il tempo di vita predefinito
+     * specificato.
+     *
+     * @param defaultTtl il tempo di vita predefinito in millisecondi.
+     * @throws IllegalArgumentException se il tempo di vita non è positivo.
+     */
+    public ExpiringHMap(long defaultTtl) {
+        this.nodes = new Hashtable();
+        this.defaultTtl = checkTtl(defaultTtl);
+        this.wheel = new Node[LEVELS][SLOTS];
+        this.occupied = new long[LEVELS];
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature non scadute in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public synchronized int size() {
+        advance(currentTimeMillis());
+        return nodes.size();
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave o la
+     * mappatura è scaduta.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        advance(currentTimeMillis());
+        Node node = (Node) nodes.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa,
+     * con il tempo di vita predefinito.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura non scaduta.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        long now = currentTimeMillis();
+        return insert(key, value, defaultTtl == 0 ? NEVER : expiry(now, defaultTtl), now);
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa;
+     * la mappatura scade dopo il tempo di vita specificato.
+     *
+     * @param key        la chiave con cui il valore deve essere associato.
+     * @param value      il valore da associare alla chiave.
+     * @param ttlMillis  il tempo di vita in millisecondi.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura non scaduta.
+     * @throws NullPointerException     se la chiave o il valore sono
+     *                                  {@code null}.
+     * @throws IllegalArgumentException se il tempo di vita non è positivo.
+     */
+    public synchronized Object put(Object key, Object value, long ttlMillis) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        checkTtl(ttlMillis);
+
+        long now = currentTimeMillis();
+        return insert(key, value, expiry(now, ttlMillis), now);
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura non scaduta.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        advance(currentTimeMillis());
+        Node node = (Node) nodes.remove(key);
+        if (node == null)
+            return null;
+        detach(node);
+        node.removed = true;
+        return node.value;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa.
+     */
+    @Override
+    public synchronized void clear() {
+        Enumeration e = nodes.elements();
+        while (e.hasMoreElements())
+            ((Node) e.nextElement()).removed = true;
+        nodes.clear();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++)
+                wheel[level][slot] = null;
+            occupied[level] = 0;
+        }
+        timed = 0;
+    }
+
+    /**
+     * Restituisce il tempo di vita predefinito di questa mappa.
+     *
+     * @return il tempo di vita in millisecondi, 0 se le mappature inserite
+     *         senza tempo di vita non scadono.
+     */
+    public long defaultTtl() {
+        return defaultTtl;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce l'istante corrente in millisecondi, usato per calcolare e
+     * verificare le scadenze. Le sottoclassi possono ridefinirlo per usare
+     * un'altra sorgente di tempo, purché non decrescente.
+     *
+     * @return l'istante corrente in millisecondi.
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Restituisce un iteratore sulle entry non scadute della mappa. Le entry
+     * sono i nodi stessi della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected synchronized HIterator entryIterator() {
+        advance(currentTimeMillis());
+        return new NodeIterator(nodes.elements());
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Verifica che un tempo di vita sia positivo.
+     *
+     * @param ttl il tempo di vita.
+     * @return il tempo di vita.
+     * @throws IllegalArgumentException se il tempo di vita non è positivo.
+     */
+    private static long checkTtl(long ttl) {
+        if (ttl <= 0)
+            throw new IllegalArgumentException("Tempo di vita non valido: " + ttl);
+        return ttl;
+    }
+
+    /**
+     * Calcola l'istante di scadenza di una mappatura. Un tempo di vita così
+     * lungo da superare il massimo rappresentabile equivale a nessuna
+     * scadenza.
+     *
+     * @param now l'istante corrente.
+     * @param ttl il tempo di vita, positivo.
+     * @return l'istante di scadenza, {@link #NEVER} se non scade.
+     */
+    private static long expiry(long now, long ttl) {
+        long expiresAt = now + ttl;
+        return expiresAt < now ? NEVER : expiresAt;
+    }
+
+    /**
+     * Inserisce o sostituisce una mappatura con la scadenza specificata.
+     *
+     * @param key       la chiave.
+     * @param value     il valore.
+     * @param expiresAt l'istante di scadenza, {@link #NEVER} se non scade.
+     * @param now       l'istante corrente.
+     * @return il valore precedente, o {@code null}.
+     */
+    private Object insert(Object key, Object value, long expiresAt, long now) {
+        advance(now);
+        Node node = (Node) nodes.get(key);
+        Object old = null;
+        if (node != null) {
+            old = node.value;
+            node.value = value;
+            detach(node);
+        } else {
+            node = new Node(key, value);
+            nodes.put(key, node);
+        }
+        node.expiresAt = expiresAt;
+        if (expiresAt != NEVER) {
+            schedule(node);
+            timed++;
+        }
+        return old;
+    }
+
+    /**
+     * Fa avanzare la ruota fino all'istante specificato, rimuovendo tutte le
+     * mappature scadute entro quell'istante.
+     *
+     * @param now l'istante corrente.
+     */
+    private void advance(long now) {
+        if (timed == 0) {
+            // Ruota vuota: si riparte dall'istante corrente.
+            currentTick = now + 1;
+            return;
+        }
+
+        while (currentTick <= now && timed > 0) {
+
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * SLOT_BITS)) - 1)) == 0)
+                    cascade(level, (int) (currentTick >>> (level * SLOT_BITS)) & (SLOTS - 1));
+            }
+
+            int slot = (int) currentTick & (SLOTS - 1);
+            Node node = wheel[0][slot];
+            wheel[0][slot] = null;
+            occupied[0] &= ~(1L << slot);
+            while (node != null) {
+                Node next = node.next;
+                node.prev = null;
+                node.next = null;
+                nodes.remove(node.key);
+                node.removed = true;
+                timed--;
+                node = next;
+            }
+
+            currentTick = timed == 0 ? now + 1 : Math.min(nextEvent(currentTick), now + 1);
+        }
+    }
+
+    /**
+     * Ricolloca i nodi di una cella di livello superiore, il cui intervallo
+     * inizia con il millisecondo corrente.
+     *
+     * @param level il livello.
+     * @param slot  la cella.
+     */
+    private void cascade(int level, int slot) {
+        Node node = wheel[level][slot];
+        wheel[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        while (node != null) {
+            Node next = node.next;
+            node.prev = null;
+            node.next = null;
+            schedule(node);
+            node = next;
+        }
+    }
+
+    /**
+     * Restituisce il primo millisecondo successivo a quello specificato in cui
+     * la ruota ha qualcosa da fare: la scadenza di una cella occupata del
+     * livello 0 o l'inizio dell'intervallo di una cella occupata di un
+     * livello superiore.
+     *
+     * @param tick il millisecondo appena elaborato.
+     * @return il prossimo millisecondo da elaborare.
+     */
+    private long nextEvent(long tick) {
+        long best = Long.MAX_VALUE;
+        for (int level = 0; level < LEVELS; level++) {
+            long bits = occupied[level];
+            if (bits == 0)
+                continue;
+
+            int shift = level * SLOT_BITS;
+            int current = (int) (tick >>> shift) & (SLOTS - 1);
+            long rotation = (tick >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+            long after = current == SLOTS - 1 ? 0 : bits & (-1L << (current + 1));
+            long candidate;
+            if (after != 0)
+                candidate = rotation + ((long) trailingZeros(after) << shift);
+            else
+                candidate = rotation + (1L << (shift + SLOT_BITS))
+                        + ((long) trailingZeros(bits) << shift);
+            if (candidate < best)
+                best = candidate;
+        }
+        return best;
+    }
+
+    /**
+     * Restituisce l'indice del bit meno significativo impostato, con una
+     * moltiplicazione per una sequenza di de Bruijn: CLDC 1.1 non dispone di
+     * {@code Long.numberOfTrailingZeros}.
+     *
+     * @param bits i bit, diversi da 0.
+     * @return il numero di zeri meno significativi, tra 0 e 63.
+     */
+    private static int trailingZeros(long bits) {
+        return DE_BRUIJN_INDEX[(int) (((bits & -bits) * DE_BRUIJN) >>> 58)];
+    }
+
+    /**
+     * Collega un nodo alla cella che contiene la sua scadenza, nel livello
+     * più basso il cui intervallo la comprende.
+     *
+     * @param node il nodo.
+     */
+    private void schedule(Node node) {
+        // Una scadenza già superata dalla ruota scade al prossimo avanzamento.
+        long delta = Math.max(node.expiresAt - currentTick, 0);
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << ((level + 1) * SLOT_BITS)))
+            level++;
+
+        int slot;
+        if (delta >= (1L << (LEVELS * SLOT_BITS)))
+            // Oltre la portata della ruota: l'ultima cella del giro corrente
+            // del livello più alto, dove il nodo sarà ricollocato.
+            slot = (int) ((currentTick >>> (level * SLOT_BITS)) - 1) & (SLOTS - 1);
+        else
+            slot = (int) ((currentTick + delta) >>> (level * SLOT_BITS)) & (SLOTS - 1);
+
+        node.level = level;
+        node.slot = slot;
+        node.prev = null;
+        node.next = wheel[level][slot];
+        if (node.next != null)
+            node.next.prev = node;
+        wheel[level][slot] = node;
+        occupied[level] |= 1L << slot;
+    }
+
+    /**
+     * Scollega un nodo dalla ruota, se vi è collegato, e lo segna come non
+     * più in scadenza.
+     *
+     * @param node il nodo.
+     */
+    private void detach(Node node) {
+        if (node.expiresAt == NEVER)
+            return;
+
+        if (node.prev != null)
+            node.prev.next = node.next;
+        else {
+            wheel[node.level][node.slot] = node.next;
+            if (node.next == null)
+                occupied[node.level] &= ~(1L << node.slot);
+        }
+        if (node.next != null)
+            node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+        node.expiresAt = NEVER;
+        timed--;
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Nodo di una mappatura, usato direttamente come entry delle viste. I
+     * nodi in scadenza sono collegati alla lista della loro cella della
+     * ruota.
+     */
+    private final class Node extends AbstractEntry {
+        private final Object key;
+        private Object value;
+        private long expiresAt = NEVER;
+        private int level;
+        private int slot;
+        private Node prev;
+        private Node next;
+        private boolean removed;
+
+        /**
+         * Costruisce un nodo con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry nella mappa, senza modificarne
+         * la scadenza.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore dell'entry.
+         * @throws NullPointerException  se il nuovo valore è {@code null}.
+         * @throws IllegalStateException se la mappatura è scaduta o è stata
+         *                               rimossa dalla mappa.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            synchronized (ExpiringHMap.this) {
+                advance(currentTimeMillis());
+                if (removed)
+                    throw new IllegalStateException("Mappatura non più presente nella mappa");
+                Object old = this.value;
+                this.value = value;
+                return old;
+            }
+        }
+    }
+
+    /**
+     * Iteratore sui nodi della mappa. Salta i nodi scaduti o rimossi dopo la
+     * sua creazione.
+     */
+    private final class NodeIterator implements HIterator {
+        private final Enumeration nodeEnum;
+        private Node next; // Prossimo nodo, null se non ancora cercato
+        private Node lastReturned; // Ultimo nodo restituito da next()
+
+        /**
+         * Costruisce un iteratore sull'enumerazione dei nodi specificata.
+         *
+         * @param nodeEnum l'enumerazione dei nodi della tabella.
+         */
+        public NodeIterator(Enumeration nodeEnum) {
+            this.nodeEnum = nodeEnum;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            synchronized (ExpiringHMap.this) {
+                advance(currentTimeMillis());
+                while (next == null || next.removed) {
+                    if (!nodeEnum.hasMoreElements()) {
+                        next = null;
+                        return false;
+                    }
+                    next = (Node) nodeEnum.nextElement();
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Restituisce la prossima entry nell'iterazione.
+         *
+         * @return la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            lastReturned = next;
+            next = null;
+            return lastReturned;
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultima entry restituita da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+
+            synchronized (ExpiringHMap.this) {
+                if (!lastReturned.removed)
+                    ExpiringHMap.this.remove(lastReturned.key);
+            }
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,942 @@
+package myAdapter;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione immutabile di {@link HMap} per le mappe che vengono
+ * costruite una volta sola e poi soltanto lette (tabelle di instradamento,
+ * dizionari di configurazione).
+ * <p>
+ * La mappa viene costruita a partire da un'altra mappa (si veda anche
+ * {@link MapAdapter#freeze()}) calcolando una funzione hash perfetta minima
+ * con lo schema "hash and displace": le chiavi vengono ripartite in piccoli
+ * gruppi e per ogni gruppo si cerca un seme che mandi tutte le sue chiavi in
+ * celle ancora libere. Il risultato è una tabella senza celle vuote, in cui
+ * una ricerca legge il seme del gruppo, calcola la cella ed esegue un solo
+ * confronto: non ci sono scansioni, catene né lock. Le uniche eccezioni sono
+ * le chiavi diverse con lo stesso {@code hashCode()}, che nessuna funzione
+ * hash può separare: la prima occupa la cella, le altre vengono collegate a
+ * essa in coda alla tabella.
+ * <p>
+ * Con {@link #writeTo(OutputStream, HCodec, HCodec)} la mappa viene salvata
+ * in una forma che contiene già la funzione hash: {@link #readFrom(InputStream,
+ * HCodec, HCodec)} la ricarica senza ricostruirla, verificando soltanto che
+ * le chiavi decodificate abbiano lo stesso codice hash di quelle salvate. La
+ * forma serializzata termina con un CRC-32 di tutti i byte precedenti, e in
+ * lettura nessun array viene allocato oltre i dati effettivamente presenti
+ * nel flusso: un file danneggiato produce una {@code IOException}, non una
+ * mappa con contenuto diverso o un {@code OutOfMemoryError}.
+ * <p>
+ * Tutte le operazioni di modifica, comprese quelle delle viste, dei loro
+ * iteratori e di {@link HEntry#setValue(Object)}, lanciano
+ * {@code UnsupportedOperationException}. Essendo immutabile, la mappa può
+ * essere letta da più thread senza sincronizzazione.
+ *
+ * @see MapAdapter#freeze()
+ */
+public class FrozenHMap extends AbstractHMap {
+    /**
+     * Numero magico all'inizio della forma serializzata ("FHMP").
+     */
+    private static final int MAGIC = 0x46484D50;
+
+    /**
+     * Versione della forma serializzata.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Numero massimo di elementi allocati in lettura prima di averli letti:
+     * gli array più lunghi crescono man mano che i dati arrivano.
+     */
+    private static final int READ_CHUNK = 8192;
+
+    /**
+     * Tabella del CRC-32 (polinomio 0xEDB88320), calcolata una volta sola.
+     */
+    private static final int[] CRC_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int c = i;
+            for (int k = 0; k < 8; k++)
+                c = (c & 1) != 0 ? 0xEDB88320 ^ (c >>> 1) : c >>> 1;
+            CRC_TABLE[i] = c;
+        }
+    }
+
+    /**
+     * Numero medio di chiavi per gruppo.
+     */
+    private static final int BUCKET_SIZE = 3;
+
+    /**
+     * Numero massimo di semi provati per un gruppo prima di ripartire le
+     * chiavi in un modo diverso.
+     */
+    private static final int MAX_SEED = 1 << 16;
+
+    /**
+     * Le chiavi: nelle prime {@code hashes.length} celle una per ogni codice
+     * hash distinto, in coda quelle che condividono il codice hash con
+     * un'altra chiave.
+     */
+    private final Object[] keys;
+
+    /**
+     * I valori, paralleli all'array delle chiavi.
+     */
+    private final Object[] vals;
+
+    /**
+     * Il codice hash delle chiavi di ogni cella della tabella perfetta.
+     */
+    private final int[] hashes;
+
+    /**
+     * Il seme di ogni gruppo; un valore negativo {@code -c - 1} indica un
+     * gruppo con una sola chiave, collocata direttamente nella cella
+     * {@code c}.
+     */
+    private final int[] seeds;
+
+    /**
+     * Per ogni chiave, l'indice della chiave successiva con lo stesso codice
+     * hash, o {@code -1}; {@code null} se tutti i codici hash sono distinti.
+     */
+    private final int[] next;
+
+    /**
+     * Il seme usato per ripartire le chiavi nei gruppi.
+     */
+    private final int salt;
+
+    /**
+     * Il codice hash della mappa, calcolato una sola volta.
+     */
+    private final int hashCode;
+
+    /**
+     * Costruisce una mappa immutabile con le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public FrozenHMap(HMap m) {
+        if (m == null)
+            throw new NullPointerException();
+
+        int n = m.size();
+        Object[] k = new Object[n];
+        Object[] v = new Object[n];
+        int[] h = new int[n];
+        HIterator it = m.entrySet().iterator();
+        for (int i = 0; i < n; i++) {
+            HEntry e = (HEntry) it.next();
+            k[i] = e.getKey();
+            v[i] = e.getValue();
+            if (k[i] == null || v[i] == null)
+                throw new NullPointerException();
+            h[i] = k[i].hashCode();
+        }
+
+        // Raggruppa le chiavi con lo stesso codice hash: reps contiene un
+        // rappresentante per ogni codice distinto, link collega gli altri.
+        int[] reps = new int[n];
+        int[] link = new int[n];
+        int distinct = 0;
+        int capacity = 2;
+        while (capacity < 2 * n)
+            capacity <<= 1;
+        int[] table = new int[capacity]; // Indice del rappresentante + 1
+        for (int i = 0; i < n; i++) {
+            link[i] = -1;
+            int pos = mix(h[i]) & (capacity - 1);
+            while (table[pos] != 0 && h[table[pos] - 1] != h[i])
+                pos = (pos + 1) & (capacity - 1);
+            if (table[pos] == 0) {
+                table[pos] = i + 1;
+                reps[distinct++] = i;
+            } else {
+                int rep = table[pos] - 1;
+                link[i] = link[rep];
+                link[rep] = i;
+            }
+        }
+
+        int[] repHashes = new int[distinct];
+        for (int j = 0; j < distinct; j++)
+            repHashes[j] = h[reps[j]];
+
+        int[] slots = new int[distinct];
+        int groupSalt = -1;
+        int[] s;
+        while ((s = place(repHashes, slots, groupSalt)) == null)
+            groupSalt--;
+
+        keys = new Object[n];
+        vals = new Object[n];
+        hashes = new int[distinct];
+        seeds = s;
+        salt = groupSalt;
+        next = distinct < n ? new int[n] : null;
+
+        int extra = distinct;
+        for (int j = 0; j < distinct; j++) {
+            int slot = slots[j];
+            int i = reps[j];
+            keys[slot] = k[i];
+            vals[slot] = v[i];
+            hashes[slot] = h[i];
+            int prev = slot;
+            for (i = link[i]; i >= 0; i = link[i]) {
+                keys[extra] = k[i];
+                vals[extra] = v[i];
+                next[prev] = extra;
+                prev = extra++;
+            }
+            if (next != null)
+                next[prev] = -1;
+        }
+        int sum = 0;
+        for (int i = 0; i < n; i++)
+            sum += h[i] ^ v[i].hashCode();
+        hashCode = sum;
+    }
+
+    /**
+     * Costruisce una mappa a partire dalle tabelle già calcolate, lette dalla
+     * forma serializzata.
+     *
+     * @param keys   le chiavi.
+     * @param vals   i valori.
+     * @param hashes i codici hash della tabella perfetta.
+     * @param seeds  i semi dei gruppi.
+     * @param next   i collegamenti tra chiavi con lo stesso codice hash, o
+     *               {@code null}.
+     * @param salt   il seme di ripartizione nei gruppi.
+     */
+    private FrozenHMap(Object[] keys, Object[] vals, int[] hashes, int[] seeds, int[] next, int salt) {
+        this.keys = keys;
+        this.vals = vals;
+        this.hashes = hashes;
+        this.seeds = seeds;
+        this.next = next;
+        this.salt = salt;
+        int sum = 0;
+        for (int i = 0; i < keys.length; i++)
+            sum += keys[i].hashCode() ^ vals[i].hashCode();
+        this.hashCode = sum;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     * Il codice hash della chiave individua direttamente l'unica cella in cui
+     * la chiave può trovarsi.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int i = slotFor(key.hashCode());
+        while (i >= 0) {
+            Object k = keys[i];
+            if (k == key || k.equals(key))
+                return vals[i];
+            i = next == null ? -1 : next[i];
+        }
+        return null;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. L'array dei valori viene scandito direttamente.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        for (int i = vals.length; i-- != 0;) {
+            if (value.equals(vals[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Operazione non supportata: la mappa è immutabile.
+     *
+     * @param key   ignorato.
+     * @param value ignorato.
+     * @return mai.
+     * @throws UnsupportedOperationException sempre.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Operazione non supportata: la mappa è immutabile.
+     *
+     * @param key ignorato.
+     * @return mai.
+     * @throws UnsupportedOperationException sempre.
+     */
+    @Override
+    public Object remove(Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Operazione non supportata: la mappa è immutabile.
+     *
+     * @param sourceHMap ignorato.
+     * @throws UnsupportedOperationException sempre.
+     */
+    @Override
+    public void putAll(HMap sourceHMap) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Operazione non supportata: la mappa è immutabile.
+     *
+     * @throws UnsupportedOperationException sempre.
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Restituisce il codice hash per questa mappa, calcolato alla
+     * costruzione.
+     *
+     * @return il codice hash per questa mappa.
+     */
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    /**
+     * Scrive la forma serializzata della mappa: le tabelle della funzione hash
+     * seguite da chiavi e valori codificati con le codifiche specificate e dal
+     * CRC-32 di tutti i byte scritti.
+     *
+     * @param out        il flusso su cui scrivere; non viene chiuso.
+     * @param keyCodec   la codifica delle chiavi.
+     * @param valueCodec la codifica dei valori.
+     * @throws IOException          se la scrittura fallisce.
+     * @throws NullPointerException se un argomento è {@code null}.
+     */
+    public void writeTo(OutputStream out, HCodec keyCodec, HCodec valueCodec) throws IOException {
+        if (out == null || keyCodec == null || valueCodec == null)
+            throw new NullPointerException();
+
+        CrcOutputStream checked = new CrcOutputStream(out);
+        DataOutputStream data = new DataOutputStream(checked);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(keys.length);
+        data.writeInt(hashes.length);
+        data.writeInt(seeds.length);
+        data.writeInt(salt);
+        for (int i = 0; i < seeds.length; i++)
+            data.writeInt(seeds[i]);
+        for (int i = 0; i < hashes.length; i++)
+            data.writeInt(hashes[i]);
+        if (next != null) {
+            for (int i = 0; i < next.length; i++)
+                data.writeInt(next[i]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            writeBytes(data, keyCodec.encode(keys[i]));
+            writeBytes(data, valueCodec.encode(vals[i]));
+        }
+        data.writeInt(checked.crc());
+        data.flush();
+    }
+
+    /**
+     * Legge una mappa scritta da {@link #writeTo(OutputStream, HCodec, HCodec)}.
+     * La funzione hash non viene ricalcolata: si verifica soltanto che ogni
+     * chiave decodificata si trovi nella cella indicata dal proprio codice
+     * hash.
+     * <p>
+     * Le dimensioni lette dall'intestazione vengono controllate prima
+     * dell'uso e gli array crescono man mano che i dati arrivano, così che
+     * un'intestazione danneggiata non provochi allocazioni enormi. Le
+     * codifiche vengono invocate solo dopo aver verificato il CRC-32 finale.
+     *
+     * @param in         il flusso da cui leggere; non viene chiuso.
+     * @param keyCodec   la codifica delle chiavi.
+     * @param valueCodec la codifica dei valori.
+     * @return la mappa letta.
+     * @throws IOException          se la lettura fallisce o il flusso non
+     *                              contiene una mappa valida per queste
+     *                              codifiche.
+     * @throws NullPointerException se un argomento è {@code null}.
+     */
+    public static FrozenHMap readFrom(InputStream in, HCodec keyCodec, HCodec valueCodec) throws IOException {
+        if (in == null || keyCodec == null || valueCodec == null)
+            throw new NullPointerException();
+
+        CrcInputStream checked = new CrcInputStream(in);
+        DataInputStream data = new DataInputStream(checked);
+        if (data.readInt() != MAGIC)
+            throw new IOException("Il flusso non contiene una FrozenHMap");
+        int version = data.readInt();
+        if (version != VERSION)
+            throw new IOException("Versione non supportata: " + version);
+
+        int n = data.readInt();
+        int distinct = data.readInt();
+        int buckets = data.readInt();
+        int salt = data.readInt();
+        if (n < 0 || n > Integer.MAX_VALUE / 2 || distinct < 0 || distinct > n
+                || buckets != (distinct + BUCKET_SIZE - 1) / BUCKET_SIZE)
+            throw new IOException("Intestazione non valida");
+
+        int[] seeds = readInts(data, buckets);
+        for (int i = 0; i < buckets; i++) {
+            if (seeds[i] < -distinct)
+                throw new IOException("Seme non valido nel gruppo " + i);
+        }
+        int[] hashes = readInts(data, distinct);
+        int[] next = distinct < n ? readInts(data, n) : null;
+        byte[][] records = new byte[Math.min(2 * n, READ_CHUNK)][];
+        for (int i = 0; i < 2 * n; i++) {
+            if (i == records.length) {
+                byte[][] grown = new byte[Math.min(2 * n, 2 * records.length)][];
+                System.arraycopy(records, 0, grown, 0, i);
+                records = grown;
+            }
+            records[i] = readBytes(data);
+        }
+        int crc = checked.crc();
+        if (data.readInt() != crc)
+            throw new IOException("CRC-32 non valido");
+
+        Object[] keys = new Object[n];
+        Object[] vals = new Object[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = keyCodec.decode(records[2 * i]);
+            vals[i] = valueCodec.decode(records[2 * i + 1]);
+            if (keys[i] == null || vals[i] == null)
+                throw new IOException("Mappatura nulla nella cella " + i);
+        }
+
+        FrozenHMap map = new FrozenHMap(keys, vals, hashes, seeds, next, salt);
+        map.verify();
+        return map;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new ArrayIterator(ArrayIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore sulle chiavi che non alloca entry.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new ArrayIterator(ArrayIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori che non alloca entry.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new ArrayIterator(ArrayIterator.VALUES);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Restituisce la cella della tabella perfetta associata al codice hash
+     * specificato.
+     *
+     * @param h il codice hash di una chiave.
+     * @return la cella, o {@code -1} se nessuna chiave ha quel codice hash.
+     */
+    private int slotFor(int h) {
+        int m = hashes.length;
+        if (m == 0)
+            return -1;
+
+        int seed = seeds[reduce(scramble(h, salt), seeds.length)];
+        int slot = seed < 0 ? -seed - 1 : reduce(scramble(h, seed), m);
+        return hashes[slot] == h ? slot : -1;
+    }
+
+    /**
+     * Verifica che le tabelle lette dalla forma serializzata siano coerenti
+     * con le chiavi decodificate.
+     *
+     * @throws IOException se una chiave non si trova nella cella indicata dal
+     *                     suo codice hash o i collegamenti non sono validi.
+     */
+    private void verify() throws IOException {
+        int m = hashes.length;
+        boolean[] reached = new boolean[keys.length];
+        for (int slot = 0; slot < m; slot++) {
+            for (int i = slot; i >= 0; i = next == null ? -1 : next[i]) {
+                if (i >= keys.length || reached[i] || (i >= m) == (i == slot))
+                    throw new IOException("Collegamento non valido nella cella " + slot);
+                if (keys[i].hashCode() != hashes[slot])
+                    throw new IOException("Codice hash diverso per la chiave " + keys[i]);
+                reached[i] = true;
+            }
+            if (slotFor(hashes[slot]) != slot)
+                throw new IOException("Funzione hash non valida nella cella " + slot);
+        }
+        for (int i = m; i < keys.length; i++) {
+            if (!reached[i])
+                throw new IOException("Chiave non raggiungibile nella cella " + i);
+        }
+    }
+
+    /**
+     * Cerca una funzione hash perfetta minima per i codici hash specificati.
+     * I codici vengono ripartiti in gruppi; i gruppi vengono sistemati dal più
+     * numeroso al meno numeroso, cercando per ciascuno un seme che mandi tutte
+     * le sue chiavi in celle libere. I gruppi con una sola chiave, sistemati
+     * per ultimi, occupano direttamente le celle rimaste.
+     *
+     * @param hs    i codici hash, tutti distinti.
+     * @param slots riceve la cella assegnata a ogni codice hash.
+     * @param salt  il seme usato per ripartire i codici nei gruppi.
+     * @return i semi dei gruppi, o {@code null} se per un gruppo non è stato
+     *         trovato un seme entro {@link #MAX_SEED} tentativi.
+     */
+    private static int[] place(int[] hs, int[] slots, int salt) {
+        int m = hs.length;
+        int r = m == 0 ? 0 : (m + BUCKET_SIZE - 1) / BUCKET_SIZE;
+
+        // Ripartizione nei gruppi: i membri del gruppo b sono
+        // members[start[b]] ... members[start[b + 1] - 1].
+        int[] bucketOf = new int[m];
+        int[] start = new int[r + 1];
+        int maxSize = 0;
+        for (int j = 0; j < m; j++) {
+            int b = reduce(scramble(hs[j], salt), r);
+            bucketOf[j] = b;
+            if (++start[b + 1] > maxSize)
+                maxSize = start[b + 1];
+        }
+        int[] bySize = new int[maxSize + 2];
+        for (int b = 0; b < r; b++)
+            bySize[maxSize - start[b + 1] + 1]++;
+        for (int b = 0; b < r; b++)
+            start[b + 1] += start[b];
+        int[] fill = new int[r];
+        int[] members = new int[m];
+        for (int j = 0; j < m; j++) {
+            int b = bucketOf[j];
+            members[start[b] + fill[b]++] = j;
+        }
+
+        // Ordinamento dei gruppi per dimensione decrescente.
+        for (int i = 1; i < bySize.length; i++)
+            bySize[i] += bySize[i - 1];
+        int[] order = new int[r];
+        for (int b = 0; b < r; b++)
+            order[bySize[maxSize - (start[b + 1] - start[b])]++] = b;
+
+        int[] seeds = new int[r];
+        boolean[] taken = new boolean[m];
+        int free = 0;
+        for (int o = 0; o < r; o++) {
+            int b = order[o];
+            int from = start[b];
+            int to = start[b + 1];
+            if (to - from == 1) {
+                while (taken[free])
+                    free++;
+                taken[free] = true;
+                slots[members[from]] = free;
+                seeds[b] = -free - 1;
+                continue;
+            }
+            if (to == from)
+                break; // Restano solo gruppi vuoti
+
+            int seed = 1;
+            for (;; seed++) {
+                if (seed > MAX_SEED)
+                    return null;
+                int t = from;
+                while (t < to) {
+                    int slot = reduce(scramble(hs[members[t]], seed), m);
+                    if (taken[slot])
+                        break;
+                    taken[slot] = true;
+                    slots[members[t++]] = slot;
+                }
+                if (t == to)
+                    break;
+                while (t-- != from)
+                    taken[slots[members[t]]] = false;
+            }
+            seeds[b] = seed;
+        }
+        return seeds;
+    }
+
+    /**
+     * Mescola un codice hash con un seme, in modo che semi diversi producano
+     * permutazioni indipendenti dei codici.
+     *
+     * @param h    il codice hash.
+     * @param seed il seme.
+     * @return il codice mescolato.
+     */
+    private static int scramble(int h, int seed) {
+        h ^= seed * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Mescola i bit di un codice hash, con la stessa funzione di
+     * {@link OpenHashMap}.
+     *
+     * @param h il codice hash originale.
+     * @return il codice hash mescolato.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Riduce un codice mescolato all'intervallo {@code [0, n)} con una
+     * moltiplicazione invece di una divisione.
+     *
+     * @param x il codice mescolato.
+     * @param n l'ampiezza dell'intervallo.
+     * @return un valore in {@code [0, n)}.
+     */
+    private static int reduce(int x, int n) {
+        return (int) (((x & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    /**
+     * Scrive un array di byte preceduto dalla sua lunghezza.
+     *
+     * @param out   il flusso.
+     * @param bytes i byte da scrivere.
+     * @throws IOException se la scrittura fallisce.
+     */
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Legge un array di byte scritto da
+     * {@link #writeBytes(DataOutputStream, byte[])}.
+     *
+     * @param in il flusso.
+     * @return i byte letti.
+     * @throws IOException se la lettura fallisce o la lunghezza non è valida.
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Lunghezza non valida: " + length);
+        // L'array cresce man mano che i byte arrivano: una lunghezza
+        // danneggiata termina con una EOFException, non con un'allocazione
+        // enorme.
+        byte[] bytes = new byte[Math.min(length, READ_CHUNK)];
+        int read = 0;
+        while (true) {
+            in.readFully(bytes, read, bytes.length - read);
+            read = bytes.length;
+            if (read == length)
+                return bytes;
+            byte[] grown = new byte[(int) Math.min(length, 2L * read)];
+            System.arraycopy(bytes, 0, grown, 0, read);
+            bytes = grown;
+        }
+    }
+
+    /**
+     * Legge un array di interi.
+     *
+     * @param in    il flusso.
+     * @param count il numero di interi da leggere.
+     * @return gli interi letti.
+     * @throws IOException se la lettura fallisce.
+     */
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] ints = new int[Math.min(count, READ_CHUNK)];
+        for (int i = 0; i < count; i++) {
+            if (i == ints.length) {
+                int[] grown = new int[(int) Math.min(count, 2L * i)];
+                System.arraycopy(ints, 0, grown, 0, i);
+                ints = grown;
+            }
+            ints[i] = in.readInt();
+        }
+        return ints;
+    }
+
+    /**
+     * Aggiorna un CRC-32 con un byte.
+     *
+     * @param crc il CRC-32 corrente, complementato.
+     * @param b   il byte.
+     * @return il CRC-32 aggiornato, complementato.
+     */
+    private static int updateCrc(int crc, int b) {
+        return CRC_TABLE[(crc ^ b) & 0xFF] ^ (crc >>> 8);
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Flusso di uscita che calcola il CRC-32 dei byte che lo attraversano.
+     */
+    private static final class CrcOutputStream extends OutputStream {
+        private final OutputStream out;
+        private int crc = -1;
+
+        /**
+         * Costruisce il flusso.
+         *
+         * @param out il flusso su cui scrivere.
+         */
+        CrcOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            crc = updateCrc(crc, b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++)
+                crc = updateCrc(crc, b[i]);
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        /**
+         * Restituisce il CRC-32 dei byte scritti finora.
+         *
+         * @return il CRC-32.
+         */
+        int crc() {
+            return ~crc;
+        }
+    }
+
+    /**
+     * Flusso di ingresso che calcola il CRC-32 dei byte che lo attraversano.
+     */
+    private static final class CrcInputStream extends InputStream {
+        private final InputStream in;
+        private int crc = -1;
+
+        /**
+         * Costruisce il flusso.
+         *
+         * @param in il flusso da cui leggere.
+         */
+        CrcInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0)
+                crc = updateCrc(crc, b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            for (int i = off; i < off + n; i++)
+                crc = updateCrc(crc, b[i]);
+            return n;
+        }
+
+        /**
+         * Restituisce il CRC-32 dei byte letti finora.
+         *
+         * @return il CRC-32.
+         */
+        int crc() {
+            return ~crc;
+        }
+    }
+
+    /**
+     * Entry di sola lettura restituita dall'iteratore dell'entry set.
+     */
+    private class Entry extends AbstractEntry {
+        private final int index;
+
+        /**
+         * Costruisce l'entry della cella indicata.
+         *
+         * @param index la cella.
+         */
+        public Entry(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return keys[index];
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return vals[index];
+        }
+
+        /**
+         * Operazione non supportata: la mappa è immutabile.
+         *
+         * @param value ignorato.
+         * @return mai.
+         * @throws UnsupportedOperationException sempre.
+         */
+        @Override
+        public Object setValue(Object value) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Iteratore sulle celle della tabella, usato da tutte e tre le viste.
+     */
+    private class ArrayIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private int pos; // Prossima cella da restituire
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        public ArrayIterator(int mode) {
+            this.mode = mode;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return pos < keys.length;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            int i = pos++;
+            if (mode == KEYS)
+                return keys[i];
+            if (mode == VALUES)
+                return vals[i];
+            return new Entry(i);
+        }
+
+        /**
+         * Operazione non supportata: la mappa è immutabile.
+         *
+         * @throws UnsupportedOperationException sempre.
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
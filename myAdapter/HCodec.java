@@ -0,0 +1,34 @@
+package myAdapter;
+
+/**
+ * Converte oggetti in sequenze di byte e viceversa, per le mappe che
+ * memorizzano chiavi e valori fuori dallo heap (ad esempio
+ * {@link MappedHMap}).
+ * <p>
+ * Una codifica deve essere deterministica: oggetti uguali secondo
+ * {@code equals} devono produrre sequenze di byte identiche, perché le mappe
+ * confrontano e calcolano l'hash delle chiavi sulla loro forma codificata.
+ * Inoltre {@code decode(encode(o))} deve restituire un oggetto uguale a
+ * {@code o}.
+ *
+ * @see MappedHMap
+ */
+public interface HCodec {
+    /**
+     * Codifica l'oggetto specificato.
+     *
+     * @param o l'oggetto da codificare, non {@code null}.
+     * @return la forma codificata dell'oggetto.
+     * @throws ClassCastException se l'oggetto non è del tipo gestito dalla
+     *                            codifica.
+     */
+    byte[] encode(Object o);
+
+    /**
+     * Ricostruisce un oggetto dalla sua forma codificata.
+     *
+     * @param bytes i byte prodotti da {@link #encode(Object)}.
+     * @return l'oggetto decodificato.
+     */
+    Object decode(byte[] bytes);
+}
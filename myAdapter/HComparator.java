@@ -0,0 +1,26 @@
+package myAdapter;
+
+/**
+ * Una funzione di confronto che impone un ordinamento totale su un insieme di
+ * oggetti. Usata dalle mappe ordinate ({@link HSortedMap}) per ordinare le
+ * chiavi, dato che CLDC non dispone dell'interfaccia {@code Comparable}.
+ * <p>
+ * L'ordinamento deve essere coerente con {@code equals}: {@code compare(a, b)}
+ * restituisce 0 se e solo se {@code a.equals(b)}; in caso contrario una mappa
+ * ordinata non rispetta il contratto di {@link HMap}.
+ *
+ * @see HSortedMap
+ */
+public interface HComparator {
+    /**
+     * Confronta due oggetti.
+     *
+     * @param a il primo oggetto, non {@code null}.
+     * @param b il secondo oggetto, non {@code null}.
+     * @return un numero negativo, zero o positivo se il primo oggetto è
+     *         rispettivamente minore, uguale o maggiore del secondo.
+     * @throws ClassCastException se gli oggetti non sono confrontabili con
+     *                            questa funzione.
+     */
+    int compare(Object a, Object b);
+}
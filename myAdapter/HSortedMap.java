@@ -0,0 +1,81 @@
+package myAdapter;
+
+/**
+ * Una {@link HMap} che mantiene le proprie chiavi ordinate secondo un
+ * {@link HComparator}.
+ * <p>
+ * Le tre viste {@code keySet()}, {@code values()} ed {@code entrySet()} vengono
+ * percorse in ordine crescente di chiave. I metodi {@link #subMap(Object,
+ * Object)}, {@link #headMap(Object)} e {@link #tailMap(Object)} restituiscono
+ * viste su un intervallo di chiavi: sono "backed" dalla mappa, quindi le
+ * modifiche si riflettono in entrambe le direzioni, e rifiutano con una
+ * {@code IllegalArgumentException} l'inserimento di chiavi esterne
+ * all'intervallo.
+ *
+ * @see HComparator
+ * @see BTreeHMap
+ */
+public interface HSortedMap extends HMap {
+    /**
+     * Restituisce la funzione di confronto che ordina le chiavi di questa
+     * mappa.
+     *
+     * @return la funzione di confronto.
+     */
+    public HComparator comparator();
+
+    /**
+     * Restituisce la chiave più piccola di questa mappa.
+     *
+     * @return la prima chiave.
+     * @throws java.util.NoSuchElementException se la mappa è vuota.
+     */
+    public Object firstKey();
+
+    /**
+     * Restituisce la chiave più grande di questa mappa.
+     *
+     * @return l'ultima chiave.
+     * @throws java.util.NoSuchElementException se la mappa è vuota.
+     */
+    public Object lastKey();
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi da
+     * {@code fromKey} (incluso) a {@code toKey} (escluso).
+     *
+     * @param fromKey l'estremo inferiore, incluso.
+     * @param toKey   l'estremo superiore, escluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException     se un estremo è {@code null}.
+     * @throws IllegalArgumentException se {@code fromKey} è maggiore di
+     *                                  {@code toKey}, o se questa mappa è già
+     *                                  una vista e un estremo è esterno al suo
+     *                                  intervallo.
+     */
+    public HSortedMap subMap(Object fromKey, Object toKey);
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi
+     * strettamente minori di {@code toKey}.
+     *
+     * @param toKey l'estremo superiore, escluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException     se l'estremo è {@code null}.
+     * @throws IllegalArgumentException se questa mappa è già una vista e
+     *                                  l'estremo è esterno al suo intervallo.
+     */
+    public HSortedMap headMap(Object toKey);
+
+    /**
+     * Restituisce una vista della porzione di questa mappa con chiavi maggiori
+     * o uguali a {@code fromKey}.
+     *
+     * @param fromKey l'estremo inferiore, incluso.
+     * @return la vista sull'intervallo.
+     * @throws NullPointerException     se l'estremo è {@code null}.
+     * @throws IllegalArgumentException se questa mappa è già una vista e
+     *                                  l'estremo è esterno al suo intervallo.
+     */
+    public HSortedMap tailMap(Object fromKey);
+}
@@ -0,0 +1,260 @@
+package myAdapter;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Collegamento tra le {@link HCollection} e gli stream di
+ * {@code java.util.stream}, senza copiare gli elementi in una collezione di
+ * {@code java.util}.
+ * <p>
+ * Per le viste ({@code keySet()}, {@code values()}, {@code entrySet()}) di una
+ * {@link OpenHashMap} lo {@code Spliterator} percorre direttamente la tabella
+ * della mappa e si divide a metà per intervalli di celle, come gli
+ * spliterator di {@code java.util.HashMap}: uno stream parallelo elabora le
+ * due metà in thread diversi senza alcuna copia. Per le altre collezioni,
+ * comprese le viste di {@link MapAdapter}, la cui {@code Hashtable} non
+ * espone i propri bucket, lo spliterator avanza con l'iteratore della
+ * collezione e, quando viene diviso, ne copia un blocco di elementi in un
+ * array: la memoria aggiuntiva è limitata alla dimensione del blocco.
+ * <p>
+ * Gli spliterator sono {@code NONNULL}, {@code DISTINCT} se la collezione è
+ * un {@link HSet} e {@code SIZED} finché non vengono divisi. La collezione non
+ * deve essere modificata strutturalmente mentre uno stream la percorre;
+ * {@code setValue} sulle entry restituite è ammesso.
+ * <p>
+ * <b>Nota:</b> questa classe usa {@code java.util.stream}, che non fa parte di
+ * CLDC 1.1. È pensata per l'esecuzione su una JVM completa e non deve essere
+ * usata dal codice destinato all'ambiente CLDC.
+ *
+ * @see HCollection
+ */
+public final class HStreams {
+    /**
+     * Classe di sole funzioni statiche: non istanziabile.
+     */
+    private HStreams() {
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce uno {@code Spliterator} sugli elementi della collezione.
+     *
+     * @param c la collezione.
+     * @return lo spliterator.
+     * @throws NullPointerException se la collezione è {@code null}.
+     */
+    public static Spliterator<Object> spliterator(HCollection c) {
+        if (c == null)
+            throw new NullPointerException();
+
+        int characteristics = Spliterator.NONNULL | (c instanceof HSet ? Spliterator.DISTINCT : 0);
+        AbstractHMap owner = AbstractHMap.viewOwner(c);
+        if (owner instanceof OpenHashMap)
+            return new SlotSpliterator((OpenHashMap) owner, AbstractHMap.viewKind(c), characteristics);
+        return Spliterators.spliterator(new IteratorAdapter(c.iterator()), c.size(), characteristics);
+    }
+
+    /**
+     * Restituisce uno stream sequenziale sugli elementi della collezione.
+     *
+     * @param c la collezione.
+     * @return lo stream.
+     * @throws NullPointerException se la collezione è {@code null}.
+     */
+    public static Stream<Object> stream(HCollection c) {
+        return StreamSupport.stream(spliterator(c), false);
+    }
+
+    /**
+     * Restituisce uno stream parallelo sugli elementi della collezione.
+     *
+     * @param c la collezione.
+     * @return lo stream.
+     * @throws NullPointerException se la collezione è {@code null}.
+     */
+    public static Stream<Object> parallelStream(HCollection c) {
+        return StreamSupport.stream(spliterator(c), true);
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Spliterator su un intervallo di celle della tabella di una
+     * {@link OpenHashMap}.
+     */
+    private static final class SlotSpliterator implements Spliterator<Object> {
+        private final OpenHashMap map;
+        private final Object[] keys;
+        private final Object[] vals;
+        private final int kind; // Tipo di vista, vedi AbstractHMap.viewKind
+        private int characteristics;
+        private int lo; // Prossima cella da esaminare
+        private final int hi; // Fine dell'intervallo, esclusa
+        private long est; // Stima degli elementi nell'intervallo
+
+        /**
+         * Costruisce uno spliterator sull'intera tabella della mappa.
+         *
+         * @param map             la mappa.
+         * @param kind            il tipo di vista.
+         * @param characteristics le caratteristiche, a cui viene aggiunta
+         *                        {@code SIZED}.
+         */
+        SlotSpliterator(OpenHashMap map, int kind, int characteristics) {
+            this(map, map.keyTable(), map.valueTable(), kind, characteristics | Spliterator.SIZED, 0,
+                    map.keyTable().length, map.size());
+        }
+
+        /**
+         * Costruisce uno spliterator su un intervallo di celle.
+         *
+         * @param map             la mappa.
+         * @param keys            l'array delle chiavi della mappa.
+         * @param vals            l'array dei valori della mappa.
+         * @param kind            il tipo di vista.
+         * @param characteristics le caratteristiche.
+         * @param lo              la prima cella.
+         * @param hi              la fine dell'intervallo, esclusa.
+         * @param est             la stima degli elementi nell'intervallo.
+         */
+        private SlotSpliterator(OpenHashMap map, Object[] keys, Object[] vals, int kind, int characteristics,
+                int lo, int hi, long est) {
+            this.map = map;
+            this.keys = keys;
+            this.vals = vals;
+            this.kind = kind;
+            this.characteristics = characteristics;
+            this.lo = lo;
+            this.hi = hi;
+            this.est = est;
+        }
+
+        /**
+         * Esegue l'azione sul prossimo elemento dell'intervallo, se esiste.
+         *
+         * @param action l'azione.
+         * @return {@code true} se c'era un elemento.
+         */
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            if (action == null)
+                throw new NullPointerException();
+            while (lo < hi) {
+                int i = lo++;
+                if (keys[i] != null) {
+                    action.accept(element(i));
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Esegue l'azione su tutti gli elementi rimanenti dell'intervallo.
+         *
+         * @param action l'azione.
+         */
+        @Override
+        public void forEachRemaining(Consumer<? super Object> action) {
+            if (action == null)
+                throw new NullPointerException();
+            int end = hi;
+            for (int i = lo; i < end; i++) {
+                if (keys[i] != null)
+                    action.accept(element(i));
+            }
+            lo = end;
+        }
+
+        /**
+         * Cede la prima metà dell'intervallo a un nuovo spliterator.
+         *
+         * @return lo spliterator sulla prima metà, o {@code null} se
+         *         l'intervallo ha meno di due celle.
+         */
+        @Override
+        public Spliterator<Object> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo)
+                return null;
+            est >>>= 1;
+            characteristics &= ~Spliterator.SIZED;
+            Spliterator<Object> prefix = new SlotSpliterator(map, keys, vals, kind, characteristics, lo, mid, est);
+            lo = mid;
+            return prefix;
+        }
+
+        /**
+         * Restituisce il numero di elementi rimanenti, esatto solo se lo
+         * spliterator non è stato diviso.
+         *
+         * @return la stima.
+         */
+        @Override
+        public long estimateSize() {
+            return est;
+        }
+
+        /**
+         * Restituisce le caratteristiche dello spliterator.
+         *
+         * @return le caratteristiche; {@code SIZED} solo finché non viene
+         *         diviso.
+         */
+        @Override
+        public int characteristics() {
+            return characteristics;
+        }
+
+        /**
+         * Restituisce l'elemento della vista che corrisponde a una cella.
+         *
+         * @param slot la cella, occupata.
+         * @return la chiave, il valore o l'entry.
+         */
+        private Object element(int slot) {
+            if (kind == AbstractHMap.KEY_VIEW)
+                return keys[slot];
+            if (kind == AbstractHMap.VALUE_VIEW)
+                return vals[slot];
+            return map.entryAt(slot);
+        }
+    }
+
+    /**
+     * Adattatore da {@link HIterator} a {@code java.util.Iterator}.
+     */
+    private static final class IteratorAdapter implements Iterator<Object> {
+        private final HIterator it;
+
+        /**
+         * Costruisce l'adattatore.
+         *
+         * @param it l'iteratore adattato.
+         */
+        IteratorAdapter(HIterator it) {
+            this.it = it;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return it.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            return it.next();
+        }
+
+        @Override
+        public void remove() {
+            it.remove();
+        }
+    }
+}
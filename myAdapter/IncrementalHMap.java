@@ -0,0 +1,583 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HMap} basata su una tabella hash con liste di
+ * collisione che si ridimensiona in modo incrementale.
+ * <p>
+ * Quando una {@code Hashtable} supera la soglia di carico, il {@code put} che
+ * la supera ricostruisce l'intera tabella: su mappe con milioni di mappature
+ * quella singola operazione può durare decine di millisecondi. Questa mappa
+ * invece, quando supera la soglia, alloca una tabella di capacità doppia e vi
+ * sposta le liste della vecchia tabella poche alla volta: ogni {@code put} e
+ * ogni {@code remove} spostano al più {@value #MIGRATE_STEP} liste. Finché lo
+ * spostamento non è terminato le ricerche consultano la vecchia tabella per
+ * le liste non ancora spostate e la nuova per tutte le altre; ogni chiave si
+ * trova quindi in un solo posto e una ricerca esamina una sola lista.
+ * <p>
+ * Spostando almeno due liste per inserimento, lo spostamento termina prima
+ * che la nuova tabella raggiunga a sua volta la soglia. Anche l'allocazione
+ * della nuova tabella è incrementale: la tabella è divisa in blocchi di
+ * {@value #CHUNK_SIZE} liste, allocati solo quando vi viene inserita la prima
+ * mappatura, così che nessuna operazione debba azzerare un array grande
+ * quanto l'intera tabella.
+ * <p>
+ * Le ricerche ({@code get}, {@code containsKey}) non modificano la mappa e
+ * non fanno avanzare lo spostamento. Le viste {@code keySet()},
+ * {@code values()} ed {@code entrySet()} hanno la stessa semantica di quelle
+ * di {@link MapAdapter}; la rimozione tramite iteratore non sposta liste, così
+ * che l'iterazione visiti ogni mappatura esattamente una volta. Chiavi e
+ * valori {@code null} non sono ammessi. La classe non è sincronizzata.
+ *
+ * @see AbstractHMap
+ * @see MapAdapter
+ */
+public class IncrementalHMap extends AbstractHMap {
+    /**
+     * Capacità iniziale predefinita della tabella.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Capacità massima della tabella.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Fattore di carico oltre il quale inizia il ridimensionamento.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Numero di liste spostate dalla vecchia tabella a ogni modifica.
+     */
+    private static final int MIGRATE_STEP = 4;
+
+    /**
+     * Logaritmo in base 2 del numero di liste in un blocco.
+     */
+    private static final int CHUNK_BITS = 12;
+
+    /**
+     * Numero di liste in un blocco.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /**
+     * La tabella corrente, divisa in blocchi; un blocco {@code null} non
+     * contiene mappature.
+     */
+    private Node[][] table;
+
+    /**
+     * Maschera della tabella corrente ({@code capacità - 1}).
+     */
+    private int mask;
+
+    /**
+     * La tabella in corso di spostamento, {@code null} se la mappa non si sta
+     * ridimensionando.
+     */
+    private Node[][] old;
+
+    /**
+     * Maschera della vecchia tabella.
+     */
+    private int oldMask;
+
+    /**
+     * Numero di liste della vecchia tabella già spostate: le liste con indice
+     * minore sono vuote.
+     */
+    private int migrated;
+
+    /**
+     * Numero di mappature presenti.
+     */
+    private int size;
+
+    /**
+     * Numero di mappature oltre il quale inizia il ridimensionamento.
+     */
+    private int threshold;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità predefinita.
+     */
+    public IncrementalHMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota in grado di contenere il numero di
+     * mappature specificato senza ridimensionarsi.
+     *
+     * @param expectedSize il numero di mappature atteso.
+     * @throws IllegalArgumentException se il numero atteso è negativo.
+     */
+    public IncrementalHMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Dimensione attesa negativa: " + expectedSize);
+
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < MAXIMUM_CAPACITY && capacity * LOAD_FACTOR < expectedSize)
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public IncrementalHMap(HMap m) {
+        this(m.size());
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int h = mix(key.hashCode());
+        for (Node n = first(h); n != null; n = n.next) {
+            if (n.hash == h && (n.key == key || n.key.equals(key)))
+                return n.value;
+        }
+        return null;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     * Se la mappa si sta ridimensionando, sposta inoltre alcune liste nella
+     * nuova tabella.
+     *
+     * @param key   la chiave con cui il valore specificato deve essere
+     *              associato.
+     * @param value il valore da associare alla chiave specificata.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        int h = mix(key.hashCode());
+        for (Node n = first(h); n != null; n = n.next) {
+            if (n.hash == h && (n.key == key || n.key.equals(key))) {
+                Object oldValue = n.value;
+                n.value = value;
+                return oldValue;
+            }
+        }
+
+        if (old != null && (h & oldMask) >= migrated) {
+            int i = h & oldMask;
+            setBucket(old, oldMask, i, new Node(h, key, value, bucket(old, i)));
+        } else {
+            int i = h & mask;
+            setBucket(table, mask, i, new Node(h, key, value, bucket(table, i)));
+        }
+        size++;
+
+        if (old != null)
+            migrate(MIGRATE_STEP);
+        else if (size > threshold && mask + 1 < MAXIMUM_CAPACITY)
+            startResize();
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente. Se la
+     * mappa si sta ridimensionando, sposta inoltre alcune liste nella nuova
+     * tabella.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa dalla mappa.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        Object value = removeKey(key);
+        if (old != null)
+            migrate(MIGRATE_STEP);
+        return value;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa e ne riporta la tabella alla
+     * capacità predefinita.
+     */
+    @Override
+    public void clear() {
+        allocate(DEFAULT_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Verifica se la mappa sta spostando le proprie liste in una tabella più
+     * grande.
+     *
+     * @return {@code true} se un ridimensionamento è in corso.
+     */
+    public boolean isResizing() {
+        return old != null;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new NodeIterator();
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Mescola i bit di un codice hash, come in {@link OpenHashMap}.
+     *
+     * @param h il codice hash originale.
+     * @return il codice hash mescolato.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Sostituisce la tabella con una tabella vuota della capacità specificata
+     * e interrompe un eventuale ridimensionamento.
+     *
+     * @param capacity la capacità (potenza di due).
+     */
+    private void allocate(int capacity) {
+        table = newTable(capacity);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        old = null;
+        migrated = 0;
+    }
+
+    /**
+     * Crea l'elenco dei blocchi di una tabella, senza allocare i blocchi.
+     *
+     * @param capacity la capacità (potenza di due).
+     * @return l'elenco dei blocchi.
+     */
+    private static Node[][] newTable(int capacity) {
+        return new Node[Math.max(capacity >>> CHUNK_BITS, 1)][];
+    }
+
+    /**
+     * Restituisce il primo nodo di una lista.
+     *
+     * @param t la tabella.
+     * @param i l'indice della lista.
+     * @return il primo nodo, o {@code null} se la lista è vuota.
+     */
+    private static Node bucket(Node[][] t, int i) {
+        Node[] chunk = t[i >>> CHUNK_BITS];
+        return chunk == null ? null : chunk[i & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Imposta il primo nodo di una lista, allocando il blocco se necessario.
+     *
+     * @param t    la tabella.
+     * @param m    la maschera della tabella.
+     * @param i    l'indice della lista.
+     * @param node il nuovo primo nodo.
+     */
+    private static void setBucket(Node[][] t, int m, int i, Node node) {
+        Node[] chunk = t[i >>> CHUNK_BITS];
+        if (chunk == null) {
+            chunk = new Node[Math.min(m + 1, CHUNK_SIZE)];
+            t[i >>> CHUNK_BITS] = chunk;
+        }
+        chunk[i & (CHUNK_SIZE - 1)] = node;
+    }
+
+    /**
+     * Restituisce il primo nodo della lista in cui si trova, o andrebbe
+     * inserita, una chiave con l'hash specificato.
+     *
+     * @param h l'hash mescolato della chiave.
+     * @return il primo nodo della lista, o {@code null}.
+     */
+    private Node first(int h) {
+        if (old != null && (h & oldMask) >= migrated)
+            return bucket(old, h & oldMask);
+        return bucket(table, h & mask);
+    }
+
+    /**
+     * Rimuove una chiave senza spostare liste; usato anche dagli iteratori.
+     *
+     * @param key la chiave.
+     * @return il valore rimosso, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    private Object removeKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int h = mix(key.hashCode());
+        Node[][] t;
+        int m;
+        if (old != null && (h & oldMask) >= migrated) {
+            t = old;
+            m = oldMask;
+        } else {
+            t = table;
+            m = mask;
+        }
+        int i = h & m;
+        Node prev = null;
+        for (Node n = bucket(t, i); n != null; prev = n, n = n.next) {
+            if (n.hash == h && (n.key == key || n.key.equals(key))) {
+                if (prev == null)
+                    setBucket(t, m, i, n.next);
+                else
+                    prev.next = n.next;
+                size--;
+                return n.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Inizia il ridimensionamento: la tabella corrente diventa la vecchia
+     * tabella e viene creata una tabella di capacità doppia.
+     */
+    private void startResize() {
+        int capacity = (mask + 1) << 1;
+        old = table;
+        oldMask = mask;
+        migrated = 0;
+        table = newTable(capacity);
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Sposta nella nuova tabella le prossime liste della vecchia.
+     *
+     * @param buckets il numero massimo di liste da spostare.
+     */
+    private void migrate(int buckets) {
+        int end = Math.min(migrated + buckets, oldMask + 1);
+        for (int i = migrated; i < end; i++) {
+            Node n = bucket(old, i);
+            while (n != null) {
+                Node next = n.next;
+                int j = n.hash & mask;
+                n.next = bucket(table, j);
+                setBucket(table, mask, j, n);
+                n = next;
+            }
+        }
+        migrated = end;
+        if (end > oldMask) {
+            old = null;
+            migrated = 0;
+        }
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Nodo di una lista di collisione; è anche l'entry restituita dalle
+     * viste, perché durante lo spostamento il nodo viene ricollegato nella
+     * nuova tabella e non copiato.
+     */
+    private static class Node extends AbstractEntry {
+        final int hash;
+        final Object key;
+        Object value;
+        Node next;
+
+        /**
+         * Costruisce un nodo.
+         *
+         * @param hash  l'hash mescolato della chiave.
+         * @param key   la chiave.
+         * @param value il valore.
+         * @param next  il nodo successivo nella lista.
+         */
+        Node(int hash, Object key, Object value, Node next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo direttamente nella
+         * mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            Object oldValue = this.value;
+            this.value = value;
+            return oldValue;
+        }
+    }
+
+    /**
+     * Iteratore sui nodi: visita prima le liste non ancora spostate della
+     * vecchia tabella, poi quelle della nuova. La rimozione tramite iteratore
+     * non sposta liste, quindi nessun nodo cambia tabella durante
+     * l'iterazione.
+     */
+    private class NodeIterator implements HIterator {
+        private Node[][] t; // Tabella che si sta percorrendo
+        private int index; // Prossima lista di t da esaminare
+        private int end; // Fine delle liste di t
+        private boolean inOld; // true se t è la vecchia tabella
+        private Node next; // Prossimo nodo da restituire
+        private Node last; // Ultimo nodo restituito, null se nessuno
+
+        /**
+         * Costruisce un iteratore posizionato sul primo nodo.
+         */
+        NodeIterator() {
+            if (old != null) {
+                t = old;
+                index = migrated;
+                end = oldMask + 1;
+                inOld = true;
+            } else {
+                t = table;
+                index = 0;
+                end = mask + 1;
+            }
+            advance();
+        }
+
+        /**
+         * Verifica se ci sono altre entry nell'iterazione.
+         *
+         * @return {@code true} se ci sono altre entry.
+         */
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        /**
+         * Restituisce la prossima entry.
+         *
+         * @return la prossima entry.
+         * @throws NoSuchElementException se non ci sono altre entry.
+         */
+        @Override
+        public Object next() {
+            if (next == null)
+                throw new NoSuchElementException();
+
+            last = next;
+            next = next.next;
+            if (next == null)
+                advance();
+            return last;
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultima entry restituita da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (last == null)
+                throw new IllegalStateException();
+
+            removeKey(last.key);
+            last = null;
+        }
+
+        /**
+         * Avanza fino alla prossima lista non vuota, passando dalla vecchia
+         * alla nuova tabella quando la prima è esaurita.
+         */
+        private void advance() {
+            while (true) {
+                while (index < end) {
+                    Node n = bucket(t, index++);
+                    if (n != null) {
+                        next = n;
+                        return;
+                    }
+                }
+                if (!inOld) {
+                    next = null;
+                    return;
+                }
+                t = table;
+                index = 0;
+                end = mask + 1;
+                inOld = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package myAdapter;
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+/**
+ * Variante di {@link MapAdapter} che mantiene un indice inverso dai valori
+ * alle chiavi.
+ * <p>
+ * In una {@code MapAdapter} ordinaria, {@code containsValue} e le rimozioni
+ * per valore dalla vista {@code values()} richiedono una scansione dell'intera
+ * tabella. Questa classe affianca alla {@code Hashtable} delle mappature una
+ * seconda {@code Hashtable} che associa ogni valore distinto all'insieme delle
+ * chiavi a cui è mappato (un multiinsieme valore → chiavi). L'indice viene
+ * aggiornato a ogni {@code put}, {@code remove} e {@code clear}, comprese le
+ * modifiche eseguite tramite le viste e i loro iteratori. In cambio di
+ * memoria aggiuntiva e di un piccolo costo su ogni scrittura:
+ * <ul>
+ * <li>{@code containsValue} e {@code values().contains} costano O(1);</li>
+ * <li>{@code values().remove} costa O(1);</li>
+ * <li>{@code values().removeAll(c)} costa O(m + r), con m la dimensione di
+ * {@code c} ed r il numero di mappature rimosse;</li>
+ * <li>{@code values().retainAll(c)} visita una sola volta ogni valore
+ * distinto, invece di ogni mappatura.</li>
+ * </ul>
+ * Quando un valore è associato a una sola chiave, l'indice memorizza
+ * direttamente la chiave, senza allocare un insieme.
+ *
+ * @see MapAdapter
+ * @see ValueCollection
+ */
+public class IndexedMapAdapter extends MapAdapter {
+    /**
+     * Indice inverso: a ogni valore distinto associa la sua unica chiave
+     * oppure un {@link KeyBucket} con tutte le sue chiavi.
+     */
+    private Hashtable valueIndex;
+
+    /**
+     * Costruisce una nuova mappa vuota con indice dei valori.
+     */
+    public IndexedMapAdapter() {
+        super();
+        valueIndex = new Hashtable();
+    }
+
+    /**
+     * Costruisce una nuova mappa con indice dei valori contenente le stesse
+     * mappature della mappa specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    public IndexedMapAdapter(HMap m) {
+        this();
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. La verifica consulta l'indice e costa O(1).
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        return valueIndex.containsKey(value);
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata e aggiorna
+     * l'indice dei valori.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        Object old = super.put(key, value);
+        if (old == null) {
+            indexAdd(value, key);
+        } else if (!old.equals(value)) {
+            indexRemove(old, key);
+            indexAdd(value, key);
+        }
+        return old;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave e aggiorna l'indice dei valori.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object remove(Object key) {
+        Object old = super.remove(key);
+        if (old != null)
+            indexRemove(old, key);
+        return old;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa e svuota l'indice.
+     */
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        valueIndex.clear();
+    }
+
+    /**
+     * Restituisce una vista dei valori le cui rimozioni sfruttano l'indice.
+     *
+     * @return una vista collezione dei valori contenuti in questa mappa.
+     */
+    @Override
+    public HCollection values() {
+        record(MapMetrics.VIEW);
+        return new IndexedValueCollection(this);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Aggiunge la coppia (valore, chiave) all'indice.
+     *
+     * @param value il valore.
+     * @param key   la chiave associata al valore.
+     */
+    private void indexAdd(Object value, Object key) {
+        Object current = valueIndex.get(value);
+        if (current == null) {
+            valueIndex.put(value, key);
+        } else if (current instanceof KeyBucket) {
+            ((KeyBucket) current).keys.put(key, key);
+        } else {
+            KeyBucket bucket = new KeyBucket();
+            bucket.keys.put(current, current);
+            bucket.keys.put(key, key);
+            valueIndex.put(value, bucket);
+        }
+    }
+
+    /**
+     * Rimuove la coppia (valore, chiave) dall'indice. Quando a un valore resta
+     * una sola chiave, l'insieme viene sostituito dalla chiave stessa.
+     *
+     * @param value il valore.
+     * @param key   la chiave associata al valore.
+     */
+    private void indexRemove(Object value, Object key) {
+        Object current = valueIndex.get(value);
+        if (current instanceof KeyBucket) {
+            Hashtable keys = ((KeyBucket) current).keys;
+            keys.remove(key);
+            if (keys.size() == 1)
+                valueIndex.put(value, keys.keys().nextElement());
+        } else if (current != null) {
+            valueIndex.remove(value);
+        }
+    }
+
+    /**
+     * Restituisce le chiavi associate al valore specificato, come copia
+     * indipendente dall'indice (che può quindi essere modificato mentre la si
+     * scorre).
+     *
+     * @param value il valore.
+     * @return le chiavi associate al valore; vuoto se il valore non è presente.
+     */
+    private Vector keysOf(Object value) {
+        Object current = valueIndex.get(value);
+        Vector result = new Vector(1);
+        if (current instanceof KeyBucket) {
+            Enumeration e = ((KeyBucket) current).keys.keys();
+            while (e.hasMoreElements())
+                result.addElement(e.nextElement());
+        } else if (current != null) {
+            result.addElement(current);
+        }
+        return result;
+    }
+
+    /**
+     * Rimuove tutte le mappature il cui valore è uguale a quello specificato.
+     *
+     * @param value il valore da rimuovere.
+     * @return {@code true} se almeno una mappatura è stata rimossa.
+     */
+    private boolean removeAllWithValue(Object value) {
+        Vector keys = keysOf(value);
+        for (int i = 0; i < keys.size(); i++)
+            remove(keys.elementAt(i));
+        return keys.size() > 0;
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Insieme delle chiavi associate a un valore presente più volte. Il tipo
+     * dedicato permette di distinguerlo da una chiave memorizzata direttamente
+     * nell'indice.
+     */
+    private static class KeyBucket {
+        /**
+         * Le chiavi, memorizzate come chiavi di una {@code Hashtable}.
+         */
+        private final Hashtable keys = new Hashtable();
+    }
+
+    /**
+     * Vista dei valori di una {@code IndexedMapAdapter}: le rimozioni per
+     * valore individuano le chiavi da rimuovere tramite l'indice, invece di
+     * scandire la mappa.
+     */
+    private class IndexedValueCollection extends ValueCollection {
+
+        /**
+         * Costruisce la vista dei valori per la mappa specificata.
+         *
+         * @param p la mappa di supporto.
+         */
+        public IndexedValueCollection(IndexedMapAdapter p) {
+            super(p);
+        }
+
+        /**
+         * Rimuove una singola mappatura il cui valore è uguale a quello
+         * specificato. La chiave viene individuata tramite l'indice.
+         *
+         * @param o il valore da rimuovere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se il valore è {@code null}.
+         */
+        @Override
+        public boolean remove(Object o) {
+            if (o == null)
+                throw new NullPointerException();
+
+            Object current = valueIndex.get(o);
+            if (current == null)
+                return false;
+            if (current instanceof KeyBucket)
+                current = ((KeyBucket) current).keys.keys().nextElement();
+            IndexedMapAdapter.this.remove(current);
+            return true;
+        }
+
+        /**
+         * Rimuove tutte le mappature il cui valore è contenuto nella collezione
+         * specificata, consultando l'indice per ogni elemento di {@code c}.
+         *
+         * @param c la collezione contenente i valori da rimuovere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se la collezione specificata è
+         *                              {@code null} o contiene elementi
+         *                              {@code null}.
+         */
+        @Override
+        public boolean removeAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            boolean modified = false;
+            HIterator it = c.iterator();
+            while (it.hasNext()) {
+                Object value = it.next();
+                if (value == null)
+                    throw new NullPointerException();
+                if (removeAllWithValue(value))
+                    modified = true;
+            }
+            return modified;
+        }
+
+        /**
+         * Mantiene solo le mappature il cui valore è contenuto nella collezione
+         * specificata. Ogni valore distinto viene verificato una sola volta.
+         *
+         * @param c la collezione che definisce quali valori mantenere.
+         * @return {@code true} se la collezione è stata modificata.
+         * @throws NullPointerException se la collezione specificata è
+         *                              {@code null}.
+         */
+        @Override
+        public boolean retainAll(HCollection c) {
+            if (c == null)
+                throw new NullPointerException();
+
+            // Copia dei valori distinti: l'indice cambia durante le rimozioni.
+            Vector distinct = new Vector(valueIndex.size());
+            Enumeration e = valueIndex.keys();
+            while (e.hasMoreElements())
+                distinct.addElement(e.nextElement());
+
+            boolean modified = false;
+            for (int i = 0; i < distinct.size(); i++) {
+                Object value = distinct.elementAt(i);
+                if (!c.contains(value) && removeAllWithValue(value))
+                    modified = true;
+            }
+            return modified;
+        }
+    }
+}
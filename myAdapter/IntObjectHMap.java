@@ -0,0 +1,339 @@
+package myAdapter;
+
+/**
+ * Implementazione di {@link HMap} con chiavi {@code int} e valori oggetto.
+ * <p>
+ * Le chiavi sono memorizzate in un array {@code int[]} parallelo all'array dei
+ * valori, nella stessa tabella a indirizzamento aperto di {@link OpenHashMap}.
+ * I metodi specializzati {@link #get(int)}, {@link #put(int, Object)},
+ * {@link #remove(int)} e {@link #containsKey(int)} non allocano alcun
+ * oggetto: rispetto a una {@link MapAdapter} con chiavi {@code Integer} si
+ * risparmiano l'involucro della chiave e il nodo della {@code Hashtable} per
+ * ogni mappatura.
+ * <p>
+ * I metodi dell'interfaccia {@link HMap} e le viste accettano e restituiscono
+ * chiavi {@code Integer}; in {@code get}, {@code containsKey} e
+ * {@code remove} una chiave di altro tipo non è mai presente, mentre
+ * {@code put} la rifiuta con una {@code ClassCastException}. Mappe con le
+ * stesse mappature sono uguali indipendentemente dall'implementazione. I
+ * valori {@code null} non sono ammessi. La classe non è sincronizzata.
+ *
+ * @see LongObjectHMap
+ * @see OpenHashMap
+ */
+public class IntObjectHMap extends AbstractPrimitiveHMap {
+    /**
+     * Le chiavi, una per cella.
+     */
+    private int[] keys;
+
+    /**
+     * I valori, paralleli all'array delle chiavi; {@code null} indica una cella
+     * vuota.
+     */
+    private Object[] vals;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità e fattore di carico
+     * predefiniti.
+     */
+    public IntObjectHMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato senza ridimensionamenti.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo.
+     */
+    public IntObjectHMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato con il fattore di carico dato.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico, compreso tra 0 (escluso) e 1
+     *                     (escluso).
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo o se
+     *                                  il fattore di carico non è valido.
+     */
+    public IntObjectHMap(int expectedSize, float loadFactor) {
+        super(expectedSize, loadFactor);
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene valori {@code null}.
+     * @throws ClassCastException   se una chiave non è un {@code Integer}.
+     */
+    public IntObjectHMap(HMap m) {
+        this(m.size(), DEFAULT_LOAD_FACTOR);
+        putAll(m);
+    }
+
+    // ---------------------- METODI SPECIALIZZATI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     */
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     */
+    public Object get(int key) {
+        int pos = indexOf(key);
+        return pos < 0 ? null : vals[pos];
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    public Object put(int key, Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        int[] k = keys;
+        Object[] v = vals;
+        int m = mask;
+        int pos = mix(key) & m;
+        while (v[pos] != null) {
+            if (k[pos] == key) {
+                Object old = v[pos];
+                v[pos] = value;
+                return old;
+            }
+            pos = (pos + 1) & m;
+        }
+
+        k[pos] = key;
+        v[pos] = value;
+        inserted();
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     */
+    public Object remove(int key) {
+        int pos = indexOf(key);
+        if (pos < 0)
+            return null;
+
+        Object old = vals[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se la chiave è un {@code Integer} presente nella
+     *         mappa.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return key instanceof Integer && indexOf(((Integer) key).intValue()) >= 0;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. L'array dei valori viene scandito direttamente.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        Object[] v = vals;
+        for (int i = v.length; i-- != 0;) {
+            if (v[i] != null && value.equals(v[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave, un {@code Integer}.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     * @throws ClassCastException   se la chiave non è un {@code Integer}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return put(((Integer) key).intValue(), value);
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    // ------------- ACCESSO ALLE CELLE (vedi AbstractPrimitiveHMap) -------------
+
+    @Override
+    boolean isFree(int slot) {
+        return vals[slot] == null;
+    }
+
+    @Override
+    int hashAt(int slot) {
+        return mix(keys[slot]);
+    }
+
+    @Override
+    int entryHashAt(int slot) {
+        return keys[slot] ^ vals[slot].hashCode();
+    }
+
+    @Override
+    Object keyAt(int slot) {
+        return new Integer(keys[slot]);
+    }
+
+    @Override
+    Object valueAt(int slot) {
+        return vals[slot];
+    }
+
+    @Override
+    int slotOf(Object key) {
+        return indexOf(((Integer) key).intValue());
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        vals[to] = vals[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        vals[slot] = null;
+    }
+
+    @Override
+    void allocate(int capacity) {
+        keys = new int[capacity];
+        vals = new Object[capacity];
+        setCapacity(capacity);
+    }
+
+    @Override
+    void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldVals = vals;
+        allocate(newCapacity);
+
+        int[] k = keys;
+        Object[] v = vals;
+        int m = mask;
+        for (int i = oldVals.length; i-- != 0;) {
+            if (oldVals[i] == null)
+                continue;
+            int pos = mix(oldKeys[i]) & m;
+            while (v[pos] != null)
+                pos = (pos + 1) & m;
+            k[pos] = oldKeys[i];
+            v[pos] = oldVals[i];
+        }
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata, o {@code -1} se
+     * la chiave non è presente.
+     *
+     * @param key la chiave da cercare.
+     * @return l'indice della cella, o {@code -1}.
+     */
+    private int indexOf(int key) {
+        int[] k = keys;
+        Object[] v = vals;
+        int m = mask;
+        int pos = mix(key) & m;
+        while (v[pos] != null) {
+            if (k[pos] == key)
+                return pos;
+            pos = (pos + 1) & m;
+        }
+        return -1;
+    }
+}
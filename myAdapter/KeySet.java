@@ -1,7 +1,6 @@
 package myAdapter;
 
 import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.NoSuchElementException;
 
 /**
@@ -74,7 +73,7 @@ public class KeySet extends ValueCollection implements HSet {
     @Override
     public HIterator iterator() {
         // Crea una nuova istanza dell'iteratore specifico per le chiavi.
-        return new SetIterator(parentMap.hash);
+        return new SetIterator(parentMap);
     }
 
     // Il metodo toArray() è ereditato da ValueCollection, ma deve essere adattato
@@ -184,9 +183,9 @@ public class KeySet extends ValueCollection implements HSet {
         return removed;
     }
 
-    // Il metodo retainAll(HCollection c) è ereditato da ValueCollection e richiede
-    // un'implementazione specifica per mantenere solo le chiavi presenti anche
-    // nella collezione data.
+    // Il metodo retainAll(HCollection c) è ereditato da ValueCollection, che
+    // scandisce la mappa una sola volta usando elementOf() per ottenere le
+    // chiavi.
 
     // Il metodo clear() è ereditato da ValueCollection e funziona correttamente
     // svuotando la mappa di supporto.
@@ -220,6 +219,19 @@ public class KeySet extends ValueCollection implements HSet {
     // sovrascritto per rispettare l'interfaccia di Object, secondo cui
     // due oggetti uguali devono avere lo stesso hashCode.
 
+    /**
+     * Restituisce l'elemento di questo set che corrisponde alla mappatura
+     * specificata, cioè la chiave.
+     *
+     * @param key   la chiave della mappatura.
+     * @param value il valore della mappatura.
+     * @return la chiave.
+     */
+    @Override
+    protected Object elementOf(Object key, Object value) {
+        return key;
+    }
+
     // ---------------------- CLASSI PRIVATE INTERNE ----------------------
 
     /**
@@ -229,20 +241,21 @@ public class KeySet extends ValueCollection implements HSet {
      */
     private class SetIterator implements HIterator {
         // Campi privati
-        protected Hashtable parent;
+        protected MapAdapter parent;
         private Enumeration en;
         private boolean canRemove; // Flag per garantire che remove() sia chiamato solo dopo next()
         private Object lastReturned; // Memorizza l'ultimo elemento restituito da next()
 
         /**
-         * Costruisce un iteratore basato sulla {@code Hashtable} di supporto.
+         * Costruisce un iteratore sulle chiavi della mappa di supporto.
          *
-         * @param h la {@code Hashtable} su cui l'iteratore opererà.
+         * @param p la {@code MapAdapter} su cui l'iteratore opererà.
          */
-        public SetIterator(Hashtable h) {
-            this.parent = h;
-            // Ottiene un'enumerazione delle chiavi dalla Hashtable.
-            this.en = parent.keys();
+        public SetIterator(MapAdapter p) {
+            this.parent = p;
+            parent.record(MapMetrics.ITERATOR);
+            // Ottiene un'enumerazione delle chiavi dalla mappa.
+            this.en = parent.keyEnumeration();
             this.canRemove = false; // Inizialmente non è possibile rimuovere elementi.
         }
 
@@ -293,7 +306,8 @@ public class KeySet extends ValueCollection implements HSet {
             // Disabilita la possibilità di chiamare remove() di nuovo prima della prossima
             // chiamata a next().
             canRemove = false;
-            // Rimuove l'elemento dalla Hashtable di supporto usando la chiave salvata.
+            // Rimuove l'elemento tramite la mappa di supporto, in modo che anche le
+            // sottoclassi di MapAdapter vengano informate della rimozione.
             parent.remove(lastReturned);
         }
     }
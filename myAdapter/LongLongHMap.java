@@ -0,0 +1,434 @@
+package myAdapter;
+
+/**
+ * Implementazione di {@link HMap} con chiavi e valori {@code long}.
+ * <p>
+ * Chiavi e valori sono memorizzati in due array {@code long[]} paralleli,
+ * nella stessa tabella a indirizzamento aperto di {@link OpenHashMap}; poiché
+ * ogni valore {@code long} è una chiave valida, l'occupazione delle celle è
+ * registrata in un terzo array di {@code boolean}. I metodi specializzati
+ * {@link #get(long)}, {@link #put(long, long)}, {@link #remove(long)},
+ * {@link #addTo(long, long)} e {@link #containsKey(long)} non allocano alcun
+ * oggetto.
+ * <p>
+ * I metodi specializzati segnalano l'assenza di una mappatura restituendo il
+ * valore predefinito impostato con {@link #defaultReturnValue(long)}
+ * (inizialmente 0); per distinguere un valore uguale a quello predefinito si
+ * usa {@link #containsKey(long)}.
+ * <p>
+ * I metodi dell'interfaccia {@link HMap} e le viste accettano e restituiscono
+ * chiavi e valori {@code Long}, con la semantica consueta; una chiave di altro
+ * tipo non è mai presente, mentre {@code put} rifiuta chiavi o valori di altro
+ * tipo con una {@code ClassCastException}. La classe non è sincronizzata.
+ *
+ * @see LongObjectHMap
+ * @see ObjectLongHMap
+ */
+public class LongLongHMap extends AbstractPrimitiveHMap {
+    /**
+     * Le chiavi, una per cella.
+     */
+    private long[] keys;
+
+    /**
+     * I valori, paralleli all'array delle chiavi.
+     */
+    private long[] vals;
+
+    /**
+     * Indica, per ogni cella, se contiene una mappatura.
+     */
+    private boolean[] used;
+
+    /**
+     * Il valore restituito dai metodi specializzati in assenza di mappatura.
+     */
+    private long defaultReturnValue;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità e fattore di carico
+     * predefiniti.
+     */
+    public LongLongHMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato senza ridimensionamenti.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo.
+     */
+    public LongLongHMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato con il fattore di carico dato.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico, compreso tra 0 (escluso) e 1
+     *                     (escluso).
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo o se
+     *                                  il fattore di carico non è valido.
+     */
+    public LongLongHMap(int expectedSize, float loadFactor) {
+        super(expectedSize, loadFactor);
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null}.
+     * @throws ClassCastException   se una chiave o un valore non sono
+     *                              {@code Long}.
+     */
+    public LongLongHMap(HMap m) {
+        this(m.size(), DEFAULT_LOAD_FACTOR);
+        putAll(m);
+    }
+
+    // ---------------------- METODI SPECIALIZZATI ----------------------
+
+    /**
+     * Restituisce il valore che i metodi specializzati restituiscono in
+     * assenza di mappatura.
+     *
+     * @return il valore predefinito.
+     */
+    public long defaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    /**
+     * Imposta il valore che i metodi specializzati restituiscono in assenza di
+     * mappatura.
+     *
+     * @param value il nuovo valore predefinito.
+     */
+    public void defaultReturnValue(long value) {
+        defaultReturnValue = value;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     */
+    public boolean containsKey(long key) {
+        return used[insertionPoint(key)];
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     */
+    public boolean containsValue(long value) {
+        boolean[] u = used;
+        long[] v = vals;
+        for (int i = u.length; i-- != 0;) {
+            if (u[i] && v[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o il valore predefinito se non
+     *         c'è alcuna mappatura.
+     */
+    public long get(long key) {
+        int pos = insertionPoint(key);
+        return used[pos] ? vals[pos] : defaultReturnValue;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o il valore
+     *         predefinito se non c'era alcuna mappatura.
+     */
+    public long put(long key, long value) {
+        int pos = insertionPoint(key);
+        if (used[pos]) {
+            long old = vals[pos];
+            vals[pos] = value;
+            return old;
+        }
+
+        insertAt(pos, key, value);
+        return defaultReturnValue;
+    }
+
+    /**
+     * Somma l'incremento specificato al valore associato alla chiave. Se la
+     * chiave non è presente, viene inserita con valore pari al valore
+     * predefinito più l'incremento.
+     *
+     * @param key       la chiave il cui valore deve essere incrementato.
+     * @param increment l'incremento (anche negativo).
+     * @return il valore associato alla chiave prima dell'incremento, o il
+     *         valore predefinito se non c'era alcuna mappatura.
+     */
+    public long addTo(long key, long increment) {
+        int pos = insertionPoint(key);
+        if (used[pos]) {
+            long old = vals[pos];
+            vals[pos] = old + increment;
+            return old;
+        }
+
+        insertAt(pos, key, defaultReturnValue + increment);
+        return defaultReturnValue;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o il valore
+     *         predefinito se non c'era alcuna mappatura.
+     */
+    public long remove(long key) {
+        int pos = insertionPoint(key);
+        if (!used[pos])
+            return defaultReturnValue;
+
+        long old = vals[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se la chiave è un {@code Long} presente nella mappa.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return key instanceof Long && containsKey(((Long) key).longValue());
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se il valore è un {@code Long} associato ad almeno
+     *         una chiave.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        return value instanceof Long && containsValue(((Long) value).longValue());
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave come {@code Long}, o
+     *         {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        if (!(key instanceof Long))
+            return null;
+
+        int pos = insertionPoint(((Long) key).longValue());
+        return used[pos] ? new Long(vals[pos]) : null;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave, un {@code Long}.
+     * @param value il valore, un {@code Long}.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     * @throws ClassCastException   se la chiave o il valore non sono
+     *                              {@code Long}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        long k = ((Long) key).longValue();
+        long v = ((Long) value).longValue();
+        int pos = insertionPoint(k);
+        if (used[pos]) {
+            long old = vals[pos];
+            vals[pos] = v;
+            return new Long(old);
+        }
+
+        insertAt(pos, k, v);
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave come {@code Long}, o
+     *         {@code null} se non c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        if (!(key instanceof Long))
+            return null;
+
+        int pos = insertionPoint(((Long) key).longValue());
+        if (!used[pos])
+            return null;
+
+        long old = vals[pos];
+        removeAt(pos);
+        return new Long(old);
+    }
+
+    // ------------- ACCESSO ALLE CELLE (vedi AbstractPrimitiveHMap) -------------
+
+    @Override
+    boolean isFree(int slot) {
+        return !used[slot];
+    }
+
+    @Override
+    int hashAt(int slot) {
+        return mix(keys[slot]);
+    }
+
+    @Override
+    int entryHashAt(int slot) {
+        long k = keys[slot];
+        long v = vals[slot];
+        return (int) (k ^ (k >>> 32)) ^ (int) (v ^ (v >>> 32));
+    }
+
+    @Override
+    Object keyAt(int slot) {
+        return new Long(keys[slot]);
+    }
+
+    @Override
+    Object valueAt(int slot) {
+        return new Long(vals[slot]);
+    }
+
+    @Override
+    int slotOf(Object key) {
+        return insertionPoint(((Long) key).longValue());
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        vals[to] = vals[from];
+        used[to] = true;
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        used[slot] = false;
+    }
+
+    @Override
+    void allocate(int capacity) {
+        keys = new long[capacity];
+        vals = new long[capacity];
+        used = new boolean[capacity];
+        setCapacity(capacity);
+    }
+
+    @Override
+    void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        long[] oldVals = vals;
+        boolean[] oldUsed = used;
+        allocate(newCapacity);
+
+        long[] k = keys;
+        long[] v = vals;
+        boolean[] u = used;
+        int m = mask;
+        for (int i = oldUsed.length; i-- != 0;) {
+            if (!oldUsed[i])
+                continue;
+            int pos = mix(oldKeys[i]) & m;
+            while (u[pos])
+                pos = (pos + 1) & m;
+            k[pos] = oldKeys[i];
+            v[pos] = oldVals[i];
+            u[pos] = true;
+        }
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata, oppure la cella
+     * vuota in cui andrebbe inserita.
+     *
+     * @param key la chiave da cercare.
+     * @return l'indice della cella.
+     */
+    private int insertionPoint(long key) {
+        long[] k = keys;
+        boolean[] u = used;
+        int m = mask;
+        int pos = mix(key) & m;
+        while (u[pos] && k[pos] != key)
+            pos = (pos + 1) & m;
+        return pos;
+    }
+
+    /**
+     * Inserisce una nuova mappatura nella cella vuota specificata.
+     *
+     * @param pos   la cella restituita da {@link #insertionPoint(long)}.
+     * @param key   la chiave.
+     * @param value il valore.
+     */
+    private void insertAt(int pos, long key, long value) {
+        keys[pos] = key;
+        vals[pos] = value;
+        used[pos] = true;
+        inserted();
+    }
+}
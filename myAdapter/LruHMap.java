@@ -0,0 +1,485 @@
+package myAdapter;
+
+import java.util.Hashtable;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HMap} con dimensione massima e politica di
+ * rimpiazzo LRU (least recently used), adatta a essere usata come cache.
+ * <p>
+ * Ogni mappatura è un nodo di una lista doppiamente collegata ordinata per
+ * accesso, dal meno recente al più recente; una {@code Hashtable} associa
+ * ogni chiave al proprio nodo. {@code get} e {@code put} spostano il nodo in
+ * fondo alla lista in tempo costante. Quando un inserimento porta la mappa
+ * oltre la dimensione massima, il nodo in testa alla lista (la mappatura
+ * usata meno di recente) viene rimosso, sempre in tempo costante: non serve
+ * scorrere il key set per trovare la vittima.
+ * <p>
+ * La mappa conta i successi ({@link #hitCount()}) e i fallimenti
+ * ({@link #missCount()}) di {@code get} e le rimozioni per superamento della
+ * dimensione massima ({@link #evictionCount()}). {@code containsKey},
+ * {@code containsValue}, {@code equals} e le viste non modificano l'ordine di
+ * accesso né i contatori.
+ * <p>
+ * Come {@link MapAdapter}, le singole operazioni sono sincronizzate sulla
+ * mappa. Le viste vengono percorse dalla mappatura usata meno di recente a
+ * quella usata più di recente, nell'ordine di accesso che la mappa aveva
+ * quando l'iteratore è stato creato: una {@code get} o {@code put} eseguita
+ * durante l'iterazione, che sposta un nodo in fondo alla lista, non fa
+ * visitare due volte la stessa mappatura. Le mappature rimosse dopo la
+ * creazione dell'iteratore vengono saltate, quelle aggiunte non vengono
+ * visitate. Le modifiche tramite l'iteratore stesso e {@code setValue} delle
+ * entry non alterano l'ordine. Con più thread l'iterazione va sincronizzata
+ * esternamente. Chiavi e valori {@code null} non sono ammessi.
+ *
+ * @see AbstractHMap
+ * @see MapAdapter
+ */
+public class LruHMap extends AbstractHMap {
+    /**
+     * Associa ogni chiave al proprio nodo nella lista di accesso.
+     */
+    private final Hashtable nodes;
+
+    /**
+     * Nodo sentinella della lista circolare: {@code head.after} è la mappatura
+     * usata meno di recente, {@code head.before} quella usata più di recente.
+     */
+    private final Node head;
+
+    /**
+     * Numero massimo di mappature.
+     */
+    private final int maxSize;
+
+    /**
+     * Numero di {@code get} che hanno trovato la chiave.
+     */
+    private long hits;
+
+    /**
+     * Numero di {@code get} che non hanno trovato la chiave.
+     */
+    private long misses;
+
+    /**
+     * Numero di mappature rimosse per superamento della dimensione massima.
+     */
+    private long evictions;
+
+    /**
+     * Costruisce una nuova cache vuota con la dimensione massima specificata.
+     *
+     * @param maxSize il numero massimo di mappature.
+     * @throws IllegalArgumentException se la dimensione massima non è
+     *                                  positiva.
+     */
+    public LruHMap(int maxSize) {
+        if (maxSize <= 0)
+            throw new IllegalArgumentException("Dimensione massima non valida: " + maxSize);
+
+        this.maxSize = maxSize;
+        this.nodes = new Hashtable();
+        this.head = new Node(null, null);
+        head.before = head;
+        head.after = head;
+    }
+
+    /**
+     * Costruisce una nuova cache con la dimensione massima specificata,
+     * riempita con le mappature della mappa specificata nell'ordine del suo
+     * entry set. Se la mappa contiene più mappature della dimensione massima,
+     * restano le ultime.
+     *
+     * @param maxSize il numero massimo di mappature.
+     * @param m       la mappa da cui copiare le mappature.
+     * @throws IllegalArgumentException se la dimensione massima non è
+     *                                  positiva.
+     * @throws NullPointerException     se la mappa specificata è {@code null}
+     *                                  o contiene chiavi/valori {@code null}.
+     */
+    public LruHMap(int maxSize, HMap m) {
+        this(maxSize);
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata, senza modificare l'ordine di accesso né i
+     * contatori.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave. Se
+     * la chiave è presente, la sua mappatura diventa la più recente.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Node node = (Node) nodes.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        moveToEnd(node);
+        return node.value;
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa;
+     * la mappatura diventa la più recente. Se la chiave è nuova e la mappa
+     * supera così la dimensione massima, viene rimossa la mappatura usata
+     * meno di recente.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public synchronized Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        Node node = (Node) nodes.get(key);
+        if (node != null) {
+            Object old = node.value;
+            node.value = value;
+            moveToEnd(node);
+            return old;
+        }
+
+        node = new Node(key, value);
+        nodes.put(key, node);
+        link(node);
+        if (nodes.size() > maxSize) {
+            Node eldest = head.after;
+            nodes.remove(eldest.key);
+            unlink(eldest);
+            evictions++;
+        }
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public synchronized Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Node node = (Node) nodes.remove(key);
+        if (node == null)
+            return null;
+        unlink(node);
+        return node.value;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa. I contatori non vengono
+     * azzerati.
+     */
+    @Override
+    public synchronized void clear() {
+        for (Node node = head.after; node != head; node = node.after)
+            node.removed = true;
+        nodes.clear();
+        head.before = head;
+        head.after = head;
+    }
+
+    /**
+     * Restituisce il numero massimo di mappature di questa mappa.
+     *
+     * @return la dimensione massima.
+     */
+    public int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Restituisce il numero di chiamate a {@code get} che hanno trovato la
+     * chiave.
+     *
+     * @return il numero di successi.
+     */
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    /**
+     * Restituisce il numero di chiamate a {@code get} che non hanno trovato la
+     * chiave.
+     *
+     * @return il numero di fallimenti.
+     */
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    /**
+     * Restituisce il numero di mappature rimosse perché un inserimento aveva
+     * superato la dimensione massima.
+     *
+     * @return il numero di rimozioni per rimpiazzo.
+     */
+    public synchronized long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Azzera i contatori di successi, fallimenti e rimozioni per rimpiazzo.
+     */
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa, dalla meno recente
+     * alla più recente. Le entry sono i nodi stessi della lista; l'iteratore
+     * ne copia i riferimenti in un array al momento della creazione.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new NodeIterator();
+    }
+
+    /**
+     * Restituisce il valore associato alla chiave specificata senza
+     * modificare l'ordine di accesso né i contatori, come
+     * {@link #containsKey(Object)}. Lo usano l'entry set ed {@code equals}.
+     *
+     * @param key la chiave da cercare.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    protected synchronized Object lookup(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        Node node = (Node) nodes.get(key);
+        return node == null ? null : node.value;
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Aggiunge un nodo in fondo alla lista di accesso.
+     *
+     * @param node il nodo da aggiungere.
+     */
+    private void link(Node node) {
+        node.before = head.before;
+        node.after = head;
+        head.before.after = node;
+        head.before = node;
+    }
+
+    /**
+     * Stacca un nodo dalla lista di accesso e lo segna come rimosso, così che
+     * gli iteratori lo saltino.
+     *
+     * @param node il nodo da staccare.
+     */
+    private void unlink(Node node) {
+        node.before.after = node.after;
+        node.after.before = node.before;
+        node.removed = true;
+    }
+
+    /**
+     * Sposta un nodo in fondo alla lista di accesso.
+     *
+     * @param node il nodo da spostare.
+     */
+    private void moveToEnd(Node node) {
+        if (head.before == node)
+            return;
+        node.before.after = node.after;
+        node.after.before = node.before;
+        link(node);
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Nodo della lista di accesso, usato direttamente come entry delle viste.
+     */
+    private final class Node extends AbstractEntry {
+        private final Object key;
+        private Object value;
+        private Node before;
+        private Node after;
+        private boolean removed;
+
+        /**
+         * Costruisce un nodo con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public Node(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry nella mappa, senza modificare
+         * l'ordine di accesso.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore dell'entry.
+         * @throws NullPointerException  se il nuovo valore è {@code null}.
+         * @throws IllegalStateException se la mappatura è stata rimossa dalla
+         *                               mappa, anche per rimpiazzo.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            synchronized (LruHMap.this) {
+                if (removed)
+                    throw new IllegalStateException("Mappatura non più presente nella mappa");
+                Object old = this.value;
+                this.value = value;
+                return old;
+            }
+        }
+    }
+
+    /**
+     * Iteratore sulla lista di accesso, dalla mappatura meno recente alla più
+     * recente. I nodi vengono copiati in un array alla creazione, così che
+     * gli spostamenti in fondo alla lista eseguiti da {@code get} e
+     * {@code put} non alterino l'iterazione; i nodi rimossi nel frattempo
+     * vengono saltati.
+     */
+    private final class NodeIterator implements HIterator {
+        private final Node[] snapshot; // Nodi in ordine di accesso
+        private int next; // Indice del prossimo nodo
+        private Node lastReturned; // Ultimo nodo restituito da next()
+
+        /**
+         * Costruisce un iteratore posizionato sulla mappatura meno recente.
+         */
+        public NodeIterator() {
+            synchronized (LruHMap.this) {
+                snapshot = new Node[nodes.size()];
+                int i = 0;
+                for (Node node = head.after; node != head; node = node.after)
+                    snapshot[i++] = node;
+            }
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            while (next < snapshot.length && snapshot[next].removed)
+                next++;
+            return next < snapshot.length;
+        }
+
+        /**
+         * Restituisce la prossima entry nell'iterazione.
+         *
+         * @return la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            lastReturned = snapshot[next++];
+            return lastReturned;
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultima entry restituita da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null)
+                throw new IllegalStateException();
+
+            synchronized (LruHMap.this) {
+                if (!lastReturned.removed)
+                    LruHMap.this.remove(lastReturned.key);
+            }
+            lastReturned = null;
+        }
+    }
+}
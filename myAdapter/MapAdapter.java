@@ -11,6 +11,18 @@ import java.util.NoSuchElementException;
  * hash, consentendo la memorizzazione di oggetti di qualsiasi tipo (Object).
  * I metodi sono strutturati per essere conformi alle specifiche di una mappa
  * standard.
+ * <p>
+ * Per risparmiare memoria quando si usano molte mappe piccole, la
+ * {@code Hashtable} viene creata solo quando serve: una mappa vuota non
+ * alloca alcuna tabella, e fino a {@value #PACKED_MAX} mappature chiavi e
+ * valori sono memorizzati alternati in un unico array, in cui le ricerche
+ * sono lineari. All'inserimento della mappatura successiva la mappa passa
+ * alla {@code Hashtable}, che mantiene fino a {@link #clear()}.
+ * <p>
+ * Come la {@code Hashtable}, la mappa può essere condivisa tra più thread:
+ * le modifiche, il passaggio alla {@code Hashtable} e le letture nella
+ * rappresentazione compatta sono sincronizzati sulla mappa, mentre le
+ * letture sulla {@code Hashtable} usano solo la sua sincronizzazione.
  * 
  */
 public class MapAdapter implements HMap {
@@ -18,27 +30,89 @@ public class MapAdapter implements HMap {
      * La {@code Hashtable} sottostante che funge da struttura dati per questa
      * mappa.
      * È dichiarata come {@code protected} per essere accessibile dalle classi
-     * interne.
+     * interne. Vale {@code null} finché la mappa usa la rappresentazione
+     * compatta; è {@code volatile} perché le letture, che non prendono il
+     * lock della mappa, vedano la tabella completa dopo il passaggio.
      */
-    protected Hashtable hash;
+    protected volatile Hashtable hash;
 
     /**
-     * Costruisce una nuova mappa vuota.
-     * Inizializza la {@code Hashtable} interna.
+     * Numero massimo di mappature nella rappresentazione compatta.
+     */
+    static final int PACKED_MAX = 8;
+
+    /**
+     * Chiavi e valori della rappresentazione compatta, alternati: la chiave
+     * {@code i} è in {@code packed[2 * i]} e il suo valore nella cella
+     * successiva. {@code null} se la mappa usa la {@code Hashtable} o non ha
+     * mai contenuto mappature.
+     */
+    private Object[] packed;
+
+    /**
+     * Numero di mappature, mantenuto sotto il lock della mappa in entrambe le
+     * rappresentazioni: nella rappresentazione compatta è la dimensione
+     * dell'array, con la {@code Hashtable} permette di seguirne i
+     * ridimensionamenti senza interrogarla.
+     */
+    private int count;
+
+    /**
+     * Capacità iniziale predefinita della {@code Hashtable}.
+     */
+    private static final int DEFAULT_CAPACITY = 11;
+
+    /**
+     * Somma dei codici hash delle entry della mappa, aggiornata a ogni
+     * inserimento e rimozione, così che {@link #hashCode()} costi O(1).
+     */
+    private int entryHashSum;
+
+    /**
+     * Somma dei codici hash dei valori della mappa, aggiornata insieme a
+     * {@link #entryHashSum}; permette alla vista dei valori di escludere in
+     * tempo costante l'uguaglianza con un'altra vista dei valori.
+     */
+    private int valueHashSum;
+
+    /**
+     * Capacità della {@code Hashtable} interna, ricavata riproducendo la sua
+     * politica di crescita: la capacità scelta alla creazione della tabella,
+     * raddoppiata più uno quando un inserimento trova la tabella piena al
+     * 75%. Non significativa nella rappresentazione compatta.
+     */
+    private int capacity;
+
+    /**
+     * Numero di mappature oltre il quale la {@code Hashtable} interna si
+     * ridimensiona, calcolato da {@link #capacity}.
+     */
+    private int threshold;
+
+    /**
+     * I contatori delle operazioni, {@code null} se le metriche sono
+     * disattivate.
+     */
+    private volatile MapMetrics metrics;
+
+    /**
+     * Costruisce una nuova mappa vuota, senza allocare alcuna tabella.
      */
     public MapAdapter() {
-        hash = new Hashtable();
     }
 
     /**
      * Costruisce una nuova mappa contenente le stesse mappature della mappa
      * specificata.
      * Questo è un costruttore di copia.
+     * <p>
+     * La rappresentazione interna viene dimensionata in base alla mappa
+     * sorgente, così che la copia non provochi ridimensionamenti.
      * 
      * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null}.
      */
     public MapAdapter(HMap m) {
-        hash = new Hashtable();
         putAll(m);
     }
 
@@ -49,7 +123,8 @@ public class MapAdapter implements HMap {
      */
     @Override
     public int size() {
-        return hash.size();
+        Hashtable h = hash;
+        return h == null ? packedSize() : h.size();
     }
 
     /**
@@ -60,7 +135,7 @@ public class MapAdapter implements HMap {
      */
     @Override
     public boolean isEmpty() {
-        return hash.isEmpty();
+        return size() == 0;
     }
 
     /**
@@ -77,7 +152,8 @@ public class MapAdapter implements HMap {
         if (key == null)
             throw new NullPointerException();
 
-        return hash.containsKey(key);
+        Hashtable h = hash;
+        return h == null ? packedGet(key) != null : h.containsKey(key);
     }
 
     /**
@@ -95,7 +171,8 @@ public class MapAdapter implements HMap {
         if (value == null)
             throw new NullPointerException();
 
-        return hash.contains(value);
+        Hashtable h = hash;
+        return h == null ? packedContainsValue(value) : h.contains(value);
     }
 
     /**
@@ -112,7 +189,12 @@ public class MapAdapter implements HMap {
         if (key == null)
             throw new NullPointerException();
 
-        return hash.get(key);
+        Hashtable h = hash;
+        Object value = h == null ? packedGet(key) : h.get(key);
+        MapMetrics m = metrics;
+        if (m != null)
+            m.record(value != null ? MapMetrics.GET_HIT : MapMetrics.GET_MISS);
+        return value;
     }
 
     /**
@@ -127,11 +209,36 @@ public class MapAdapter implements HMap {
      * @throws NullPointerException se la chiave o il valore sono {@code null}.
      */
     @Override
-    public Object put(Object key, Object value) {
+    public synchronized Object put(Object key, Object value) {
         if (key == null || value == null)
             throw new NullPointerException();
 
-        return hash.put(key, value);
+        Object old;
+        if (hash != null) {
+            old = hash.put(key, value);
+            if (old == null && ++count > threshold) {
+                // La Hashtable si è appena ridimensionata.
+                setCapacity(capacity * 2 + 1);
+                recordLocked(MapMetrics.RESIZE);
+            }
+        } else {
+            int i = packedIndexOf(key);
+            if (i >= 0) {
+                old = packed[i + 1];
+                packed[i + 1] = value;
+            } else {
+                old = null;
+                packedInsert(key, value);
+            }
+        }
+        if (old != null) {
+            entryHashSum -= key.hashCode() ^ old.hashCode();
+            valueHashSum -= old.hashCode();
+        }
+        entryHashSum += key.hashCode() ^ value.hashCode();
+        valueHashSum += value.hashCode();
+        recordLocked(old != null ? MapMetrics.PUT_REPLACE : MapMetrics.PUT_INSERT);
+        return old;
     }
 
     /**
@@ -143,11 +250,25 @@ public class MapAdapter implements HMap {
      * @throws NullPointerException se la chiave è {@code null}.
      */
     @Override
-    public Object remove(Object key) {
+    public synchronized Object remove(Object key) {
         if (key == null)
             throw new NullPointerException();
 
-        return hash.remove(key);
+        Object old;
+        if (hash != null) {
+            old = hash.remove(key);
+            if (old != null)
+                count--;
+        } else {
+            int i = packedIndexOf(key);
+            old = i >= 0 ? packedRemoveAt(i) : null;
+        }
+        if (old != null) {
+            entryHashSum -= key.hashCode() ^ old.hashCode();
+            valueHashSum -= old.hashCode();
+        }
+        recordLocked(old != null ? MapMetrics.REMOVE_HIT : MapMetrics.REMOVE_MISS);
+        return old;
     }
 
     /**
@@ -155,6 +276,12 @@ public class MapAdapter implements HMap {
      * Queste mappature sostituiranno qualsiasi mappatura che questa mappa aveva per
      * una qualsiasi delle chiavi
      * attualmente nella mappa specificata.
+     * <p>
+     * Se questa mappa è vuota e la sorgente non entra nella rappresentazione
+     * compatta, la {@code Hashtable} interna viene prima dimensionata per
+     * contenere tutte le mappature della sorgente. Le
+     * mappature vengono lette in un'unica scansione, senza cercare di nuovo
+     * ogni chiave nella sorgente.
      * 
      * @param sourceHMap la mappa le cui mappature devono essere memorizzate in
      *                   questa mappa.
@@ -167,30 +294,61 @@ public class MapAdapter implements HMap {
             throw new NullPointerException();
 
         // Se la mappa specificata è questa stessa mappa, non fare nulla.
-        if (sourceHMap.equals(this)) {
+        if (sourceHMap == this) {
             return;
         }
 
-        // Itera sulle chiavi della mappa specificata e aggiungi le entry a questa
-        // mappa.
-        HIterator it = sourceHMap.keySet().iterator();
-        while (it.hasNext()) {
-            Object key = it.next();
-            Object value = sourceHMap.get(key);
-            if (key == null || value == null) {
-                throw new NullPointerException();
+        int n = sourceHMap.size();
+        if (n == 0)
+            return;
+        synchronized (this) {
+            if (isEmpty() && n > PACKED_MAX) {
+                setCapacity(capacityFor(n));
+                hash = new Hashtable(capacity);
+                packed = null;
             }
-            hash.put(key, value);
+        }
+
+        if (sourceHMap instanceof MapAdapter) {
+            // Chiavi e valori della sorgente vengono enumerati nello stesso
+            // ordine: si scorrono in parallelo.
+            MapAdapter source = (MapAdapter) sourceHMap;
+            Object[] p = source.packedCopy();
+            if (p != null) {
+                // Copiando l'array compatto in ordine, la copia di una mappa
+                // compatta enumera le mappature nello stesso ordine.
+                for (int i = 0; i < p.length; i += 2)
+                    put(p[i], p[i + 1]);
+                return;
+            }
+            Enumeration keys = source.keyEnumeration();
+            Enumeration values = source.valueEnumeration();
+            while (keys.hasMoreElements()) {
+                // Passa da put() in modo che le sottoclassi vedano ogni inserimento.
+                put(keys.nextElement(), values.nextElement());
+            }
+            return;
+        }
+
+        HIterator it = sourceHMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry entry = (HEntry) it.next();
+            put(entry.getKey(), entry.getValue());
         }
     }
 
     /**
      * Rimuove tutte le mappature da questa mappa.
-     * La mappa sarà vuota dopo che questa chiamata ritorna.
+     * La mappa sarà vuota dopo che questa chiamata ritorna e, come una mappa
+     * appena creata, non occuperà alcuna tabella.
      */
     @Override
-    public void clear() {
-        hash.clear();
+    public synchronized void clear() {
+        hash = null;
+        packed = null;
+        count = 0;
+        entryHashSum = 0;
+        valueHashSum = 0;
     }
 
     /**
@@ -202,6 +360,7 @@ public class MapAdapter implements HMap {
      */
     @Override
     public HSet keySet() {
+        record(MapMetrics.VIEW);
         return new KeySet(this);
     }
 
@@ -215,6 +374,7 @@ public class MapAdapter implements HMap {
      */
     @Override
     public HCollection values() {
+        record(MapMetrics.VIEW);
         return new ValueCollection(this);
     }
 
@@ -226,23 +386,47 @@ public class MapAdapter implements HMap {
      */
     @Override
     public HSet entrySet() {
+        record(MapMetrics.VIEW);
         return new EntrySet(this);
     }
 
+    /**
+     * Restituisce un cursore sulle mappature di questa mappa, che non alloca
+     * oggetti per elemento (vedi {@link MapCursor}).
+     *
+     * @return un cursore posizionato prima della prima mappatura.
+     */
+    public MapCursor cursor() {
+        return new MapCursor(this);
+    }
+
     /**
      * Confronta l'oggetto specificato con questa mappa per l'uguaglianza.
      * Restituisce {@code true} se l'oggetto dato è anche una mappa e le due mappe
      * rappresentano le stesse mappature.
+     * <p>
+     * Prima del confronto elemento per elemento vengono confrontate le
+     * dimensioni e, se anche l'altra mappa è una {@code MapAdapter}, i codici
+     * hash (entrambi calcolati in tempo costante): mappe con dimensioni o
+     * codici hash diversi sono certamente diverse. I codici hash vengono
+     * letti con {@link #hashCode()}, che li legge sotto il lock della
+     * rispettiva mappa.
      * 
      * @param o l'oggetto da confrontare con questa mappa per l'uguaglianza.
      * @return {@code true} se l'oggetto specificato è uguale a questa mappa.
      */
     @Override
     public boolean equals(Object o) {
+        if (o == this)
+            return true;
         if (!(o instanceof HMap)) {
             return false;
         }
         HMap tmp = (HMap) o;
+        if (tmp.size() != size())
+            return false;
+        if (o instanceof MapAdapter && o.hashCode() != hashCode())
+            return false;
         // Due mappe sono uguali se i loro entrySet sono uguali.
         return entrySet().equals(tmp.entrySet());
     }
@@ -251,12 +435,19 @@ public class MapAdapter implements HMap {
      * Restituisce il codice hash per questa mappa.
      * Il codice hash di una mappa è definito come la somma dei codici hash di ogni
      * entry nel set di entry della mappa.
+     * <p>
+     * La somma viene mantenuta a ogni modifica della mappa, quindi il metodo
+     * costa O(1). Per questo, come già avviene per le chiavi, il codice hash
+     * dei valori non deve cambiare finché sono contenuti nella mappa. La somma
+     * viene aggiornata sotto il lock della mappa, nella stessa sezione critica
+     * della modifica, così che scritture concorrenti non la possano
+     * corrompere.
      * 
      * @return il codice hash per questa mappa.
      */
     @Override
-    public int hashCode() {
-        return entrySet().hashCode();
+    public synchronized int hashCode() {
+        return entryHashSum;
     }
 
     /**
@@ -283,33 +474,354 @@ public class MapAdapter implements HMap {
         return s;
     }
 
+    /**
+     * Restituisce una copia immutabile di questa mappa, ottimizzata per la
+     * sola lettura. Le modifiche successive a questa mappa non si riflettono
+     * nella copia.
+     *
+     * @return una {@link FrozenHMap} con le stesse mappature di questa mappa.
+     */
+    public FrozenHMap freeze() {
+        return new FrozenHMap(this);
+    }
+
+    /**
+     * Attiva il conteggio delle operazioni su questa mappa e sulle sue viste,
+     * con contatori azzerati. Se le metriche sono già attive non ha effetto.
+     * <p>
+     * Con le metriche disattivate ogni operazione paga solo la lettura di un
+     * campo. Con le metriche attive, {@code put} e {@code remove} incrementano
+     * un contatore sotto il lock della mappa che già possiedono; {@code get}
+     * e la creazione di viste e iteratori, che non prendono quel lock,
+     * aggiornano un contatore sotto il monitor del suo gruppo (vedi
+     * {@link MapMetrics}). Il benchmark {@code getMetrics} misura il costo di
+     * quest'ultimo caso rispetto a {@code get}. Il confronto con cui
+     * {@code put} segue la capacità della {@code Hashtable} non fa parte delle
+     * metriche: serve a {@link #bucketStats()} e si esegue in ogni caso, su
+     * campi già letti sotto il lock della mappa.
+     */
+    public synchronized void enableMetrics() {
+        if (metrics == null)
+            metrics = new MapMetrics(this);
+    }
+
+    /**
+     * Disattiva il conteggio delle operazioni e scarta i contatori.
+     */
+    public synchronized void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Restituisce i contatori delle operazioni di questa mappa.
+     *
+     * @return i contatori, o {@code null} se le metriche sono disattivate.
+     */
+    public MapMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Calcola la distribuzione delle chiavi tra i bucket della
+     * {@code Hashtable} interna (vedi {@link BucketStats}). Nella
+     * rappresentazione compatta, in cui ogni ricerca scorre l'intero array,
+     * la mappa viene descritta come un unico bucket.
+     * <p>
+     * Il calcolo scorre le chiavi una volta, invocandone {@code hashCode}, e
+     * non blocca la tabella: le modifiche concorrenti possono continuare e,
+     * se avvengono durante il calcolo, rendono la fotografia approssimata.
+     *
+     * @return la distribuzione delle chiavi.
+     */
+    public BucketStats bucketStats() {
+        int cap;
+        synchronized (this) {
+            cap = hash != null ? capacity : 1;
+        }
+        int[] chains = new int[cap];
+        ObjectCounter hashCodes = new ObjectCounter(size());
+        Enumeration keys = keyEnumeration();
+        while (keys.hasMoreElements()) {
+            int h = keys.nextElement().hashCode();
+            chains[(h & 0x7FFFFFFF) % cap]++;
+            hashCodes.add(new Integer(h));
+        }
+        return new BucketStats(cap, chains, hashCodes.distinct());
+    }
+
+    /**
+     * Incrementa un contatore, se le metriche sono attive. Usato anche dalle
+     * viste per contare gli iteratori creati.
+     *
+     * @param counter il contatore, una delle costanti di {@link MapMetrics}.
+     */
+    void record(int counter) {
+        MapMetrics m = metrics;
+        if (m != null)
+            m.record(counter);
+    }
+
+    /**
+     * Incrementa un contatore, se le metriche sono attive, per un'operazione
+     * eseguita sotto il lock della mappa, che il chiamante deve possedere.
+     *
+     * @param counter il contatore, una delle costanti di {@link MapMetrics}.
+     */
+    private void recordLocked(int counter) {
+        MapMetrics m = metrics;
+        if (m != null)
+            m.recordLocked(counter);
+    }
+
+    /**
+     * Restituisce un'enumerazione delle chiavi della mappa.
+     * <p>
+     * {@link #keyEnumeration()} e {@link #valueEnumeration()}, create una dopo
+     * l'altra, restituiscono chiavi e valori nello stesso ordine, quindi
+     * possono essere scorse in parallelo. Rimuovere dalla mappa la mappatura
+     * appena restituita non altera nessuna delle due enumerazioni.
+     *
+     * @return l'enumerazione delle chiavi.
+     */
+    Enumeration keyEnumeration() {
+        Hashtable h = hash;
+        return h != null ? h.keys() : packedEnumeration(0);
+    }
+
+    /**
+     * Restituisce un'enumerazione dei valori della mappa, nello stesso ordine
+     * di {@link #keyEnumeration()}.
+     *
+     * @return l'enumerazione dei valori.
+     */
+    Enumeration valueEnumeration() {
+        Hashtable h = hash;
+        return h != null ? h.elements() : packedEnumeration(1);
+    }
+
+    /**
+     * Restituisce la somma dei codici hash dei valori della mappa, mantenuta a
+     * ogni modifica.
+     * 
+     * @return la somma dei codici hash dei valori.
+     */
+    synchronized int valueHashSum() {
+        return valueHashSum;
+    }
+
+    /**
+     * Calcola la capacità iniziale di una {@code Hashtable} che deve contenere
+     * il numero di mappature specificato senza ridimensionamenti, dato il
+     * fattore di carico predefinito di 0.75.
+     * 
+     * @param n il numero di mappature.
+     * @return la capacità iniziale.
+     */
+    private static int capacityFor(int n) {
+        return Math.max((int) (n / 0.75f) + 1, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Restituisce il numero di mappature, letto sotto il lock della mappa
+     * perché la rappresentazione compatta può essere appena stata
+     * abbandonata.
+     *
+     * @return il numero di mappature.
+     */
+    private synchronized int packedSize() {
+        Hashtable h = hash;
+        return h == null ? count : h.size();
+    }
+
+    /**
+     * Cerca il valore di una chiave sotto il lock della mappa, nella
+     * rappresentazione compatta o, se nel frattempo la mappa è passata alla
+     * {@code Hashtable}, nella tabella.
+     *
+     * @param key la chiave (non {@code null}).
+     * @return il valore associato alla chiave, o {@code null}.
+     */
+    private synchronized Object packedGet(Object key) {
+        Hashtable h = hash;
+        if (h != null)
+            return h.get(key);
+        int i = packedIndexOf(key);
+        return i >= 0 ? packed[i + 1] : null;
+    }
+
+    /**
+     * Cerca un valore sotto il lock della mappa, come {@link #packedGet}.
+     *
+     * @param value il valore (non {@code null}).
+     * @return {@code true} se almeno una chiave è associata al valore.
+     */
+    private synchronized boolean packedContainsValue(Object value) {
+        Hashtable h = hash;
+        if (h != null)
+            return h.contains(value);
+        for (int i = 2 * count - 1; i > 0; i -= 2) {
+            if (value.equals(packed[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Crea un'enumerazione sulla rappresentazione compatta, leggendo array e
+     * numero di mappature sotto il lock della mappa; se nel frattempo la mappa
+     * è passata alla {@code Hashtable}, enumera la tabella.
+     *
+     * @param offset 0 per enumerare le chiavi, 1 per i valori.
+     * @return l'enumerazione.
+     */
+    private synchronized Enumeration packedEnumeration(int offset) {
+        Hashtable h = hash;
+        if (h != null)
+            return offset == 0 ? h.keys() : h.elements();
+        return new PackedEnumeration(packed, count, offset);
+    }
+
+    /**
+     * Copia, sotto il lock della mappa, chiavi e valori della
+     * rappresentazione compatta nell'ordine dell'array.
+     *
+     * @return le mappature alternate, o {@code null} se la mappa usa la
+     *         {@code Hashtable}.
+     */
+    private synchronized Object[] packedCopy() {
+        if (hash != null)
+            return null;
+        Object[] copy = new Object[2 * count];
+        if (count > 0)
+            System.arraycopy(packed, 0, copy, 0, copy.length);
+        return copy;
+    }
+
+    /**
+     * Imposta la capacità della {@code Hashtable} interna e la soglia di
+     * ridimensionamento corrispondente, dato il fattore di carico predefinito
+     * di 0.75.
+     *
+     * @param c la capacità.
+     */
+    private void setCapacity(int c) {
+        capacity = c;
+        threshold = (int) (c * 0.75f);
+    }
+
+    /**
+     * Cerca una chiave nella rappresentazione compatta. Va invocato con il
+     * lock della mappa.
+     *
+     * @param key la chiave (non {@code null}).
+     * @return l'indice della chiave in {@link #packed}, o {@code -1}.
+     */
+    private int packedIndexOf(Object key) {
+        Object[] p = packed;
+        for (int i = 2 * count - 2; i >= 0; i -= 2) {
+            Object k = p[i];
+            if (k == key || k.equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Aggiunge una mappatura assente alla rappresentazione compatta, passando
+     * alla {@code Hashtable} se l'array contiene già {@link #PACKED_MAX}
+     * mappature.
+     *
+     * @param key   la chiave.
+     * @param value il valore.
+     */
+    private void packedInsert(Object key, Object value) {
+        int n = count;
+        if (n == PACKED_MAX) {
+            // La tabella parte con spazio per il doppio delle mappature
+            // compatte, così da non ridimensionarsi subito.
+            setCapacity(capacityFor(2 * PACKED_MAX));
+            Hashtable h = new Hashtable(capacity);
+            for (int i = 0; i < 2 * n; i += 2)
+                h.put(packed[i], packed[i + 1]);
+            h.put(key, value);
+            hash = h;
+            packed = null;
+            count = n + 1;
+            recordLocked(MapMetrics.RESIZE);
+            return;
+        }
+        if (packed == null)
+            packed = new Object[4];
+        else if (2 * n == packed.length) {
+            Object[] grown = new Object[2 * packed.length];
+            System.arraycopy(packed, 0, grown, 0, 2 * n);
+            packed = grown;
+        }
+        packed[2 * n] = key;
+        packed[2 * n + 1] = value;
+        count = n + 1;
+    }
+
+    /**
+     * Rimuove una mappatura dalla rappresentazione compatta, spostando
+     * l'ultima al suo posto.
+     * <p>
+     * Le enumerazioni compatte scorrono l'array dalla fine, quindi la
+     * mappatura spostata è sempre già stata visitata e rimuovere quella
+     * appena restituita non fa saltare né ripetere elementi.
+     *
+     * @param i l'indice della chiave in {@link #packed}.
+     * @return il valore rimosso.
+     */
+    private Object packedRemoveAt(int i) {
+        Object[] p = packed;
+        Object old = p[i + 1];
+        int last = 2 * (count - 1);
+        p[i] = p[last];
+        p[i + 1] = p[last + 1];
+        p[last] = null;
+        p[last + 1] = null;
+        count--;
+        return old;
+    }
+
     // ---------------------- CLASSI PRIVATE ----------------------
 
     /**
      * Classe privata che rappresenta una singola entry (coppia chiave-valore) in
      * una mappa.
      * <p>
-     * In realtà rappresenta una vista su una coppia chiave-valore, ma
-     * non memorizza direttamente il valore.
-     * Per ottenere o modificare il valore associato a quella chiave, l' Entry deve
-     * comunicare con la mappa principale che contiene i dati reali
+     * L'entry memorizza la chiave e il valore letti durante l'iterazione, così
+     * che {@code getValue}, {@code equals}, {@code hashCode} e {@code toString}
+     * non debbano interrogare di nuovo la {@code Hashtable}. Le modifiche fatte
+     * con {@code setValue} vengono scritte nella mappa principale (write-through)
+     * tramite il riferimento {@code parentMap}.
+     * <p>
+     * Come previsto dalla specifica di {@code Map.Entry}, il comportamento di
+     * un'entry non è definito se la mappa viene modificata dopo che l'entry è
+     * stata restituita, se non tramite {@code setValue}. Se la mappatura viene
+     * rimossa con l'iteratore che ha restituito l'entry, {@code getValue}
+     * restituisce {@code null}.
      * Implementa l'interfaccia {@link HEntry}.
      */
     private class Entry implements HEntry {
         private Object key;
+        private Object value;
         private MapAdapter parentMap;// serve come "ponte" per permettere all'Entry
                                      // di usare i metodi della MapAdapter
 
         /**
-         * Costruttore che crea una nuova entry con la chiave e la mappa genitore
-         * specificate.
+         * Costruttore che crea una nuova entry con la chiave, il valore e la mappa
+         * genitore specificati.
          * 
          * @param p la mappa genitore che contiene questa entry.
          * @param k la chiave di questa entry.
+         * @param v il valore associato alla chiave al momento della creazione.
          */
-        public Entry(MapAdapter p, Object k) {
+        public Entry(MapAdapter p, Object k, Object v) {
             parentMap = p;
             key = k;
+            value = v;
         }
 
         /**
@@ -325,15 +837,17 @@ public class MapAdapter implements HMap {
         /**
          * Restituisce il valore di questa entry.
          * 
-         * @return il valore.
+         * @return il valore, o {@code null} se la mappatura è stata rimossa
+         *         tramite l'iteratore.
          */
         @Override
         public Object getValue() {
-            return parentMap.get(key);
+            return value;
         }
 
         /**
          * Sostituisce il valore di questa entry con il valore specificato.
+         * La modifica viene scritta anche nella mappa genitore.
          * 
          * @param value il nuovo valore da memorizzare in questa entry.
          * @return il vecchio valore.
@@ -344,7 +858,16 @@ public class MapAdapter implements HMap {
             if (value == null)
                 throw new NullPointerException();
 
-            return parentMap.put(key, value);
+            Object old = parentMap.put(key, value);
+            this.value = value;
+            return old;
+        }
+
+        /**
+         * Segna questa entry come rimossa dalla mappa.
+         */
+        private void detach() {
+            value = null;
         }
 
         /**
@@ -362,7 +885,7 @@ public class MapAdapter implements HMap {
                 return false;
 
             HEntry e = (HEntry) o;
-            return getKey().equals(e.getKey()) && getValue().equals(e.getValue());
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
         }
 
         /**
@@ -372,8 +895,7 @@ public class MapAdapter implements HMap {
          */
         @Override
         public int hashCode() {
-            return (getKey() == null ? 0 : getKey().hashCode()) ^
-                    (getValue() == null ? 0 : getValue().hashCode());
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
         }
 
         /**
@@ -384,7 +906,7 @@ public class MapAdapter implements HMap {
          */
         @Override
         public String toString() {
-            return getKey() + ": " + getValue();
+            return key + ": " + value;
         }
     }
 
@@ -419,9 +941,8 @@ public class MapAdapter implements HMap {
                 throw new ClassCastException();
             }
             HEntry tmp = (HEntry) o;
-            Object key = tmp.getKey();
-            Object value = tmp.getValue();
-            return parentMap.containsKey(key) && parentMap.get(key).equals(value);
+            Object value = parentMap.get(tmp.getKey());
+            return value != null && value.equals(tmp.getValue());
         }
 
         /**
@@ -516,6 +1037,19 @@ public class MapAdapter implements HMap {
             return modified;
         }
 
+        /**
+         * Restituisce l'elemento di questo set che corrisponde alla mappatura
+         * specificata, cioè una nuova entry.
+         * 
+         * @param key   la chiave della mappatura.
+         * @param value il valore della mappatura.
+         * @return l'entry.
+         */
+        @Override
+        protected Object elementOf(Object key, Object value) {
+            return new Entry(parentMap, key, value);
+        }
+
         /**
          * Confronta questo set con un altro oggetto per l'uguaglianza.
          * 
@@ -535,10 +1069,16 @@ public class MapAdapter implements HMap {
 
         /**
          * Classe privata che implementa un iteratore per il set di entry.
+         * <p>
+         * Scorre in parallelo le enumerazioni delle chiavi e dei valori della
+         * {@code Hashtable}: entrambe visitano i nodi della tabella nello stesso
+         * ordine, quindi a ogni passo la chiave e il valore appartengono alla
+         * stessa mappatura e non serve una ricerca per chiave.
          */
         private class EntrySetIterator implements HIterator {
             protected MapAdapter parentMap;
             private Enumeration en;
+            private Enumeration values;
             private boolean canRemove; // Flag per controllare se remove() può essere chiamato
             private Entry lastReturned;
 
@@ -549,7 +1089,9 @@ public class MapAdapter implements HMap {
              */
             public EntrySetIterator(MapAdapter p) {
                 parentMap = p;
-                en = parentMap.hash.keys();
+                parentMap.record(MapMetrics.ITERATOR);
+                en = parentMap.keyEnumeration();
+                values = parentMap.valueEnumeration();
                 canRemove = false;
             }
 
@@ -576,7 +1118,7 @@ public class MapAdapter implements HMap {
 
                 canRemove = true;
                 Object key = en.nextElement();
-                lastReturned = new Entry(parentMap, key);
+                lastReturned = new Entry(parentMap, key, values.nextElement());
                 return lastReturned;
             }
 
@@ -593,7 +1135,56 @@ public class MapAdapter implements HMap {
 
                 canRemove = false;
                 parentMap.remove(lastReturned.getKey());
+                lastReturned.detach();
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Enumerazione delle chiavi o dei valori della rappresentazione compatta.
+     * Scorre l'array dall'ultima mappatura alla prima (vedi
+     * {@link MapAdapter#packedRemoveAt(int)}).
+     */
+    private static class PackedEnumeration implements Enumeration {
+        private final Object[] table;
+        private int next; // Indice del prossimo elemento, negativo al termine
+
+        /**
+         * Costruisce un'enumerazione sulle prime {@code count} mappature.
+         *
+         * @param table  l'array della rappresentazione compatta, anche
+         *               {@code null} se {@code count} è 0.
+         * @param count  il numero di mappature.
+         * @param offset 0 per enumerare le chiavi, 1 per i valori.
+         */
+        PackedEnumeration(Object[] table, int count, int offset) {
+            this.table = table;
+            this.next = 2 * (count - 1) + offset;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasMoreElements() {
+            return next >= 0;
+        }
+
+        /**
+         * Restituisce il prossimo elemento.
+         *
+         * @return la prossima chiave o il prossimo valore.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object nextElement() {
+            if (next < 0)
+                throw new NoSuchElementException();
+            Object o = table[next];
+            next -= 2;
+            return o;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package myAdapter;
+
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursore riutilizzabile sulle mappature di una {@link MapAdapter}, ottenuto
+ * con {@link MapAdapter#cursor()}.
+ * <p>
+ * A differenza dell'iteratore dell'entry set, che alloca una nuova entry a
+ * ogni {@code next()}, il cursore scorre in parallelo le enumerazioni delle
+ * chiavi e dei valori della mappa, che li restituiscono nello stesso ordine,
+ * e non alloca nulla per elemento: chiave e valore della mappatura corrente
+ * si leggono con {@link #key()} e {@link #value()}. Una scansione completa
+ * alloca soltanto le due enumerazioni, create da {@link #reset()}.
+ * <p>
+ * {@link #setValue(Object)} e {@link #remove()} passano dai metodi
+ * {@code put} e {@code remove} della mappa, così che ogni sottoclasse veda le
+ * modifiche. Durante una scansione la mappa può essere modificata solo
+ * tramite il cursore.
+ * <p>
+ * Uso tipico:
+ * 
+ * <pre>
+ * MapCursor c = map.cursor();
+ * while (c.advance())
+ *     total += ((Integer) c.value()).intValue();
+ * </pre>
+ *
+ * @see MapAdapter#cursor()
+ */
+public final class MapCursor {
+    private final MapAdapter map;
+    private Enumeration keys;
+    private Enumeration values;
+    private Object key; // Chiave corrente, null se non c'è una mappatura corrente
+    private Object value;
+
+    /**
+     * Costruisce un cursore posizionato prima della prima mappatura.
+     *
+     * @param map la mappa da scorrere.
+     */
+    MapCursor(MapAdapter map) {
+        this.map = map;
+        reset();
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Riporta il cursore prima della prima mappatura, così che possa essere
+     * usato per una nuova scansione.
+     */
+    public void reset() {
+        keys = map.keyEnumeration();
+        values = map.valueEnumeration();
+        key = null;
+        value = null;
+        map.record(MapMetrics.ITERATOR);
+    }
+
+    /**
+     * Sposta il cursore sulla prossima mappatura.
+     *
+     * @return {@code true} se il cursore è su una mappatura, {@code false} se
+     *         la scansione è terminata.
+     */
+    public boolean advance() {
+        if (!keys.hasMoreElements()) {
+            key = null;
+            value = null;
+            return false;
+        }
+        key = keys.nextElement();
+        value = values.nextElement();
+        return true;
+    }
+
+    /**
+     * Restituisce la chiave della mappatura corrente.
+     *
+     * @return la chiave.
+     * @throws NoSuchElementException se il cursore non è su una mappatura.
+     */
+    public Object key() {
+        if (key == null)
+            throw new NoSuchElementException();
+        return key;
+    }
+
+    /**
+     * Restituisce il valore della mappatura corrente.
+     *
+     * @return il valore.
+     * @throws NoSuchElementException se il cursore non è su una mappatura.
+     */
+    public Object value() {
+        if (key == null)
+            throw new NoSuchElementException();
+        return value;
+    }
+
+    /**
+     * Sostituisce il valore della mappatura corrente.
+     *
+     * @param newValue il nuovo valore.
+     * @return il valore precedente.
+     * @throws NullPointerException  se il nuovo valore è {@code null}.
+     * @throws IllegalStateException se il cursore non è su una mappatura.
+     */
+    public Object setValue(Object newValue) {
+        if (newValue == null)
+            throw new NullPointerException();
+        if (key == null)
+            throw new IllegalStateException();
+
+        Object old = value;
+        map.put(key, newValue);
+        value = newValue;
+        return old;
+    }
+
+    /**
+     * Rimuove dalla mappa la mappatura corrente. Il cursore resta tra la
+     * mappatura rimossa e la successiva, e va spostato con
+     * {@link #advance()}.
+     *
+     * @throws IllegalStateException se il cursore non è su una mappatura.
+     */
+    public void remove() {
+        if (key == null)
+            throw new IllegalStateException();
+
+        map.remove(key);
+        key = null;
+        value = null;
+    }
+}
@@ -0,0 +1,262 @@
+package myAdapter;
+
+/**
+ * Contatori delle operazioni eseguite su una {@link MapAdapter} con le
+ * metriche attivate (vedi {@link MapAdapter#enableMetrics()}).
+ * <p>
+ * Ogni contatore è identificato da una delle costanti di questa classe. Le
+ * operazioni che la mappa esegue già sotto il proprio lock ({@code put},
+ * {@code remove} e i ridimensionamenti) aggiornano i contatori in quella
+ * stessa sezione critica, senza acquisire altri monitor. Le letture e la
+ * creazione di viste e iteratori non prendono il lock della mappa: per non
+ * serializzarle, i loro contatori sono suddivisi in {@value #STRIPES} gruppi
+ * (striping), scelti in base al codice hash di identità del thread, e ogni
+ * gruppo viene aggiornato sotto il proprio monitor, che thread diversi
+ * contendono solo se ricadono nello stesso gruppo. CLDC non dispone di
+ * variabili atomiche né di {@code ThreadLocal}, da cui questa soluzione.
+ * <p>
+ * {@link #snapshot()} somma i contatori e restituisce una fotografia
+ * immutabile, consultabile senza ulteriore sincronizzazione. I contatori
+ * vengono letti e azzerati sotto il monitor che ne protegge gli incrementi,
+ * quindi nessun incremento va perso e nessun contatore {@code long} viene
+ * letto a metà.
+ *
+ * @see MapAdapter
+ */
+public final class MapMetrics {
+    /**
+     * Chiamate a {@code get} che hanno trovato la chiave.
+     */
+    public static final int GET_HIT = 0;
+
+    /**
+     * Chiamate a {@code get} che non hanno trovato la chiave.
+     */
+    public static final int GET_MISS = 1;
+
+    /**
+     * Chiamate a {@code put} che hanno inserito una nuova chiave.
+     */
+    public static final int PUT_INSERT = 2;
+
+    /**
+     * Chiamate a {@code put} che hanno sostituito il valore di una chiave
+     * presente.
+     */
+    public static final int PUT_REPLACE = 3;
+
+    /**
+     * Chiamate a {@code remove} che hanno rimosso una mappatura.
+     */
+    public static final int REMOVE_HIT = 4;
+
+    /**
+     * Chiamate a {@code remove} su una chiave assente.
+     */
+    public static final int REMOVE_MISS = 5;
+
+    /**
+     * Ridimensionamenti della {@code Hashtable} sottostante, stimati
+     * riproducendo la sua politica di crescita, compreso il passaggio dalla
+     * rappresentazione compatta alla {@code Hashtable}.
+     */
+    public static final int RESIZE = 6;
+
+    /**
+     * Iteratori creati sulle viste della mappa, comprese le iterazioni
+     * interne di metodi come {@code toArray} ed {@code equals}.
+     */
+    public static final int ITERATOR = 7;
+
+    /**
+     * Viste ({@code keySet}, {@code values}, {@code entrySet}) allocate.
+     */
+    public static final int VIEW = 8;
+
+    /**
+     * Numero di contatori.
+     */
+    private static final int COUNTERS = 9;
+
+    /**
+     * Numero di gruppi di contatori (potenza di due).
+     */
+    private static final int STRIPES = 8;
+
+    /**
+     * Nomi dei contatori, usati da {@code toString}.
+     */
+    private static final String[] NAMES = { "getHit", "getMiss", "putInsert", "putReplace", "removeHit",
+            "removeMiss", "resize", "iterator", "view" };
+
+    /**
+     * Il lock della mappa, che protegge {@link #locked}.
+     */
+    private final Object lock;
+
+    /**
+     * Contatori aggiornati sotto il lock della mappa.
+     */
+    private final long[] locked = new long[COUNTERS];
+
+    /**
+     * I gruppi di contatori aggiornati senza il lock della mappa.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * Costruisce un insieme di contatori azzerati.
+     *
+     * @param lock il lock della mappa, posseduto da chi invoca
+     *             {@link #recordLocked(int)}.
+     */
+    MapMetrics(Object lock) {
+        this.lock = lock;
+        stripes = new Stripe[STRIPES];
+        for (int s = 0; s < STRIPES; s++)
+            stripes[s] = new Stripe();
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce una fotografia dei contatori.
+     *
+     * @return la fotografia.
+     */
+    public Snapshot snapshot() {
+        long[] totals = new long[COUNTERS];
+        synchronized (lock) {
+            for (int c = 0; c < COUNTERS; c++)
+                totals[c] = locked[c];
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            Stripe stripe = stripes[s];
+            synchronized (stripe) {
+                for (int c = 0; c < COUNTERS; c++)
+                    totals[c] += stripe.counts[c];
+            }
+        }
+        return new Snapshot(totals);
+    }
+
+    /**
+     * Azzera tutti i contatori. Gli incrementi eseguiti da altri thread durante
+     * l'azzeramento vengono conteggiati prima o dopo di esso, a seconda del
+     * gruppo in cui ricadono.
+     */
+    public void reset() {
+        synchronized (lock) {
+            for (int c = 0; c < COUNTERS; c++)
+                locked[c] = 0;
+        }
+        for (int s = 0; s < STRIPES; s++) {
+            Stripe stripe = stripes[s];
+            synchronized (stripe) {
+                for (int c = 0; c < COUNTERS; c++)
+                    stripe.counts[c] = 0;
+            }
+        }
+    }
+
+    /**
+     * Restituisce una rappresentazione testuale dei contatori correnti.
+     *
+     * @return la rappresentazione testuale di {@link #snapshot()}.
+     */
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    // ---------------------- METODI PACKAGE-PRIVATE ----------------------
+
+    /**
+     * Incrementa un contatore di un'operazione eseguita sotto il lock della
+     * mappa, che il chiamante deve possedere.
+     *
+     * @param counter il contatore.
+     */
+    void recordLocked(int counter) {
+        locked[counter]++;
+    }
+
+    /**
+     * Incrementa un contatore nel gruppo del thread corrente, per le
+     * operazioni eseguite senza il lock della mappa.
+     *
+     * @param counter il contatore.
+     */
+    void record(int counter) {
+        Stripe stripe = stripes[System.identityHashCode(Thread.currentThread()) & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.counts[counter]++;
+        }
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Gruppo di contatori, letti e scritti sotto il monitor del gruppo.
+     */
+    private static final class Stripe {
+        final long[] counts = new long[COUNTERS];
+    }
+
+    // ---------------------- CLASSI PUBBLICHE ----------------------
+
+    /**
+     * Fotografia immutabile dei contatori di una mappa.
+     */
+    public static final class Snapshot {
+        private final long[] values;
+
+        /**
+         * Costruisce una fotografia con i valori specificati.
+         *
+         * @param values i valori dei contatori.
+         */
+        private Snapshot(long[] values) {
+            this.values = values;
+        }
+
+        /**
+         * Restituisce il valore di un contatore.
+         *
+         * @param counter il contatore, una delle costanti di {@link MapMetrics}.
+         * @return il valore del contatore.
+         * @throws ArrayIndexOutOfBoundsException se il contatore non esiste.
+         */
+        public long get(int counter) {
+            return values[counter];
+        }
+
+        /**
+         * Restituisce la frazione di chiamate a {@code get} che hanno trovato
+         * la chiave.
+         *
+         * @return un valore tra 0 e 1, oppure 0 se non ci sono state chiamate.
+         */
+        public double hitRatio() {
+            long total = values[GET_HIT] + values[GET_MISS];
+            return total == 0 ? 0 : (double) values[GET_HIT] / total;
+        }
+
+        /**
+         * Restituisce una rappresentazione testuale della fotografia, nel
+         * formato "{getHit=..., getMiss=..., ...}".
+         *
+         * @return una rappresentazione stringa dei contatori.
+         */
+        @Override
+        public String toString() {
+            StringBuffer sb = new StringBuffer("{");
+            for (int c = 0; c < COUNTERS; c++) {
+                if (c > 0)
+                    sb.append(", ");
+                sb.append(NAMES[c]).append('=').append(values[c]);
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,1053 @@
+package myAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione persistente di {@link HMap} la cui tabella hash risiede in
+ * un file mappato in memoria.
+ * <p>
+ * Chiavi e valori vengono convertiti in byte tramite due {@link HCodec} e
+ * scritti nel file; la mappa non mantiene alcuna copia nello heap. Aprire un
+ * file esistente richiede di mapparlo e di verificarne l'intestazione e la
+ * tabella, controllando che ogni cella occupata indichi una posizione
+ * nell'area dei dati: l'apertura costa una scansione sequenziale della
+ * tabella, senza accedere ai record, e il caricamento delle loro pagine viene
+ * lasciato alla cache del sistema operativo. Un'intestazione o una tabella
+ * incoerente viene rifiutata all'apertura con una {@code IOException}.
+ * <p>
+ * Le lunghezze di chiave e valore di un record vengono verificate ogni volta
+ * che il record viene letto: un record che supera la fine dei dati o si
+ * sovrappone alla tabella provoca una {@code IllegalStateException}, invece
+ * di un accesso fuori dal file. {@link #verify()} esegue lo stesso controllo
+ * su tutti i record in anticipo. Il contenuto dei record non viene
+ * verificato: se i byte di una chiave o di un valore non possono essere
+ * decodificati, la lettura propaga l'eccezione del codec, che per le
+ * codifiche predefinite a lunghezza fissa è una
+ * {@code IllegalArgumentException}.
+ * <p>
+ * <b>Nota:</b> questa classe usa {@code java.nio} e {@code java.io.File}, che
+ * non fanno parte di CLDC 1.1. È pensata per l'esecuzione su una JVM
+ * completa e non deve essere usata dal codice destinato all'ambiente CLDC.
+ * <p>
+ * Struttura del file:
+ * <ul>
+ * <li>un'intestazione di 32 byte (numero magico, versione,
+ * posizione e capacità della tabella, dimensione, celle occupate, fine dei
+ * dati, byte inutilizzati);</li>
+ * <li>una tabella a indirizzamento aperto con scansione lineare, in cui ogni
+ * cella contiene l'hash della chiave codificata e la posizione del record;
+ * una cella con posizione 0 è vuota, una con posizione {@code -1} è una
+ * "lapide" lasciata da una rimozione;</li>
+ * <li>i record, ciascuno formato dalle lunghezze di chiave e valore seguite
+ * dai rispettivi byte.</li>
+ * </ul>
+ * I record e le tabelle vengono aggiunti in coda al file; quando lo spazio
+ * occupato da record sostituiti o rimossi supera quello dei dati validi, il
+ * file viene compattato. Le celle mantengono la propria posizione durante la
+ * compattazione, quindi gli iteratori restano validi.
+ * <p>
+ * Le modifiche sono visibili agli altri processi che mappano lo stesso file
+ * solo dopo {@link #flush()} o {@link #close()}; la mappa non è protetta
+ * contro l'interruzione del processo durante una scrittura. Poiché il file è
+ * mappato in un unico buffer, la sua dimensione non può superare
+ * {@code Integer.MAX_VALUE} byte. Chiavi e valori {@code null} non sono
+ * ammessi. La classe non è sincronizzata.
+ *
+ * @see AbstractHMap
+ * @see HCodec
+ */
+public class MappedHMap extends AbstractHMap {
+    /**
+     * Codifica per chiavi o valori {@code String}, in UTF-8.
+     */
+    public static final HCodec STRING_CODEC = new HCodec() {
+        public byte[] encode(Object o) {
+            try {
+                return ((String) o).getBytes("UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e.toString());
+            }
+        }
+
+        public Object decode(byte[] bytes) {
+            try {
+                return new String(bytes, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e.toString());
+            }
+        }
+    };
+
+    /**
+     * Codifica per chiavi o valori {@code Integer}, su 4 byte.
+     */
+    public static final HCodec INTEGER_CODEC = new HCodec() {
+        public byte[] encode(Object o) {
+            int v = ((Integer) o).intValue();
+            return new byte[] { (byte) (v >>> 24), (byte) (v >>> 16), (byte) (v >>> 8), (byte) v };
+        }
+
+        public Object decode(byte[] bytes) {
+            return Integer.valueOf((int) readLong(bytes, 4));
+        }
+    };
+
+    /**
+     * Codifica per chiavi o valori {@code Long}, su 8 byte.
+     */
+    public static final HCodec LONG_CODEC = new HCodec() {
+        public byte[] encode(Object o) {
+            long v = ((Long) o).longValue();
+            byte[] b = new byte[8];
+            for (int i = 7; i >= 0; i--, v >>>= 8)
+                b[i] = (byte) v;
+            return b;
+        }
+
+        public Object decode(byte[] bytes) {
+            return Long.valueOf(readLong(bytes, 8));
+        }
+    };
+
+    /**
+     * Numero magico che identifica il formato del file ("HMAP").
+     */
+    private static final int MAGIC = 0x484D4150;
+
+    /**
+     * Versione del formato del file.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Dimensione in byte dell'intestazione.
+     */
+    private static final int HEADER_SIZE = 32;
+
+    /**
+     * Dimensione in byte di una cella della tabella (hash e posizione).
+     */
+    private static final int SLOT_SIZE = 8;
+
+    /**
+     * Dimensione in byte dell'intestazione di un record (due lunghezze).
+     */
+    private static final int RECORD_HEADER = 8;
+
+    /**
+     * Posizione che indica una cella liberata da una rimozione.
+     */
+    private static final int DELETED = -1;
+
+    /**
+     * Capacità iniziale predefinita della tabella.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Numero minimo di byte inutilizzati prima di valutare la compattazione.
+     */
+    private static final int MIN_GARBAGE = 1 << 16;
+
+    // Posizioni dei campi dell'intestazione
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_TABLE = 8;
+    private static final int H_CAPACITY = 12;
+    private static final int H_SIZE = 16;
+    private static final int H_USED = 20;
+    private static final int H_END = 24;
+    private static final int H_GARBAGE = 28;
+
+    private final HCodec keyCodec;
+    private final HCodec valueCodec;
+    private RandomAccessFile file;
+    private FileChannel channel;
+    private MappedByteBuffer buf;
+
+    // Copie dei campi dell'intestazione
+    private int tableOffset;
+    private int capacity;
+    private int size;
+    private int used; // Celle non vuote, lapidi comprese
+    private int dataEnd;
+    private int garbage;
+
+    /**
+     * Apre la mappa memorizzata nel file specificato, creandolo vuoto se non
+     * esiste.
+     *
+     * @param f          il file che contiene la mappa.
+     * @param keyCodec   la codifica delle chiavi.
+     * @param valueCodec la codifica dei valori.
+     * @throws IOException          se il file non può essere aperto o non
+     *                              contiene una mappa valida.
+     * @throws NullPointerException se uno degli argomenti è {@code null}.
+     */
+    public MappedHMap(File f, HCodec keyCodec, HCodec valueCodec) throws IOException {
+        if (f == null || keyCodec == null || valueCodec == null)
+            throw new NullPointerException();
+
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        file = new RandomAccessFile(f, "rw");
+        channel = file.getChannel();
+        try {
+            long length = channel.size();
+            if (length == 0) {
+                map(HEADER_SIZE + DEFAULT_CAPACITY * SLOT_SIZE);
+                format(DEFAULT_CAPACITY);
+            } else {
+                if (length < HEADER_SIZE || length > Integer.MAX_VALUE)
+                    throw new IOException("File non valido: dimensione " + length);
+                map((int) length);
+                readHeader((int) length);
+                verifyTable();
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException  se la chiave è {@code null}.
+     * @throws IllegalStateException se la mappa è stata chiusa o un record
+     *                               letto è danneggiato.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        ensureOpen();
+
+        byte[] kb = keyCodec.encode(key);
+        int pos = find(kb, hash(kb));
+        return pos < 0 ? null : readValue(slotOffset(pos));
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     * Se il nuovo valore codificato ha la stessa lunghezza del precedente viene
+     * scritto al suo posto, altrimenti viene aggiunto un nuovo record.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException  se la chiave o il valore sono {@code null}.
+     * @throws IllegalStateException se la mappa è stata chiusa, un record
+     *                               letto è danneggiato o il file non può
+     *                               essere ingrandito.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+        ensureOpen();
+
+        byte[] kb = keyCodec.encode(key);
+        byte[] vb = valueCodec.encode(value);
+        int h = hash(kb);
+        int m = capacity - 1;
+        int pos = h & m;
+        int free = -1;
+        int off;
+        while ((off = slotOffset(pos)) != 0) {
+            if (off == DELETED) {
+                if (free < 0)
+                    free = pos;
+            } else if (slotHash(pos) == h && keyEquals(off, kb)) {
+                Object old = readValue(off);
+                if (buf.getInt(off + 4) == vb.length) {
+                    write(off + RECORD_HEADER + kb.length, vb);
+                } else {
+                    garbage += recordSize(off);
+                    setSlot(pos, h, append(kb, vb));
+                    writeHeader();
+                    compactIfNeeded();
+                }
+                return old;
+            }
+            pos = (pos + 1) & m;
+        }
+
+        int record = append(kb, vb);
+        if (free >= 0) {
+            pos = free;
+        } else {
+            used++;
+        }
+        setSlot(pos, h, record);
+        size++;
+        writeHeader();
+        if (used > capacity / 4 * 3)
+            rehash(size >= capacity / 2 ? capacity * 2 : capacity);
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException  se la chiave è {@code null}.
+     * @throws IllegalStateException se la mappa è stata chiusa o un record
+     *                               letto è danneggiato.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+        ensureOpen();
+
+        byte[] kb = keyCodec.encode(key);
+        int pos = find(kb, hash(kb));
+        if (pos < 0)
+            return null;
+
+        Object old = readValue(slotOffset(pos));
+        removeSlot(pos);
+        return old;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa. Il file non viene
+     * accorciato.
+     *
+     * @throws IllegalStateException se la mappa è stata chiusa.
+     */
+    @Override
+    public void clear() {
+        ensureOpen();
+        format(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Scrive su disco le modifiche ancora presenti solo in memoria.
+     *
+     * @throws IllegalStateException se la mappa è stata chiusa.
+     */
+    public void flush() {
+        ensureOpen();
+        buf.force();
+    }
+
+    /**
+     * Verifica le lunghezze di chiave e valore di tutti i record, senza
+     * decodificarli. All'apertura vengono controllate solo l'intestazione e la
+     * tabella; questo metodo anticipa i controlli che altrimenti vengono
+     * eseguiti alla prima lettura di ogni record, al costo di accedere a tutte
+     * le pagine dei dati.
+     *
+     * @throws IOException           se un record è danneggiato.
+     * @throws IllegalStateException se la mappa è stata chiusa.
+     */
+    public void verify() throws IOException {
+        ensureOpen();
+        for (int i = 0; i < capacity; i++) {
+            int off = slotOffset(i);
+            if (off > 0 && !validRecord(off))
+                throw new IOException("File danneggiato: record alla posizione " + off + " nella cella " + i);
+        }
+    }
+
+    /**
+     * Scrive su disco le modifiche e chiude il file. Dopo la chiusura ogni
+     * operazione sulla mappa lancia {@code IllegalStateException}; chiudere una
+     * mappa già chiusa non ha effetto.
+     *
+     * @throws IOException se il file non può essere chiuso.
+     */
+    public void close() throws IOException {
+        if (file == null)
+            return;
+
+        if (buf != null)
+            buf.force();
+        buf = null;
+        channel = null;
+        RandomAccessFile f = file;
+        file = null;
+        f.close();
+    }
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new SlotIterator(SlotIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore sulle chiavi che decodifica solo le chiavi.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new SlotIterator(SlotIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori che decodifica solo i valori.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new SlotIterator(SlotIterator.VALUES);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Verifica che la mappa non sia stata chiusa.
+     *
+     * @throws IllegalStateException se la mappa è stata chiusa.
+     */
+    private void ensureOpen() {
+        if (buf == null)
+            throw new IllegalStateException("Mappa chiusa");
+    }
+
+    /**
+     * Mappa in memoria i primi {@code length} byte del file, ingrandendolo se
+     * necessario.
+     *
+     * @param length la dimensione della regione da mappare.
+     * @throws IOException se la mappatura non riesce.
+     */
+    private void map(int length) throws IOException {
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+    }
+
+    /**
+     * Garantisce che il file mappato contenga almeno {@code end} byte,
+     * raddoppiandone la dimensione se necessario.
+     *
+     * @param end la posizione di fine richiesta.
+     * @throws IllegalStateException se il file dovrebbe superare
+     *                               {@code Integer.MAX_VALUE} byte o non può
+     *                               essere ingrandito.
+     */
+    private void reserve(long end) {
+        if (end <= buf.capacity())
+            return;
+        if (end > Integer.MAX_VALUE)
+            throw new IllegalStateException("Dimensione massima del file superata");
+
+        long length = Math.min(Math.max(end, 2L * buf.capacity()), Integer.MAX_VALUE);
+        try {
+            map((int) length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossibile ingrandire il file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Inizializza una mappa vuota con la capacità specificata.
+     *
+     * @param cap la capacità della tabella (potenza di due).
+     */
+    private void format(int cap) {
+        tableOffset = HEADER_SIZE;
+        capacity = cap;
+        size = 0;
+        used = 0;
+        dataEnd = HEADER_SIZE + cap * SLOT_SIZE;
+        garbage = 0;
+        reserve(dataEnd);
+        fill(tableOffset, cap * SLOT_SIZE);
+        buf.putInt(H_MAGIC, MAGIC);
+        buf.putInt(H_VERSION, VERSION);
+        writeHeader();
+    }
+
+    /**
+     * Legge e verifica l'intestazione di un file esistente.
+     *
+     * @param length la dimensione del file.
+     * @throws IOException se l'intestazione non è valida.
+     */
+    private void readHeader(int length) throws IOException {
+        if (buf.getInt(H_MAGIC) != MAGIC)
+            throw new IOException("File non valido: numero magico errato");
+        if (buf.getInt(H_VERSION) != VERSION)
+            throw new IOException("Versione del formato non supportata: " + buf.getInt(H_VERSION));
+
+        tableOffset = buf.getInt(H_TABLE);
+        capacity = buf.getInt(H_CAPACITY);
+        size = buf.getInt(H_SIZE);
+        used = buf.getInt(H_USED);
+        dataEnd = buf.getInt(H_END);
+        garbage = buf.getInt(H_GARBAGE);
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0 || tableOffset < HEADER_SIZE
+                || (long) tableOffset + (long) capacity * SLOT_SIZE > dataEnd || dataEnd > length
+                || size < 0 || size > used || used >= capacity || garbage < 0 || garbage > dataEnd)
+            throw new IOException("File non valido: intestazione incoerente");
+    }
+
+    /**
+     * Verifica che ogni cella della tabella sia vuota, una lapide o una
+     * posizione nell'area dei dati esterna alla tabella, e che i conteggi
+     * dell'intestazione corrispondano alle celle. I record non vengono letti:
+     * le loro lunghezze sono verificate da {@link #checkRecord(int)}.
+     *
+     * @throws IOException se la tabella non è coerente.
+     */
+    private void verifyTable() throws IOException {
+        long tableEnd = (long) tableOffset + (long) capacity * SLOT_SIZE;
+        int live = 0;
+        int deleted = 0;
+        for (int i = 0; i < capacity; i++) {
+            int off = slotOffset(i);
+            if (off == 0)
+                continue;
+            if (off == DELETED) {
+                deleted++;
+                continue;
+            }
+            if (off < HEADER_SIZE || off > dataEnd - RECORD_HEADER || (off >= tableOffset && off < tableEnd))
+                throw new IOException("File non valido: posizione " + off + " nella cella " + i);
+            live++;
+        }
+        if (live != size || live + deleted != used)
+            throw new IOException("File non valido: conteggi della tabella incoerenti");
+    }
+
+    /**
+     * Scrive nell'intestazione i campi che descrivono lo stato della mappa.
+     */
+    private void writeHeader() {
+        buf.putInt(H_TABLE, tableOffset);
+        buf.putInt(H_CAPACITY, capacity);
+        buf.putInt(H_SIZE, size);
+        buf.putInt(H_USED, used);
+        buf.putInt(H_END, dataEnd);
+        buf.putInt(H_GARBAGE, garbage);
+    }
+
+    /**
+     * Calcola l'hash di una chiave codificata.
+     *
+     * @param b la chiave codificata.
+     * @return l'hash, con i bit alti mescolati in quelli bassi.
+     */
+    private static int hash(byte[] b) {
+        int h = 1;
+        for (int i = 0; i < b.length; i++)
+            h = 31 * h + b[i];
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Legge un intero big-endian dai primi {@code n} byte di un array.
+     *
+     * @param b l'array.
+     * @param n il numero di byte da leggere.
+     * @return il valore letto.
+     * @throws IllegalArgumentException se l'array non ha lunghezza {@code n}.
+     */
+    private static long readLong(byte[] b, int n) {
+        if (b.length != n)
+            throw new IllegalArgumentException("Lunghezza non valida: " + b.length);
+
+        long v = 0;
+        for (int i = 0; i < n; i++)
+            v = (v << 8) | (b[i] & 0xFF);
+        return v;
+    }
+
+    /**
+     * Restituisce l'hash memorizzato nella cella specificata.
+     *
+     * @param pos la cella.
+     * @return l'hash della chiave.
+     */
+    private int slotHash(int pos) {
+        return buf.getInt(tableOffset + pos * SLOT_SIZE);
+    }
+
+    /**
+     * Restituisce la posizione del record memorizzata nella cella specificata.
+     *
+     * @param pos la cella.
+     * @return la posizione del record, 0 per una cella vuota o {@code -1} per
+     *         una lapide.
+     */
+    private int slotOffset(int pos) {
+        return buf.getInt(tableOffset + pos * SLOT_SIZE + 4);
+    }
+
+    /**
+     * Scrive hash e posizione del record nella cella specificata.
+     *
+     * @param pos    la cella.
+     * @param h      l'hash della chiave.
+     * @param offset la posizione del record.
+     */
+    private void setSlot(int pos, int h, int offset) {
+        int base = tableOffset + pos * SLOT_SIZE;
+        buf.putInt(base, h);
+        buf.putInt(base + 4, offset);
+    }
+
+    /**
+     * Cerca la cella che contiene la chiave specificata.
+     *
+     * @param kb la chiave codificata.
+     * @param h  l'hash della chiave.
+     * @return la cella della chiave, o {@code -1} se la chiave non è presente.
+     */
+    private int find(byte[] kb, int h) {
+        int m = capacity - 1;
+        int pos = h & m;
+        int off;
+        while ((off = slotOffset(pos)) != 0) {
+            if (off != DELETED && slotHash(pos) == h && keyEquals(off, kb))
+                return pos;
+            pos = (pos + 1) & m;
+        }
+        return -1;
+    }
+
+    /**
+     * Verifica che le lunghezze del record specificato lo mantengano
+     * nell'area dei dati e fuori dalla tabella.
+     *
+     * @param off la posizione del record.
+     * @return {@code true} se il record è valido.
+     */
+    private boolean validRecord(int off) {
+        int keyLength = buf.getInt(off);
+        int valueLength = buf.getInt(off + 4);
+        long end = (long) off + RECORD_HEADER + keyLength + valueLength;
+        return keyLength >= 0 && valueLength >= 0 && end <= dataEnd
+                && (end <= tableOffset || off >= (long) tableOffset + (long) capacity * SLOT_SIZE);
+    }
+
+    /**
+     * Verifica il record specificato prima di leggerlo.
+     *
+     * @param off la posizione del record.
+     * @throws IllegalStateException se il record è danneggiato.
+     */
+    private void checkRecord(int off) {
+        if (!validRecord(off))
+            throw new IllegalStateException("File danneggiato: record alla posizione " + off);
+    }
+
+    /**
+     * Confronta la chiave del record specificato con una chiave codificata.
+     *
+     * @param off la posizione del record.
+     * @param kb  la chiave codificata.
+     * @return {@code true} se le due chiavi coincidono byte per byte.
+     */
+    private boolean keyEquals(int off, byte[] kb) {
+        checkRecord(off);
+        if (buf.getInt(off) != kb.length)
+            return false;
+        int base = off + RECORD_HEADER;
+        for (int i = 0; i < kb.length; i++) {
+            if (buf.get(base + i) != kb[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Restituisce la dimensione in byte del record specificato.
+     *
+     * @param off la posizione del record.
+     * @return la dimensione del record, intestazione compresa.
+     */
+    private int recordSize(int off) {
+        checkRecord(off);
+        return RECORD_HEADER + buf.getInt(off) + buf.getInt(off + 4);
+    }
+
+    /**
+     * Decodifica la chiave del record specificato.
+     *
+     * @param off la posizione del record.
+     * @return la chiave.
+     */
+    private Object readKey(int off) {
+        checkRecord(off);
+        return keyCodec.decode(read(off + RECORD_HEADER, buf.getInt(off)));
+    }
+
+    /**
+     * Decodifica il valore del record specificato.
+     *
+     * @param off la posizione del record.
+     * @return il valore.
+     */
+    private Object readValue(int off) {
+        checkRecord(off);
+        int keyLength = buf.getInt(off);
+        return valueCodec.decode(read(off + RECORD_HEADER + keyLength, buf.getInt(off + 4)));
+    }
+
+    /**
+     * Legge {@code length} byte a partire dalla posizione specificata.
+     *
+     * @param pos    la posizione iniziale.
+     * @param length il numero di byte.
+     * @return i byte letti.
+     */
+    private byte[] read(int pos, int length) {
+        byte[] b = new byte[length];
+        ByteBuffer d = buf.duplicate();
+        d.position(pos);
+        d.get(b);
+        return b;
+    }
+
+    /**
+     * Scrive i byte specificati a partire dalla posizione indicata.
+     *
+     * @param pos la posizione iniziale.
+     * @param b   i byte da scrivere.
+     */
+    private void write(int pos, byte[] b) {
+        ByteBuffer d = buf.duplicate();
+        d.position(pos);
+        d.put(b);
+    }
+
+    /**
+     * Azzera una regione del file.
+     *
+     * @param pos    la posizione iniziale.
+     * @param length il numero di byte, multiplo di 8.
+     */
+    private void fill(int pos, int length) {
+        for (int end = pos + length; pos < end; pos += 8)
+            buf.putLong(pos, 0L);
+    }
+
+    /**
+     * Sposta una regione del file verso posizioni inferiori (o uguali).
+     *
+     * @param from   la posizione iniziale della regione.
+     * @param to     la posizione di destinazione, non maggiore di {@code from}.
+     * @param length il numero di byte.
+     */
+    private void moveDown(int from, int to, int length) {
+        if (from == to)
+            return;
+        ByteBuffer src = buf.duplicate();
+        ByteBuffer dst = buf.duplicate();
+        byte[] chunk = new byte[Math.min(length, 8192)];
+        src.position(from);
+        dst.position(to);
+        while (length > 0) {
+            int n = Math.min(length, chunk.length);
+            src.get(chunk, 0, n);
+            dst.put(chunk, 0, n);
+            length -= n;
+        }
+    }
+
+    /**
+     * Aggiunge un record in coda ai dati.
+     *
+     * @param kb la chiave codificata.
+     * @param vb il valore codificato.
+     * @return la posizione del record.
+     */
+    private int append(byte[] kb, byte[] vb) {
+        int off = dataEnd;
+        reserve((long) off + RECORD_HEADER + kb.length + vb.length);
+        buf.putInt(off, kb.length);
+        buf.putInt(off + 4, vb.length);
+        write(off + RECORD_HEADER, kb);
+        write(off + RECORD_HEADER + kb.length, vb);
+        dataEnd = off + RECORD_HEADER + kb.length + vb.length;
+        return off;
+    }
+
+    /**
+     * Rimuove la mappatura contenuta nella cella specificata, lasciando una
+     * lapide.
+     *
+     * @param pos la cella da liberare.
+     */
+    private void removeSlot(int pos) {
+        garbage += recordSize(slotOffset(pos));
+        setSlot(pos, 0, DELETED);
+        size--;
+        writeHeader();
+        compactIfNeeded();
+    }
+
+    /**
+     * Ricostruisce la tabella con la capacità specificata in coda al file,
+     * eliminando le lapidi.
+     *
+     * @param newCapacity la nuova capacità (potenza di due).
+     */
+    private void rehash(int newCapacity) {
+        int bytes = newCapacity * SLOT_SIZE;
+        reserve((long) dataEnd + bytes);
+        int newTable = dataEnd;
+        fill(newTable, bytes);
+
+        int m = newCapacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            int off = slotOffset(i);
+            if (off > 0) {
+                int h = slotHash(i);
+                int p = h & m;
+                while (buf.getInt(newTable + p * SLOT_SIZE + 4) != 0)
+                    p = (p + 1) & m;
+                buf.putInt(newTable + p * SLOT_SIZE, h);
+                buf.putInt(newTable + p * SLOT_SIZE + 4, off);
+            }
+        }
+
+        garbage += capacity * SLOT_SIZE;
+        tableOffset = newTable;
+        capacity = newCapacity;
+        used = size;
+        dataEnd = newTable + bytes;
+        writeHeader();
+        compactIfNeeded();
+    }
+
+    /**
+     * Compatta il file se i byte inutilizzati sono più di quelli validi.
+     */
+    private void compactIfNeeded() {
+        if (garbage >= MIN_GARBAGE && garbage > dataEnd / 2)
+            compact();
+    }
+
+    /**
+     * Compatta il file: i record validi vengono spostati all'inizio, in ordine
+     * di posizione, e la tabella viene ricopiata subito dopo di essi. Ogni
+     * mappatura resta nella stessa cella, quindi gli iteratori in corso non
+     * vengono invalidati.
+     */
+    private void compact() {
+        // Copia della tabella in coda, dove lo spostamento dei record non la
+        // sovrascrive
+        int bytes = capacity * SLOT_SIZE;
+        reserve((long) dataEnd + bytes);
+        int table = dataEnd;
+        for (int i = 0; i < bytes; i += 8)
+            buf.putLong(table + i, buf.getLong(tableOffset + i));
+        tableOffset = table;
+
+        // Record validi ordinati per posizione
+        long[] records = new long[size];
+        int n = 0;
+        for (int i = 0; i < capacity; i++) {
+            int off = slotOffset(i);
+            if (off > 0)
+                records[n++] = ((long) off << 32) | i;
+        }
+        Arrays.sort(records, 0, n);
+
+        // Verifica dei record prima di spostarne alcuno: devono essere validi
+        // e non sovrapposti
+        int end = HEADER_SIZE;
+        for (int i = 0; i < n; i++) {
+            int off = (int) (records[i] >>> 32);
+            if (off < end)
+                throw new IllegalStateException("File danneggiato: record alla posizione " + off);
+            end = off + recordSize(off);
+        }
+
+        int cursor = HEADER_SIZE;
+        for (int i = 0; i < n; i++) {
+            int off = (int) (records[i] >>> 32);
+            int slot = (int) records[i];
+            int length = recordSize(off);
+            moveDown(off, cursor, length);
+            buf.putInt(tableOffset + slot * SLOT_SIZE + 4, cursor);
+            cursor += length;
+        }
+
+        moveDown(tableOffset, cursor, bytes);
+        tableOffset = cursor;
+        dataEnd = cursor + bytes;
+        garbage = 0;
+        writeHeader();
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Entry restituita dall'iteratore: contiene chiave e valore decodificati,
+     * e scrive nella mappa le modifiche fatte con {@code setValue}.
+     */
+    private class Entry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        Entry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry e lo scrive nella mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            Object old = put(key, value);
+            this.value = value;
+            return old;
+        }
+    }
+
+    /**
+     * Iteratore sulle celle della tabella, usato da tutte e tre le viste. Le
+     * rimozioni lasciano lapidi e la compattazione non sposta le mappature tra
+     * le celle, quindi la scansione in ordine crescente non salta né ripete
+     * elementi.
+     */
+    private class SlotIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private int pos; // Prossima cella da esaminare
+        private int last = -1; // Cella dell'ultimo elemento restituito
+        private int remaining; // Elementi ancora da restituire
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         * @throws IllegalStateException se la mappa è stata chiusa.
+         */
+        public SlotIterator(int mode) {
+            ensureOpen();
+            this.mode = mode;
+            this.remaining = size;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         * @throws IllegalStateException  se il record è danneggiato.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            ensureOpen();
+
+            int off;
+            while ((off = slotOffset(pos)) <= 0)
+                pos++;
+            last = pos++;
+            remaining--;
+            if (mode == KEYS)
+                return readKey(off);
+            if (mode == VALUES)
+                return readValue(off);
+            return new Entry(readKey(off), readValue(off));
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultimo elemento restituito da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+            ensureOpen();
+
+            removeSlot(last);
+            last = -1;
+        }
+    }
+}
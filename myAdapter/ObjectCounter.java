@@ -0,0 +1,142 @@
+package myAdapter;
+
+/**
+ * Tabella hash che associa a ogni oggetto un contatore {@code int}, usata per
+ * confrontare collezioni come multiinsiemi (stessi elementi con la stessa
+ * cardinalità) e come insieme di appartenenza nelle operazioni di massa delle
+ * viste.
+ * <p>
+ * A differenza di una {@code Hashtable} di contatori {@code Integer}, non
+ * alloca un oggetto a ogni incremento o decremento: chiavi e contatori sono
+ * memorizzati in due array paralleli a indirizzamento aperto, dimensionati una
+ * sola volta in base al numero di elementi atteso.
+ * <p>
+ * Classe di supporto interna al package; gli elementi {@code null} non sono
+ * ammessi.
+ */
+final class ObjectCounter {
+    private Object[] keys;
+    private int[] counts;
+    private int mask;
+    private int distinct; // Numero di chiavi distinte presenti
+
+    /**
+     * Costruisce una tabella vuota dimensionata per il numero di elementi
+     * specificato.
+     *
+     * @param expected il numero massimo atteso di elementi distinti.
+     */
+    ObjectCounter(int expected) {
+        int capacity = 4;
+        while (capacity < 2 * expected && capacity < (1 << 30))
+            capacity <<= 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Incrementa il contatore dell'oggetto specificato.
+     *
+     * @param o l'oggetto, non {@code null}.
+     */
+    void add(Object o) {
+        int pos = indexFor(o);
+        if (keys[pos] != null) {
+            counts[pos]++;
+            return;
+        }
+        keys[pos] = o;
+        counts[pos] = 1;
+        if (++distinct * 2 > keys.length)
+            rehash(keys.length * 2);
+    }
+
+    /**
+     * Decrementa il contatore dell'oggetto specificato, se è positivo.
+     *
+     * @param o l'oggetto, anche {@code null}.
+     * @return {@code true} se il contatore era positivo ed è stato
+     *         decrementato, {@code false} se l'oggetto non è presente o il suo
+     *         contatore è già zero.
+     */
+    boolean remove(Object o) {
+        if (o == null)
+            return false;
+
+        int pos = indexFor(o);
+        if (keys[pos] == null || counts[pos] == 0)
+            return false;
+        counts[pos]--;
+        return true;
+    }
+
+    /**
+     * Verifica se il contatore dell'oggetto specificato è positivo.
+     *
+     * @param o l'oggetto, anche {@code null}.
+     * @return {@code true} se l'oggetto è stato aggiunto più volte di quante
+     *         sia stato rimosso.
+     */
+    boolean contains(Object o) {
+        if (o == null)
+            return false;
+
+        int pos = indexFor(o);
+        return keys[pos] != null && counts[pos] > 0;
+    }
+
+    /**
+     * Restituisce il numero di oggetti distinti aggiunti, compresi quelli il
+     * cui contatore è tornato a zero.
+     *
+     * @return il numero di oggetti distinti.
+     */
+    int distinct() {
+        return distinct;
+    }
+
+    /**
+     * Restituisce la cella che contiene l'oggetto, oppure la cella vuota in
+     * cui andrebbe inserito.
+     *
+     * @param o l'oggetto.
+     * @return l'indice della cella.
+     */
+    private int indexFor(Object o) {
+        int h = o.hashCode() * 0x9E3779B9;
+        int pos = (h ^ (h >>> 16)) & mask;
+        Object k;
+        while ((k = keys[pos]) != null && !k.equals(o))
+            pos = (pos + 1) & mask;
+        return pos;
+    }
+
+    /**
+     * Alloca array vuoti della capacità specificata.
+     *
+     * @param capacity la capacità (potenza di due).
+     */
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Raddoppia la tabella; necessario solo se la collezione contata contiene
+     * più elementi di quelli attesi.
+     *
+     * @param capacity la nuova capacità.
+     */
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int pos = indexFor(oldKeys[i]);
+                keys[pos] = oldKeys[i];
+                counts[pos] = oldCounts[i];
+            }
+        }
+    }
+}
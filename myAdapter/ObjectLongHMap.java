@@ -0,0 +1,431 @@
+package myAdapter;
+
+/**
+ * Implementazione di {@link HMap} con chiavi oggetto e valori {@code long}.
+ * <p>
+ * I valori sono memorizzati in un array {@code long[]} parallelo all'array delle
+ * chiavi, nella stessa tabella a indirizzamento aperto di {@link OpenHashMap}.
+ * I metodi specializzati {@link #getLong(Object)},
+ * {@link #putLong(Object, long)}, {@link #removeLong(Object)} e
+ * {@link #addTo(Object, long)} non allocano alcun oggetto; in particolare
+ * {@code addTo} aggiorna un contatore con una sola ricerca, senza creare un
+ * nuovo {@code Long} a ogni incremento.
+ * <p>
+ * Poiché un {@code long} non può essere {@code null}, i metodi specializzati
+ * segnalano l'assenza di una mappatura restituendo il valore predefinito
+ * impostato con {@link #defaultReturnValue(long)} (inizialmente 0); per
+ * distinguere un valore uguale a quello predefinito si usa
+ * {@link #containsKey(Object)}.
+ * <p>
+ * I metodi dell'interfaccia {@link HMap} e le viste accettano e restituiscono
+ * valori {@code Long}, con la semantica consueta ({@code null} indica
+ * l'assenza della mappatura); {@code put} rifiuta un valore di altro tipo con
+ * una {@code ClassCastException}. Le chiavi {@code null} non sono ammesse. La
+ * classe non è sincronizzata.
+ *
+ * @see ObjectIntHMap
+ * @see OpenHashMap
+ */
+public class ObjectLongHMap extends AbstractPrimitiveHMap {
+    /**
+     * Le chiavi, una per cella; {@code null} indica una cella vuota.
+     */
+    private Object[] keys;
+
+    /**
+     * I valori, paralleli all'array delle chiavi.
+     */
+    private long[] vals;
+
+    /**
+     * Il valore restituito dai metodi specializzati in assenza di mappatura.
+     */
+    private long defaultReturnValue;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità e fattore di carico
+     * predefiniti.
+     */
+    public ObjectLongHMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato senza ridimensionamenti.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo.
+     */
+    public ObjectLongHMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato con il fattore di carico dato.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico, compreso tra 0 (escluso) e 1
+     *                     (escluso).
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo o se
+     *                                  il fattore di carico non è valido.
+     */
+    public ObjectLongHMap(int expectedSize, float loadFactor) {
+        super(expectedSize, loadFactor);
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi {@code null}.
+     * @throws ClassCastException   se un valore non è un {@code Long}.
+     */
+    public ObjectLongHMap(HMap m) {
+        this(m.size(), DEFAULT_LOAD_FACTOR);
+        putAll(m);
+    }
+
+    // ---------------------- METODI SPECIALIZZATI ----------------------
+
+    /**
+     * Restituisce il valore che i metodi specializzati restituiscono in
+     * assenza di mappatura.
+     *
+     * @return il valore predefinito.
+     */
+    public long defaultReturnValue() {
+        return defaultReturnValue;
+    }
+
+    /**
+     * Imposta il valore che i metodi specializzati restituiscono in assenza di
+     * mappatura.
+     *
+     * @param value il nuovo valore predefinito.
+     */
+    public void defaultReturnValue(long value) {
+        defaultReturnValue = value;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o il valore predefinito se non
+     *         c'è alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    public long getLong(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        return pos < 0 ? defaultReturnValue : vals[pos];
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o il valore
+     *         predefinito se non c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    public long putLong(Object key, long value) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = insertionPoint(key);
+        if (keys[pos] != null) {
+            long old = vals[pos];
+            vals[pos] = value;
+            return old;
+        }
+
+        keys[pos] = key;
+        vals[pos] = value;
+        inserted();
+        return defaultReturnValue;
+    }
+
+    /**
+     * Somma l'incremento specificato al valore associato alla chiave. Se la
+     * chiave non è presente, viene inserita con valore pari al valore
+     * predefinito più l'incremento.
+     *
+     * @param key       la chiave il cui valore deve essere incrementato.
+     * @param increment l'incremento (anche negativo).
+     * @return il valore associato alla chiave prima dell'incremento, o il
+     *         valore predefinito se non c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    public long addTo(Object key, long increment) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = insertionPoint(key);
+        if (keys[pos] != null) {
+            long old = vals[pos];
+            vals[pos] = old + increment;
+            return old;
+        }
+
+        keys[pos] = key;
+        vals[pos] = defaultReturnValue + increment;
+        inserted();
+        return defaultReturnValue;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o il valore
+     *         predefinito se non c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    public long removeLong(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        if (pos < 0)
+            return defaultReturnValue;
+
+        long old = vals[pos];
+        removeAt(pos);
+        return old;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     */
+    public boolean containsValue(long value) {
+        Object[] k = keys;
+        long[] v = vals;
+        for (int i = k.length; i-- != 0;) {
+            if (k[i] != null && v[i] == value)
+                return true;
+        }
+        return false;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se il valore è un {@code Long} associato ad
+     *         almeno una chiave.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        return value instanceof Long && containsValue(((Long) value).longValue());
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave come {@code Long}, o
+     *         {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        return pos < 0 ? null : new Long(vals[pos]);
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore, un {@code Long}.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     * @throws ClassCastException   se il valore non è un {@code Long}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        long v = ((Long) value).longValue();
+        int pos = insertionPoint(key);
+        if (keys[pos] != null) {
+            long old = vals[pos];
+            vals[pos] = v;
+            return new Long(old);
+        }
+
+        keys[pos] = key;
+        vals[pos] = v;
+        inserted();
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave come {@code Long},
+     *         o {@code null} se non c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        if (pos < 0)
+            return null;
+
+        long old = vals[pos];
+        removeAt(pos);
+        return new Long(old);
+    }
+
+    // ------------- ACCESSO ALLE CELLE (vedi AbstractPrimitiveHMap) -------------
+
+    @Override
+    boolean isFree(int slot) {
+        return keys[slot] == null;
+    }
+
+    @Override
+    int hashAt(int slot) {
+        return mix(keys[slot].hashCode());
+    }
+
+    @Override
+    int entryHashAt(int slot) {
+        long v = vals[slot];
+        return keys[slot].hashCode() ^ (int) (v ^ (v >>> 32));
+    }
+
+    @Override
+    Object keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    Object valueAt(int slot) {
+        return new Long(vals[slot]);
+    }
+
+    @Override
+    int slotOf(Object key) {
+        return indexOf(key);
+    }
+
+    @Override
+    void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        vals[to] = vals[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        keys[slot] = null;
+    }
+
+    @Override
+    void allocate(int capacity) {
+        keys = new Object[capacity];
+        vals = new long[capacity];
+        setCapacity(capacity);
+    }
+
+    @Override
+    void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        long[] oldVals = vals;
+        allocate(newCapacity);
+
+        Object[] k = keys;
+        long[] v = vals;
+        int m = mask;
+        for (int i = oldKeys.length; i-- != 0;) {
+            if (oldKeys[i] == null)
+                continue;
+            int pos = mix(oldKeys[i].hashCode()) & m;
+            while (k[pos] != null)
+                pos = (pos + 1) & m;
+            k[pos] = oldKeys[i];
+            v[pos] = oldVals[i];
+        }
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata, o {@code -1} se
+     * la chiave non è presente.
+     *
+     * @param key la chiave da cercare (non {@code null}).
+     * @return l'indice della cella, o {@code -1}.
+     */
+    private int indexOf(Object key) {
+        int pos = insertionPoint(key);
+        return keys[pos] == null ? -1 : pos;
+    }
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata, oppure la cella
+     * vuota in cui andrebbe inserita.
+     *
+     * @param key la chiave da cercare (non {@code null}).
+     * @return l'indice della cella.
+     */
+    private int insertionPoint(Object key) {
+        Object[] k = keys;
+        int m = mask;
+        int pos = mix(key.hashCode()) & m;
+        Object curr;
+        while ((curr = k[pos]) != null) {
+            if (curr == key || curr.equals(key))
+                return pos;
+            pos = (pos + 1) & m;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,727 @@
+package myAdapter;
+
+import java.util.NoSuchElementException;
+import java.util.Vector;
+
+/**
+ * Implementazione di {@link HMap} basata su una tabella hash a indirizzamento
+ * aperto (open addressing) con scansione lineare (linear probing).
+ * <p>
+ * A differenza di {@link MapAdapter}, che delega ogni operazione a una
+ * {@code Hashtable} (un nodo allocato per ogni mappatura e un monitor
+ * acquisito a ogni accesso), questa mappa memorizza chiavi e valori in due
+ * array paralleli di dimensione pari a una potenza di due. Una ricerca calcola
+ * la posizione iniziale dall'hash della chiave e scorre le celle successive
+ * fino a trovare la chiave o una cella vuota; le celle adiacenti si trovano
+ * di norma nella stessa linea di cache.
+ * <p>
+ * La rimozione non lascia "lapidi" (tombstone): le entry che seguono la cella
+ * liberata vengono spostate all'indietro (backward shift) in modo che ogni
+ * sequenza di scansione resti contigua. Gli iteratori tengono conto di questi
+ * spostamenti, quindi la rimozione tramite iteratore è sicura e costa O(1)
+ * ammortizzato.
+ * <p>
+ * Le viste {@code keySet()}, {@code values()} ed {@code entrySet()} hanno la
+ * stessa semantica di quelle di {@link MapAdapter}. Chiavi e valori
+ * {@code null} non sono ammessi. La classe non è sincronizzata.
+ *
+ * @see AbstractHMap
+ * @see MapAdapter
+ */
+public class OpenHashMap extends AbstractHMap {
+    /**
+     * Capacità iniziale predefinita della tabella.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Fattore di carico predefinito.
+     */
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /**
+     * Capacità massima della tabella (la più grande potenza di due
+     * rappresentabile come {@code int}).
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Le chiavi, una per cella; {@code null} indica una cella vuota.
+     */
+    private Object[] keys;
+
+    /**
+     * I valori, paralleli all'array delle chiavi.
+     */
+    private Object[] vals;
+
+    /**
+     * Maschera usata per ridurre un hash a un indice ({@code capacità - 1}).
+     */
+    private int mask;
+
+    /**
+     * Numero di mappature presenti.
+     */
+    private int size;
+
+    /**
+     * Numero di mappature oltre il quale la tabella viene raddoppiata.
+     */
+    private int maxFill;
+
+    /**
+     * Il fattore di carico della tabella.
+     */
+    private final float loadFactor;
+
+    /**
+     * Costruisce una nuova mappa vuota con capacità e fattore di carico
+     * predefiniti.
+     */
+    public OpenHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato senza ridimensionamenti.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo.
+     */
+    public OpenHashMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * Costruisce una nuova mappa vuota dimensionata per contenere il numero di
+     * mappature specificato con il fattore di carico dato.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico, compreso tra 0 (escluso) e 1
+     *                     (escluso).
+     * @throws IllegalArgumentException se {@code expectedSize} è negativo o se
+     *                                  il fattore di carico non è valido.
+     */
+    public OpenHashMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Dimensione attesa negativa: " + expectedSize);
+        if (!(loadFactor > 0 && loadFactor < 1))
+            throw new IllegalArgumentException("Fattore di carico non valido: " + loadFactor);
+
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(expectedSize, loadFactor));
+    }
+
+    /**
+     * Costruisce una nuova mappa contenente le stesse mappature della mappa
+     * specificata.
+     *
+     * @param m la mappa da cui copiare le mappature.
+     * @throws NullPointerException se la mappa specificata è {@code null}.
+     */
+    public OpenHashMap(HMap m) {
+        this(m.size(), DEFAULT_LOAD_FACTOR);
+        putAll(m);
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature chiave-valore in questa mappa.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa contiene una mappatura per la
+     * chiave specificata.
+     *
+     * @param key la chiave la cui presenza deve essere verificata.
+     * @return {@code true} se questa mappa contiene una mappatura per la chiave.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public boolean containsKey(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Restituisce {@code true} se questa mappa mappa una o più chiavi al valore
+     * specificato. L'array dei valori viene scandito direttamente.
+     *
+     * @param value il valore la cui presenza deve essere verificata.
+     * @return {@code true} se almeno una chiave è associata al valore.
+     * @throws NullPointerException se il valore è {@code null}.
+     */
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null)
+            throw new NullPointerException();
+
+        Object[] v = vals;
+        for (int i = v.length; i-- != 0;) {
+            if (v[i] != null && value.equals(v[i]))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        return pos < 0 ? null : vals[pos];
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        Object[] k = keys;
+        int m = mask;
+        int pos = mix(key.hashCode()) & m;
+        Object curr;
+        while ((curr = k[pos]) != null) {
+            if (curr == key || curr.equals(key)) {
+                Object old = vals[pos];
+                vals[pos] = value;
+                return old;
+            }
+            pos = (pos + 1) & m;
+        }
+
+        k[pos] = key;
+        vals[pos] = value;
+        if (++size > maxFill)
+            rehash(keys.length * 2);
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        int pos = indexOf(key);
+        if (pos < 0)
+            return null;
+
+        Object old = vals[pos];
+        size--;
+        shiftKeys(pos);
+        return old;
+    }
+
+    /**
+     * Copia tutte le mappature dalla mappa specificata a questa mappa.
+     * Prima della copia la tabella viene dimensionata per contenere entrambe le
+     * mappe, così da evitare ridimensionamenti ripetuti.
+     *
+     * @param sourceHMap la mappa le cui mappature devono essere copiate.
+     * @throws NullPointerException se la mappa specificata è {@code null} o
+     *                              contiene chiavi/valori {@code null}.
+     */
+    @Override
+    public void putAll(HMap sourceHMap) {
+        if (sourceHMap == null)
+            throw new NullPointerException();
+
+        ensureCapacity(size + sourceHMap.size());
+        super.putAll(sourceHMap);
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa. La capacità della tabella
+     * resta invariata.
+     */
+    @Override
+    public void clear() {
+        if (size == 0)
+            return;
+
+        Object[] k = keys;
+        Object[] v = vals;
+        for (int i = k.length; i-- != 0;) {
+            k[i] = null;
+            v[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Restituisce il codice hash per questa mappa, calcolato scorrendo
+     * direttamente le celle della tabella.
+     *
+     * @return il codice hash per questa mappa.
+     */
+    @Override
+    public int hashCode() {
+        Object[] k = keys;
+        Object[] v = vals;
+        int h = 0;
+        for (int i = k.length; i-- != 0;) {
+            if (k[i] != null)
+                h += k[i].hashCode() ^ v[i].hashCode();
+        }
+        return h;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        return new SlotIterator(SlotIterator.ENTRIES);
+    }
+
+    /**
+     * Restituisce un iteratore sulle chiavi che non alloca entry.
+     *
+     * @return un {@link HIterator} sulle chiavi.
+     */
+    @Override
+    protected HIterator keyIterator() {
+        return new SlotIterator(SlotIterator.KEYS);
+    }
+
+    /**
+     * Restituisce un iteratore sui valori che non alloca entry.
+     *
+     * @return un {@link HIterator} sui valori.
+     */
+    @Override
+    protected HIterator valueIterator() {
+        return new SlotIterator(SlotIterator.VALUES);
+    }
+
+    // ---------------------- METODI PACKAGE-PRIVATE ----------------------
+
+    /**
+     * Restituisce l'array delle chiavi, usato da {@link ParallelHMaps} e da
+     * {@link HStreams} per suddividere la tabella in intervalli di celle.
+     *
+     * @return l'array delle chiavi, con {@code null} nelle celle vuote.
+     */
+    Object[] keyTable() {
+        return keys;
+    }
+
+    /**
+     * Restituisce l'array dei valori, parallelo a {@link #keyTable()}.
+     *
+     * @return l'array dei valori.
+     */
+    Object[] valueTable() {
+        return vals;
+    }
+
+    /**
+     * Restituisce un'entry per la chiave che si trova nella cella indicata,
+     * come quelle dell'iteratore dell'entry set.
+     *
+     * @param slot una cella occupata di {@link #keyTable()}.
+     * @return l'entry.
+     */
+    HEntry entryAt(int slot) {
+        return new Entry(keys[slot], slot);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Mescola i bit di un codice hash, in modo che chiavi con hash consecutivi
+     * o che differiscono solo nei bit alti si distribuiscano sull'intera tabella.
+     *
+     * @param h il codice hash originale.
+     * @return il codice hash mescolato.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Calcola la capacità (potenza di due) necessaria a contenere il numero di
+     * mappature specificato senza superare il fattore di carico.
+     *
+     * @param expectedSize il numero di mappature attese.
+     * @param loadFactor   il fattore di carico.
+     * @return la capacità della tabella.
+     */
+    private static int tableSizeFor(int expectedSize, float loadFactor) {
+        long needed = (long) Math.ceil(expectedSize / loadFactor) + 1;
+        int capacity = 2;
+        while (capacity < needed && capacity < MAXIMUM_CAPACITY)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    /**
+     * Alloca tabelle vuote della capacità specificata.
+     *
+     * @param capacity la nuova capacità (potenza di due).
+     */
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        vals = new Object[capacity];
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Assicura che la tabella possa contenere il numero di mappature specificato
+     * senza ulteriori ridimensionamenti.
+     *
+     * @param expectedSize il numero di mappature da ospitare.
+     */
+    private void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize, loadFactor);
+        if (capacity > keys.length)
+            rehash(capacity);
+    }
+
+    /**
+     * Restituisce la cella che contiene la chiave specificata, o {@code -1} se
+     * la chiave non è presente.
+     *
+     * @param key la chiave da cercare (non {@code null}).
+     * @return l'indice della cella, o {@code -1}.
+     */
+    private int indexOf(Object key) {
+        Object[] k = keys;
+        int m = mask;
+        int pos = mix(key.hashCode()) & m;
+        Object curr;
+        while ((curr = k[pos]) != null) {
+            if (curr == key || curr.equals(key))
+                return pos;
+            pos = (pos + 1) & m;
+        }
+        return -1;
+    }
+
+    /**
+     * Ricostruisce la tabella con la nuova capacità, reinserendo ogni entry.
+     *
+     * @param newCapacity la nuova capacità (potenza di due).
+     */
+    private void rehash(int newCapacity) {
+        Object[] oldKeys = keys;
+        Object[] oldVals = vals;
+        allocate(newCapacity);
+
+        Object[] k = keys;
+        Object[] v = vals;
+        int m = mask;
+        for (int i = oldKeys.length; i-- != 0;) {
+            if (oldKeys[i] == null)
+                continue;
+            int pos = mix(oldKeys[i].hashCode()) & m;
+            while (k[pos] != null)
+                pos = (pos + 1) & m;
+            k[pos] = oldKeys[i];
+            v[pos] = oldVals[i];
+        }
+    }
+
+    /**
+     * Verifica se un'entry la cui posizione iniziale è {@code slot}, trovata
+     * in {@code pos}, può essere spostata nella cella libera {@code last}
+     * senza interrompere la propria sequenza di scansione.
+     *
+     * @param last la cella libera.
+     * @param slot la posizione iniziale dell'entry.
+     * @param pos  la posizione attuale dell'entry.
+     * @return {@code true} se l'entry può essere spostata in {@code last}.
+     */
+    private static boolean canShift(int last, int slot, int pos) {
+        return last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos);
+    }
+
+    /**
+     * Libera la cella specificata e sposta all'indietro le entry successive
+     * della stessa sequenza di scansione, in modo che nessuna ricerca incontri
+     * una cella vuota prima della propria chiave.
+     *
+     * @param pos la cella da liberare.
+     */
+    private void shiftKeys(int pos) {
+        Object[] k = keys;
+        int m = mask;
+        int last;
+        Object curr;
+        for (;;) {
+            pos = ((last = pos) + 1) & m;
+            for (;;) {
+                if ((curr = k[pos]) == null) {
+                    k[last] = null;
+                    vals[last] = null;
+                    return;
+                }
+                if (canShift(last, mix(curr.hashCode()) & m, pos))
+                    break;
+                pos = (pos + 1) & m;
+            }
+            k[last] = curr;
+            vals[last] = vals[pos];
+        }
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set. Ricorda la cella in cui
+     * la chiave si trovava al momento della visita: finché la chiave non viene
+     * spostata, lettura e scrittura del valore accedono direttamente a quella
+     * cella, altrimenti ripiegano su una ricerca per chiave.
+     */
+    private class Entry extends AbstractEntry {
+        private final Object key;
+        private final int index;
+
+        /**
+         * Costruisce un'entry per la chiave che si trova nella cella indicata.
+         *
+         * @param key   la chiave.
+         * @param index la cella che contiene la chiave.
+         */
+        public Entry(Object key, int index) {
+            this.key = key;
+            this.index = index;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore attualmente associato alla chiave.
+         *
+         * @return il valore, o {@code null} se la chiave è stata rimossa.
+         */
+        @Override
+        public Object getValue() {
+            Object[] k = keys;
+            if (index < k.length && k[index] == key)
+                return vals[index];
+            return get(key);
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo direttamente nella
+         * mappa. Se la chiave non è più presente, la mappatura viene reinserita.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore, o {@code null} in caso di reinserimento.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            Object[] k = keys;
+            if (index < k.length && k[index] == key) {
+                Object old = vals[index];
+                vals[index] = value;
+                return old;
+            }
+            return put(key, value);
+        }
+    }
+
+    /**
+     * Iteratore sulle celle della tabella, usato da tutte e tre le viste.
+     * <p>
+     * La tabella viene percorsa dall'ultima cella alla prima. Con questo ordine
+     * la rimozione dell'elemento corrente sposta in posizioni già visitate solo
+     * entry già restituite, eccetto quelle la cui sequenza di scansione "gira"
+     * attorno alla fine della tabella: queste vengono salvate in una lista a
+     * parte e restituite al termine della scansione.
+     */
+    private class SlotIterator implements HIterator {
+        /** Modalità che restituisce le chiavi. */
+        static final int KEYS = 0;
+        /** Modalità che restituisce i valori. */
+        static final int VALUES = 1;
+        /** Modalità che restituisce le entry. */
+        static final int ENTRIES = 2;
+
+        private final int mode;
+        private int pos; // Prossima cella da esaminare (a scendere)
+        private int last = -1; // Cella dell'ultimo elemento restituito, -1 se nessuno
+        private int remaining; // Elementi ancora da restituire
+        private Vector wrapped; // Chiavi spostate in celle già visitate
+        private Object lastKey; // Chiave dell'ultimo elemento restituito
+
+        /**
+         * Costruisce un iteratore nella modalità specificata.
+         *
+         * @param mode una tra {@link #KEYS}, {@link #VALUES}, {@link #ENTRIES}.
+         */
+        public SlotIterator(int mode) {
+            this.mode = mode;
+            this.pos = keys.length;
+            this.remaining = size;
+        }
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            return remaining != 0;
+        }
+
+        /**
+         * Restituisce il prossimo elemento nell'iterazione.
+         *
+         * @return la prossima chiave, il prossimo valore o la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            remaining--;
+            int slot = nextSlot();
+            lastKey = keys[slot];
+            if (mode == KEYS)
+                return lastKey;
+            if (mode == VALUES)
+                return vals[slot];
+            return new Entry(lastKey, slot);
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultimo elemento restituito da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (last == -1)
+                throw new IllegalStateException();
+
+            if (pos >= 0) {
+                size--;
+                shiftKeysTracking(last);
+            } else {
+                // Elemento della lista delle chiavi spostate: la sua cella non
+                // è più significativa, si rimuove per chiave.
+                wrapped.setElementAt(null, -pos - 1);
+                OpenHashMap.this.remove(lastKey);
+            }
+            last = -1;
+        }
+
+        /**
+         * Avanza fino alla prossima cella occupata, oppure al prossimo elemento
+         * della lista delle chiavi spostate una volta terminata la tabella.
+         *
+         * @return la cella dell'elemento da restituire.
+         */
+        private int nextSlot() {
+            Object[] k = keys;
+            for (;;) {
+                if (--pos < 0) {
+                    Object key = wrapped.elementAt(-pos - 1);
+                    int m = mask;
+                    int p = mix(key.hashCode()) & m;
+                    while (!key.equals(k[p]))
+                        p = (p + 1) & m;
+                    last = Integer.MIN_VALUE; // Qualsiasi valore diverso da -1
+                    return p;
+                }
+                if (k[pos] != null)
+                    return last = pos;
+            }
+        }
+
+        /**
+         * Variante di {@link OpenHashMap#shiftKeys(int)} che annota le entry
+         * spostate da una cella non ancora visitata a una già visitata.
+         *
+         * @param slot la cella da liberare.
+         */
+        private void shiftKeysTracking(int slot) {
+            Object[] k = keys;
+            int m = mask;
+            int free;
+            Object curr;
+            for (;;) {
+                slot = ((free = slot) + 1) & m;
+                for (;;) {
+                    if ((curr = k[slot]) == null) {
+                        k[free] = null;
+                        vals[free] = null;
+                        return;
+                    }
+                    if (canShift(free, mix(curr.hashCode()) & m, slot))
+                        break;
+                    slot = (slot + 1) & m;
+                }
+                if (slot < free) {
+                    // L'entry passa dall'inizio della tabella (non ancora
+                    // visitato) alla fine (già visitata).
+                    if (wrapped == null)
+                        wrapped = new Vector(2);
+                    wrapped.addElement(curr);
+                }
+                k[free] = curr;
+                vals[free] = vals[slot];
+            }
+        }
+    }
+}
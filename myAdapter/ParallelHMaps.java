@@ -0,0 +1,390 @@
+package myAdapter;
+
+import java.util.Enumeration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Operazioni di massa parallele su una {@link HMap}: {@code forEach},
+ * {@code search}, {@code reduce} e {@code replaceAll}.
+ * <p>
+ * Le mappature vengono divise in intervalli che il
+ * {@code ForkJoinPool} comune elabora in parallelo: ogni intervallo più lungo
+ * della soglia di parallelismo viene diviso a metà, finché gli intervalli
+ * sono abbastanza piccoli da essere elaborati sequenzialmente. Se la mappa
+ * contiene al più {@code threshold} mappature, l'operazione viene eseguita
+ * interamente nel thread chiamante.
+ * <p>
+ * Per una {@link OpenHashMap} gli intervalli sono direttamente intervalli di
+ * celle della tabella. La {@code Hashtable} di una {@link MapAdapter} non
+ * espone i propri bucket: chiavi e valori vengono prima copiati in due array
+ * con un'unica scansione, che è l'unica parte sequenziale dell'operazione.
+ * Per le altre mappe la copia avviene tramite l'iteratore dell'entry set.
+ * <p>
+ * La mappa non deve essere modificata da altri thread durante l'operazione.
+ * Le funzioni ricevute vengono invocate da più thread contemporaneamente e in
+ * ordine non specificato, quindi non devono dipendere dall'ordine delle
+ * mappature né condividere stato non sincronizzato.
+ * <p>
+ * <b>Nota:</b> questa classe usa {@code java.util.concurrent}, che non fa
+ * parte di CLDC 1.1. È pensata per l'esecuzione su una JVM completa e non
+ * deve essere usata dal codice destinato all'ambiente CLDC.
+ *
+ * @see HMap
+ */
+public final class ParallelHMaps {
+    /**
+     * Classe di sole funzioni statiche: non istanziabile.
+     */
+    private ParallelHMaps() {
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Esegue un'azione su ogni mappatura della mappa.
+     *
+     * @param map       la mappa.
+     * @param threshold il numero di mappature sotto il quale un intervallo non
+     *                  viene più diviso.
+     * @param action    l'azione da eseguire.
+     * @throws NullPointerException     se la mappa o l'azione sono
+     *                                  {@code null}.
+     * @throws IllegalArgumentException se la soglia non è positiva.
+     */
+    public static void forEach(HMap map, int threshold, Action action) {
+        if (action == null)
+            throw new NullPointerException();
+        run(map, threshold, RangeTask.FOR_EACH, action, null);
+    }
+
+    /**
+     * Cerca una mappatura per cui la funzione restituisce un risultato non
+     * {@code null}. Appena un intervallo trova un risultato, gli altri
+     * interrompono la ricerca.
+     *
+     * @param map       la mappa.
+     * @param threshold il numero di mappature sotto il quale un intervallo non
+     *                  viene più diviso.
+     * @param function  la funzione di ricerca.
+     * @return un risultato non {@code null} della funzione, non
+     *         necessariamente il primo nell'ordine di iterazione, oppure
+     *         {@code null} se la funzione restituisce {@code null} per ogni
+     *         mappatura.
+     * @throws NullPointerException     se la mappa o la funzione sono
+     *                                  {@code null}.
+     * @throws IllegalArgumentException se la soglia non è positiva.
+     */
+    public static Object search(HMap map, int threshold, Function function) {
+        if (function == null)
+            throw new NullPointerException();
+        return run(map, threshold, RangeTask.SEARCH, function, null);
+    }
+
+    /**
+     * Trasforma ogni mappatura con una funzione e combina i risultati non
+     * {@code null} con un riduttore. Il riduttore deve essere associativo,
+     * perché i risultati vengono combinati prima all'interno degli intervalli e
+     * poi tra intervalli.
+     *
+     * @param map         la mappa.
+     * @param threshold   il numero di mappature sotto il quale un intervallo
+     *                    non viene più diviso.
+     * @param transformer la funzione applicata a ogni mappatura; un risultato
+     *                    {@code null} esclude la mappatura.
+     * @param reducer     il riduttore.
+     * @return la combinazione dei risultati, o {@code null} se non ce ne sono.
+     * @throws NullPointerException     se la mappa, la funzione o il riduttore
+     *                                  sono {@code null}.
+     * @throws IllegalArgumentException se la soglia non è positiva.
+     */
+    public static Object reduce(HMap map, int threshold, Function transformer, Reducer reducer) {
+        if (transformer == null || reducer == null)
+            throw new NullPointerException();
+        return run(map, threshold, RangeTask.REDUCE, transformer, reducer);
+    }
+
+    /**
+     * Sostituisce il valore di ogni mappatura con il risultato della funzione.
+     * <p>
+     * In una {@link OpenHashMap} i valori vengono scritti in parallelo
+     * direttamente nella tabella. Nelle altre mappe i nuovi valori vengono
+     * calcolati in parallelo e poi scritti con {@code put} in un'unica
+     * scansione, dato che {@code put} non è sicuro per più thread.
+     *
+     * @param map       la mappa.
+     * @param threshold il numero di mappature sotto il quale un intervallo non
+     *                  viene più diviso.
+     * @param function  la funzione che calcola il nuovo valore.
+     * @throws NullPointerException     se la mappa o la funzione sono
+     *                                  {@code null}, o se la funzione
+     *                                  restituisce {@code null}; in
+     *                                  quest'ultimo caso una parte dei valori
+     *                                  di una {@link OpenHashMap} può essere
+     *                                  già stata sostituita.
+     * @throws IllegalArgumentException se la soglia non è positiva.
+     */
+    public static void replaceAll(HMap map, int threshold, Function function) {
+        if (function == null)
+            throw new NullPointerException();
+        checkArguments(map, threshold);
+        if (map instanceof OpenHashMap) {
+            run(map, threshold, RangeTask.REPLACE, function, null);
+            return;
+        }
+
+        Object[][] table = snapshot(map);
+        Object[] keys = table[0];
+        Object[] vals = table[1];
+        execute(new RangeTask(RangeTask.REPLACE, keys, vals, 0, keys.length, threshold, function, null, null),
+                keys.length, threshold);
+        for (int i = 0; i < keys.length; i++)
+            map.put(keys[i], vals[i]);
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Esegue un'operazione sulle chiavi e sui valori della mappa.
+     *
+     * @param map       la mappa.
+     * @param threshold la soglia di parallelismo.
+     * @param mode      l'operazione, una delle costanti di {@link RangeTask}.
+     * @param function  l'azione o la funzione.
+     * @param reducer   il riduttore, solo per {@code REDUCE}.
+     * @return il risultato dell'operazione.
+     */
+    private static Object run(HMap map, int threshold, int mode, Object function, Reducer reducer) {
+        checkArguments(map, threshold);
+
+        Object[] keys;
+        Object[] vals;
+        int leaf = threshold;
+        if (map instanceof OpenHashMap) {
+            OpenHashMap open = (OpenHashMap) map;
+            keys = open.keyTable();
+            vals = open.valueTable();
+            // La soglia è espressa in mappature, gli intervalli in celle.
+            int size = Math.max(open.size(), 1);
+            leaf = (int) Math.min(Math.max((long) threshold * keys.length / size, 1), Integer.MAX_VALUE);
+            if (open.size() <= threshold)
+                leaf = keys.length;
+        } else {
+            Object[][] table = snapshot(map);
+            keys = table[0];
+            vals = table[1];
+        }
+        AtomicReference<Object> found = mode == RangeTask.SEARCH ? new AtomicReference<Object>() : null;
+        return execute(new RangeTask(mode, keys, vals, 0, keys.length, leaf, function, reducer, found),
+                keys.length, leaf);
+    }
+
+    /**
+     * Verifica la mappa e la soglia ricevute da un'operazione.
+     *
+     * @param map       la mappa.
+     * @param threshold la soglia di parallelismo.
+     * @throws NullPointerException     se la mappa è {@code null}.
+     * @throws IllegalArgumentException se la soglia non è positiva.
+     */
+    private static void checkArguments(HMap map, int threshold) {
+        if (map == null)
+            throw new NullPointerException();
+        if (threshold <= 0)
+            throw new IllegalArgumentException("Soglia non valida: " + threshold);
+    }
+
+    /**
+     * Esegue un'operazione nel thread chiamante, se l'intervallo non va
+     * diviso, altrimenti nel {@code ForkJoinPool} comune.
+     *
+     * @param task   l'operazione sull'intero intervallo.
+     * @param length la lunghezza dell'intervallo.
+     * @param leaf   la lunghezza massima di un intervallo elaborato
+     *               sequenzialmente.
+     * @return il risultato dell'operazione.
+     */
+    private static Object execute(RangeTask task, int length, int leaf) {
+        if (length <= leaf)
+            return task.compute();
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Copia chiavi e valori della mappa in due array paralleli.
+     *
+     * @param map la mappa.
+     * @return un array con l'array delle chiavi e quello dei valori.
+     */
+    private static Object[][] snapshot(HMap map) {
+        int n = map.size();
+        Object[] keys = new Object[n];
+        Object[] vals = new Object[n];
+        int i = 0;
+        if (map instanceof MapAdapter) {
+            // Chiavi e valori vengono enumerati nello stesso ordine: si
+            // scorrono in parallelo.
+            Enumeration ke = ((MapAdapter) map).keyEnumeration();
+            Enumeration ve = ((MapAdapter) map).valueEnumeration();
+            while (ke.hasMoreElements() && i < n) {
+                keys[i] = ke.nextElement();
+                vals[i++] = ve.nextElement();
+            }
+        } else {
+            HIterator it = map.entrySet().iterator();
+            while (it.hasNext() && i < n) {
+                HEntry e = (HEntry) it.next();
+                keys[i] = e.getKey();
+                vals[i++] = e.getValue();
+            }
+        }
+        if (i != n)
+            throw new IllegalStateException("Mappa modificata durante la copia");
+        return new Object[][] { keys, vals };
+    }
+
+    // ---------------------- CLASSI PUBBLICHE ----------------------
+
+    /**
+     * Azione eseguita su una mappatura.
+     */
+    public interface Action {
+        /**
+         * Esegue l'azione.
+         *
+         * @param key   la chiave della mappatura.
+         * @param value il valore della mappatura.
+         */
+        void apply(Object key, Object value);
+    }
+
+    /**
+     * Funzione che calcola un risultato da una mappatura.
+     */
+    public interface Function {
+        /**
+         * Calcola il risultato.
+         *
+         * @param key   la chiave della mappatura.
+         * @param value il valore della mappatura.
+         * @return il risultato, eventualmente {@code null}.
+         */
+        Object apply(Object key, Object value);
+    }
+
+    /**
+     * Combinazione associativa di due risultati.
+     */
+    public interface Reducer {
+        /**
+         * Combina due risultati.
+         *
+         * @param a il primo risultato, non {@code null}.
+         * @param b il secondo risultato, non {@code null}.
+         * @return la combinazione dei due risultati.
+         */
+        Object reduce(Object a, Object b);
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Operazione su un intervallo di due array paralleli di chiavi e valori,
+     * in cui le celle con chiave {@code null} sono vuote.
+     */
+    private static final class RangeTask extends RecursiveTask<Object> {
+        private static final long serialVersionUID = 1L;
+
+        static final int FOR_EACH = 0;
+        static final int SEARCH = 1;
+        static final int REDUCE = 2;
+        static final int REPLACE = 3;
+
+        private final int mode;
+        private final Object[] keys;
+        private final Object[] vals;
+        private final int lo;
+        private final int hi;
+        private final int leaf;
+        private final Object function;
+        private final Reducer reducer;
+        private final AtomicReference<Object> found; // Risultato di SEARCH, condiviso
+
+        RangeTask(int mode, Object[] keys, Object[] vals, int lo, int hi, int leaf, Object function,
+                Reducer reducer, AtomicReference<Object> found) {
+            this.mode = mode;
+            this.keys = keys;
+            this.vals = vals;
+            this.lo = lo;
+            this.hi = hi;
+            this.leaf = leaf;
+            this.function = function;
+            this.reducer = reducer;
+            this.found = found;
+        }
+
+        /**
+         * Divide l'intervallo a metà finché supera la lunghezza massima,
+         * elaborando una metà nel thread corrente e l'altra in un altro.
+         *
+         * @return il risultato dell'operazione sull'intervallo.
+         */
+        @Override
+        protected Object compute() {
+            if (hi - lo <= leaf)
+                return computeRange();
+
+            int mid = (lo + hi) >>> 1;
+            RangeTask left = new RangeTask(mode, keys, vals, lo, mid, leaf, function, reducer, found);
+            RangeTask right = new RangeTask(mode, keys, vals, mid, hi, leaf, function, reducer, found);
+            left.fork();
+            Object r = right.compute();
+            Object l = left.join();
+            if (mode == REDUCE)
+                return l == null ? r : r == null ? l : reducer.reduce(l, r);
+            if (mode == SEARCH)
+                return found.get();
+            return null;
+        }
+
+        /**
+         * Elabora sequenzialmente l'intervallo.
+         *
+         * @return il risultato dell'operazione sull'intervallo.
+         */
+        private Object computeRange() {
+            Object result = null;
+            for (int i = lo; i < hi; i++) {
+                Object k = keys[i];
+                if (k == null)
+                    continue;
+                switch (mode) {
+                case FOR_EACH:
+                    ((Action) function).apply(k, vals[i]);
+                    break;
+                case SEARCH:
+                    if (found.get() != null)
+                        return found.get();
+                    Object r = ((Function) function).apply(k, vals[i]);
+                    if (r != null) {
+                        found.compareAndSet(null, r);
+                        return found.get();
+                    }
+                    break;
+                case REDUCE:
+                    Object t = ((Function) function).apply(k, vals[i]);
+                    if (t != null)
+                        result = result == null ? t : reducer.reduce(result, t);
+                    break;
+                default: // REPLACE
+                    Object v = ((Function) function).apply(k, vals[i]);
+                    if (v == null)
+                        throw new NullPointerException();
+                    vals[i] = v;
+                }
+            }
+            return mode == SEARCH ? found.get() : result;
+        }
+    }
+}
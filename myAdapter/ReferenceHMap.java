@@ -0,0 +1,616 @@
+package myAdapter;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementazione di {@link HMap} che può riferire chiavi e valori tramite
+ * riferimenti deboli ({@code WeakReference}) o soffici
+ * ({@code SoftReference}), così che le mappature non impediscano al garbage
+ * collector di recuperarli.
+ * <p>
+ * La forza dei riferimenti a chiavi e valori si sceglie alla costruzione tra
+ * {@link #STRONG}, {@link #WEAK} e {@link #SOFT}:
+ * <ul>
+ * <li>con chiavi {@code WEAK} una mappatura scompare quando la chiave non è
+ * più raggiungibile dal resto del programma, come in un registro di metadati
+ * associati a oggetti gestiti altrove;</li>
+ * <li>con valori {@code SOFT} i valori vengono recuperati solo sotto
+ * pressione di memoria, quindi una cache si riduce da sola invece di
+ * provocare collezioni complete o un {@code OutOfMemoryError}.</li>
+ * </ul>
+ * Una mappatura la cui chiave o il cui valore è stato recuperato non è più
+ * visibile. I riferimenti recuperati vengono accodati a una
+ * {@code ReferenceQueue}; ogni {@code get}, {@code put}, {@code remove} e
+ * {@code size} svuota prima la coda e rimuove dalla tabella le mappature
+ * corrispondenti, senza thread di pulizia e senza scorrere la tabella. Il
+ * costo di ogni rimozione è quello di una ricerca, quindi è ammortizzato
+ * sulle operazioni ordinarie. Poiché il garbage collector può agire in ogni
+ * momento, {@code size()} è un limite superiore al numero di mappature che
+ * un'iterazione successiva restituirà.
+ * <p>
+ * Le chiavi sono confrontate con {@code equals}, come in {@link MapAdapter}:
+ * con chiavi deboli conviene quindi usare oggetti che ridefiniscono
+ * {@code equals} in termini di identità, altrimenti una chiave equivalente
+ * ricreata non tiene in vita la mappatura originale. Le entry restituite
+ * dall'entry set tengono in vita chiave e valore finché sono in uso.
+ * Durante l'iterazione sono ammesse le rimozioni e le sostituzioni di valori;
+ * l'inserimento di nuove chiavi può ridimensionare la tabella e ha risultato
+ * indefinito.
+ * <p>
+ * <b>Nota:</b> CLDC 1.1 dispone solo di {@code WeakReference}, senza
+ * {@code SoftReference} né {@code ReferenceQueue}: questa classe è pensata per
+ * l'esecuzione su una JVM completa e non deve essere usata dal codice
+ * destinato all'ambiente CLDC.
+ * <p>
+ * Chiavi e valori {@code null} non sono ammessi. La classe non è
+ * sincronizzata.
+ *
+ * @see AbstractHMap
+ */
+public class ReferenceHMap extends AbstractHMap {
+    /**
+     * Riferimento forte: l'oggetto resta in vita finché è nella mappa.
+     */
+    public static final int STRONG = 0;
+
+    /**
+     * Riferimento debole: l'oggetto viene recuperato appena non è più
+     * raggiungibile altrimenti.
+     */
+    public static final int WEAK = 1;
+
+    /**
+     * Riferimento soffice: l'oggetto viene recuperato solo sotto pressione di
+     * memoria.
+     */
+    public static final int SOFT = 2;
+
+    /**
+     * Capacità iniziale della tabella.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Capacità massima della tabella.
+     */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /**
+     * Le liste di collisione della tabella, di dimensione pari a una potenza
+     * di due.
+     */
+    private Entry[] table;
+
+    /**
+     * Numero di mappature nella tabella, comprese quelle il cui riferimento è
+     * stato recuperato ma non ancora rimosso.
+     */
+    private int size;
+
+    /**
+     * Dimensione oltre la quale la tabella viene raddoppiata (75% della
+     * capacità).
+     */
+    private int threshold;
+
+    /**
+     * La coda in cui il garbage collector accoda i riferimenti recuperati.
+     */
+    private final ReferenceQueue queue;
+
+    /**
+     * La forza dei riferimenti alle chiavi.
+     */
+    private final int keyStrength;
+
+    /**
+     * La forza dei riferimenti ai valori.
+     */
+    private final int valueStrength;
+
+    /**
+     * Costruisce una nuova mappa vuota con la forza dei riferimenti a chiavi e
+     * valori specificata.
+     *
+     * @param keyStrength   la forza dei riferimenti alle chiavi: una tra
+     *                      {@link #STRONG}, {@link #WEAK} e {@link #SOFT}.
+     * @param valueStrength la forza dei riferimenti ai valori.
+     * @throws IllegalArgumentException se una forza non è valida.
+     */
+    public ReferenceHMap(int keyStrength, int valueStrength) {
+        this.keyStrength = checkStrength(keyStrength);
+        this.valueStrength = checkStrength(valueStrength);
+        this.queue = new ReferenceQueue();
+        this.table = new Entry[DEFAULT_CAPACITY];
+        this.threshold = DEFAULT_CAPACITY * 3 / 4;
+    }
+
+    // ---------------------- METODI PUBBLICI ----------------------
+
+    /**
+     * Restituisce il numero di mappature in questa mappa, dopo aver rimosso
+     * quelle i cui riferimenti recuperati sono stati accodati.
+     *
+     * @return il numero di entry nella mappa.
+     */
+    @Override
+    public int size() {
+        expunge();
+        return size;
+    }
+
+    /**
+     * Restituisce il valore a cui è mappata la chiave specificata, o
+     * {@code null} se questa mappa non contiene mappature per la chiave o la
+     * chiave o il valore sono stati recuperati.
+     *
+     * @param key la chiave il cui valore associato deve essere restituito.
+     * @return il valore associato alla chiave, o {@code null}.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object get(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        expunge();
+        Entry e = find(key, mix(key.hashCode()));
+        return e == null ? null : e.value();
+    }
+
+    /**
+     * Associa il valore specificato alla chiave specificata in questa mappa.
+     *
+     * @param key   la chiave con cui il valore deve essere associato.
+     * @param value il valore da associare alla chiave.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura o il valore era stato recuperato.
+     * @throws NullPointerException se la chiave o il valore sono {@code null}.
+     */
+    @Override
+    public Object put(Object key, Object value) {
+        if (key == null || value == null)
+            throw new NullPointerException();
+
+        expunge();
+        int hash = mix(key.hashCode());
+        Entry e = find(key, hash);
+        if (e != null) {
+            Object old = e.value();
+            release(e.value);
+            e.value = wrap(value, valueStrength, e);
+            return old;
+        }
+
+        if (size >= threshold)
+            resize();
+        e = new Entry(hash);
+        e.key = wrap(key, keyStrength, e);
+        e.value = wrap(value, valueStrength, e);
+        int index = hash & (table.length - 1);
+        e.next = table[index];
+        table[index] = e;
+        size++;
+        return null;
+    }
+
+    /**
+     * Rimuove la mappatura per una chiave da questa mappa, se presente.
+     *
+     * @param key la chiave la cui mappatura deve essere rimossa.
+     * @return il valore precedente associato alla chiave, o {@code null} se non
+     *         c'era alcuna mappatura o il valore era stato recuperato.
+     * @throws NullPointerException se la chiave è {@code null}.
+     */
+    @Override
+    public Object remove(Object key) {
+        if (key == null)
+            throw new NullPointerException();
+
+        expunge();
+        Entry e = find(key, mix(key.hashCode()));
+        if (e == null)
+            return null;
+        Object old = e.value();
+        unlink(e);
+        return old;
+    }
+
+    /**
+     * Rimuove tutte le mappature da questa mappa.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < table.length; i++) {
+            for (Entry e = table[i]; e != null; e = e.next) {
+                release(e.key);
+                release(e.value);
+                e.removed = true;
+            }
+            table[i] = null;
+        }
+        size = 0;
+        // I riferimenti accodati appartengono tutti a entry già rimosse.
+        while (queue.poll() != null)
+            ;
+    }
+
+    // ---------------------- METODI PROTETTI ----------------------
+
+    /**
+     * Restituisce un iteratore sulle entry della mappa. Le mappature la cui
+     * chiave o il cui valore è stato recuperato vengono saltate.
+     *
+     * @return un {@link HIterator} sulle entry.
+     */
+    @Override
+    protected HIterator entryIterator() {
+        expunge();
+        return new EntryIterator();
+    }
+
+    // ---------------------- METODI PRIVATI ----------------------
+
+    /**
+     * Verifica che una forza di riferimento sia valida.
+     *
+     * @param strength la forza.
+     * @return la forza.
+     * @throws IllegalArgumentException se la forza non è valida.
+     */
+    private static int checkStrength(int strength) {
+        if (strength != STRONG && strength != WEAK && strength != SOFT)
+            throw new IllegalArgumentException("Forza di riferimento non valida: " + strength);
+        return strength;
+    }
+
+    /**
+     * Mescola i bit di un codice hash, come {@link OpenHashMap}, così che
+     * anche i bit alti contribuiscano all'indice.
+     *
+     * @param h il codice hash.
+     * @return il codice hash mescolato.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Restituisce il riferimento con cui memorizzare un oggetto.
+     *
+     * @param o        l'oggetto.
+     * @param strength la forza del riferimento.
+     * @param owner    l'entry a cui il riferimento appartiene.
+     * @return l'oggetto stesso oppure un riferimento a esso.
+     */
+    private Object wrap(Object o, int strength, Entry owner) {
+        if (strength == WEAK)
+            return new WeakRef(o, queue, owner);
+        if (strength == SOFT)
+            return new SoftRef(o, queue, owner);
+        return o;
+    }
+
+    /**
+     * Azzera un riferimento che non appartiene più alla mappa, così che non
+     * venga accodato.
+     *
+     * @param ref l'oggetto memorizzato in un'entry.
+     */
+    private static void release(Object ref) {
+        if (ref instanceof Reference)
+            ((Reference) ref).clear();
+    }
+
+    /**
+     * Cerca l'entry di una chiave, ignorando quelle la cui chiave è stata
+     * recuperata.
+     *
+     * @param key  la chiave.
+     * @param hash l'hash mescolato della chiave.
+     * @return l'entry, o {@code null} se assente.
+     */
+    private Entry find(Object key, int hash) {
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash) {
+                Object k = e.key();
+                if (k != null && key.equals(k))
+                    return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stacca un'entry dalla sua lista di collisione e ne azzera i riferimenti.
+     * Il successore dell'entry viene conservato, così che un iteratore fermo
+     * sull'entry possa proseguire.
+     *
+     * @param e l'entry da rimuovere.
+     */
+    private void unlink(Entry e) {
+        int index = e.hash & (table.length - 1);
+        Entry prev = null;
+        for (Entry curr = table[index]; curr != null; prev = curr, curr = curr.next) {
+            if (curr == e) {
+                if (prev == null)
+                    table[index] = e.next;
+                else
+                    prev.next = e.next;
+                release(e.key);
+                release(e.value);
+                e.removed = true;
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rimuove le entry i cui riferimenti sono stati accodati dal garbage
+     * collector.
+     */
+    private void expunge() {
+        Reference ref;
+        while ((ref = queue.poll()) != null) {
+            Entry e = ref instanceof WeakRef ? ((WeakRef) ref).owner : ((SoftRef) ref).owner;
+            // Un valore sostituito viene azzerato, ma potrebbe essere stato
+            // accodato prima: conta solo se è ancora quello dell'entry.
+            if (!e.removed && (e.key == ref || e.value == ref))
+                unlink(e);
+        }
+    }
+
+    /**
+     * Raddoppia la capacità della tabella, scartando le entry già recuperate.
+     */
+    private void resize() {
+        Entry[] old = table;
+        if (old.length == MAXIMUM_CAPACITY)
+            return;
+
+        Entry[] fresh = new Entry[old.length * 2];
+        for (int i = 0; i < old.length; i++) {
+            Entry e = old[i];
+            while (e != null) {
+                Entry next = e.next;
+                if (e.key() == null || e.value() == null) {
+                    release(e.key);
+                    release(e.value);
+                    e.removed = true;
+                    size--;
+                } else {
+                    int index = e.hash & (fresh.length - 1);
+                    e.next = fresh[index];
+                    fresh[index] = e;
+                }
+                e = next;
+            }
+        }
+        table = fresh;
+        threshold = fresh.length * 3 / 4;
+    }
+
+    // ---------------------- CLASSI PRIVATE ----------------------
+
+    /**
+     * Entry della tabella. Chiave e valore sono memorizzati direttamente o
+     * tramite un riferimento, secondo la forza scelta.
+     */
+    private static final class Entry {
+        final int hash;
+        Object key;
+        Object value;
+        Entry next;
+        boolean removed;
+
+        /**
+         * Costruisce un'entry con l'hash specificato.
+         *
+         * @param hash l'hash mescolato della chiave.
+         */
+        Entry(int hash) {
+            this.hash = hash;
+        }
+
+        /**
+         * Restituisce la chiave, o {@code null} se è stata recuperata.
+         *
+         * @return la chiave.
+         */
+        Object key() {
+            return key instanceof Reference ? ((Reference) key).get() : key;
+        }
+
+        /**
+         * Restituisce il valore, o {@code null} se è stato recuperato.
+         *
+         * @return il valore.
+         */
+        Object value() {
+            return value instanceof Reference ? ((Reference) value).get() : value;
+        }
+    }
+
+    /**
+     * Riferimento debole che ricorda l'entry a cui appartiene.
+     */
+    private static final class WeakRef extends WeakReference {
+        final Entry owner;
+
+        /**
+         * Costruisce il riferimento.
+         *
+         * @param referent l'oggetto riferito.
+         * @param queue    la coda dei riferimenti recuperati.
+         * @param owner    l'entry a cui appartiene.
+         */
+        WeakRef(Object referent, ReferenceQueue queue, Entry owner) {
+            super(referent, queue);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Riferimento soffice che ricorda l'entry a cui appartiene.
+     */
+    private static final class SoftRef extends SoftReference {
+        final Entry owner;
+
+        /**
+         * Costruisce il riferimento.
+         *
+         * @param referent l'oggetto riferito.
+         * @param queue    la coda dei riferimenti recuperati.
+         * @param owner    l'entry a cui appartiene.
+         */
+        SoftRef(Object referent, ReferenceQueue queue, Entry owner) {
+            super(referent, queue);
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * Entry restituita dall'iteratore dell'entry set. Tiene in vita chiave e
+     * valore letti durante l'iterazione; {@code setValue} aggiorna sia l'entry
+     * sia la mappa.
+     */
+    private final class SnapshotEntry extends AbstractEntry {
+        private final Object key;
+        private Object value;
+
+        /**
+         * Costruisce un'entry con la chiave e il valore specificati.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        public SnapshotEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        /**
+         * Restituisce la chiave di questa entry.
+         *
+         * @return la chiave.
+         */
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        /**
+         * Restituisce il valore di questa entry.
+         *
+         * @return il valore.
+         */
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * Sostituisce il valore di questa entry, scrivendo nella mappa.
+         *
+         * @param value il nuovo valore.
+         * @return il vecchio valore dell'entry.
+         * @throws NullPointerException se il nuovo valore è {@code null}.
+         */
+        @Override
+        public Object setValue(Object value) {
+            if (value == null)
+                throw new NullPointerException();
+
+            put(key, value);
+            Object old = this.value;
+            this.value = value;
+            return old;
+        }
+    }
+
+    /**
+     * Iteratore sulle liste di collisione della tabella. Salta le entry
+     * rimosse o la cui chiave o il cui valore è stato recuperato.
+     */
+    private final class EntryIterator implements HIterator {
+        private final Entry[] tab = table;
+        private int index; // Prossima lista da visitare
+        private Entry next; // Prossima entry candidata
+        private Object nextKey; // Chiave di next se già verificata, tenuta in vita
+        private Object nextValue; // Valore di next, tenuto in vita
+        private Object lastKey; // Chiave dell'ultima entry restituita
+
+        /**
+         * Verifica se ci sono altri elementi nell'iterazione.
+         *
+         * @return {@code true} se ci sono altri elementi.
+         */
+        @Override
+        public boolean hasNext() {
+            if (nextKey != null) {
+                if (!next.removed)
+                    return true;
+                next = next.next;
+                nextKey = null;
+                nextValue = null;
+            }
+            for (;;) {
+                while (next == null) {
+                    if (index == tab.length)
+                        return false;
+                    next = tab[index++];
+                }
+                if (!next.removed) {
+                    Object k = next.key();
+                    Object v = next.value();
+                    if (k != null && v != null) {
+                        nextKey = k;
+                        nextValue = v;
+                        return true;
+                    }
+                }
+                next = next.next;
+            }
+        }
+
+        /**
+         * Restituisce la prossima entry nell'iterazione.
+         *
+         * @return la prossima entry.
+         * @throws NoSuchElementException se non ci sono altri elementi.
+         */
+        @Override
+        public Object next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            HEntry e = new SnapshotEntry(nextKey, nextValue);
+            lastKey = nextKey;
+            next = next.next;
+            nextKey = null;
+            nextValue = null;
+            return e;
+        }
+
+        /**
+         * Rimuove dalla mappa l'ultima entry restituita da {@code next()}.
+         *
+         * @throws IllegalStateException se {@code next()} non è stato chiamato o
+         *                               {@code remove()} è già stato chiamato.
+         */
+        @Override
+        public void remove() {
+            if (lastKey == null)
+                throw new IllegalStateException();
+
+            ReferenceHMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
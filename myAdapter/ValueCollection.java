@@ -1,7 +1,6 @@
 package myAdapter;
 
 import java.util.Enumeration;
-import java.util.Hashtable;
 import java.util.NoSuchElementException;
 
 /**
@@ -85,7 +84,8 @@ public class ValueCollection implements HCollection {
      */
     @Override
     public HIterator iterator() {
-        return new CollectionIterator(parentMap.hash);
+        parentMap.record(MapMetrics.ITERATOR);
+        return new CollectionIterator(parentMap);
     }
 
     /**
@@ -169,7 +169,9 @@ public class ValueCollection implements HCollection {
      * Rimuove una singola istanza del valore specificato da questa collezione.
      * <p>
      * Se il valore è presente più volte, viene rimossa solo la prima occorrenza
-     * trovata durante l'iterazione delle chiavi della mappa.
+     * trovata durante la scansione della mappa. Chiavi e valori della
+     * mappa vengono enumerati in parallelo, quindi la mappatura da
+     * rimuovere viene trovata con un'unica scansione.
      *
      * @param o il valore da rimuovere da questa collezione.
      * @return {@code true} se la collezione è stata modificata.
@@ -179,20 +181,17 @@ public class ValueCollection implements HCollection {
     public boolean remove(Object o) {
         if (o == null)
             throw new NullPointerException();
-        if (!parentMap.containsValue(o))
-            return false;
 
-        boolean removed = false;
-        HIterator it = parentMap.keySet().iterator();
-        // Itera sulle chiavi per trovare l'entry con il valore corrispondente.
-        while (it.hasNext() && !removed) {
-            Object key = it.next();
-            if (parentMap.get(key).equals(o)) {
-                it.remove(); // Rimuove l'entry tramite l'iteratore del keySet.
-                removed = true;
+        Enumeration keys = parentMap.keyEnumeration();
+        Enumeration values = parentMap.valueEnumeration();
+        while (keys.hasMoreElements()) {
+            Object key = keys.nextElement();
+            if (values.nextElement().equals(o)) {
+                parentMap.remove(key);
+                return true;
             }
         }
-        return removed;
+        return false;
     }
 
     /**
@@ -236,6 +235,10 @@ public class ValueCollection implements HCollection {
     /**
      * Rimuove da questa collezione tutti i suoi valori che sono contenuti anche
      * nella collezione specificata.
+     * <p>
+     * La mappa viene scandita una sola volta; l'appartenenza di ogni valore
+     * alla collezione specificata viene verificata su una copia hash di
+     * quest'ultima, anche se è un {@code HSet}.
      *
      * @param c la collezione contenente i valori da rimuovere.
      * @return {@code true} se la collezione è stata modificata.
@@ -249,23 +252,16 @@ public class ValueCollection implements HCollection {
         if (c.size() == 0)
             return false;
 
-        boolean modified = false;
-        HIterator it = c.iterator();
-        // Per ogni elemento nella collezione 'c'...
-        while (it.hasNext()) {
-            Object objToRemove = it.next();
-            // ...rimuove tutte le sue occorrenze da questa collezione.
-            while (remove(objToRemove)) {
-                modified = true;
-            }
-        }
-        return modified;
+        return removeMatching(c, true);
     }
 
     /**
      * Mantiene in questa collezione solo i valori che sono contenuti anche nella
      * collezione specificata. In altre parole, rimuove da questa collezione tutti
      * i valori che non sono presenti nella collezione specificata.
+     * <p>
+     * Come {@link #removeAll(HCollection)}, esegue un'unica scansione della
+     * mappa.
      *
      * @param c la collezione che definisce quali valori mantenere.
      * @return {@code true} se la collezione è stata modificata.
@@ -276,18 +272,7 @@ public class ValueCollection implements HCollection {
         if (c == null)
             throw new NullPointerException();
 
-        boolean modified = false;
-        HIterator it = iterator();
-        // Itera su questa collezione.
-        while (it.hasNext()) {
-            // Se un valore non è contenuto nella collezione 'c'...
-            if (!c.contains(it.next())) {
-                // ...lo rimuove.
-                it.remove();
-                modified = true;
-            }
-        }
-        return modified;
+        return removeMatching(c, false);
     }
 
     /**
@@ -306,6 +291,11 @@ public class ValueCollection implements HCollection {
      * Due collezioni sono considerate uguali se sono entrambe istanze di
      * {@code HCollection} (ma non {@code HSet}), hanno la stessa dimensione e
      * contengono gli stessi elementi (indipendentemente dall'ordine).
+     * <p>
+     * Se anche l'altra collezione è la vista dei valori di una
+     * {@code MapAdapter}, le due collezioni vengono prima confrontate tramite la
+     * somma dei codici hash dei valori, mantenuta dalle mappe: se le somme
+     * differiscono le collezioni sono certamente diverse.
      *
      * @param o l'oggetto da confrontare.
      * @return {@code true} se l'oggetto specificato è uguale a questa collezione.
@@ -321,35 +311,32 @@ public class ValueCollection implements HCollection {
         if (c.size() != size()) // Se non hanno la stessa dimensione allora sicuramente non sono uguali
             return false;
 
+        if (o instanceof ValueCollection) {
+            MapAdapter other = ((ValueCollection) o).parentMap;
+            if (other == parentMap)
+                return true;
+            if (other.valueHashSum() != parentMap.valueHashSum())
+                return false;
+        }
+
         // Siccome nelle collezioni sono possibili i duplicati devo
         // confrontare la cardinalità di ogni elemento.
-        // Per farlo utilizzo una struttura d'appoggio
-        Hashtable frequencies = new Hashtable();
+        // Per farlo utilizzo una tabella di contatori primitivi, dimensionata
+        // una sola volta.
+        ObjectCounter frequencies = new ObjectCounter(size());
 
         // 1. Conta le frequenze degli elementi in questa collezione.
         HIterator it = iterator();
-        while (it.hasNext()) {
-            Object obj = it.next();
-            Integer count = (Integer) frequencies.get(obj);
-            if (count == null) {
-                // Primo conteggio dell'oggetto corrente
-                frequencies.put(obj, new Integer(1));
-            } else {
-                frequencies.put(obj, new Integer(count.intValue() + 1));
-            }
-        }
+        while (it.hasNext())
+            frequencies.add(it.next());
 
-        // 9. Decremento le frequenze usando gli elementi della collezione 'c'.
+        // 2. Decremento le frequenze usando gli elementi della collezione 'c'.
         it = c.iterator();
         while (it.hasNext()) {
-            Object obj = it.next();
-            Integer count = (Integer) frequencies.get(obj);
-            if (count == null || count.intValue() == 0)
+            if (!frequencies.remove(it.next()))
                 // Trovato un elemento in 'c' che non c'è oppure uno stesso
                 // elemento che però in 'c' si presenta una cardinalità maggiore
                 return false;
-
-            frequencies.put(obj, new Integer(count.intValue() - 1));
         }
 
         return true;
@@ -370,29 +357,97 @@ public class ValueCollection implements HCollection {
         return hashCode;
     }
 
+    // -------------------- METODI DI SUPPORTO ----------------
+
+    /**
+     * Restituisce l'elemento di questa vista che corrisponde alla mappatura
+     * specificata: per la collezione dei valori è il valore. Le viste che
+     * estendono questa classe lo ridefiniscono (la chiave per il set delle
+     * chiavi, l'entry per il set delle entry), così che
+     * {@link #retainAll(HCollection)} funzioni anche per loro.
+     *
+     * @param key   la chiave della mappatura.
+     * @param value il valore della mappatura.
+     * @return l'elemento della vista.
+     */
+    protected Object elementOf(Object key, Object value) {
+        return value;
+    }
+
+    /**
+     * Rimuove, con un'unica scansione della mappa, le mappature il cui elemento
+     * è contenuto (o non è contenuto) nella collezione specificata.
+     * <p>
+     * Gli elementi della collezione vengono prima copiati in una tabella
+     * hash, così che ogni verifica di appartenenza costi O(1) e usi
+     * {@code equals} degli elementi. Solo per {@code retainAll} un
+     * {@code HSet} viene interrogato direttamente con {@code contains}, come
+     * già avveniva: per {@code removeAll} il {@code contains} di un set di
+     * tipo diverso (per esempio un entry set interrogato con un valore)
+     * potrebbe rifiutare l'elemento invece di restituire {@code false}.
+     *
+     * @param c         la collezione di riferimento.
+     * @param contained {@code true} per rimuovere gli elementi contenuti in
+     *                  {@code c}, {@code false} per rimuovere quelli non
+     *                  contenuti.
+     * @return {@code true} se la mappa è stata modificata.
+     * @throws NullPointerException se {@code c} contiene elementi {@code null} e
+     *                              viene copiata.
+     */
+    private boolean removeMatching(HCollection c, boolean contained) {
+        ObjectCounter members = null;
+        if (contained || !(c instanceof HSet)) {
+            members = new ObjectCounter(c.size());
+            HIterator it = c.iterator();
+            while (it.hasNext())
+                members.add(it.next());
+        }
+
+        boolean modified = false;
+        // Chiavi e valori vengono enumerati in parallelo: rimuovere la mappatura
+        // appena restituita non altera le enumerazioni.
+        Enumeration keys = parentMap.keyEnumeration();
+        Enumeration values = parentMap.valueEnumeration();
+        while (keys.hasMoreElements()) {
+            Object key = keys.nextElement();
+            Object element = elementOf(key, values.nextElement());
+            boolean member = members != null ? members.contains(element) : c.contains(element);
+            if (member == contained) {
+                parentMap.remove(key);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
     // -------------------- CLASSI PRIVATE INTERNE ----------------
 
     /**
      * Implementazione di {@link HIterator} specifica per la collezione di valori.
      * Questo iteratore permette di scorrere i valori della mappa di supporto
      * e di rimuoverli in modo sicuro durante l'iterazione.
+     * <p>
+     * Le chiavi e i valori della mappa vengono enumerati in
+     * parallelo: l'iteratore conosce la chiave di ogni valore restituito, così
+     * che {@code remove()} elimini in tempo costante esattamente quella
+     * mappatura, anche quando più chiavi condividono lo stesso valore.
      */
     private class CollectionIterator implements HIterator {
         // Campi privati
-        protected Hashtable parent;
+        private Enumeration keys;
         private Enumeration en;
         private boolean canRemove; // Flag per garantire che remove() sia chiamato solo dopo next()
-        private Object lastReturned; // Memorizza l'ultimo valore restituito da next()
+        private Object lastKey; // Chiave dell'ultimo valore restituito da next()
 
         /**
-         * Costruisce un iteratore basato sulla {@code Hashtable} di supporto.
+         * Costruisce un iteratore basato sulla mappa di supporto.
          *
-         * @param h la {@code Hashtable} su cui l'iteratore opererà.
+         * @param map la mappa su cui l'iteratore opererà.
          */
-        public CollectionIterator(Hashtable h) {
-            this.parent = h;
-            // Ottiene un'enumerazione dei valori (elementi) dalla Hashtable.
-            this.en = parent.elements();
+        public CollectionIterator(MapAdapter map) {
+            // Le due enumerazioni visitano le mappature nello stesso ordine.
+            this.keys = map.keyEnumeration();
+            this.en = map.valueEnumeration();
             this.canRemove = false; // Inizialmente non è possibile rimuovere elementi.
         }
 
@@ -418,12 +473,12 @@ public class ValueCollection implements HCollection {
                 throw new NoSuchElementException();
 
             canRemove = true;
-            lastReturned = en.nextElement();
-            return lastReturned;
+            lastKey = keys.nextElement();
+            return en.nextElement();
         }
 
         /**
-         * Rimuove dalla mappa di supporto l'ultima entry corrispondente al valore
+         * Rimuove dalla mappa di supporto la mappatura dell'ultimo valore
          * restituito da questo iteratore.
          *
          * @throws IllegalStateException se {@code next()} non è stato ancora chiamato,
@@ -437,16 +492,7 @@ public class ValueCollection implements HCollection {
                         "Il metodo remove() può essere chiamato solo una volta dopo ogni chiamata a next().");
 
             canRemove = false;
-            boolean found = false;
-            // Per rimuovere un valore, dobbiamo trovare la chiave corrispondente.
-            Enumeration keys = parent.keys();
-            while (keys.hasMoreElements() && !found) {
-                Object key = keys.nextElement();
-                if (parent.get(key).equals(lastReturned)) {
-                    parent.remove(key);
-                    found = true;
-                }
-            }
+            parentMap.remove(lastKey); // Passa dalla mappa, che aggiorna il proprio stato
         }
     }
 
@@ -0,0 +1,329 @@
+package myBenchmark;
+
+import java.util.Vector;
+
+import myAdapter.ConcurrentHMap;
+import myAdapter.CopyOnWriteHMap;
+import myAdapter.HMap;
+import myAdapter.IndexedMapAdapter;
+import myAdapter.MapAdapter;
+import myAdapter.OpenHashMap;
+
+/**
+ * Classe eseguibile che misura le prestazioni di {@link MapAdapter} (e delle
+ * altre implementazioni di {@link HMap} del package {@code myAdapter}) e delle
+ * sue viste.
+ * <p>
+ * Per ogni combinazione di implementazione, distribuzione delle chiavi,
+ * dimensione della mappa e benchmark, il runner:
+ * <ol>
+ * <li>popola una mappa nuova ed esegue il {@code setUp} del benchmark;</li>
+ * <li>esegue il benchmark per un tempo di riscaldamento (warm-up), così che il
+ * compilatore JIT abbia compilato il codice misurato;</li>
+ * <li>esegue un numero fisso di iterazioni di misura di durata fissa e stampa
+ * il tempo medio per operazione elementare con la sua deviazione
+ * standard.</li>
+ * </ol>
+ * I risultati delle operazioni vengono accumulati in un campo
+ * {@code volatile}, così che il compilatore non possa eliminarle.
+ * <p>
+ * Opzioni accettate (tutte facoltative, liste separate da virgole):
+ * <ul>
+ * <li>{@code -impl} implementazioni: {@code MapAdapter}, {@code OpenHashMap},
+ * {@code IndexedMapAdapter}, {@code ConcurrentHMap}, {@code CopyOnWriteHMap}
+ * (predefinita: {@code MapAdapter});</li>
+ * <li>{@code -dist} distribuzioni delle chiavi: {@code seq}, {@code random},
+ * {@code string}, {@code collide} (predefinita: {@code seq,random});</li>
+ * <li>{@code -sizes} dimensioni delle mappe, da 10 a 10000000 (predefinita:
+ * {@code 10,1000,100000});</li>
+ * <li>{@code -bench} benchmark da eseguire (predefinito: tutti);</li>
+ * <li>{@code -warmup} durata del riscaldamento in millisecondi (predefinita:
+ * 500);</li>
+ * <li>{@code -time} durata di ogni iterazione di misura in millisecondi
+ * (predefinita: 500);</li>
+ * <li>{@code -iter} numero di iterazioni di misura (predefinito: 5);</li>
+ * <li>{@code -list} stampa i benchmark e le distribuzioni disponibili.</li>
+ * </ul>
+ */
+public class BenchmarkRunner {
+    /**
+     * Accumulatore dei risultati dei benchmark, per impedirne l'eliminazione.
+     */
+    private static volatile int sink;
+
+    private String[] impls = { "MapAdapter" };
+    private KeyDistribution[] dists = { KeyDistribution.SEQUENTIAL, KeyDistribution.RANDOM };
+    private int[] sizes = { 10, 1000, 100000 };
+    private MapBenchmark[] benchmarks = MapBenchmark.ALL;
+    private long warmupMillis = 500;
+    private long timeMillis = 500;
+    private int iterations = 5;
+
+    /**
+     * Costruttore privato: la classe si usa tramite {@link #main(String[])}.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Punto di ingresso: interpreta le opzioni ed esegue i benchmark.
+     *
+     * @param args le opzioni da riga di comando.
+     */
+    public static void main(String[] args) {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        try {
+            if (!runner.parse(args))
+                return;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Errore: " + e.getMessage());
+            return;
+        }
+        runner.runAll();
+    }
+
+    /**
+     * Interpreta le opzioni da riga di comando.
+     *
+     * @param args le opzioni.
+     * @return {@code false} se non ci sono benchmark da eseguire.
+     * @throws IllegalArgumentException se un'opzione non è valida.
+     */
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String opt = args[i];
+            if (opt.equals("-list")) {
+                printList();
+                return false;
+            }
+            if (i + 1 >= args.length)
+                throw new IllegalArgumentException("Valore mancante per " + opt);
+
+            String[] values = split(args[++i]);
+            if (opt.equals("-impl")) {
+                for (int j = 0; j < values.length; j++)
+                    factory(values[j]); // Verifica che il nome sia valido
+                impls = values;
+            } else if (opt.equals("-dist")) {
+                dists = new KeyDistribution[values.length];
+                for (int j = 0; j < values.length; j++)
+                    dists[j] = KeyDistribution.forName(values[j]);
+            } else if (opt.equals("-sizes")) {
+                sizes = new int[values.length];
+                for (int j = 0; j < values.length; j++) {
+                    sizes[j] = Integer.parseInt(values[j]);
+                    if (sizes[j] < 1)
+                        throw new IllegalArgumentException("Dimensione non valida: " + values[j]);
+                }
+            } else if (opt.equals("-bench")) {
+                benchmarks = new MapBenchmark[values.length];
+                for (int j = 0; j < values.length; j++)
+                    benchmarks[j] = MapBenchmark.forName(values[j]);
+            } else if (opt.equals("-warmup")) {
+                warmupMillis = Long.parseLong(values[0]);
+            } else if (opt.equals("-time")) {
+                timeMillis = Long.parseLong(values[0]);
+            } else if (opt.equals("-iter")) {
+                iterations = Integer.parseInt(values[0]);
+            } else {
+                throw new IllegalArgumentException("Opzione sconosciuta: " + opt);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Esegue tutte le combinazioni richieste e stampa i risultati.
+     */
+    private void runAll() {
+        System.out.println(pad("Benchmark", 16) + pad("Impl", 19) + pad("Dist", 9) + padLeft("Size", 10)
+                + padLeft("ns/op", 14) + padLeft("error", 12) + "  op");
+
+        for (int i = 0; i < impls.length; i++) {
+            MapBenchmark.MapFactory factory = factory(impls[i]);
+            for (int d = 0; d < dists.length; d++) {
+                for (int s = 0; s < sizes.length; s++) {
+                    int size = sizes[s];
+                    if (size > dists[d].getMaxSize())
+                        continue;
+                    for (int b = 0; b < benchmarks.length; b++) {
+                        MapBenchmark bench = benchmarks[b];
+                        if (size > bench.getMaxSize())
+                            continue;
+                        double[] result = measure(bench, factory, dists[d], size);
+                        System.out.println(pad(bench.getName(), 16) + pad(impls[i], 19) + pad(dists[d].getName(), 9)
+                                + padLeft(String.valueOf(size), 10) + padLeft(format(result[0]), 14)
+                                + padLeft(format(result[1]), 12) + "  " + bench.getUnit());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Misura un benchmark su una mappa della dimensione indicata.
+     *
+     * @param bench   il benchmark.
+     * @param factory crea la mappa sotto misura.
+     * @param dist    la distribuzione delle chiavi.
+     * @param size    il numero di mappature.
+     * @return un array con il tempo medio per operazione in nanosecondi e la
+     *         sua deviazione standard.
+     */
+    private double[] measure(MapBenchmark bench, MapBenchmark.MapFactory factory, KeyDistribution dist, int size) {
+        System.gc();
+        MapBenchmark.State state = new MapBenchmark.State(factory, dist, size);
+        bench.setUp(state);
+        int ops = bench.operations(size);
+
+        int acc = 0;
+        long end = System.nanoTime() + warmupMillis * 1000000L;
+        do {
+            acc += bench.run(state);
+        } while (System.nanoTime() < end);
+
+        double[] samples = new double[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long invocations = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                acc += bench.run(state);
+                invocations++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < timeMillis * 1000000L);
+            samples[i] = (double) elapsed / ((double) invocations * ops);
+        }
+        sink += acc;
+
+        double mean = 0;
+        for (int i = 0; i < samples.length; i++)
+            mean += samples[i];
+        mean /= samples.length;
+        double var = 0;
+        for (int i = 0; i < samples.length; i++)
+            var += (samples[i] - mean) * (samples[i] - mean);
+        double stddev = samples.length > 1 ? Math.sqrt(var / (samples.length - 1)) : 0;
+        return new double[] { mean, stddev };
+    }
+
+    /**
+     * Restituisce il costruttore di mappe vuote per l'implementazione
+     * indicata.
+     *
+     * @param impl il nome semplice della classe.
+     * @return il costruttore di mappe.
+     * @throws IllegalArgumentException se l'implementazione non è nota.
+     */
+    private static MapBenchmark.MapFactory factory(String impl) {
+        if (impl.equals("MapAdapter")) {
+            return new MapBenchmark.MapFactory() {
+                public HMap create() {
+                    return new MapAdapter();
+                }
+            };
+        }
+        if (impl.equals("OpenHashMap")) {
+            return new MapBenchmark.MapFactory() {
+                public HMap create() {
+                    return new OpenHashMap();
+                }
+            };
+        }
+        if (impl.equals("IndexedMapAdapter")) {
+            return new MapBenchmark.MapFactory() {
+                public HMap create() {
+                    return new IndexedMapAdapter();
+                }
+            };
+        }
+        if (impl.equals("ConcurrentHMap")) {
+            return new MapBenchmark.MapFactory() {
+                public HMap create() {
+                    return new ConcurrentHMap();
+                }
+            };
+        }
+        if (impl.equals("CopyOnWriteHMap")) {
+            return new MapBenchmark.MapFactory() {
+                public HMap create() {
+                    return new CopyOnWriteHMap();
+                }
+            };
+        }
+        throw new IllegalArgumentException("Implementazione sconosciuta: " + impl);
+    }
+
+    /**
+     * Stampa i benchmark e le distribuzioni disponibili.
+     */
+    private static void printList() {
+        System.out.println("Benchmark:");
+        for (int i = 0; i < MapBenchmark.ALL.length; i++)
+            System.out.println("  " + MapBenchmark.ALL[i].getName() + " (" + MapBenchmark.ALL[i].getUnit() + ")");
+        System.out.println("Distribuzioni:");
+        for (int i = 0; i < KeyDistribution.ALL.length; i++)
+            System.out.println("  " + KeyDistribution.ALL[i].getName());
+    }
+
+    /**
+     * Divide una lista separata da virgole.
+     *
+     * @param s la lista.
+     * @return gli elementi della lista.
+     */
+    private static String[] split(String s) {
+        Vector parts = new Vector();
+        int start = 0;
+        for (int i = 0; i <= s.length(); i++) {
+            if (i == s.length() || s.charAt(i) == ',') {
+                if (i > start)
+                    parts.addElement(s.substring(start, i).trim());
+                start = i + 1;
+            }
+        }
+        String[] result = new String[parts.size()];
+        parts.copyInto(result);
+        return result;
+    }
+
+    /**
+     * Formatta un numero con due cifre decimali.
+     *
+     * @param d il numero.
+     * @return il numero formattato.
+     */
+    private static String format(double d) {
+        long scaled = Math.round(d * 100);
+        String frac = String.valueOf(scaled % 100);
+        return (scaled / 100) + "." + (frac.length() == 1 ? "0" + frac : frac);
+    }
+
+    /**
+     * Allinea una stringa a sinistra in un campo della larghezza indicata.
+     *
+     * @param s     la stringa.
+     * @param width la larghezza del campo.
+     * @return la stringa completata con spazi.
+     */
+    private static String pad(String s, int width) {
+        StringBuffer sb = new StringBuffer(s);
+        while (sb.length() < width)
+            sb.append(' ');
+        return sb.toString();
+    }
+
+    /**
+     * Allinea una stringa a destra in un campo della larghezza indicata.
+     *
+     * @param s     la stringa.
+     * @param width la larghezza del campo.
+     * @return la stringa preceduta da spazi.
+     */
+    private static String padLeft(String s, int width) {
+        StringBuffer sb = new StringBuffer();
+        for (int i = s.length(); i < width; i++)
+            sb.append(' ');
+        return sb.append(s).toString();
+    }
+}
@@ -0,0 +1,178 @@
+package myBenchmark;
+
+import java.util.Random;
+
+/**
+ * Distribuzione delle chiavi usate per popolare le mappe nei benchmark.
+ * <p>
+ * Ogni distribuzione genera, a partire da un seme fisso, un array di chiavi
+ * distinte e un secondo array di chiavi distinte non presenti nel primo (usato
+ * per misurare le ricerche senza successo). A parità di seme e dimensione le
+ * chiavi generate sono sempre le stesse, così che misure ripetute siano
+ * confrontabili.
+ */
+public abstract class KeyDistribution {
+    /**
+     * Chiavi {@code Integer} consecutive a partire da 0: l'hash è la chiave
+     * stessa, il caso più favorevole per la {@code Hashtable}.
+     */
+    public static final KeyDistribution SEQUENTIAL = new KeyDistribution("seq", Integer.MAX_VALUE) {
+        @Override
+        protected Object key(Random random, int i) {
+            return Integer.valueOf(i);
+        }
+    };
+
+    /**
+     * Chiavi {@code Integer} pseudo-casuali uniformi.
+     */
+    public static final KeyDistribution RANDOM = new KeyDistribution("random", Integer.MAX_VALUE) {
+        @Override
+        protected Object key(Random random, int i) {
+            return Integer.valueOf(random.nextInt());
+        }
+    };
+
+    /**
+     * Chiavi {@code String} di lunghezza variabile: l'hash e il confronto
+     * costano più che per un {@code Integer}.
+     */
+    public static final KeyDistribution STRING = new KeyDistribution("string", Integer.MAX_VALUE) {
+        @Override
+        protected Object key(Random random, int i) {
+            return "key-" + Integer.toString(random.nextInt() & 0x7FFFFFFF, 36);
+        }
+    };
+
+    /**
+     * Chiavi con un {@code hashCode} di qualità scarsa, che assume solo 1024
+     * valori distinti: simula un tipo di chiave patologico. Limitata a
+     * dimensioni moderate, poiché il costo di ogni ricerca cresce linearmente
+     * con la dimensione della mappa.
+     */
+    public static final KeyDistribution COLLIDING = new KeyDistribution("collide", 100000) {
+        @Override
+        protected Object key(Random random, int i) {
+            return new CollidingKey(random.nextInt());
+        }
+    };
+
+    /**
+     * Tutte le distribuzioni disponibili.
+     */
+    public static final KeyDistribution[] ALL = { SEQUENTIAL, RANDOM, STRING, COLLIDING };
+
+    /**
+     * Seme del generatore pseudo-casuale.
+     */
+    private static final long SEED = 0x5DEECE66DL;
+
+    private final String name;
+    private final int maxSize;
+
+    /**
+     * Costruisce una distribuzione.
+     *
+     * @param name    il nome usato sulla riga di comando e nei risultati.
+     * @param maxSize la dimensione massima per cui la distribuzione ha senso.
+     */
+    private KeyDistribution(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Restituisce il nome della distribuzione.
+     *
+     * @return il nome.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Restituisce la dimensione massima supportata dalla distribuzione.
+     *
+     * @return la dimensione massima.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Genera la {@code i}-esima chiave candidata.
+     *
+     * @param random il generatore pseudo-casuale della generazione corrente.
+     * @param i      l'indice della chiave.
+     * @return la chiave candidata (può coincidere con una già generata).
+     */
+    protected abstract Object key(Random random, int i);
+
+    /**
+     * Genera {@code size} chiavi distinte seguite da {@code extra} chiavi
+     * distinte e diverse dalle prime.
+     *
+     * @param size  il numero di chiavi da inserire nella mappa.
+     * @param extra il numero di chiavi assenti dalla mappa.
+     * @return un array di {@code size + extra} chiavi distinte.
+     */
+    public Object[] generate(int size, int extra) {
+        Random random = new Random(SEED);
+        Object[] keys = new Object[size + extra];
+        java.util.HashSet seen = new java.util.HashSet(2 * keys.length);
+        int n = 0;
+        for (int i = 0; n < keys.length; i++) {
+            Object k = key(random, i);
+            if (seen.add(k))
+                keys[n++] = k;
+        }
+        return keys;
+    }
+
+    /**
+     * Cerca una distribuzione per nome.
+     *
+     * @param name il nome della distribuzione.
+     * @return la distribuzione.
+     * @throws IllegalArgumentException se il nome non corrisponde ad alcuna
+     *                                  distribuzione.
+     */
+    public static KeyDistribution forName(String name) {
+        for (int i = 0; i < ALL.length; i++) {
+            if (ALL[i].name.equals(name))
+                return ALL[i];
+        }
+        throw new IllegalArgumentException("Distribuzione sconosciuta: " + name);
+    }
+
+    /**
+     * Chiave il cui hash assume solo 1024 valori distinti.
+     */
+    private static final class CollidingKey {
+        private final int id;
+
+        /**
+         * Costruisce una chiave con l'identificativo specificato.
+         *
+         * @param id l'identificativo.
+         */
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id & 0x3FF;
+        }
+
+        @Override
+        public String toString() {
+            return "k" + id;
+        }
+    }
+}
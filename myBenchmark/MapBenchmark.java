@@ -0,0 +1,575 @@
+package myBenchmark;
+
+import myAdapter.HCollection;
+import myAdapter.HEntry;
+import myAdapter.HIterator;
+import myAdapter.HMap;
+import myAdapter.IndexedMapAdapter;
+import myAdapter.MapAdapter;
+
+/**
+ * Un singolo benchmark su una {@link HMap} e sulle sue viste.
+ * <p>
+ * Prima della misura il runner popola una mappa con le chiavi di una
+ * {@link KeyDistribution} e invoca {@link #setUp(State)}; poi chiama
+ * ripetutamente {@link #run(State)}, che esegue {@link #operations(int)}
+ * operazioni elementari e restituisce un valore dipendente dal loro
+ * risultato, così che il compilatore JIT non possa eliminarle. Il tempo medio
+ * riportato è per operazione elementare.
+ * <p>
+ * Ogni {@code run} lascia la mappa nello stato in cui l'ha trovata, in modo
+ * che tutte le invocazioni misurino lo stesso lavoro.
+ */
+public abstract class MapBenchmark {
+    /**
+     * Numero di ricerche o scritture eseguite da un'invocazione dei benchmark
+     * puntuali ({@code get}, {@code put}, ...).
+     */
+    private static final int BATCH = 1024;
+
+    /**
+     * {@code HMap.get} su chiavi presenti, in ordine pseudo-casuale.
+     */
+    public static final MapBenchmark GET = new MapBenchmark("get", "lookup", Integer.MAX_VALUE) {
+        @Override
+        public int run(State s) {
+            return getBatch(s);
+        }
+    };
+
+    /**
+     * Come {@link #GET}, con le metriche di {@link MapAdapter} attivate: il
+     * confronto con {@code get} misura il costo del conteggio delle letture.
+     * Sulle altre implementazioni coincide con {@code get}.
+     */
+    public static final MapBenchmark GET_METRICS = new MapBenchmark("getMetrics", "lookup", Integer.MAX_VALUE) {
+        @Override
+        public void setUp(State s) {
+            enableMetrics(s);
+        }
+
+        @Override
+        public int run(State s) {
+            return getBatch(s);
+        }
+    };
+
+    /**
+     * {@code HMap.get} su chiavi assenti.
+     */
+    public static final MapBenchmark GET_MISS = new MapBenchmark("getMiss", "lookup", Integer.MAX_VALUE) {
+        @Override
+        public int run(State s) {
+            int acc = 0;
+            for (int i = 0; i < BATCH; i++) {
+                if (s.map.get(s.keys[s.size + i]) == null)
+                    acc++;
+            }
+            return acc;
+        }
+    };
+
+    /**
+     * {@code HMap.put} che sovrascrive mappature esistenti.
+     */
+    public static final MapBenchmark PUT = new MapBenchmark("put", "put", Integer.MAX_VALUE) {
+        @Override
+        public int run(State s) {
+            return putBatch(s);
+        }
+    };
+
+    /**
+     * Come {@link #PUT}, con le metriche di {@link MapAdapter} attivate: il
+     * confronto con {@code put} misura il costo del conteggio delle scritture.
+     * Sulle altre implementazioni coincide con {@code put}.
+     */
+    public static final MapBenchmark PUT_METRICS = new MapBenchmark("putMetrics", "put", Integer.MAX_VALUE) {
+        @Override
+        public void setUp(State s) {
+            enableMetrics(s);
+        }
+
+        @Override
+        public int run(State s) {
+            return putBatch(s);
+        }
+    };
+
+    /**
+     * Coppie {@code remove} + {@code put} della stessa chiave.
+     */
+    public static final MapBenchmark PUT_REMOVE = new MapBenchmark("putRemove", "remove+put", Integer.MAX_VALUE) {
+        @Override
+        public int run(State s) {
+            int acc = 0;
+            for (int i = 0; i < BATCH; i++) {
+                int k = s.order[i];
+                acc += s.map.remove(s.keys[k]).hashCode();
+                s.map.put(s.keys[k], s.values[k]);
+            }
+            return acc;
+        }
+    };
+
+    /**
+     * {@code HMap.putAll} della mappa in una nuova mappa vuota dello stesso
+     * tipo (equivalente al costruttore di copia).
+     */
+    public static final MapBenchmark PUT_ALL = new MapBenchmark("putAll", "entry", Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public int run(State s) {
+            HMap copy = s.factory.create();
+            copy.putAll(s.map);
+            return copy.size();
+        }
+    };
+
+    /**
+     * Scansione completa di {@code keySet()}.
+     */
+    public static final MapBenchmark KEY_SET_ITERATION = new MapBenchmark("keySetIter", "element", Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public int run(State s) {
+            return sumHashCodes(s.map.keySet().iterator());
+        }
+    };
+
+    /**
+     * Scansione completa di {@code values()}.
+     */
+    public static final MapBenchmark VALUES_ITERATION = new MapBenchmark("valuesIter", "element", Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public int run(State s) {
+            return sumHashCodes(s.map.values().iterator());
+        }
+    };
+
+    /**
+     * Scansione completa di {@code entrySet()}, leggendo chiave e valore di
+     * ogni entry.
+     */
+    public static final MapBenchmark ENTRY_SET_ITERATION = new MapBenchmark("entrySetIter", "element",
+            Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public int run(State s) {
+            int acc = 0;
+            HIterator it = s.map.entrySet().iterator();
+            while (it.hasNext()) {
+                HEntry e = (HEntry) it.next();
+                acc += e.getKey().hashCode() + e.getValue().hashCode();
+            }
+            return acc;
+        }
+    };
+
+    /**
+     * {@code values().remove} di un valore, seguita dal reinserimento della
+     * mappatura rimossa.
+     */
+    public static final MapBenchmark VALUES_REMOVE = new MapBenchmark("valuesRemove", "remove+put",
+            Integer.MAX_VALUE) {
+        private int next;
+
+        @Override
+        public int operations(int size) {
+            return 1;
+        }
+
+        @Override
+        public int run(State s) {
+            int k = s.order[next++ & (BATCH - 1)];
+            boolean removed = s.map.values().remove(s.values[k]);
+            s.map.put(s.keys[k], s.values[k]);
+            return removed ? 1 : 0;
+        }
+    };
+
+    /**
+     * {@code values().retainAll} con una collezione che contiene tutti i
+     * valori: misura la scansione, senza rimozioni. L'argomento è la vista dei
+     * valori di una {@link IndexedMapAdapter}, il cui {@code contains} costa
+     * O(1), così che il tempo misurato sia quello di {@code retainAll}.
+     */
+    public static final MapBenchmark VALUES_RETAIN_ALL = new MapBenchmark("valuesRetainAll", "element",
+            Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public void setUp(State s) {
+            s.argument = new IndexedMapAdapter(s.map).values();
+        }
+
+        @Override
+        public int run(State s) {
+            return s.map.values().retainAll(s.argument) ? 1 : 0;
+        }
+    };
+
+    /**
+     * {@code entrySet().contains} su entry presenti.
+     */
+    public static final MapBenchmark ENTRY_SET_CONTAINS = new MapBenchmark("entryContains", "lookup",
+            Integer.MAX_VALUE) {
+        @Override
+        public void setUp(State s) {
+            s.entries = new HEntry[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                int k = s.order[i];
+                s.entries[i] = new SimpleEntry(s.keys[k], s.values[k]);
+            }
+        }
+
+        @Override
+        public int run(State s) {
+            HCollection entrySet = s.map.entrySet();
+            int acc = 0;
+            for (int i = 0; i < BATCH; i++) {
+                if (entrySet.contains(s.entries[i]))
+                    acc++;
+            }
+            return acc;
+        }
+    };
+
+    /**
+     * {@code equals} con una {@link MapAdapter} dallo stesso contenuto.
+     */
+    public static final MapBenchmark EQUALS = new MapBenchmark("equals", "entry", Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public void setUp(State s) {
+            s.other = new MapAdapter(s.map);
+        }
+
+        @Override
+        public int run(State s) {
+            return s.map.equals(s.other) ? 1 : 0;
+        }
+    };
+
+    /**
+     * {@code hashCode} della mappa, misurato per chiamata: {@link MapAdapter}
+     * restituisce la somma mantenuta a ogni modifica in tempo costante,
+     * mentre altre implementazioni scorrono le mappature, quindi il tempo per
+     * mappatura non sarebbe confrontabile tra le dimensioni.
+     */
+    public static final MapBenchmark HASH_CODE = new MapBenchmark("hashCode", "call", Integer.MAX_VALUE) {
+        @Override
+        public int operations(int size) {
+            return 1;
+        }
+
+        @Override
+        public int run(State s) {
+            return s.map.hashCode();
+        }
+    };
+
+    /**
+     * {@code toString} della mappa. Limitato a un milione di mappature per
+     * contenere la memoria occupata dalla stringa.
+     */
+    public static final MapBenchmark TO_STRING = new MapBenchmark("toString", "entry", 1000000) {
+        @Override
+        public int operations(int size) {
+            return size;
+        }
+
+        @Override
+        public int run(State s) {
+            return s.map.toString().length();
+        }
+    };
+
+    /**
+     * Tutti i benchmark disponibili.
+     */
+    public static final MapBenchmark[] ALL = { GET, GET_METRICS, GET_MISS, PUT, PUT_METRICS, PUT_REMOVE, PUT_ALL, KEY_SET_ITERATION,
+            VALUES_ITERATION, ENTRY_SET_ITERATION, VALUES_REMOVE, VALUES_RETAIN_ALL, ENTRY_SET_CONTAINS, EQUALS,
+            HASH_CODE, TO_STRING };
+
+    /**
+     * Numero di chiavi assenti generate per {@code getMiss}.
+     */
+    static final int MISSING_KEYS = BATCH;
+
+    private final String name;
+    private final String unit;
+    private final int maxSize;
+
+    /**
+     * Costruisce un benchmark.
+     *
+     * @param name    il nome usato sulla riga di comando e nei risultati.
+     * @param unit    la descrizione dell'operazione elementare misurata.
+     * @param maxSize la dimensione massima della mappa per cui il benchmark
+     *                viene eseguito.
+     */
+    private MapBenchmark(String name, String unit, int maxSize) {
+        this.name = name;
+        this.unit = unit;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Restituisce il nome del benchmark.
+     *
+     * @return il nome.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Restituisce la descrizione dell'operazione elementare misurata.
+     *
+     * @return l'unità di misura.
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Restituisce la dimensione massima della mappa per cui il benchmark viene
+     * eseguito.
+     *
+     * @return la dimensione massima.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Restituisce il numero di operazioni elementari eseguite da
+     * un'invocazione di {@link #run(State)}.
+     *
+     * @param size la dimensione della mappa.
+     * @return il numero di operazioni per invocazione.
+     */
+    public int operations(int size) {
+        return BATCH;
+    }
+
+    /**
+     * Prepara lo stato specifico del benchmark, dopo che la mappa è stata
+     * popolata. L'implementazione predefinita non fa nulla.
+     *
+     * @param s lo stato del benchmark.
+     */
+    public void setUp(State s) {
+    }
+
+    /**
+     * Esegue un'invocazione del benchmark.
+     *
+     * @param s lo stato del benchmark.
+     * @return un valore che dipende dal risultato delle operazioni eseguite.
+     */
+    public abstract int run(State s);
+
+    /**
+     * Cerca un benchmark per nome.
+     *
+     * @param name il nome del benchmark.
+     * @return il benchmark.
+     * @throws IllegalArgumentException se il nome non corrisponde ad alcun
+     *                                  benchmark.
+     */
+    public static MapBenchmark forName(String name) {
+        for (int i = 0; i < ALL.length; i++) {
+            if (ALL[i].name.equals(name))
+                return ALL[i];
+        }
+        throw new IllegalArgumentException("Benchmark sconosciuto: " + name);
+    }
+
+    /**
+     * Legge {@value #BATCH} chiavi presenti, in ordine pseudo-casuale.
+     *
+     * @param s lo stato del benchmark.
+     * @return la somma degli hash code dei valori letti.
+     */
+    private static int getBatch(State s) {
+        int acc = 0;
+        for (int i = 0; i < BATCH; i++)
+            acc += s.map.get(s.keys[s.order[i]]).hashCode();
+        return acc;
+    }
+
+    /**
+     * Sovrascrive {@value #BATCH} mappature esistenti con il loro stesso
+     * valore, in ordine pseudo-casuale.
+     *
+     * @param s lo stato del benchmark.
+     * @return la somma degli hash code dei valori sostituiti.
+     */
+    private static int putBatch(State s) {
+        int acc = 0;
+        for (int i = 0; i < BATCH; i++) {
+            int k = s.order[i];
+            acc += s.map.put(s.keys[k], s.values[k]).hashCode();
+        }
+        return acc;
+    }
+
+    /**
+     * Attiva le metriche della mappa sotto misura, se è una
+     * {@link MapAdapter}.
+     *
+     * @param s lo stato del benchmark.
+     */
+    private static void enableMetrics(State s) {
+        if (s.map instanceof MapAdapter)
+            ((MapAdapter) s.map).enableMetrics();
+    }
+
+    /**
+     * Somma gli hash code degli elementi restituiti da un iteratore.
+     *
+     * @param it l'iteratore.
+     * @return la somma degli hash code.
+     */
+    private static int sumHashCodes(HIterator it) {
+        int acc = 0;
+        while (it.hasNext())
+            acc += it.next().hashCode();
+        return acc;
+    }
+
+    /**
+     * Crea mappe vuote dell'implementazione sotto misura.
+     */
+    public interface MapFactory {
+        /**
+         * Crea una nuova mappa vuota.
+         *
+         * @return la nuova mappa.
+         */
+        HMap create();
+    }
+
+    /**
+     * Stato condiviso tra {@code setUp} e {@code run}: la mappa sotto misura
+     * e i dati con cui è stata popolata.
+     */
+    public static final class State {
+        /** La mappa sotto misura. */
+        public final HMap map;
+        /** Crea mappe vuote dello stesso tipo di {@link #map}. */
+        public final MapFactory factory;
+        /** Numero di mappature nella mappa. */
+        public final int size;
+        /** Le chiavi presenti, seguite da {@link #MISSING_KEYS} chiavi assenti. */
+        public final Object[] keys;
+        /** Il valore associato a ogni chiave presente. */
+        public final Object[] values;
+        /** Indici pseudo-casuali di chiavi presenti. */
+        public final int[] order;
+        /** Collezione usata come argomento dai benchmark che ne hanno bisogno. */
+        public HCollection argument;
+        /** Entry usate come argomento dai benchmark che ne hanno bisogno. */
+        public HEntry[] entries;
+        /** Mappa usata come termine di confronto. */
+        public HMap other;
+
+        /**
+         * Crea lo stato e popola la mappa.
+         *
+         * @param factory crea la mappa sotto misura.
+         * @param dist    la distribuzione delle chiavi.
+         * @param size    il numero di mappature.
+         */
+        public State(MapFactory factory, KeyDistribution dist, int size) {
+            this.factory = factory;
+            this.size = size;
+            this.keys = dist.generate(size, MISSING_KEYS);
+            this.values = new Object[size];
+            this.map = factory.create();
+            for (int i = 0; i < size; i++) {
+                values[i] = Integer.valueOf(i);
+                map.put(keys[i], values[i]);
+            }
+
+            java.util.Random random = new java.util.Random(size);
+            order = new int[BATCH];
+            for (int i = 0; i < BATCH; i++)
+                order[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * Entry indipendente da qualsiasi mappa, usata come argomento di
+     * {@code entrySet().contains}.
+     */
+    private static final class SimpleEntry implements HEntry {
+        private final Object key;
+        private final Object value;
+
+        /**
+         * Costruisce un'entry.
+         *
+         * @param key   la chiave.
+         * @param value il valore.
+         */
+        SimpleEntry(Object key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public Object getKey() {
+            return key;
+        }
+
+        @Override
+        public Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object setValue(Object v) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof HEntry))
+                return false;
+            HEntry e = (HEntry) o;
+            return key.equals(e.getKey()) && value.equals(e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.BTreeHMap},
+ * l'implementazione di {@link myAdapter.HSortedMap} basata su un B+ albero.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Oltre al contratto di base di {@code HMap}, i test verificano l'ordine di
+ * iterazione, le viste sugli intervalli di chiavi e la correttezza
+ * dell'albero dopo molte divisioni e unioni di nodi, confrontandolo con una
+ * {@code MapAdapter}.
+ */
+public class TestBTreeHMap {
+    private BTreeHMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestBTreeHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una mappa con le chiavi pari da 0 a 998.
+     */
+    @Before
+    public void setUp() {
+        testMap = new BTreeHMap(BTreeHMap.INTEGER_ORDER);
+        for (int i = 998; i >= 0; i -= 2)
+            testMap.put(i, "v" + i);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'ordine di iterazione e le chiavi estreme.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le chiavi sono state inserite in ordine decrescente, quindi l'albero ha
+     * subito diverse divisioni: le viste devono comunque restituirle in ordine
+     * crescente.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si percorrono key set, values ed entry set.<br>
+     * 2. Si leggono la prima e l'ultima chiave.<br>
+     * 3. Si svuota la mappa e si leggono di nuovo.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene le chiavi pari da 0 a 998.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le chiavi sono restituite in ordine crescente; sulla mappa vuota
+     * {@code firstKey} e {@code lastKey} lanciano
+     * {@code NoSuchElementException}.
+     */
+    @Test
+    public void testOrderedIteration() {
+        assertEquals(500, testMap.size());
+        HIterator keys = testMap.keySet().iterator();
+        HIterator values = testMap.values().iterator();
+        HIterator entries = testMap.entrySet().iterator();
+        for (int i = 0; i < 1000; i += 2) {
+            assertEquals(i, keys.next());
+            assertEquals("v" + i, values.next());
+            assertEquals(i, ((HEntry) entries.next()).getKey());
+        }
+        assertFalse(keys.hasNext());
+        assertEquals(0, testMap.firstKey());
+        assertEquals(998, testMap.lastKey());
+
+        testMap.clear();
+        try {
+            testMap.firstKey();
+            fail("Prima chiave di una mappa vuota");
+        } catch (NoSuchElementException e) {
+            // Atteso
+        }
+        try {
+            testMap.lastKey();
+            fail("Ultima chiave di una mappa vuota");
+        } catch (NoSuchElementException e) {
+            // Atteso
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le viste sugli intervalli di chiavi.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le viste sono "backed" dalla mappa: contengono solo le chiavi
+     * dell'intervallo, le modifiche si riflettono sulla mappa e viceversa, e
+     * l'inserimento di chiavi esterne viene rifiutato.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si crea la vista [100, 200) e se ne verificano dimensione ed
+     * estremi.<br>
+     * 2. Si inserisce una chiave interna, sia tramite la vista sia tramite la
+     * mappa, e si tenta di inserirne una esterna.<br>
+     * 3. Si creano viste annidate, valide e non.<br>
+     * 4. Si verificano {@code headMap} e {@code tailMap}.<br>
+     * 5. Si svuota la vista.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene le chiavi pari da 0 a 998.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non contiene chiavi tra 100 e 199.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le viste contengono esattamente le chiavi attese e lanciano
+     * {@code IllegalArgumentException} per chiavi ed estremi esterni.
+     */
+    @Test
+    public void testRangeViews() {
+        HSortedMap sub = testMap.subMap(100, 200);
+        assertEquals(50, sub.size());
+        assertEquals(100, sub.firstKey());
+        assertEquals(198, sub.lastKey());
+        assertNull(sub.get(200));
+        assertNull(sub.remove(50));
+        assertTrue(testMap.containsKey(50));
+
+        assertNull(sub.put(101, "dispari"));
+        testMap.put(199, "dispari");
+        assertEquals(52, sub.size());
+        assertEquals(199, sub.lastKey());
+        assertEquals("dispari", testMap.get(101));
+        try {
+            sub.put(200, "fuori");
+            fail("Chiave esterna all'intervallo");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+
+        HSortedMap nested = sub.tailMap(150);
+        assertEquals(26, nested.size());
+        assertEquals(150, nested.firstKey());
+        try {
+            sub.headMap(300);
+            fail("Estremo esterno all'intervallo");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+        try {
+            testMap.subMap(10, 5);
+            fail("Estremi invertiti");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+
+        assertEquals(5, testMap.headMap(10).size());
+        assertEquals(0, testMap.headMap(0).size());
+        assertTrue(testMap.headMap(0).isEmpty());
+        assertEquals(1, testMap.tailMap(998).size());
+        assertEquals(0, testMap.tailMap(999).size());
+        try {
+            testMap.subMap(999, 1000).lastKey();
+            fail("Ultima chiave di una vista vuota");
+        } catch (NoSuchElementException e) {
+            // Atteso
+        }
+
+        sub.clear();
+        assertTrue(sub.isEmpty());
+        assertEquals(450, testMap.size());
+        assertEquals(98, testMap.headMap(100).lastKey());
+        assertEquals(200, testMap.tailMap(100).firstKey());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rimozione tramite iteratore durante una scansione.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le rimozioni provocano prestiti e unioni tra foglie: l'iteratore deve
+     * riposizionarsi e proseguire dalla chiave successiva senza saltarne
+     * nessuna.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si percorre l'entry set rimuovendo le chiavi multiple di 4 e
+     * modificando il valore delle altre.<br>
+     * 2. Si verifica il contenuto della mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene le chiavi pari da 0 a 998.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le 250 chiavi pari non multiple di 4, con valore
+     * modificato.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Tutte le 500 chiavi vengono visitate una sola volta e in ordine.
+     */
+    @Test
+    public void testIteratorRemove() {
+        HIterator it = testMap.entrySet().iterator();
+        int expectedKey = 0;
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            assertEquals(expectedKey, e.getKey());
+            if (expectedKey % 4 == 0)
+                it.remove();
+            else
+                e.setValue("w" + expectedKey);
+            expectedKey += 2;
+        }
+        assertEquals(1000, expectedKey);
+        assertEquals(250, testMap.size());
+        assertEquals(2, testMap.firstKey());
+        assertEquals("w502", testMap.get(502));
+        assertFalse(testMap.containsKey(500));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Confronta la mappa con una {@code MapAdapter} durante una sequenza
+     * casuale di operazioni.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La sequenza casuale esercita tutti i casi di divisione, prestito e
+     * unione dei nodi, compresa la crescita e la riduzione dell'altezza
+     * dell'albero.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si eseguono 100000 inserimenti e rimozioni casuali su entrambe le
+     * mappe, con chiavi in un intervallo che fa crescere e poi svuotare la
+     * mappa.<br>
+     * 2. A intervalli regolari si confrontano le mappe e l'ordine delle
+     * chiavi.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni operazione restituisce lo stesso risultato sulle due mappe, che
+     * restano uguali.
+     */
+    @Test
+    public void testRandomOperations() {
+        BTreeHMap map = new BTreeHMap(BTreeHMap.INTEGER_ORDER);
+        MapAdapter expected = new MapAdapter();
+        Random random = new Random(15);
+        for (int step = 0; step < 100000; step++) {
+            Integer key = Integer.valueOf(random.nextInt(5000));
+            boolean growing = step < 60000;
+            if (random.nextInt(10) < (growing ? 7 : 2))
+                assertEquals(expected.put(key, "v" + step), map.put(key, "v" + step));
+            else
+                assertEquals(expected.remove(key), map.remove(key));
+
+            if (step % 10000 == 0) {
+                assertEquals(expected, map);
+                assertEquals(expected.hashCode(), map.hashCode());
+                HIterator it = map.keySet().iterator();
+                int previous = -1;
+                while (it.hasNext()) {
+                    int current = ((Integer) it.next()).intValue();
+                    assertTrue(current > previous);
+                    previous = current;
+                }
+            }
+        }
+        assertEquals(expected, map);
+
+        for (int key = 0; key < 5000; key++)
+            map.remove(key);
+        assertTrue(map.isEmpty());
+        assertFalse(map.keySet().iterator().hasNext());
+    }
+}
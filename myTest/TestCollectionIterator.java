@@ -426,4 +426,60 @@ public class TestCollectionIterator {
         // Tento di chiamare il metodo next()
         testIterator.next();
     }
-}
\ No newline at end of file
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che {@code remove()} elimini esattamente la mappatura
+     * dell'ultimo valore restituito, anche quando più chiavi condividono lo
+     * stesso valore.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * L'iteratore conosce la chiave di ogni valore restituito: rimuovere un
+     * valore duplicato non deve eliminare un'altra mappatura con lo stesso
+     * valore. Il test scorre in parallelo le chiavi e i valori, che vengono
+     * enumerati nello stesso ordine, e rimuove un valore sì e uno no.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola una mappa con 1000 chiavi e due soli valori distinti.<br>
+     * 2. Si scorrono in parallelo l'iteratore delle chiavi e quello dei valori
+     * e si rimuove con l'iteratore dei valori la mappatura delle chiavi
+     * pari.<br>
+     * 3. Si verifica il contenuto finale della mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo le chiavi dispari.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni valore corrisponde alla chiave restituita nella stessa posizione e
+     * restano esattamente le mappature delle chiavi dispari.
+     */
+    @Test
+    public void testRemoveDeletesCurrentMapping() {
+        MapAdapter map = new MapAdapter();
+        for (int i = 0; i < 1000; i++)
+            map.put(i, i % 3 == 0 ? "a" : "b");
+
+        HIterator keys = map.keySet().iterator();
+        HIterator values = map.values().iterator();
+        while (values.hasNext()) {
+            int key = ((Integer) keys.next()).intValue();
+            assertEquals(key % 3 == 0 ? "a" : "b", values.next());
+            if (key % 2 == 0)
+                values.remove();
+        }
+        assertFalse(keys.hasNext());
+
+        assertEquals(500, map.size());
+        for (int i = 0; i < 1000; i++)
+            assertEquals(i % 2 == 0 ? null : (i % 3 == 0 ? "a" : "b"), map.get(i));
+    }
+}
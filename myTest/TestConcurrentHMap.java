@@ -0,0 +1,264 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.ConcurrentHMap},
+ * l'implementazione di {@link myAdapter.HMap} con lock per segmento e letture
+ * senza lock.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Oltre al contratto di base di {@code HMap}, i test verificano le proprietà
+ * specifiche dell'accesso concorrente: scritture parallele da più thread non
+ * devono perdere mappature, i lettori non devono mai osservare valori non
+ * scritti da alcun thread e gli iteratori, essendo debolmente consistenti,
+ * devono tollerare le modifiche della mappa durante la scansione senza
+ * lanciare eccezioni.
+ */
+public class TestConcurrentHMap {
+    private ConcurrentHMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestConcurrentHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Inizializza una mappa popolata con quattro mappature prima di ogni test.
+     */
+    @Before
+    public void setUp() {
+        testMap = new ConcurrentHMap();
+        testMap.put(5, "noce");
+        testMap.put(9, "mano");
+        testMap.put(1, "sasso");
+        testMap.put(0, "pippo");
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni di base in assenza di concorrenza.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Usata da un solo thread, la mappa deve comportarsi come qualsiasi altra
+     * {@code HMap}, incluso il confronto con una {@code MapAdapter}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si sovrascrive, si legge e si rimuove una chiave.<br>
+     * 2. Si confronta la mappa con una {@code MapAdapter} con lo stesso
+     * contenuto.<br>
+     * 3. Si svuota la mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Tutti i valori restituiti corrispondono a quelli attesi.
+     */
+    @Test
+    public void testBasicOperations() {
+        assertEquals("noce", testMap.put(5, "noce2"));
+        assertEquals("noce2", testMap.get(5));
+        assertTrue(testMap.containsValue("mano"));
+        assertEquals("mano", testMap.remove(9));
+        assertNull(testMap.remove(9));
+        assertFalse(testMap.containsKey(9));
+        assertEquals(3, testMap.size());
+
+        MapAdapter copy = new MapAdapter(testMap);
+        assertEquals(copy, testMap);
+        assertEquals(testMap, copy);
+        assertEquals(copy.hashCode(), testMap.hashCode());
+
+        testMap.clear();
+        assertTrue(testMap.isEmpty());
+        assertEquals("{}", testMap.toString());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che la mappa rifiuti le chiavi {@code null}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Come le altre implementazioni di {@code HMap} del package, la mappa non
+     * ammette {@code null}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si invoca {@code get(null)}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non viene modificata.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Viene lanciata una {@code NullPointerException}.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testGetWithNull() {
+        testMap.get(null);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che scritture parallele non perdano mappature e che i lettori
+     * vedano solo valori effettivamente scritti.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Quattro thread scrittori inseriscono intervalli disgiunti di chiavi,
+     * forzando diversi ridimensionamenti dei segmenti, mentre un thread lettore
+     * interroga continuamente la mappa. Un lettore che vedesse una lista di
+     * collisione incoerente restituirebbe un valore errato.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si avviano quattro scrittori (5000 chiavi ciascuno) e un lettore.<br>
+     * 2. Si attende la terminazione di tutti i thread.<br>
+     * 3. Si verificano dimensione e contenuto finali.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene 20000 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Nessuna mappatura viene persa e il lettore non osserva valori errati.
+     *
+     * @throws InterruptedException se l'attesa dei thread viene interrotta.
+     */
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        final ConcurrentHMap map = new ConcurrentHMap();
+        final int perThread = 5000;
+        final boolean[] readerFailed = new boolean[1];
+        final boolean[] done = new boolean[1];
+
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            final int base = t * perThread;
+            writers[t] = new Thread() {
+                public void run() {
+                    for (int i = base; i < base + perThread; i++)
+                        map.put(i, "v" + i);
+                }
+            };
+        }
+        Thread reader = new Thread() {
+            public void run() {
+                while (!done[0]) {
+                    for (int i = 0; i < 4 * perThread; i += 97) {
+                        Object v = map.get(i);
+                        if (v != null && !v.equals("v" + i))
+                            readerFailed[0] = true;
+                    }
+                }
+            }
+        };
+
+        reader.start();
+        for (int t = 0; t < writers.length; t++)
+            writers[t].start();
+        for (int t = 0; t < writers.length; t++)
+            writers[t].join();
+        done[0] = true;
+        reader.join();
+
+        assertFalse("Il lettore ha osservato un valore errato", readerFailed[0]);
+        assertEquals(4 * perThread, map.size());
+        for (int i = 0; i < 4 * perThread; i++)
+            assertEquals("v" + i, map.get(i));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che gli iteratori tollerino le modifiche durante la scansione.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Gli iteratori debolmente consistenti non lanciano eccezioni se la mappa
+     * viene modificata e restituiscono ogni mappatura presente all'inizio e
+     * non rimossa al più una volta.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola la mappa con 1000 chiavi.<br>
+     * 2. Durante la scansione del key set si rimuove ogni chiave visitata
+     * tramite la mappa e se ne inseriscono di nuove.<br>
+     * 3. Si rimuovono con l'iteratore dell'entry set tutte le chiavi rimaste.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Nessuna eccezione viene lanciata, ogni chiave originale viene visitata
+     * una sola volta e alla fine la mappa è vuota.
+     */
+    @Test
+    public void testWeaklyConsistentIterator() {
+        ConcurrentHMap map = new ConcurrentHMap();
+        for (int i = 0; i < 1000; i++)
+            map.put(i, "v");
+
+        MapAdapter visited = new MapAdapter();
+        HIterator it = map.keySet().iterator();
+        while (it.hasNext()) {
+            Integer key = (Integer) it.next();
+            if (key.intValue() < 1000) {
+                assertNull("Chiave visitata due volte", visited.put(key, key));
+                map.remove(key);
+                map.put(key.intValue() + 1000, "w");
+            }
+        }
+        assertEquals(1000, visited.size());
+
+        it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            assertEquals("w", e.getValue());
+            it.remove();
+        }
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,286 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.CopyOnWriteHMap},
+ * l'implementazione "copy-on-write" di {@link myAdapter.HMap}.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Oltre al contratto di base di {@code HMap}, i test verificano le proprietà
+ * che derivano dalla pubblicazione di tabelle immutabili: gli iteratori
+ * percorrono una fotografia che le modifiche successive non alterano, e le
+ * modifiche raggruppate in un {@code Batch} diventano visibili tutte insieme,
+ * anche ai lettori concorrenti.
+ */
+public class TestCopyOnWriteHMap {
+    private CopyOnWriteHMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestCopyOnWriteHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una mappa con quattro mappature.
+     */
+    @Before
+    public void setUp() {
+        testMap = new CopyOnWriteHMap();
+        testMap.put(5, "noce");
+        testMap.put(9, "mano");
+        testMap.put(1, "sasso");
+        testMap.put(0, "pippo");
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni di base e il codice hash mantenuto a ogni
+     * scrittura.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Ogni scrittura pubblica una nuova tabella con il proprio codice hash:
+     * dopo inserimenti, sostituzioni, rimozioni e ridimensionamenti la mappa
+     * deve restare uguale a una {@code MapAdapter} con lo stesso contenuto.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si sostituisce un valore, si rimuove una chiave presente e una
+     * assente.<br>
+     * 2. Si inseriscono 1000 chiavi e se ne rimuove metà.<br>
+     * 3. Si confronta la mappa con una {@code MapAdapter}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene 503 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I valori restituiti sono quelli attesi e le due mappe sono uguali, con
+     * lo stesso codice hash.
+     */
+    @Test
+    public void testBasicOperations() {
+        assertEquals("noce", testMap.put(5, "nodo"));
+        assertEquals("sasso", testMap.remove(1));
+        assertNull(testMap.remove(1));
+        assertTrue(testMap.containsValue("nodo"));
+        assertFalse(testMap.containsKey(1));
+
+        MapAdapter expected = new MapAdapter();
+        expected.put(5, "nodo");
+        expected.put(9, "mano");
+        expected.put(0, "pippo");
+        for (int i = 100; i < 1100; i++) {
+            testMap.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        for (int i = 100; i < 1100; i += 2) {
+            assertEquals("v" + i, testMap.remove(i));
+            expected.remove(i);
+        }
+        assertEquals(503, testMap.size());
+        assertEquals(expected, testMap);
+        assertEquals(testMap, expected);
+        assertEquals(expected.hashCode(), testMap.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che gli iteratori percorrano una fotografia stabile della
+     * mappa.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Un iteratore lavora sulla tabella pubblicata alla sua creazione: le
+     * modifiche successive, comprese quelle fatte tramite l'iteratore stesso,
+     * si riflettono sulla mappa ma non sugli elementi restituiti.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si crea un iteratore sul key set.<br>
+     * 2. Durante l'iterazione si inserisce una chiave nuova e si rimuove,
+     * tramite iteratore, ogni chiave visitata.<br>
+     * 3. Si contano le chiavi visitate.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene soltanto la chiave inserita durante l'iterazione.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * L'iteratore restituisce esattamente le quattro chiavi iniziali.
+     */
+    @Test
+    public void testSnapshotIterator() {
+        HIterator it = testMap.keySet().iterator();
+        testMap.put(42, "nuovo");
+        int visited = 0;
+        while (it.hasNext()) {
+            Object key = it.next();
+            assertFalse("Chiave inserita dopo la creazione", key.equals(42));
+            it.remove();
+            visited++;
+        }
+        assertEquals(4, visited);
+        assertEquals(1, testMap.size());
+        assertEquals("nuovo", testMap.get(42));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'applicazione di un gruppo di modifiche.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le modifiche registrate in un {@code Batch} non devono essere visibili
+     * prima del commit e devono essere applicate nell'ordine di
+     * registrazione.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si registrano inserimenti, una sostituzione e rimozioni, tra cui la
+     * rimozione di una chiave inserita nello stesso gruppo.<br>
+     * 2. Si verifica che la mappa non sia cambiata.<br>
+     * 3. Si esegue il commit.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le modifiche del gruppo e il gruppo è vuoto.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Il contenuto finale è quello atteso.
+     */
+    @Test
+    public void testBatch() {
+        CopyOnWriteHMap.Batch batch = testMap.batch();
+        batch.put(7, "sette").put(8, "otto").put(5, "nodo").remove(9).remove(8);
+        assertEquals(5, batch.size());
+        assertEquals(4, testMap.size());
+        assertFalse(testMap.containsKey(7));
+
+        batch.commit();
+        assertEquals(0, batch.size());
+        MapAdapter expected = new MapAdapter();
+        expected.put(5, "nodo");
+        expected.put(1, "sasso");
+        expected.put(0, "pippo");
+        expected.put(7, "sette");
+        assertEquals(expected, testMap);
+        assertEquals(expected.hashCode(), testMap.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che i lettori concorrenti non vedano mai un gruppo di modifiche
+     * applicato a metà.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Uno scrittore aggiorna ripetutamente, con un unico gruppo, due chiavi
+     * che devono avere sempre lo stesso valore. I lettori percorrono l'entry
+     * set: poiché ogni iteratore lavora su una singola tabella pubblicata, i
+     * due valori letti devono coincidere.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si avviano quattro lettori che percorrono continuamente l'entry
+     * set.<br>
+     * 2. Lo scrittore esegue 2000 commit.<br>
+     * 3. Si attende la terminazione dei lettori.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa con le chiavi "a" e "b" associate a 0.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le chiavi "a" e "b" sono associate a 1999.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Nessun lettore osserva valori diversi per le due chiavi.
+     *
+     * @throws InterruptedException se l'attesa dei lettori viene interrotta.
+     */
+    @Test
+    public void testReadersSeeAtomicBatches() throws InterruptedException {
+        final CopyOnWriteHMap map = new CopyOnWriteHMap();
+        map.batch().put("a", 0).put("b", 0).commit();
+        final boolean[] done = new boolean[1];
+        final int[] errors = new int[1];
+
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread() {
+                public void run() {
+                    for (;;) {
+                        synchronized (done) {
+                            if (done[0])
+                                return;
+                        }
+                        Object a = null;
+                        Object b = null;
+                        HIterator it = map.entrySet().iterator();
+                        while (it.hasNext()) {
+                            HEntry e = (HEntry) it.next();
+                            if (e.getKey().equals("a"))
+                                a = e.getValue();
+                            else if (e.getKey().equals("b"))
+                                b = e.getValue();
+                        }
+                        if (a == null || !a.equals(b)) {
+                            synchronized (done) {
+                                errors[0]++;
+                            }
+                        }
+                    }
+                }
+            };
+            readers[t].start();
+        }
+
+        for (int i = 1; i < 2000; i++)
+            map.batch().put("a", i).put("b", i).commit();
+        synchronized (done) {
+            done[0] = true;
+        }
+        for (int t = 0; t < readers.length; t++)
+            readers[t].join();
+
+        assertEquals(0, errors[0]);
+        assertEquals(1999, map.get("a"));
+        assertEquals(1999, map.get("b"));
+    }
+}
@@ -308,4 +308,70 @@ public class TestEntrySetIterator {
     public void testEntrySetIteratorRemoveWhenNotCalledNext() {
         testIterator.remove();
     }
-}
\ No newline at end of file
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che ogni entry restituita dall'iteratore associ la chiave al
+     * valore corretto, anche quando la scansione rimuove e modifica mappature.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le entry memorizzano il valore letto durante l'iterazione invece di
+     * cercarlo per chiave a ogni accesso: il test controlla che chiave e valore
+     * appartengano sempre alla stessa mappatura su una mappa con molte
+     * collisioni di bucket, e che {@code setValue} e {@code remove()}
+     * dell'iteratore si riflettano sulla mappa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola una mappa con 1000 chiavi, ciascuna associata alla propria
+     * rappresentazione testuale.<br>
+     * 2. Si scorre l'entry set verificando ogni coppia; si rimuovono le chiavi
+     * pari e si modifica il valore delle chiavi multiple di 3.<br>
+     * 3. Si verifica il contenuto finale della mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa con 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo le chiavi dispari; quelle multiple di 3 hanno il
+     * valore modificato.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni entry restituisce il valore associato alla propria chiave, le entry
+     * rimosse restituiscono {@code null} e la mappa finale contiene esattamente
+     * le mappature attese.
+     */
+    @Test
+    public void testEntriesCarryTheirValue() {
+        MapAdapter map = new MapAdapter();
+        for (int i = 0; i < 1000; i++)
+            map.put(i, String.valueOf(i));
+
+        int visited = 0;
+        HIterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            int key = ((Integer) e.getKey()).intValue();
+            assertEquals(String.valueOf(key), e.getValue());
+            assertEquals(e.getKey().hashCode() ^ e.getValue().hashCode(), e.hashCode());
+            if (key % 2 == 0) {
+                it.remove();
+                assertEquals(null, e.getValue());
+            } else if (key % 3 == 0) {
+                assertEquals(String.valueOf(key), e.setValue("x" + key));
+                assertEquals("x" + key, e.getValue());
+            }
+            visited++;
+        }
+
+        assertEquals(1000, visited);
+        assertEquals(500, map.size());
+        for (int i = 1; i < 1000; i += 2)
+            assertEquals(i % 3 == 0 ? "x" + i : String.valueOf(i), map.get(i));
+    }
+}
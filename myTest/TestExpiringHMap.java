@@ -0,0 +1,398 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.ExpiringHMap},
+ * la mappa con mappature a scadenza.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Il tempo è controllato dai test tramite una sottoclasse che ridefinisce
+ * {@code currentTimeMillis()}. I test verificano che le mappature scadano
+ * esattamente al loro istante di scadenza, anche quando questo è lontano e la
+ * mappatura deve scendere attraverso più livelli della ruota, e che le
+ * mappature scadute non siano mai visibili.
+ */
+public class TestExpiringHMap {
+    private ManualClockMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestExpiringHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una mappa senza tempo di vita predefinito con l'orologio fermo
+     * all'istante 1000.
+     */
+    @Before
+    public void setUp() {
+        testMap = new ManualClockMap();
+        testMap.now = 1000;
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la scadenza delle mappature.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Una mappatura con tempo di vita {@code t} inserita all'istante
+     * {@code n} è visibile fino all'istante {@code n + t - 1} e scompare
+     * all'istante {@code n + t}; le mappature senza tempo di vita non
+     * scadono.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono due mappature con tempo di vita 100 e 200 e una
+     * senza.<br>
+     * 2. Si porta l'orologio agli istanti 1099, 1100 e 1200.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo la mappatura senza tempo di vita.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Dimensione, {@code get} e {@code containsKey} riflettono esattamente le
+     * scadenze.
+     */
+    @Test
+    public void testExpiry() {
+        assertNull(testMap.put("a", "uno", 100));
+        testMap.put("b", "due", 200);
+        testMap.put("c", "tre");
+
+        testMap.now = 1099;
+        assertEquals(3, testMap.size());
+        assertEquals("uno", testMap.get("a"));
+
+        testMap.now = 1100;
+        assertNull(testMap.get("a"));
+        assertFalse(testMap.containsKey("a"));
+        assertEquals(2, testMap.size());
+        assertTrue(testMap.containsValue("due"));
+
+        testMap.now = 1200;
+        assertEquals(1, testMap.size());
+        assertFalse(testMap.containsValue("due"));
+        assertEquals("tre", testMap.get("c"));
+
+        testMap.now = 100000000;
+        assertEquals(1, testMap.size());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni che modificano la scadenza.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code put} su una chiave presente ne fa ripartire il tempo di vita (o
+     * lo elimina, se non ne specifica uno), {@code setValue} lo lascia
+     * invariato e {@code remove} stacca la mappatura dalla ruota.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si crea una mappa con tempo di vita predefinito 50.<br>
+     * 2. Si sostituiscono i valori di alcune chiavi, si rimuove una chiave e
+     * si fa avanzare l'orologio.<br>
+     * 3. Si tenta di usare un tempo di vita non positivo.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * L'orologio è all'istante 1000.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene soltanto la chiave reinserita per ultima.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le scadenze sono quelle attese; i tempi di vita non positivi lanciano
+     * {@code IllegalArgumentException}.
+     */
+    @Test
+    public void testRenewAndRemove() {
+        ManualClockMap map = new ManualClockMap(50);
+        map.now = 1000;
+        assertEquals(50, map.defaultTtl());
+        map.put("a", "uno");
+        map.put("b", "due");
+        map.put("c", "tre");
+        map.put("d", "quattro", 500);
+
+        map.now = 1040;
+        assertEquals("uno", map.put("a", "UNO"));
+        HIterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            if (e.getKey().equals("b"))
+                e.setValue("DUE");
+        }
+        assertEquals("DUE", map.get("b"));
+        assertEquals("tre", map.remove("c"));
+
+        map.now = 1050;
+        assertEquals(2, map.size());
+        assertEquals("UNO", map.get("a"));
+        assertNull(map.get("b"));
+        assertNull(map.remove("c"));
+
+        map.now = 1090;
+        assertEquals(1, map.size());
+        assertEquals("quattro", map.get("d"));
+        map.now = 1500;
+        assertTrue(map.isEmpty());
+
+        try {
+            map.put("e", "cinque", 0);
+            fail("Tempo di vita non valido");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+        try {
+            new ExpiringHMap(-1);
+            fail("Tempo di vita predefinito non valido");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'iterazione in presenza di mappature che scadono.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le viste non restituiscono mappature scadute, nemmeno se scadono dopo
+     * la creazione dell'iteratore, e la rimozione tramite iteratore è
+     * ammessa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono dieci chiavi con tempo di vita pari a 10 volte la
+     * chiave più 10.<br>
+     * 2. Si crea un iteratore, si porta l'orologio all'istante 1055 e si
+     * rimuovono tramite iteratore tutte le chiavi visitate.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * L'iteratore visita esattamente le cinque chiavi non scadute.
+     */
+    @Test
+    public void testIteration() {
+        for (int i = 0; i < 10; i++)
+            testMap.put(i, "v" + i, 10 * i + 10);
+
+        HIterator it = testMap.keySet().iterator();
+        testMap.now = 1055;
+        int visited = 0;
+        while (it.hasNext()) {
+            int key = ((Integer) it.next()).intValue();
+            assertTrue("Chiave scaduta: " + key, key >= 5);
+            it.remove();
+            visited++;
+        }
+        assertEquals(5, visited);
+        assertTrue(testMap.isEmpty());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code setValue} su entry scadute o rimosse.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Un'entry ottenuta prima della scadenza o della rimozione della sua
+     * mappatura non fa più parte della mappa: {@code setValue} deve
+     * rifiutare la modifica invece di restituire il vecchio valore e perdere
+     * il nuovo.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono due chiavi con tempo di vita 100 e si ottengono le
+     * loro entry.<br>
+     * 2. Si modifica la prima entry all'istante 1099.<br>
+     * 3. Si rimuove la seconda chiave, si porta l'orologio all'istante 1100 e
+     * si modificano entrambe le entry.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La modifica prima della scadenza riesce; le altre due lanciano
+     * {@code IllegalStateException} e nessuna mappatura ricompare.
+     */
+    @Test
+    public void testSetValueAfterExpiry() {
+        testMap.put(1, "uno", 100);
+        testMap.put(2, "due", 100);
+        HEntry first = null;
+        HEntry second = null;
+        HIterator it = testMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            if (e.getKey().equals(1))
+                first = e;
+            else
+                second = e;
+        }
+
+        testMap.now = 1099;
+        assertEquals("uno", first.setValue("UNO"));
+        assertEquals("UNO", testMap.get(1));
+
+        testMap.remove(2);
+        try {
+            second.setValue("DUE");
+            fail("Mappatura rimossa");
+        } catch (IllegalStateException e) {
+            // Atteso
+        }
+        testMap.now = 1100;
+        try {
+            first.setValue("uno");
+            fail("Mappatura scaduta");
+        } catch (IllegalStateException e) {
+            // Atteso
+        }
+        assertTrue(testMap.isEmpty());
+        assertFalse(testMap.containsValue("uno"));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Confronta la mappa con le scadenze attese durante una sequenza casuale
+     * di operazioni.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * I tempi di vita variano da un millisecondo a oltre la portata della
+     * ruota e l'orologio avanza a salti di ampiezza variabile, così da
+     * esercitare ogni livello, la discesa tra livelli e il salto delle celle
+     * vuote.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Per 20000 passi si inserisce o si rimuove una chiave casuale e si fa
+     * avanzare l'orologio.<br>
+     * 2. A ogni passo si confrontano la dimensione e, a intervalli regolari,
+     * tutte le chiavi con le scadenze attese.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Tutte le mappature sono scadute o rimosse.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La mappa contiene esattamente le chiavi non ancora scadute.
+     */
+    @Test
+    public void testRandomExpiry() {
+        Random random = new Random(17);
+        long[] ranges = { 10L, 100L, 5000L, 300000L, 20000000L, 1L << 37 };
+        int keys = 500;
+        long[] expiresAt = new long[keys]; // 0 se la chiave è assente
+        for (int step = 0; step < 20000; step++) {
+            int key = random.nextInt(keys);
+            if (random.nextInt(4) == 0) {
+                testMap.remove(key);
+                expiresAt[key] = 0;
+            } else {
+                long ttl = 1 + (long) (random.nextDouble() * ranges[random.nextInt(ranges.length)]);
+                testMap.put(key, "v" + step, ttl);
+                expiresAt[key] = testMap.now + ttl;
+            }
+
+            long jump = random.nextInt(3) == 0 ? 0 : (long) (random.nextDouble() * ranges[random.nextInt(4)]);
+            testMap.now += jump;
+            int alive = 0;
+            for (int k = 0; k < keys; k++) {
+                if (expiresAt[k] > testMap.now)
+                    alive++;
+                else
+                    expiresAt[k] = 0;
+            }
+            assertEquals("Passo " + step, alive, testMap.size());
+            if (step % 500 == 0) {
+                for (int k = 0; k < keys; k++)
+                    assertEquals("Chiave " + k, expiresAt[k] != 0, testMap.containsKey(k));
+            }
+        }
+
+        testMap.now += 1L << 38;
+        assertEquals(0, testMap.size());
+    }
+
+    /**
+     * Mappa con un orologio controllato dal test.
+     */
+    private static class ManualClockMap extends ExpiringHMap {
+        long now;
+
+        /**
+         * Costruisce la mappa senza tempo di vita predefinito.
+         */
+        ManualClockMap() {
+            super();
+        }
+
+        /**
+         * Costruisce la mappa con il tempo di vita predefinito specificato.
+         *
+         * @param defaultTtl il tempo di vita predefinito.
+         */
+        ManualClockMap(long defaultTtl) {
+            super(defaultTtl);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    }
+}
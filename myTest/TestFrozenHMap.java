@@ -0,0 +1,380 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.FrozenHMap},
+ * l'implementazione immutabile di {@link myAdapter.HMap} basata su una
+ * funzione hash perfetta.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * I test verificano che la mappa congelata contenga esattamente le mappature
+ * della mappa di origine (anche con chiavi diverse che hanno lo stesso codice
+ * hash), che rifiuti ogni modifica e che la forma serializzata venga
+ * ricaricata correttamente o rifiutata se non è coerente con le codifiche.
+ */
+public class TestFrozenHMap {
+    private MapAdapter source;
+    private FrozenHMap frozen;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestFrozenHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una {@code MapAdapter} con 1000 chiavi {@code Integer} e la
+     * congela.
+     */
+    @Before
+    public void setUp() {
+        source = new MapAdapter();
+        for (int i = 0; i < 1000; i++)
+            source.put(i * 7, "v" + i);
+        frozen = source.freeze();
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che la mappa congelata contenga le stesse mappature della mappa
+     * di origine.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Ogni chiave presente deve essere trovata con il suo valore, ogni chiave
+     * assente deve restituire {@code null}; le due mappe devono essere uguali
+     * e la copia non deve risentire delle modifiche successive all'origine.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si leggono tutte le chiavi presenti e alcune assenti.<br>
+     * 2. Si confrontano le due mappe e i loro codici hash.<br>
+     * 3. Si modifica la mappa di origine.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa congelata è stata costruita da una mappa con 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa congelata contiene ancora 1000 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le letture restituiscono i valori attesi e le mappe sono uguali fino
+     * alla modifica dell'origine.
+     */
+    @Test
+    public void testSameMappings() {
+        assertEquals(1000, frozen.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, frozen.get(i * 7));
+            assertNull(frozen.get(i * 7 + 1));
+        }
+        assertNull(frozen.get("0"));
+        assertTrue(frozen.containsKey(7));
+        assertTrue(frozen.containsValue("v999"));
+        assertFalse(frozen.containsValue("v1000"));
+        assertEquals(source, frozen);
+        assertEquals(frozen, source);
+        assertEquals(source.hashCode(), frozen.hashCode());
+
+        source.put(1, "nuovo");
+        assertFalse(frozen.containsKey(1));
+        assertFalse(frozen.equals(source));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la gestione di chiavi diverse con lo stesso codice hash.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Nessuna funzione hash può separare chiavi con lo stesso
+     * {@code hashCode()}: la mappa deve comunque distinguerle con
+     * {@code equals}. Le stringhe composte dai blocchi "Aa" e "BB" hanno tutte
+     * lo stesso codice hash a parità di lunghezza.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si congela una mappa con le 16 stringhe di quattro blocchi "Aa"/"BB"
+     * e altre chiavi qualsiasi.<br>
+     * 2. Si leggono tutte le chiavi e una stringa assente con lo stesso codice
+     * hash.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa di origine con chiavi in collisione.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni chiave restituisce il proprio valore e la chiave assente
+     * {@code null}.
+     */
+    @Test
+    public void testCollidingHashCodes() {
+        MapAdapter m = new MapAdapter();
+        String[] blocks = { "Aa", "BB" };
+        for (int i = 0; i < 16; i++) {
+            String key = "";
+            for (int b = 0; b < 4; b++)
+                key += blocks[(i >> b) & 1];
+            m.put(key, i);
+        }
+        for (int i = 0; i < 100; i++)
+            m.put("altro" + i, -i);
+
+        FrozenHMap f = new FrozenHMap(m);
+        assertEquals(m, f);
+        assertEquals(m.hashCode(), f.hashCode());
+        HIterator it = m.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            assertEquals(e.getValue(), f.get(e.getKey()));
+        }
+        assertNull(f.get("AaAaAaAaAa"));
+        assertNull(f.get("AaAaAa"));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che la mappa congelata rifiuti ogni modifica.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * L'immutabilità deve valere anche per le viste, i loro iteratori e le
+     * entry.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si invocano {@code put}, {@code remove}, {@code clear}, la rimozione dal
+     * key set, la rimozione tramite iteratore e {@code setValue}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa congelata contiene 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa congelata contiene ancora 1000 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni operazione lancia {@code UnsupportedOperationException}.
+     */
+    @Test
+    public void testImmutable() {
+        try {
+            frozen.put(1, "x");
+            fail("put accettata");
+        } catch (UnsupportedOperationException e) {
+            // Comportamento atteso
+        }
+        try {
+            frozen.remove(7);
+            fail("remove accettata");
+        } catch (UnsupportedOperationException e) {
+            // Comportamento atteso
+        }
+        try {
+            frozen.clear();
+            fail("clear accettata");
+        } catch (UnsupportedOperationException e) {
+            // Comportamento atteso
+        }
+        try {
+            frozen.keySet().remove(7);
+            fail("Rimozione dal key set accettata");
+        } catch (UnsupportedOperationException e) {
+            // Comportamento atteso
+        }
+        HIterator it = frozen.entrySet().iterator();
+        HEntry e = (HEntry) it.next();
+        try {
+            it.remove();
+            fail("Rimozione tramite iteratore accettata");
+        } catch (UnsupportedOperationException ex) {
+            // Comportamento atteso
+        }
+        try {
+            e.setValue("x");
+            fail("setValue accettata");
+        } catch (UnsupportedOperationException ex) {
+            // Comportamento atteso
+        }
+        assertEquals(source, frozen);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica il salvataggio e il caricamento della forma serializzata.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La mappa ricaricata deve essere uguale all'originale senza ricalcolare
+     * la funzione hash; se le codifiche usate in lettura producono chiavi con
+     * un codice hash diverso, la funzione hash salvata non è più valida e il
+     * caricamento deve fallire.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si scrive la mappa in un array di byte e la si rilegge con le stesse
+     * codifiche.<br>
+     * 2. Si rilegge lo stesso array decodificando le chiavi come stringhe.<br>
+     * 3. Si rilegge un array troncato.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa congelata contiene 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La prima lettura restituisce una mappa uguale all'originale, le altre
+     * lanciano {@code IOException}.
+     *
+     * @throws IOException se la scrittura o la prima lettura falliscono.
+     */
+    @Test
+    public void testSerializedForm() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        frozen.writeTo(out, MappedHMap.INTEGER_CODEC, MappedHMap.STRING_CODEC);
+        byte[] bytes = out.toByteArray();
+
+        FrozenHMap loaded = FrozenHMap.readFrom(new ByteArrayInputStream(bytes), MappedHMap.INTEGER_CODEC,
+                MappedHMap.STRING_CODEC);
+        assertEquals(frozen, loaded);
+        assertEquals(frozen.hashCode(), loaded.hashCode());
+        assertEquals("v500", loaded.get(3500));
+
+        try {
+            FrozenHMap.readFrom(new ByteArrayInputStream(bytes), MappedHMap.STRING_CODEC, MappedHMap.STRING_CODEC);
+            fail("Chiavi con codice hash diverso accettate");
+        } catch (IOException e) {
+            // Comportamento atteso
+        }
+        byte[] truncated = new byte[bytes.length / 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        try {
+            FrozenHMap.readFrom(new ByteArrayInputStream(truncated), MappedHMap.INTEGER_CODEC,
+                    MappedHMap.STRING_CODEC);
+            fail("Flusso troncato accettato");
+        } catch (IOException e) {
+            // Comportamento atteso
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica il caricamento di forme serializzate danneggiate.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le dimensioni lette dall'intestazione e le lunghezze dei record non
+     * devono provocare allocazioni proporzionali al loro valore, e un byte
+     * modificato nel contenuto deve essere rilevato dal CRC-32 invece di
+     * produrre una mappa diversa: in ogni caso il caricamento deve lanciare
+     * {@code IOException}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si imposta un numero di mappature enorme, coerente con il numero di
+     * gruppi.<br>
+     * 2. Si imposta una lunghezza enorme per il primo record.<br>
+     * 3. Si modifica un bit del valore dell'ultimo record.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa congelata contiene 1000 mappature con codici hash distinti.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni caricamento lancia {@code IOException}.
+     *
+     * @throws IOException se la scrittura fallisce.
+     */
+    @Test
+    public void testCorruptedForm() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        frozen.writeTo(out, MappedHMap.INTEGER_CODEC, MappedHMap.STRING_CODEC);
+        byte[] bytes = out.toByteArray();
+
+        // Intestazione: magico, versione, mappature, codici distinti, gruppi, sale.
+        byte[] huge = (byte[]) bytes.clone();
+        putInt(huge, 8, 0x3FFFFFFF);
+        putInt(huge, 12, 0x3FFFFFFF);
+        putInt(huge, 16, (0x3FFFFFFF + 2) / 3);
+        assertRejected(huge);
+
+        // Il primo record segue i 334 semi e i 1000 codici hash.
+        byte[] longRecord = (byte[]) bytes.clone();
+        putInt(longRecord, 24 + 4 * (334 + 1000), Integer.MAX_VALUE);
+        assertRejected(longRecord);
+
+        // Ultimo byte del valore dell'ultimo record, prima del CRC-32.
+        byte[] flipped = (byte[]) bytes.clone();
+        flipped[flipped.length - 5] ^= 1;
+        assertRejected(flipped);
+    }
+
+    /**
+     * Scrive un intero big-endian in un array di byte.
+     *
+     * @param bytes  l'array.
+     * @param offset la posizione del primo byte.
+     * @param value  il valore.
+     */
+    private static void putInt(byte[] bytes, int offset, int value) {
+        for (int i = 0; i < 4; i++)
+            bytes[offset + i] = (byte) (value >>> (24 - 8 * i));
+    }
+
+    /**
+     * Verifica che il caricamento di una forma serializzata fallisca con
+     * {@code IOException}.
+     *
+     * @param bytes la forma serializzata.
+     */
+    private static void assertRejected(byte[] bytes) {
+        try {
+            FrozenHMap.readFrom(new ByteArrayInputStream(bytes), MappedHMap.INTEGER_CODEC, MappedHMap.STRING_CODEC);
+            fail("Forma danneggiata accettata");
+        } catch (IOException e) {
+            // Comportamento atteso
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.HStreams}, il
+ * collegamento tra le viste delle mappe e {@code java.util.stream}.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Gli stream, sequenziali e paralleli, devono restituire esattamente gli
+ * elementi delle viste sia per una {@code OpenHashMap}, il cui spliterator si
+ * divide per celle della tabella, sia per una {@code MapAdapter}, il cui
+ * spliterator si appoggia all'iteratore della vista.
+ */
+public class TestHStreams {
+    private static final int SIZE = 50000;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestHStreams() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica gli stream sulle tre viste.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Somme e conteggi calcolati con gli stream devono coincidere con quelli
+     * attesi, indipendentemente dal parallelismo.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popolano una {@code OpenHashMap} e una {@code MapAdapter} con le
+     * chiavi da 0 a 49999, con valore pari al triplo della chiave.<br>
+     * 2. Con stream sequenziali e paralleli si sommano chiavi e valori e si
+     * contano le entry con chiave pari.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le mappe non sono cambiate.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le somme e i conteggi sono quelli attesi.
+     */
+    @Test
+    public void testViewStreams() {
+        HMap[] maps = { new OpenHashMap(), new MapAdapter() };
+        long keySum = (long) SIZE * (SIZE - 1) / 2;
+        for (int m = 0; m < maps.length; m++) {
+            for (int i = 0; i < SIZE; i++)
+                maps[m].put(i, 3 * i);
+            for (int p = 0; p < 2; p++) {
+                boolean parallel = p == 1;
+                assertEquals(keySum, sum(maps[m].keySet(), parallel));
+                assertEquals(3 * keySum, sum(maps[m].values(), parallel));
+                long even = (parallel ? HStreams.parallelStream(maps[m].entrySet())
+                        : HStreams.stream(maps[m].entrySet())).filter(new Predicate<Object>() {
+                            public boolean test(Object o) {
+                                return ((Integer) ((HEntry) o).getKey()).intValue() % 2 == 0;
+                            }
+                        }).count();
+                assertEquals(SIZE / 2, even);
+            }
+            assertEquals(SIZE, maps[m].size());
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la divisione dello spliterator di una {@code OpenHashMap} e
+     * la modifica dei valori tramite le entry.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le due metà prodotte da {@code trySplit} devono coprire insieme tutti
+     * gli elementi senza ripetizioni; solo lo spliterator non diviso è
+     * {@code SIZED}. Le entry restituite scrivono nella mappa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si divide lo spliterator delle entry e si percorrono le due metà,
+     * incrementando ogni valore.<br>
+     * 2. Si verificano caratteristiche, conteggi e valori.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code OpenHashMap} con le chiavi da 0 a 49999.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Ogni valore è stato incrementato di 1.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le due metà contengono in tutto 50000 entry.
+     */
+    @Test
+    public void testSplitOpenHashMap() {
+        final OpenHashMap map = new OpenHashMap();
+        for (int i = 0; i < SIZE; i++)
+            map.put(i, i);
+
+        Spliterator<Object> whole = HStreams.spliterator(map.entrySet());
+        assertTrue(whole.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(whole.hasCharacteristics(Spliterator.DISTINCT));
+        assertEquals(SIZE, whole.estimateSize());
+        assertFalse(HStreams.spliterator(map.values()).hasCharacteristics(Spliterator.DISTINCT));
+
+        Spliterator<Object> prefix = whole.trySplit();
+        assertNotNull(prefix);
+        assertFalse(whole.hasCharacteristics(Spliterator.SIZED));
+        final int[] count = new int[1];
+        Consumer<Object> increment = new Consumer<Object>() {
+            public void accept(Object o) {
+                HEntry e = (HEntry) o;
+                e.setValue(((Integer) e.getValue()).intValue() + 1);
+                count[0]++;
+            }
+        };
+        assertTrue(prefix.tryAdvance(increment));
+        prefix.forEachRemaining(increment);
+        whole.forEachRemaining(increment);
+        assertEquals(SIZE, count[0]);
+        for (int i = 0; i < SIZE; i++)
+            assertEquals(Integer.valueOf(i + 1), map.get(i));
+    }
+
+    /**
+     * Somma gli elementi {@code Integer} di una collezione tramite uno stream.
+     *
+     * @param c        la collezione.
+     * @param parallel {@code true} per uno stream parallelo.
+     * @return la somma.
+     */
+    private static long sum(HCollection c, boolean parallel) {
+        return (parallel ? HStreams.parallelStream(c) : HStreams.stream(c)).mapToLong(new ToLongFunction<Object>() {
+            public long applyAsLong(Object o) {
+                return ((Integer) o).intValue();
+            }
+        }).sum();
+    }
+}
@@ -0,0 +1,186 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.IncrementalHMap},
+ * la mappa che sposta le proprie liste nella tabella più grande poche alla
+ * volta.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Durante un ridimensionamento le mappature si trovano in parte nella vecchia
+ * tabella e in parte nella nuova: ricerche, inserimenti, rimozioni e
+ * iterazioni devono comportarsi come quelli di una {@code MapAdapter} in ogni
+ * momento dello spostamento, e lo spostamento deve terminare dopo un numero
+ * limitato di modifiche.
+ */
+public class TestIncrementalHMap {
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestIncrementalHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Confronta la mappa con una {@code MapAdapter} su una sequenza casuale di
+     * operazioni.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La sequenza attraversa molti ridimensionamenti; dopo ogni operazione il
+     * risultato restituito e la dimensione devono coincidere con quelli della
+     * mappa di riferimento.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si eseguono 200000 inserimenti e rimozioni su chiavi casuali, con
+     * seme fisso, su entrambe le mappe.<br>
+     * 2. Si confrontano periodicamente le mappe con {@code equals} e
+     * {@code hashCode}.<br>
+     * 3. Si svuota la mappa e si verifica che sia riutilizzabile.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene una sola mappatura.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le due mappe si comportano allo stesso modo.
+     */
+    @Test
+    public void testAgainstMapAdapter() {
+        IncrementalHMap map = new IncrementalHMap();
+        MapAdapter expected = new MapAdapter();
+        Random random = new Random(25);
+        for (int op = 0; op < 200000; op++) {
+            Integer key = Integer.valueOf(random.nextInt(50000));
+            if (random.nextInt(4) == 0)
+                assertEquals(expected.remove(key), map.remove(key));
+            else
+                assertEquals(expected.put(key, op), map.put(key, op));
+            assertEquals(expected.size(), map.size());
+            if (op % 20000 == 0 || map.isResizing() && op % 97 == 0) {
+                assertEquals(expected, map);
+                assertEquals(map, expected);
+                assertEquals(expected.hashCode(), map.hashCode());
+            }
+        }
+        assertEquals(expected, map);
+        assertEquals(expected, new IncrementalHMap(map));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.isResizing());
+        assertNull(map.get(1));
+        map.put(1, "uno");
+        assertEquals("uno", map.get(1));
+        assertEquals(1, map.size());
+
+        try {
+            map.put(null, "x");
+            fail("Chiave null");
+        } catch (NullPointerException e) {
+            // Atteso
+        }
+        try {
+            map.put(2, null);
+            fail("Valore null");
+        } catch (NullPointerException e) {
+            // Atteso
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica ricerche, iterazione e rimozione tramite iteratore durante un
+     * ridimensionamento.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Con lo spostamento appena iniziato quasi tutte le mappature si trovano
+     * ancora nella vecchia tabella: l'iterazione deve visitarle tutte una sola
+     * volta e la rimozione tramite iteratore non deve far saltare o ripetere
+     * alcuna mappatura. Lo spostamento deve terminare entro un numero di
+     * inserimenti pari a un quarto della vecchia capacità.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono chiavi finché la mappa non inizia a ridimensionarsi.<br>
+     * 2. Si verificano tutte le ricerche e si percorre la vista delle entry,
+     * rimuovendo le chiavi dispari e modificando i valori delle altre.<br>
+     * 3. Si inseriscono altre chiavi fino al termine dello spostamento e si
+     * verificano nuovamente le mappature.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota, con capacità iniziale 16.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non si sta ridimensionando.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni mappatura viene visitata una volta e le ricerche restituiscono i
+     * valori attesi prima, durante e dopo lo spostamento.
+     */
+    @Test
+    public void testIterationDuringResize() {
+        IncrementalHMap map = new IncrementalHMap();
+        int n = 0;
+        while (!map.isResizing())
+            map.put(n, n++);
+        for (int i = 0; i < n; i++)
+            assertEquals(Integer.valueOf(i), map.get(i));
+        assertNull(map.get(n));
+
+        boolean[] seen = new boolean[n];
+        HIterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            int key = ((Integer) e.getKey()).intValue();
+            assertFalse(seen[key]);
+            seen[key] = true;
+            if (key % 2 == 1)
+                it.remove();
+            else
+                e.setValue(-key);
+        }
+        for (int i = 0; i < n; i++)
+            assertTrue(seen[i]);
+        assertTrue(map.isResizing());
+        assertEquals((n + 1) / 2, map.size());
+
+        int puts = 0;
+        while (map.isResizing()) {
+            map.put(n + puts, 0);
+            puts++;
+        }
+        assertTrue(puts <= 16 / 4);
+        for (int i = 0; i < n; i++)
+            assertEquals(i % 2 == 0 ? Integer.valueOf(-i) : null, map.get(i));
+        assertTrue(map.containsValue(-2));
+        assertFalse(map.containsKey(1));
+    }
+}
@@ -0,0 +1,261 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.IndexedMapAdapter},
+ * la variante di {@link myAdapter.MapAdapter} che mantiene un indice inverso
+ * dai valori alle chiavi.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * L'indice è corretto solo se viene aggiornato da ogni percorso di modifica
+ * della mappa: {@code put} (inserimento e sovrascrittura), {@code remove},
+ * {@code clear}, {@code setValue} sulle entry e le rimozioni tramite viste e
+ * iteratori. Ogni test esegue una di queste modifiche e verifica poi, tramite
+ * {@code containsValue}, che l'indice rifletta il contenuto reale della mappa.
+ * Particolare attenzione è dedicata ai valori duplicati, associati a più
+ * chiavi.
+ */
+public class TestIndexedMapAdapter {
+    private IndexedMapAdapter testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestIndexedMapAdapter() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Inizializza una mappa con valori duplicati prima di ogni test: il valore
+     * "a" è associato alle chiavi 1, 2 e 3, il valore "b" alla chiave 4.
+     */
+    @Before
+    public void setUp() {
+        testMap = new IndexedMapAdapter();
+        testMap.put(1, "a");
+        testMap.put(2, "a");
+        testMap.put(3, "a");
+        testMap.put(4, "b");
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che l'indice segua inserimenti, sovrascritture e rimozioni.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Un valore deve risultare presente finché almeno una chiave vi è
+     * associata, e assente subito dopo che l'ultima chiave è stata rimossa o
+     * riassegnata.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si riassegna la chiave 4 al valore "c": "b" non è più presente.<br>
+     * 2. Si rimuovono le chiavi 1 e 2: "a" è ancora presente.<br>
+     * 3. Si rimuove la chiave 3: "a" non è più presente.<br>
+     * 4. Si svuota la mappa: nessun valore è presente.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature, tre con valore "a".
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * {@code containsValue} rispecchia sempre il contenuto della mappa.
+     */
+    @Test
+    public void testIndexFollowsPutAndRemove() {
+        assertTrue(testMap.containsValue("b"));
+        assertEquals("b", testMap.put(4, "c"));
+        assertFalse(testMap.containsValue("b"));
+        assertTrue(testMap.containsValue("c"));
+
+        testMap.remove(1);
+        testMap.remove(2);
+        assertTrue(testMap.containsValue("a"));
+        testMap.remove(3);
+        assertFalse(testMap.containsValue("a"));
+
+        testMap.clear();
+        assertFalse(testMap.containsValue("c"));
+        assertTrue(testMap.values().isEmpty());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che le modifiche tramite viste ed entry aggiornino l'indice.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le viste e i loro iteratori devono passare dalla mappa per rimuovere o
+     * modificare le mappature, altrimenti l'indice diventerebbe incoerente.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si assegna il valore "z" alla chiave 4 tramite {@code setValue}.<br>
+     * 2. Si rimuove la chiave 4 tramite l'iteratore del key set.<br>
+     * 3. Si rimuovono due chiavi con valore "a" tramite l'entry set e
+     * l'iteratore dei valori.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature, tre con valore "a".
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene una sola mappatura con valore "a".
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * {@code containsValue} rispecchia sempre il contenuto della mappa.
+     */
+    @Test
+    public void testIndexFollowsViews() {
+        HIterator it = testMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            if (e.getKey().equals(4))
+                e.setValue("z");
+        }
+        assertFalse(testMap.containsValue("b"));
+        assertTrue(testMap.containsValue("z"));
+
+        it = testMap.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().equals(4))
+                it.remove();
+        }
+        assertFalse(testMap.containsValue("z"));
+
+        MapAdapter single = new MapAdapter();
+        single.put(1, "a");
+        assertTrue(testMap.entrySet().remove(single.entrySet().iterator().next()));
+        it = testMap.values().iterator();
+        it.next();
+        it.remove();
+        assertEquals(1, testMap.size());
+        assertTrue(testMap.containsValue("a"));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le rimozioni per valore dalla vista {@code values()}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code remove} deve rimuovere una sola occorrenza, {@code removeAll}
+     * tutte le occorrenze dei valori indicati e {@code retainAll} tutte quelle
+     * dei valori non indicati.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si rimuove una occorrenza di "a" con {@code remove}.<br>
+     * 2. Si rimuovono tutte le occorrenze di "a" con {@code removeAll}.<br>
+     * 3. Si ripopola la mappa e si mantiene solo "b" con {@code retainAll}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature, tre con valore "a".
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo la mappatura 4 → "b".
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Dimensione e contenuto corrispondono alle operazioni eseguite.
+     */
+    @Test
+    public void testValuesBulkRemoval() {
+        HCollection values = testMap.values();
+        assertTrue(values.remove("a"));
+        assertEquals(3, testMap.size());
+        assertFalse(values.remove("x"));
+
+        MapAdapter toRemove = new MapAdapter();
+        toRemove.put(0, "a");
+        toRemove.put(1, "x");
+        assertTrue(values.removeAll(toRemove.values()));
+        assertEquals(1, testMap.size());
+        assertFalse(testMap.containsValue("a"));
+        assertFalse(values.removeAll(toRemove.values()));
+
+        testMap.put(5, "a");
+        testMap.put(6, "c");
+        MapAdapter toRetain = new MapAdapter();
+        toRetain.put(0, "b");
+        assertTrue(values.retainAll(toRetain.values()));
+        assertEquals(1, testMap.size());
+        assertEquals("b", testMap.get(4));
+        assertFalse(values.retainAll(toRetain.values()));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che la rimozione tramite iteratore dei valori elimini
+     * esattamente la mappatura corrente.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Con valori duplicati, rimuovere "una" chiave associata al valore non è
+     * sufficiente: una scansione che rimuove alcune occorrenze e ne mantiene
+     * altre deve lasciare esattamente le mappature non rimosse.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si scorrono le entry, registrando la chiave di ogni elemento, e in
+     * parallelo si scorrono i valori rimuovendo un elemento sì e uno no;
+     * infine si confronta il contenuto con quello atteso.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature, tre con valore "a".
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene due mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Sono rimaste esattamente le mappature non rimosse e la mappa è uguale a
+     * una {@code MapAdapter} con lo stesso contenuto.
+     */
+    @Test
+    public void testValueIteratorRemovesCurrentMapping() {
+        MapAdapter expected = new MapAdapter(testMap);
+        HIterator it = testMap.values().iterator();
+        HIterator keys = testMap.keySet().iterator();
+        boolean remove = true;
+        while (it.hasNext()) {
+            it.next();
+            Object key = keys.next();
+            if (remove) {
+                it.remove();
+                expected.remove(key);
+            }
+            remove = !remove;
+        }
+        assertEquals(2, testMap.size());
+        assertEquals(expected, testMap);
+        assertEquals(testMap, new IndexedMapAdapter(expected));
+    }
+}
@@ -0,0 +1,402 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.LruHMap}, la cache
+ * con dimensione massima e rimpiazzo LRU.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Oltre al contratto di base di {@code HMap}, i test verificano l'ordine di
+ * accesso, la scelta della mappatura da rimuovere quando la cache è piena e
+ * i contatori di successi, fallimenti e rimozioni.
+ */
+public class TestLruHMap {
+    private LruHMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestLruHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una cache di dimensione massima 3 con le chiavi 1, 2 e 3, inserite
+     * in quest'ordine.
+     */
+    @Before
+    public void setUp() {
+        testMap = new LruHMap(3);
+        testMap.put(1, "uno");
+        testMap.put(2, "due");
+        testMap.put(3, "tre");
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rimozione della mappatura usata meno di recente.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code get} e {@code put} su una chiave presente la rendono la più
+     * recente; {@code containsKey} no. Un inserimento oltre la dimensione
+     * massima rimuove la mappatura in testa all'ordine di accesso.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si legge la chiave 1 e si verifica la chiave 2 con
+     * {@code containsKey}.<br>
+     * 2. Si inserisce la chiave 4.<br>
+     * 3. Si sostituisce il valore della chiave 3, si legge la chiave 1 e si
+     * inserisce la chiave 5.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La cache contiene, dalla meno recente, le chiavi 3, 1 e 5.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Vengono rimosse prima la chiave 2 e poi la chiave 4; il key set
+     * restituisce le chiavi in ordine di accesso.
+     */
+    @Test
+    public void testEviction() {
+        assertEquals("uno", testMap.get(1));
+        assertTrue(testMap.containsKey(2));
+        assertNull(testMap.put(4, "quattro"));
+        assertEquals(3, testMap.size());
+        assertFalse(testMap.containsKey(2));
+
+        assertEquals("tre", testMap.put(3, "TRE"));
+        testMap.get(1);
+        testMap.put(5, "cinque");
+        assertFalse(testMap.containsKey(4));
+
+        HIterator it = testMap.keySet().iterator();
+        assertEquals(3, it.next());
+        assertEquals(1, it.next());
+        assertEquals(5, it.next());
+        assertFalse(it.hasNext());
+        assertEquals(2, testMap.evictionCount());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica i contatori delle statistiche.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Solo {@code get} aggiorna successi e fallimenti; le rimozioni esplicite
+     * non sono conteggiate come rimpiazzi.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si eseguono tre letture riuscite, due fallite e alcune chiamate a
+     * {@code containsKey}.<br>
+     * 2. Si rimuove una chiave e se ne inseriscono due.<br>
+     * 3. Si azzerano i contatori.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * I contatori sono azzerati.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I contatori valgono 3 successi, 2 fallimenti e 1 rimpiazzo prima
+     * dell'azzeramento, 0 dopo.
+     */
+    @Test
+    public void testStatistics() {
+        testMap.get(1);
+        testMap.get(2);
+        testMap.get(2);
+        testMap.get(7);
+        testMap.get(8);
+        testMap.containsKey(1);
+        testMap.containsKey(9);
+        assertEquals(3, testMap.hitCount());
+        assertEquals(2, testMap.missCount());
+
+        testMap.remove(1);
+        testMap.put(10, "dieci");
+        testMap.put(11, "undici");
+        assertEquals(1, testMap.evictionCount());
+        assertFalse(testMap.containsKey(3));
+
+        testMap.resetStatistics();
+        assertEquals(0, testMap.hitCount());
+        assertEquals(0, testMap.missCount());
+        assertEquals(0, testMap.evictionCount());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le modifiche tramite le viste.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le entry sono i nodi stessi della lista: {@code setValue} deve
+     * aggiornare la mappa senza alterare l'ordine, e la rimozione tramite
+     * iteratore deve staccare il nodo senza interrompere l'iterazione.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si percorre l'entry set modificando il valore della prima entry e
+     * rimuovendo la seconda.<br>
+     * 2. Si inseriscono due chiavi e si confronta la cache con una
+     * {@code MapAdapter}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 3, 4 e 5.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * L'iterazione visita le tre chiavi e le modifiche si riflettono sulla
+     * cache; la chiave 1, modificata ma non letta, è la prima a essere
+     * rimossa.
+     */
+    @Test
+    public void testViewModifications() {
+        HIterator it = testMap.entrySet().iterator();
+        HEntry first = (HEntry) it.next();
+        assertEquals("uno", first.setValue("UNO"));
+        it.next();
+        it.remove();
+        try {
+            it.remove();
+            fail("Doppia rimozione");
+        } catch (IllegalStateException e) {
+            // Atteso
+        }
+        assertEquals(3, ((HEntry) it.next()).getKey());
+        assertFalse(it.hasNext());
+        assertEquals(2, testMap.size());
+        assertTrue(testMap.containsValue("UNO"));
+
+        testMap.put(4, "quattro");
+        testMap.put(5, "cinque");
+        MapAdapter expected = new MapAdapter();
+        expected.put(3, "tre");
+        expected.put(4, "quattro");
+        expected.put(5, "cinque");
+        assertEquals(expected, testMap);
+        assertEquals(testMap, expected);
+        assertEquals(expected.hashCode(), testMap.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'iterazione con letture e rimpiazzi eseguiti durante il
+     * percorso.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code get} sposta il nodo appena restituito in fondo alla lista:
+     * l'iteratore deve comunque visitare ogni mappatura una sola volta e
+     * terminare. Una mappatura rimpiazzata durante l'iterazione viene
+     * saltata, e {@code setValue} sulla sua entry, ormai staccata dalla
+     * mappa, deve essere rifiutato invece di perdere l'aggiornamento.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si percorre il key set leggendo ogni chiave con {@code get}.<br>
+     * 2. Si percorre l'entry set e, dopo la prima entry, si inserisce la
+     * chiave 4, che rimpiazza la chiave 2.<br>
+     * 3. Si modifica il valore della chiave 2 tramite la sua entry.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 3, 1 e 4.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La prima iterazione visita le chiavi 1, 2 e 3; la seconda visita 1 e 3;
+     * {@code setValue} lancia {@code IllegalStateException}.
+     */
+    @Test
+    public void testIterationWithAccess() {
+        StringBuffer visited = new StringBuffer();
+        HIterator it = testMap.keySet().iterator();
+        while (it.hasNext()) {
+            Object key = it.next();
+            assertTrue(testMap.get(key) != null);
+            visited.append(key);
+        }
+        assertEquals("123", visited.toString());
+        assertEquals(3, testMap.hitCount());
+
+        HEntry second = null;
+        visited.setLength(0);
+        it = testMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            if (visited.length() == 0) {
+                testMap.get(1);
+                second = (HEntry) testMap.entrySet().iterator().next();
+                testMap.put(4, "quattro");
+            }
+            visited.append(e.getKey());
+        }
+        assertEquals("13", visited.toString());
+        assertEquals(2, second.getKey());
+        assertFalse(testMap.containsKey(2));
+        try {
+            second.setValue("DUE");
+            fail("Mappatura rimpiazzata");
+        } catch (IllegalStateException e) {
+            // Atteso
+        }
+        assertFalse(testMap.containsValue("DUE"));
+        assertEquals(1, testMap.evictionCount());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che i confronti non modifichino l'ordine di accesso né i
+     * contatori.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code equals} e {@code contains} dell'entry set devono cercare le
+     * mappature come {@code containsKey}, senza passare da {@code get}:
+     * altrimenti ogni confronto renderebbe più recenti le mappature
+     * confrontate e conterebbe dei successi.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si confronta la cache con una {@code MapAdapter} con lo stesso
+     * contenuto, in entrambe le direzioni.<br>
+     * 2. Si cercano nell'entry set una mappatura presente e una con valore
+     * diverso.<br>
+     * 3. Si inserisce la chiave 4.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La cache contiene, dalla meno recente, le chiavi 2, 3 e 4.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I contatori restano a 0 prima dell'inserimento, che rimuove la chiave
+     * 1, la meno recente.
+     */
+    @Test
+    public void testComparisonsKeepAccessOrder() {
+        MapAdapter expected = new MapAdapter();
+        expected.put(1, "uno");
+        expected.put(2, "due");
+        expected.put(3, "tre");
+        assertTrue(testMap.equals(expected));
+        assertTrue(expected.equals(testMap));
+
+        MapAdapter other = new MapAdapter();
+        other.put(3, "tre");
+        other.put(2, "DUE");
+        HIterator it = other.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            assertEquals(e.getKey().equals(3), testMap.entrySet().contains(e));
+        }
+        assertEquals(0, testMap.hitCount());
+        assertEquals(0, testMap.missCount());
+
+        testMap.put(4, "quattro");
+        assertFalse(testMap.containsKey(1));
+        it = testMap.keySet().iterator();
+        assertEquals(2, it.next());
+        assertEquals(3, it.next());
+        assertEquals(4, it.next());
+        assertEquals(1, testMap.evictionCount());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica i costruttori e lo svuotamento.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Una dimensione massima non positiva è rifiutata; copiando una mappa più
+     * grande della dimensione massima restano le ultime mappature copiate.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si crea una cache con dimensione massima 0.<br>
+     * 2. Si crea una cache di dimensione 2 a partire dalla cache di test.<br>
+     * 3. Si svuota la cache di test e la si riempie di nuovo.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La cache contiene le chiavi 1, 2 e 3.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La cache di test contiene le chiavi da 10 a 12.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La prima creazione lancia {@code IllegalArgumentException}; la copia
+     * contiene le chiavi 2 e 3; lo svuotamento non conta come rimpiazzo.
+     */
+    @Test
+    public void testConstructorsAndClear() {
+        try {
+            new LruHMap(0);
+            fail("Dimensione massima non valida");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+
+        LruHMap copy = new LruHMap(2, testMap);
+        assertEquals(2, copy.maxSize());
+        assertEquals(2, copy.size());
+        assertTrue(copy.containsKey(2));
+        assertTrue(copy.containsKey(3));
+
+        testMap.clear();
+        assertTrue(testMap.isEmpty());
+        assertFalse(testMap.keySet().iterator().hasNext());
+        for (int i = 10; i < 13; i++)
+            testMap.put(i, "v" + i);
+        assertEquals(3, testMap.size());
+        assertEquals(0, testMap.evictionCount());
+    }
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 
 import org.junit.Test;
 import org.junit.Before;
@@ -951,6 +952,66 @@ public class TestMapAdapter {
         assertEquals("Il contenuto della mappa non deve cambiare dopo putAll(this)", originalState, testMap);
     }
 
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che {@code putAll(HMap)} copi le mappature in un'unica
+     * scansione, senza cercare di nuovo ogni chiave nella sorgente.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La copia di una mappa deve leggere chiave e valore di ogni mappatura
+     * durante la scansione della sorgente. Una sorgente che conta le
+     * invocazioni di {@code get} permette di verificarlo, sia quando la
+     * sorgente è una {@code MapAdapter} sia quando è un'altra implementazione
+     * di {@code HMap}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola con 1000 mappature una sottoclasse di {@code MapAdapter} che
+     * conta le invocazioni di {@code get}.<br>
+     * 2. Se ne crea una copia con il costruttore di copia e la si aggiunge a
+     * {@code testMap} con {@code putAll}.<br>
+     * 3. Si ripete la copia a partire da una {@code OpenHashMap}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code MapAdapter} popolata con quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * {@code testMap} contiene le 1000 mappature della sorgente, che
+     * sovrascrivono quelle con le stesse chiavi.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le copie sono uguali alla sorgente e {@code get} non viene mai invocato
+     * sulla sorgente.
+     */
+    @Test
+    public void testPutAllSinglePass() {
+        final int[] lookups = new int[1];
+        MapAdapter source = new MapAdapter() {
+            @Override
+            public Object get(Object key) {
+                lookups[0]++;
+                return super.get(key);
+            }
+        };
+        for (int i = 0; i < 1000; i++)
+            source.put(i, "v" + i);
+
+        MapAdapter copy = new MapAdapter(source);
+        testMap.putAll(source);
+        assertEquals(0, lookups[0]);
+        assertEquals(1000, copy.size());
+        assertEquals(1000, testMap.size());
+        assertEquals("v5", testMap.get(5));
+
+        OpenHashMap other = new OpenHashMap(source);
+        assertEquals(source, new MapAdapter(other));
+    }
+
     /**
      * <b>Summary</b>
      * <p>
@@ -1267,6 +1328,166 @@ public class TestMapAdapter {
         assertFalse(testMap.hashCode() == tmpMap.hashCode());
     }
 
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che il codice hash della mappa resti corretto dopo modifiche
+     * fatte tramite la mappa e tramite le sue viste.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Il codice hash viene aggiornato a ogni modifica invece di essere
+     * ricalcolato: il test confronta il valore restituito con la somma dei
+     * codici hash delle entry, calcolata a parte, dopo ogni tipo di modifica
+     * (sovrascrittura, rimozione, {@code setValue}, rimozione tramite gli
+     * iteratori delle tre viste, {@code clear}). Verifica inoltre che
+     * {@code equals} distingua mappe con la stessa dimensione ma contenuto
+     * diverso.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si applicano alla mappa le diverse modifiche.<br>
+     * 2. Dopo ognuna si confronta {@code hashCode()} con la somma dei codici
+     * hash delle entry.<br>
+     * 3. Si confrontano la mappa e una copia in cui un valore è stato
+     * sostituito.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code MapAdapter} popolata con quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Il codice hash coincide sempre con la somma dei codici hash delle entry
+     * e le due mappe diverse non risultano uguali.
+     */
+    @Test
+    public void testHashCodeTracksModifications() {
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        testMap.put(5, "noce2");
+        testMap.put(7, "sette");
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        testMap.remove(9);
+        testMap.remove(42);
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        HIterator it = testMap.entrySet().iterator();
+        ((HEntry) it.next()).setValue("modificato");
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+        it.remove();
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        it = testMap.keySet().iterator();
+        it.next();
+        it.remove();
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        it = testMap.values().iterator();
+        it.next();
+        it.remove();
+        assertEquals(entryHashSum(testMap), testMap.hashCode());
+
+        MapAdapter copy = new MapAdapter(testMap);
+        assertEquals(testMap, copy);
+        Object key = copy.keySet().iterator().next();
+        copy.put(key, "diverso");
+        assertEquals(testMap.size(), copy.size());
+        assertFalse(testMap.equals(copy));
+        assertFalse(copy.equals(testMap));
+
+        testMap.clear();
+        assertEquals(0, testMap.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che il codice hash mantenuto resti corretto con più thread che
+     * scrivono sulla stessa mappa.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La somma dei codici hash viene aggiornata nella stessa sezione critica
+     * della modifica: inserimenti, sostituzioni e rimozioni concorrenti sulle
+     * stesse chiavi non devono lasciarla diversa da quella ricalcolata, e
+     * {@code equals} con una copia non deve fallire per una somma corrotta.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Quattro thread inseriscono, sostituiscono e rimuovono chiavi tra 0 e
+     * 199, comuni a tutti i thread.<br>
+     * 2. Si confronta {@code hashCode()} con la somma ricalcolata e la mappa
+     * con una sua copia.<br>
+     * 3. Si ripete 20 volte su una mappa nuova.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le mappature rimaste dopo le scritture.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Il codice hash coincide sempre con la somma ricalcolata e la copia è
+     * uguale alla mappa.
+     *
+     * @throws InterruptedException se l'attesa dei thread viene interrotta.
+     */
+    @Test
+    public void testHashCodeConcurrentWriters() throws InterruptedException {
+        for (int run = 0; run < 20; run++) {
+            final MapAdapter map = new MapAdapter();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                final int seed = t;
+                threads[t] = new Thread() {
+                    public void run() {
+                        for (int i = 0; i < 20000; i++) {
+                            int key = (i * 7 + seed * 13) % 200;
+                            if (i % 3 == 2)
+                                map.remove(new Integer(key));
+                            else
+                                map.put(new Integer(key), "v" + (i + seed) % 5);
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (int t = 0; t < threads.length; t++)
+                threads[t].join();
+
+            assertEquals(entryHashSum(map), map.hashCode());
+            MapAdapter copy = new MapAdapter(map);
+            assertTrue(copy.equals(map));
+            assertTrue(map.equals(copy));
+        }
+    }
+
+    /**
+     * Calcola la somma dei codici hash delle entry di una mappa scorrendone
+     * l'entry set.
+     *
+     * @param map la mappa.
+     * @return la somma dei codici hash delle entry.
+     */
+    private static int entryHashSum(HMap map) {
+        int sum = 0;
+        HIterator it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            sum += e.getKey().hashCode() ^ e.getValue().hashCode();
+        }
+        return sum;
+    }
+
     /**
      * <b>Summary</b>
      * <p>
@@ -1862,6 +2083,54 @@ public class TestMapAdapter {
         assertFalse(tmpMap.containsValue("noce"));
     }
 
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code removeAll()} sulla vista {@code values()} con un set di
+     * tipo diverso come argomento.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * L'appartenenza è decisa con {@code equals} degli elementi, come nel
+     * resto della libreria: un entry set passato a {@code removeAll} non
+     * contiene alcun valore e non deve essere interrogato con un valore, che
+     * il suo {@code contains} rifiuterebbe.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si rimuovono dalla vista dei valori le entry di un'altra mappa.<br>
+     * 2. Si rimuovono dalla vista dei valori le chiavi di un'altra mappa, di
+     * cui una uguale a un valore.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code MapAdapter} popolata.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa ha perso solo la mappatura il cui valore è uguale a una chiave
+     * dell'altra mappa.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La prima rimozione restituisce {@code false} senza lanciare eccezioni,
+     * la seconda {@code true}.
+     */
+    @Test
+    public void testValuesRemoveAllWithOtherSet() {
+        MapAdapter other = new MapAdapter();
+        other.put("noce", 1);
+        other.put("altro", 2);
+        int size = testMap.size();
+
+        assertFalse(testMap.values().removeAll(other.entrySet()));
+        assertEquals(size, testMap.size());
+
+        assertTrue(testMap.values().removeAll(other.keySet()));
+        assertEquals(size - 1, testMap.size());
+        assertFalse(testMap.containsValue("noce"));
+    }
+
     /**
      * <b>Summary</b>
      * <p>
@@ -2402,4 +2671,397 @@ public class TestMapAdapter {
         assertTrue(testMap.isEmpty());
         assertTrue(tmpSet.isEmpty());
     }
-}
\ No newline at end of file
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica i contatori delle metriche di {@code MapAdapter}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le metriche sono disattivate per impostazione predefinita. Una volta
+     * attivate, ogni operazione deve incrementare esattamente il proprio
+     * contatore; i ridimensionamenti sono stimati riproducendo la crescita
+     * della {@code Hashtable} (soglia del 75%, nuova capacità {@code 2n + 1}),
+     * contando anche il passaggio dalla rappresentazione compatta.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si verifica che le metriche siano disattivate.<br>
+     * 2. Si attivano e si eseguono letture, inserimenti, sostituzioni,
+     * rimozioni e iterazioni.<br>
+     * 3. Si inseriscono altre chiavi fino a provocare due
+     * ridimensionamenti.<br>
+     * 4. Si azzerano e poi si disattivano le metriche.<br>
+     * 5. Si creano le tre viste di una {@code IndexedMapAdapter}, che
+     * ridefinisce {@code values()}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code MapAdapter} con quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le metriche sono disattivate.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni contatore ha il valore atteso.
+     */
+    @Test
+    public void testMetrics() {
+        assertNull(testMap.metrics());
+        testMap.enableMetrics();
+        MapMetrics metrics = testMap.metrics();
+
+        testMap.get(5);
+        testMap.get(9);
+        testMap.get(42);
+        testMap.put(5, "nodo");
+        testMap.put(7, "sette");
+        testMap.remove(9);
+        testMap.remove(9);
+        HIterator it = testMap.keySet().iterator();
+        while (it.hasNext())
+            it.next();
+        testMap.values().iterator();
+        testMap.entrySet().iterator();
+
+        MapMetrics.Snapshot snap = metrics.snapshot();
+        assertEquals(2, snap.get(MapMetrics.GET_HIT));
+        assertEquals(1, snap.get(MapMetrics.GET_MISS));
+        assertEquals(2.0 / 3, snap.hitRatio(), 1e-9);
+        assertEquals(1, snap.get(MapMetrics.PUT_INSERT));
+        assertEquals(1, snap.get(MapMetrics.PUT_REPLACE));
+        assertEquals(1, snap.get(MapMetrics.REMOVE_HIT));
+        assertEquals(1, snap.get(MapMetrics.REMOVE_MISS));
+        assertEquals(3, snap.get(MapMetrics.VIEW));
+        assertEquals(3, snap.get(MapMetrics.ITERATOR));
+        assertEquals(0, snap.get(MapMetrics.RESIZE));
+
+        // La nona chiave fa passare la mappa a una Hashtable di capacità 22,
+        // che cresce all'inserimento della diciassettesima.
+        for (int i = 100; testMap.size() < 18; i++)
+            testMap.put(i, "v" + i);
+        assertEquals(2, metrics.snapshot().get(MapMetrics.RESIZE));
+        assertTrue(metrics.toString().startsWith("{getHit=2, getMiss=1, putInsert=15,"));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().get(MapMetrics.PUT_INSERT));
+        testMap.disableMetrics();
+        testMap.get(5);
+        assertNull(testMap.metrics());
+        assertEquals(0, metrics.snapshot().get(MapMetrics.GET_HIT));
+
+        IndexedMapAdapter indexed = new IndexedMapAdapter();
+        indexed.enableMetrics();
+        indexed.keySet();
+        indexed.values();
+        indexed.entrySet();
+        assertEquals(3, indexed.metrics().snapshot().get(MapMetrics.VIEW));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che i contatori non perdano incrementi con più thread.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * I contatori delle letture sono suddivisi in gruppi, ognuno aggiornato
+     * sotto il proprio monitor, quelli delle scritture sotto il lock della
+     * mappa: gli incrementi concorrenti, anche sullo stesso gruppo, devono
+     * essere tutti conteggiati.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si attivano le metriche.<br>
+     * 2. Otto thread eseguono ciascuno 10000 letture, metà riuscite e metà
+     * fallite, e 10000 sostituzioni di un valore con sé stesso.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una {@code MapAdapter} con quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non è cambiata.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I contatori valgono 40000 successi, 40000 fallimenti e 80000
+     * sostituzioni.
+     *
+     * @throws InterruptedException se l'attesa dei thread viene interrotta.
+     */
+    @Test
+    public void testMetricsConcurrentUpdates() throws InterruptedException {
+        testMap.enableMetrics();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        testMap.get(i % 2 == 0 ? 5 : 6);
+                        testMap.put(9, "mano");
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++)
+            threads[t].join();
+
+        MapMetrics.Snapshot snap = testMap.metrics().snapshot();
+        assertEquals(40000, snap.get(MapMetrics.GET_HIT));
+        assertEquals(40000, snap.get(MapMetrics.GET_MISS));
+        assertEquals(0.5, snap.hitRatio(), 1e-9);
+        assertEquals(80000, snap.get(MapMetrics.PUT_REPLACE));
+        assertEquals(0, snap.get(MapMetrics.PUT_INSERT));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la distribuzione delle chiavi tra i bucket.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Nella rappresentazione compatta la mappa è descritta come un unico
+     * bucket. Gli {@code Integer} hanno come codice hash il proprio valore e,
+     * con meno chiavi che bucket, occupano bucket distinti; le stringhe
+     * composte dai blocchi "Aa" e "BB" hanno tutte lo stesso codice hash e
+     * formano una sola lista.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono gli interi da 0 a 99 in una mappa vuota, verificando
+     * la distribuzione dopo quattro inserimenti e alla fine.<br>
+     * 2. Si inseriscono sedici stringhe con lo stesso codice hash in
+     * un'altra mappa vuota.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le mappe contengono le chiavi inserite.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Con quattro interi c'è un unico bucket con quattro chiavi; con cento la
+     * capacità è 183 (22 al passaggio alla {@code Hashtable}, poi 45, 91,
+     * 183) e ogni lista ha al più una chiave; con le stringhe c'è un solo
+     * codice hash e una lista di sedici chiavi, con costo medio di ricerca
+     * 8.5.
+     */
+    @Test
+    public void testBucketStats() {
+        MapAdapter ints = new MapAdapter();
+        BucketStats empty = ints.bucketStats();
+        assertEquals(1, empty.capacity());
+        assertEquals(0, empty.longestChain());
+        assertEquals(0, empty.hitCost(), 0);
+
+        for (int i = 0; i < 4; i++)
+            ints.put(i, "v" + i);
+        BucketStats stats = ints.bucketStats();
+        assertEquals(1, stats.capacity());
+        assertEquals(4, stats.longestChain());
+        assertEquals(2.5, stats.hitCost(), 1e-9);
+        assertEquals(4, stats.missCost(), 1e-9);
+
+        for (int i = 4; i < 100; i++)
+            ints.put(i, "v" + i);
+        stats = ints.bucketStats();
+        assertEquals(183, stats.capacity());
+        assertEquals(100, stats.size());
+        assertEquals(100, stats.distinctHashCodes());
+        assertEquals(100, stats.occupiedBuckets());
+        assertEquals(1, stats.longestChain());
+        assertEquals(83, stats.bucketsWithChainLength(0));
+        assertEquals(100, stats.bucketsWithChainLength(1));
+        assertEquals(0, stats.bucketsWithChainLength(2));
+        assertEquals(100.0 / 183, stats.loadFactor(), 1e-9);
+        assertEquals(1, stats.hitCost(), 1e-9);
+
+        MapAdapter strings = new MapAdapter();
+        String[] blocks = { "Aa", "BB" };
+        for (int i = 0; i < 16; i++) {
+            String key = blocks[i & 1] + blocks[(i >> 1) & 1] + blocks[(i >> 2) & 1] + blocks[(i >> 3) & 1];
+            strings.put(key, "v" + i);
+        }
+        stats = strings.bucketStats();
+        assertEquals(22, stats.capacity());
+        assertEquals(16, stats.size());
+        assertEquals(1, stats.distinctHashCodes());
+        assertEquals(1, stats.occupiedBuckets());
+        assertEquals(16, stats.longestChain());
+        assertEquals(21, stats.bucketsWithChainLength(0));
+        assertEquals(1, stats.bucketsWithChainLength(16));
+        assertEquals(8.5, stats.hitCost(), 1e-9);
+        assertEquals(16.0 / 22, stats.missCost(), 1e-9);
+        assertTrue(stats.hitCost() > stats.uniformHitCost());
+        assertTrue(stats.toString().startsWith("{capacity=22, size=16, distinctHashCodes=1,"));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rappresentazione compatta delle mappe piccole e il
+     * passaggio alla {@code Hashtable}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Fino a otto mappature la mappa usa un array con ricerca lineare; la
+     * rimozione durante l'iterazione sposta l'ultima mappatura al posto di
+     * quella rimossa e non deve far saltare né ripetere elementi. Oltre la
+     * soglia la mappa passa alla {@code Hashtable}; {@code clear} la riporta
+     * alla rappresentazione compatta.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono otto chiavi e si rimuovono, tramite iteratore, quelle
+     * dispari.<br>
+     * 2. Si inseriscono altre chiavi fino a superare la soglia e se ne
+     * verificano i valori.<br>
+     * 3. Si svuota la mappa e la si riempie di nuovo.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene tre mappature in rappresentazione compatta.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * L'iteratore visita ogni chiave una volta e la mappa è sempre uguale a
+     * una mappa di riferimento con le stesse mappature.
+     */
+    @Test
+    public void testCompactRepresentation() {
+        MapAdapter map = new MapAdapter();
+        OpenHashMap expected = new OpenHashMap();
+        for (int i = 0; i < 8; i++) {
+            map.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        assertEquals(1, map.bucketStats().capacity());
+        boolean[] seen = new boolean[8];
+        HIterator it = map.keySet().iterator();
+        while (it.hasNext()) {
+            int key = ((Integer) it.next()).intValue();
+            assertFalse("Chiave ripetuta: " + key, seen[key]);
+            seen[key] = true;
+            if (key % 2 == 1) {
+                it.remove();
+                expected.remove(key);
+            }
+        }
+        for (int i = 0; i < 8; i++)
+            assertTrue(seen[i]);
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertTrue(map.containsValue("v6"));
+        assertFalse(map.containsValue("v7"));
+
+        for (int i = 100; i < 110; i++) {
+            map.put(i, "w" + i);
+            expected.put(i, "w" + i);
+        }
+        assertEquals(14, map.size());
+        assertEquals(22, map.bucketStats().capacity());
+        assertEquals(expected, map);
+        assertEquals(map, new MapAdapter(map));
+        assertEquals("w105", map.get(105));
+        assertNull(map.get(5));
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(1, map.bucketStats().capacity());
+        map.put("a", "uno");
+        map.put("b", "due");
+        map.put("a", "UNO");
+        map.put("c", "tre");
+        assertEquals(3, map.size());
+        assertEquals("UNO", map.get("a"));
+        assertEquals("due", map.remove("b"));
+        assertNull(map.remove("b"));
+        map.put("b", "DUE");
+        assertEquals("{b: DUE, c: tre, a: UNO}", map.toString());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rappresentazione compatta con più thread che scrivono sulla
+     * stessa mappa.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Come con la {@code Hashtable}, una mappa condivisa non deve perdere
+     * inserimenti né lanciare eccezioni, nemmeno mentre l'array cresce o la
+     * mappa passa alla {@code Hashtable} durante le scritture concorrenti.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Quattro thread inseriscono ciascuno sei chiavi proprie in una mappa
+     * nuova, leggendole subito dopo.<br>
+     * 2. Si verificano dimensione e valori.<br>
+     * 3. Si ripete 2000 volte.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene 24 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Nessun thread incontra eccezioni e tutte le mappature sono presenti.
+     *
+     * @throws InterruptedException se l'attesa dei thread viene interrotta.
+     */
+    @Test
+    public void testCompactConcurrentWriters() throws InterruptedException {
+        final Throwable[] failure = new Throwable[1];
+        for (int run = 0; run < 2000; run++) {
+            final MapAdapter map = new MapAdapter();
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                final int base = 6 * t;
+                threads[t] = new Thread() {
+                    public void run() {
+                        try {
+                            for (int i = base; i < base + 6; i++) {
+                                map.put(new Integer(i), new Integer(-i));
+                                if (!new Integer(-i).equals(map.get(new Integer(i))))
+                                    throw new IllegalStateException("Chiave persa: " + i);
+                            }
+                        } catch (Throwable e) {
+                            synchronized (failure) {
+                                failure[0] = e;
+                            }
+                        }
+                    }
+                };
+                threads[t].start();
+            }
+            for (int t = 0; t < threads.length; t++)
+                threads[t].join();
+
+            synchronized (failure) {
+                if (failure[0] != null)
+                    throw new AssertionError(failure[0].toString());
+            }
+            assertEquals(24, map.size());
+            for (int i = 0; i < 24; i++)
+                assertEquals(new Integer(-i), map.get(new Integer(i)));
+        }
+    }
+}
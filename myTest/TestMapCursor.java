@@ -0,0 +1,177 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.MapCursor}, il
+ * cursore senza allocazioni per elemento sulle mappature di una
+ * {@link myAdapter.MapAdapter}.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Il cursore deve visitare ogni mappatura esattamente una volta, con la
+ * chiave associata al valore corretto, e le modifiche eseguite tramite il
+ * cursore devono produrre la stessa mappa delle modifiche eseguite
+ * direttamente, compresi codice hash e indici delle sottoclassi.
+ */
+public class TestMapCursor {
+    private MapAdapter testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestMapCursor() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea una mappa che associa a ogni chiave da 0 a 999 il suo doppio.
+     */
+    @Before
+    public void setUp() {
+        testMap = new MapAdapter();
+        for (int i = 0; i < 1000; i++)
+            testMap.put(i, 2 * i);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la scansione e il riutilizzo del cursore.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le enumerazioni di chiavi e valori devono restare allineate: ogni
+     * valore letto deve essere quello associato alla chiave corrente.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si scorre la mappa verificando ogni coppia e contando le
+     * mappature.<br>
+     * 2. Si verifica che a scansione terminata chiave e valore non siano
+     * accessibili.<br>
+     * 3. Si riporta il cursore all'inizio e si ripete la scansione.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non è cambiata.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Entrambe le scansioni visitano 1000 mappature con i valori corretti.
+     */
+    @Test
+    public void testScanAndReset() {
+        MapCursor cursor = testMap.cursor();
+        for (int pass = 0; pass < 2; pass++) {
+            int visited = 0;
+            long sum = 0;
+            while (cursor.advance()) {
+                int key = ((Integer) cursor.key()).intValue();
+                assertEquals(Integer.valueOf(2 * key), cursor.value());
+                sum += key;
+                visited++;
+            }
+            assertEquals(1000, visited);
+            assertEquals(999 * 1000 / 2, sum);
+            assertFalse(cursor.advance());
+            try {
+                cursor.key();
+                fail("Nessuna mappatura corrente");
+            } catch (NoSuchElementException e) {
+                // Atteso
+            }
+            cursor.reset();
+        }
+
+        MapCursor empty = new MapAdapter().cursor();
+        assertFalse(empty.advance());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code setValue} e {@code remove} tramite il cursore.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le modifiche passano dai metodi della mappa: il risultato deve essere
+     * uguale a quello delle stesse modifiche eseguite direttamente, anche per
+     * una {@code IndexedMapAdapter}, che mantiene un indice dei valori.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Per la mappa di prova e per una {@code IndexedMapAdapter} si
+     * rimuovono le chiavi dispari e si incrementano i valori delle chiavi
+     * multiple di 10.<br>
+     * 2. Si confrontano le mappe con quella attesa.<br>
+     * 3. Si verificano gli stati non validi del cursore.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene 1000 mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le mappe contengono le 500 chiavi pari.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le mappe sono uguali a quella attesa, con lo stesso codice hash; gli
+     * stati non validi lanciano {@code IllegalStateException}.
+     */
+    @Test
+    public void testSetValueAndRemove() {
+        MapAdapter expected = new MapAdapter();
+        for (int i = 0; i < 1000; i += 2)
+            expected.put(i, i % 10 == 0 ? 2 * i + 1 : 2 * i);
+
+        MapAdapter[] maps = { testMap, new IndexedMapAdapter(testMap) };
+        for (int m = 0; m < maps.length; m++) {
+            MapCursor cursor = maps[m].cursor();
+            while (cursor.advance()) {
+                int key = ((Integer) cursor.key()).intValue();
+                if (key % 2 == 1) {
+                    cursor.remove();
+                    try {
+                        cursor.remove();
+                        fail("Mappatura già rimossa");
+                    } catch (IllegalStateException e) {
+                        // Atteso
+                    }
+                } else if (key % 10 == 0) {
+                    assertEquals(Integer.valueOf(2 * key), cursor.setValue(2 * key + 1));
+                    assertEquals(Integer.valueOf(2 * key + 1), cursor.value());
+                }
+            }
+            assertEquals(500, maps[m].size());
+            assertEquals(expected, maps[m]);
+            assertEquals(expected.hashCode(), maps[m].hashCode());
+            assertTrue(maps[m].values().contains(21));
+            assertFalse(maps[m].values().contains(20));
+
+            try {
+                cursor.setValue(1);
+                fail("Nessuna mappatura corrente");
+            } catch (IllegalStateException e) {
+                // Atteso
+            }
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.MappedHMap},
+ * l'implementazione persistente di {@link myAdapter.HMap} basata su un file
+ * mappato in memoria.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Oltre al contratto di base di {@code HMap}, i test verificano le proprietà
+ * specifiche della persistenza: il contenuto deve sopravvivere alla chiusura e
+ * alla riapertura del file, anche dopo ridimensionamenti della tabella e
+ * compattazioni, e un file che non contiene una mappa deve essere rifiutato.
+ * Ogni test lavora su un file temporaneo che viene cancellato al termine.
+ */
+public class TestMappedHMap {
+    private File testFile;
+    private MappedHMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestMappedHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Crea un file temporaneo vuoto e vi apre una mappa con chiavi
+     * {@code Integer} e valori {@code String}, popolata con quattro mappature.
+     *
+     * @throws IOException se il file non può essere creato.
+     */
+    @Before
+    public void setUp() throws IOException {
+        testFile = File.createTempFile("mappedhmap", ".map");
+        testFile.deleteOnExit();
+        testMap = open();
+        testMap.put(5, "noce");
+        testMap.put(9, "mano");
+        testMap.put(1, "sasso");
+        testMap.put(0, "pippo");
+    }
+
+    /**
+     * Chiude la mappa e cancella il file temporaneo.
+     *
+     * @throws IOException se il file non può essere chiuso.
+     */
+    @After
+    public void tearDown() throws IOException {
+        testMap.close();
+        testFile.delete();
+    }
+
+    /**
+     * Apre una nuova mappa sul file di test.
+     *
+     * @return la mappa aperta.
+     * @throws IOException se il file non può essere aperto.
+     */
+    private MappedHMap open() throws IOException {
+        return new MappedHMap(testFile, MappedHMap.INTEGER_CODEC, MappedHMap.STRING_CODEC);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni di base della mappa.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La mappa deve comportarsi come qualsiasi altra {@code HMap}, incluso il
+     * confronto con una {@code MapAdapter}; la sostituzione di un valore con
+     * uno di lunghezza diversa aggiunge un nuovo record e deve restituire il
+     * valore precedente.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si sovrascrivono due chiavi, con valori di lunghezza uguale e
+     * diversa.<br>
+     * 2. Si rimuove una chiave.<br>
+     * 3. Si confronta la mappa con una {@code MapAdapter} con lo stesso
+     * contenuto.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene tre mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Tutti i valori restituiti corrispondono a quelli attesi.
+     */
+    @Test
+    public void testBasicOperations() {
+        assertEquals("noce", testMap.put(5, "nodo"));
+        assertEquals("mano", testMap.put(9, "manopola"));
+        assertEquals("nodo", testMap.get(5));
+        assertEquals("manopola", testMap.get(9));
+        assertEquals("sasso", testMap.remove(1));
+        assertNull(testMap.remove(1));
+        assertFalse(testMap.containsKey(1));
+        assertTrue(testMap.containsValue("pippo"));
+        assertEquals(3, testMap.size());
+
+        MapAdapter copy = new MapAdapter(testMap);
+        assertEquals(copy, testMap);
+        assertEquals(testMap, copy);
+        assertEquals(copy.hashCode(), testMap.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che il contenuto della mappa sopravviva alla riapertura del
+     * file.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Lo scopo della classe è evitare di ricostruire la mappa a ogni avvio:
+     * una mappa riaperta deve contenere esattamente le mappature presenti alla
+     * chiusura, anche dopo molti ridimensionamenti, sostituzioni e rimozioni
+     * (che provocano la compattazione del file).
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 20000 chiavi, se ne rimuove metà e si sostituiscono i
+     * valori delle rimanenti più volte.<br>
+     * 2. Si chiude la mappa e se ne apre una nuova sullo stesso file.<br>
+     * 3. Si confronta il contenuto con una {@code MapAdapter} di
+     * riferimento.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Il file contiene 10000 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La mappa riaperta è uguale a quella di riferimento.
+     *
+     * @throws IOException se il file non può essere riaperto.
+     */
+    @Test
+    public void testReopen() throws IOException {
+        testMap.clear();
+        MapAdapter expected = new MapAdapter();
+        for (int i = 0; i < 20000; i++) {
+            testMap.put(i, "v" + i);
+            expected.put(i, "v" + i);
+        }
+        for (int i = 0; i < 20000; i += 2) {
+            assertEquals("v" + i, testMap.remove(i));
+            expected.remove(i);
+        }
+        for (int round = 0; round < 3; round++) {
+            for (int i = 1; i < 20000; i += 2) {
+                String value = round + "-" + i + (round == 1 ? "-lungo" : "");
+                testMap.put(i, value);
+                expected.put(i, value);
+            }
+        }
+        long length = testFile.length();
+        testMap.close();
+
+        testMap = open();
+        assertEquals(10000, testMap.size());
+        assertEquals(expected, testMap);
+        assertTrue("Il file non è stato compattato", testFile.length() <= length);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rimozione tramite iteratore e la scrittura tramite
+     * {@code setValue}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La rimozione lascia una lapide nella cella e la compattazione non
+     * sposta le mappature tra le celle: l'iteratore deve visitare ogni
+     * mappatura una sola volta anche se durante la scansione il file viene
+     * compattato.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 5000 chiavi con valori lunghi.<br>
+     * 2. Durante la scansione dell'entry set si rimuovono le chiavi pari e si
+     * sostituisce con {@code setValue} il valore delle dispari.<br>
+     * 3. Si verifica il contenuto finale.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo le chiavi dispari, con il valore modificato.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni mappatura viene visitata una sola volta e il contenuto finale è
+     * quello atteso.
+     */
+    @Test
+    public void testIteratorRemoveAndSetValue() {
+        testMap.clear();
+        StringBuffer padding = new StringBuffer();
+        for (int i = 0; i < 40; i++)
+            padding.append('x');
+        for (int i = 0; i < 5000; i++)
+            testMap.put(i, padding + "" + i);
+
+        MapAdapter visited = new MapAdapter();
+        HIterator it = testMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            assertNull("Chiave visitata due volte", visited.put(e.getKey(), e.getValue()));
+            int key = ((Integer) e.getKey()).intValue();
+            if (key % 2 == 0)
+                it.remove();
+            else
+                e.setValue("d" + key);
+        }
+
+        assertEquals(5000, visited.size());
+        assertEquals(2500, testMap.size());
+        for (int i = 0; i < 5000; i++)
+            assertEquals(i % 2 == 0 ? null : "d" + i, testMap.get(i));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che un file che non contiene una mappa venga rifiutato.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Aprire per errore un file estraneo non deve corromperlo né produrre una
+     * mappa incoerente.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si scrive del testo in un file temporaneo e si tenta di aprirlo come
+     * mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Un file non vuoto che non contiene una mappa.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Il file non viene modificato.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Viene lanciata una {@code IOException}.
+     *
+     * @throws IOException se il file temporaneo non può essere creato.
+     */
+    @Test
+    public void testInvalidFile() throws IOException {
+        File other = File.createTempFile("mappedhmap", ".txt");
+        other.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(other);
+        out.write("questo file non contiene una mappa".getBytes("UTF-8"));
+        out.close();
+
+        try {
+            new MappedHMap(other, MappedHMap.INTEGER_CODEC, MappedHMap.STRING_CODEC);
+            fail("Il file non valido è stato accettato");
+        } catch (IOException e) {
+            // Comportamento atteso
+        }
+        assertEquals(34, other.length());
+        other.delete();
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che un file danneggiato non provochi eccezioni impreviste.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Una posizione alterata nella tabella deve essere rifiutata all'apertura
+     * con una {@code IOException}; una lunghezza di record alterata, che
+     * all'apertura non viene letta, deve essere segnalata da {@code verify}
+     * con una {@code IOException} e dalle letture con una
+     * {@code IllegalStateException}. Un bit alterato nel contenuto di una
+     * chiave o di un valore può solo produrre un valore diverso o, per le
+     * codifiche a lunghezza fissa, una {@code IllegalArgumentException}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si allunga la chiave del primo record oltre la fine dei dati, si
+     * apre il file, lo si verifica e si legge la chiave.<br>
+     * 2. Si ripristina il file e, per 500 volte, si inverte un bit scelto a
+     * caso con seme fisso, si apre il file e si leggono tutte le mappature.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Il file è ripristinato e la mappa riaperta.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Il primo file si apre, ma {@code verify} e {@code get} lo segnalano
+     * come danneggiato; ogni file alterato viene rifiutato all'apertura o
+     * letto senza eccezioni diverse da quelle documentate.
+     *
+     * @throws IOException se il file non può essere letto o scritto.
+     */
+    @Test
+    public void testCorruptedFile() throws IOException {
+        testMap.close();
+        RandomAccessFile raf = new RandomAccessFile(testFile, "rw");
+        byte[] original = new byte[(int) raf.length()];
+        raf.readFully(original);
+
+        raf.seek(32 + 16 * 8);
+        raf.writeInt(Integer.MAX_VALUE - 4);
+        testMap = open();
+        assertEquals("mano", testMap.get(9));
+        try {
+            testMap.verify();
+            fail("Record oltre la fine dei dati");
+        } catch (IOException e) {
+            // Atteso
+        }
+        try {
+            testMap.get(5);
+            fail("Record oltre la fine dei dati");
+        } catch (IllegalStateException e) {
+            // Atteso
+        }
+        testMap.close();
+
+        Random random = new Random(6);
+        int rejected = 0;
+        int damaged = 0;
+        for (int run = 0; run < 500; run++) {
+            int bit = random.nextInt(original.length * 8);
+            byte[] bytes = (byte[]) original.clone();
+            bytes[bit / 8] ^= 1 << (bit % 8);
+            raf.seek(0);
+            raf.write(bytes);
+
+            MappedHMap map;
+            try {
+                map = open();
+            } catch (IOException e) {
+                rejected++;
+                continue;
+            }
+            try {
+                HIterator it = map.entrySet().iterator();
+                while (it.hasNext()) {
+                    HEntry e = (HEntry) it.next();
+                    map.get(e.getKey());
+                    e.getValue();
+                }
+            } catch (IllegalStateException e) {
+                damaged++;
+            } catch (IllegalArgumentException e) {
+                // Contenuto del record non decodificabile
+            } finally {
+                map.close();
+            }
+        }
+        assertTrue(rejected > 0);
+        assertTrue(damaged > 0);
+
+        raf.seek(0);
+        raf.write(original);
+        raf.close();
+        testMap = open();
+        testMap.verify();
+        assertEquals("noce", testMap.get(5));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che una mappa chiusa non sia più utilizzabile.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Dopo {@code close()} il file non è più mappato: ogni operazione deve
+     * fallire in modo esplicito.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si chiude la mappa e si invoca {@code get}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa è chiusa.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Viene lanciata una {@code IllegalStateException}.
+     *
+     * @throws IOException se il file non può essere chiuso.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testClosedMap() throws IOException {
+        testMap.close();
+        testMap.get(5);
+    }
+}
@@ -0,0 +1,457 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Hashtable;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.OpenHashMap},
+ * l'implementazione di {@link myAdapter.HMap} a indirizzamento aperto con
+ * scansione lineare.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * La semantica delle viste è ereditata da {@link myAdapter.AbstractHMap} ed è
+ * la stessa di {@link myAdapter.MapAdapter}; i test si concentrano quindi sui
+ * punti specifici dell'indirizzamento aperto: le collisioni, il
+ * ridimensionamento della tabella, la rimozione con spostamento all'indietro
+ * delle entry e la rimozione tramite iteratore, che deve visitare ogni entry
+ * esattamente una volta anche quando le entry vengono spostate. Viene inoltre
+ * verificata l'interoperabilità con {@code MapAdapter} ({@code equals},
+ * {@code hashCode}, {@code toString}).
+ */
+public class TestOpenHashMap {
+    private OpenHashMap testMap;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestOpenHashMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * Inizializza una mappa popolata con quattro mappature prima di ogni test.
+     */
+    @Before
+    public void setUp() {
+        testMap = new OpenHashMap();
+        testMap.put(5, "noce");
+        testMap.put(9, "mano");
+        testMap.put(1, "sasso");
+        testMap.put(0, "pippo");
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni di base {@code put}, {@code get},
+     * {@code containsKey}, {@code containsValue} e {@code remove}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le operazioni di base devono rispettare il contratto di {@code HMap}:
+     * {@code put} restituisce il valore sostituito e {@code remove} il valore
+     * rimosso, oppure {@code null}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si sovrascrive il valore della chiave 5 e si verifica il valore
+     * restituito.<br>
+     * 2. Si verificano {@code get}, {@code containsKey} e
+     * {@code containsValue}.<br>
+     * 3. Si rimuove una chiave presente e una assente.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene tre mappature e la chiave 5 è associata a "noce2".
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Tutti i valori restituiti corrispondono a quelli attesi.
+     */
+    @Test
+    public void testBasicOperations() {
+        assertEquals("noce", testMap.put(5, "noce2"));
+        assertEquals(4, testMap.size());
+        assertEquals("noce2", testMap.get(5));
+        assertTrue(testMap.containsKey(9));
+        assertFalse(testMap.containsKey(2));
+        assertTrue(testMap.containsValue("sasso"));
+        assertFalse(testMap.containsValue("noce"));
+
+        assertEquals("mano", testMap.remove(9));
+        assertNull(testMap.remove(9));
+        assertNull(testMap.get(9));
+        assertEquals(3, testMap.size());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che chiavi e valori {@code null} siano rifiutati.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Come {@code MapAdapter}, la mappa non ammette {@code null}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si invoca {@code put} con un valore {@code null}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa non viene modificata.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Viene lanciata una {@code NullPointerException}.
+     */
+    @Test(expected = NullPointerException.class)
+    public void testPutWithNullValue() {
+        testMap.put(3, null);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica il ridimensionamento della tabella con molte mappature.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * L'inserimento di un numero di chiavi molto superiore alla capacità
+     * iniziale forza diversi raddoppi della tabella; nessuna mappatura deve
+     * andare persa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 10000 chiavi in una mappa vuota.<br>
+     * 2. Si verifica che ogni chiave sia associata al proprio valore.<br>
+     * 3. Si rimuovono le chiavi pari e si verifica il contenuto residuo.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota con capacità predefinita.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le 5000 chiavi dispari.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Dimensione e contenuto corrispondono alle operazioni eseguite.
+     */
+    @Test
+    public void testGrowthAndRemoval() {
+        OpenHashMap map = new OpenHashMap();
+        for (int i = 0; i < 10000; i++)
+            assertNull(map.put(i, "v" + i));
+        assertEquals(10000, map.size());
+        for (int i = 0; i < 10000; i++)
+            assertEquals("v" + i, map.get(i));
+
+        for (int i = 0; i < 10000; i += 2)
+            assertEquals("v" + i, map.remove(i));
+        assertEquals(5000, map.size());
+        for (int i = 0; i < 10000; i++)
+            assertEquals(i % 2 == 0 ? null : "v" + i, map.get(i));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la rimozione di chiavi che collidono sulla stessa cella.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Chiavi con lo stesso hash formano un'unica sequenza di scansione. La
+     * rimozione di una chiave nel mezzo della sequenza sposta all'indietro
+     * quelle successive: le chiavi rimanenti devono restare raggiungibili.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 20 chiavi con lo stesso hash.<br>
+     * 2. Si rimuovono la prima, una centrale e l'ultima.<br>
+     * 3. Si verifica che le altre siano ancora presenti.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene 17 mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le chiavi rimosse non sono più presenti, le altre sì.
+     */
+    @Test
+    public void testRemoveWithCollisions() {
+        OpenHashMap map = new OpenHashMap();
+        for (int i = 0; i < 20; i++)
+            map.put(new CollidingKey(i), i);
+
+        assertEquals(0, map.remove(new CollidingKey(0)));
+        assertEquals(10, map.remove(new CollidingKey(10)));
+        assertEquals(19, map.remove(new CollidingKey(19)));
+        assertEquals(17, map.size());
+        for (int i = 0; i < 20; i++) {
+            boolean removed = i == 0 || i == 10 || i == 19;
+            assertEquals(!removed, map.containsKey(new CollidingKey(i)));
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che la rimozione tramite iteratore visiti ogni entry
+     * esattamente una volta.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La rimozione tramite iteratore sposta le entry successive nella cella
+     * liberata; le entry che attraversano la fine della tabella devono essere
+     * comunque restituite una sola volta. Il test usa chiavi pseudo-casuali e
+     * rimuove circa metà delle entry durante la scansione, ripetendo la prova
+     * con diversi semi.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola una mappa con 2000 chiavi pseudo-casuali.<br>
+     * 2. Si scorre il key set rimuovendo le chiavi dispari e registrando ogni
+     * chiave visitata.<br>
+     * 3. Si verifica che ogni chiave sia stata visitata una sola volta e che la
+     * mappa contenga esattamente le chiavi pari.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota per ogni seme.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo le chiavi pari.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Nessuna chiave viene saltata o visitata due volte.
+     */
+    @Test
+    public void testIteratorRemoveVisitsEveryEntryOnce() {
+        for (int seed = 0; seed < 10; seed++) {
+            Random random = new Random(seed);
+            OpenHashMap map = new OpenHashMap();
+            Hashtable expected = new Hashtable();
+            while (map.size() < 2000) {
+                Integer key = random.nextInt();
+                map.put(key, "x");
+                expected.put(key, "x");
+            }
+
+            Hashtable visited = new Hashtable();
+            HIterator it = map.keySet().iterator();
+            while (it.hasNext()) {
+                Integer key = (Integer) it.next();
+                assertNull("Chiave visitata due volte: " + key, visited.put(key, key));
+                if (key.intValue() % 2 != 0)
+                    it.remove();
+            }
+
+            assertEquals(expected.size(), visited.size());
+            for (java.util.Enumeration e = expected.keys(); e.hasMoreElements();) {
+                Integer key = (Integer) e.nextElement();
+                assertEquals(key.intValue() % 2 == 0, map.containsKey(key));
+            }
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che le modifiche tramite le viste si riflettano sulla mappa.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le viste sono "backed" dalla mappa: {@code setValue} su un'entry deve
+     * scrivere nella mappa e le rimozioni dalle viste devono rimuovere le
+     * mappature corrispondenti.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si assegna un nuovo valore a ogni entry tramite {@code setValue}.<br>
+     * 2. Si rimuove un valore tramite {@code values().remove}.<br>
+     * 3. Si rimuove una chiave tramite {@code keySet().remove}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene due mappature con valori aggiornati.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * La mappa riflette ogni modifica eseguita sulle viste.
+     */
+    @Test
+    public void testViewsWriteThrough() {
+        HIterator it = testMap.entrySet().iterator();
+        while (it.hasNext()) {
+            HEntry e = (HEntry) it.next();
+            e.setValue("n" + e.getKey());
+            assertEquals("n" + e.getKey(), e.getValue());
+        }
+        assertEquals("n5", testMap.get(5));
+
+        assertTrue(testMap.values().remove("n9"));
+        assertFalse(testMap.containsKey(9));
+        assertTrue(testMap.keySet().remove(1));
+        assertFalse(testMap.keySet().remove(1));
+        assertEquals(2, testMap.size());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le rimozioni di massa dalla vista dei valori con argomenti di
+     * tipo diverso.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Come per {@code MapAdapter}, un set di entry passato a
+     * {@code values().removeAll} non contiene alcun valore: l'operazione deve
+     * restituire {@code false} invece di lanciare
+     * {@code ClassCastException}. Un key set i cui elementi coincidono con
+     * alcuni valori deve invece rimuovere quei valori.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si invoca {@code values().removeAll} con l'entry set di un'altra
+     * mappa.<br>
+     * 2. Si invoca {@code values().removeAll} con il key set di una mappa che
+     * ha "noce" come chiave.<br>
+     * 3. Si invoca {@code values().retainAll} con una collezione che non è un
+     * set.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene la sola chiave 9.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le operazioni si comportano come quelle della vista dei valori di una
+     * {@code MapAdapter}.
+     */
+    @Test
+    public void testValuesRemoveAllWithOtherSet() {
+        MapAdapter other = new MapAdapter();
+        other.put("noce", "mano");
+        assertFalse(testMap.values().removeAll(other.entrySet()));
+        assertEquals(4, testMap.size());
+
+        assertTrue(testMap.values().removeAll(other.keySet()));
+        assertFalse(testMap.containsKey(5));
+        assertEquals(3, testMap.size());
+
+        assertTrue(testMap.values().retainAll(other.values()));
+        assertEquals(1, testMap.size());
+        assertEquals("mano", testMap.get(9));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'uguaglianza con una {@code MapAdapter} con le stesse
+     * mappature.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Il contratto di {@code HMap} definisce {@code equals} e {@code hashCode}
+     * in termini di entry set, quindi mappe con implementazioni diverse ma
+     * stesso contenuto devono essere uguali in entrambe le direzioni e avere lo
+     * stesso hash code.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si crea una {@code MapAdapter} copia di {@code testMap}.<br>
+     * 2. Si confrontano le due mappe in entrambe le direzioni.<br>
+     * 3. Si modifica la copia e si verifica che le mappe non siano più uguali.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa contiene quattro mappature.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * {@code testMap} non viene modificata.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le mappe sono uguali finché hanno lo stesso contenuto.
+     */
+    @Test
+    public void testEqualsWithMapAdapter() {
+        MapAdapter copy = new MapAdapter(testMap);
+        assertTrue(testMap.equals(copy));
+        assertTrue(copy.equals(testMap));
+        assertEquals(copy.hashCode(), testMap.hashCode());
+        assertEquals(copy.keySet(), testMap.keySet());
+        assertEquals(testMap.values(), copy.values());
+        assertEquals(new OpenHashMap(copy), testMap);
+
+        copy.put(5, "altro");
+        assertFalse(testMap.equals(copy));
+        assertFalse(copy.equals(testMap));
+        assertEquals("{}", new OpenHashMap().toString());
+    }
+
+    /**
+     * Chiave di prova con hash costante, usata per forzare le collisioni.
+     */
+    private static class CollidingKey {
+        private final int id;
+
+        /**
+         * Costruisce una chiave con l'identificativo specificato.
+         *
+         * @param id l'identificativo della chiave.
+         */
+        CollidingKey(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof CollidingKey && ((CollidingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+    }
+}
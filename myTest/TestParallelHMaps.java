@@ -0,0 +1,199 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.ParallelHMaps},
+ * le operazioni di massa parallele su una {@link myAdapter.HMap}.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Le operazioni vengono eseguite su una {@code MapAdapter}, copiata in array
+ * prima della divisione, su una {@code OpenHashMap}, divisa direttamente per
+ * celle, e su una {@code BTreeHMap}, copiata tramite iteratore. Con una soglia
+ * bassa le mappe vengono divise in molti intervalli; con una soglia maggiore
+ * della dimensione l'operazione viene eseguita nel thread chiamante. In ogni
+ * caso il risultato deve essere lo stesso di un'iterazione sequenziale.
+ */
+public class TestParallelHMaps {
+    private static final int SIZE = 100000;
+
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestParallelHMaps() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code forEach}, {@code reduce} e {@code search}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * La somma dei valori calcolata con {@code forEach} e con {@code reduce}
+     * deve coincidere con quella attesa; {@code search} deve trovare l'unica
+     * mappatura che soddisfa la condizione, o restituire {@code null}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola ogni mappa con le chiavi da 0 a 99999, con valore pari al
+     * doppio della chiave.<br>
+     * 2. Con soglie 1000 e 1000000 si sommano i valori e si cerca la chiave
+     * 77777 e una chiave assente.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le mappe non sono cambiate.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le somme valgono {@code SIZE * (SIZE - 1)} e la ricerca restituisce il
+     * valore 155554.
+     */
+    @Test
+    public void testForEachReduceSearch() {
+        HMap[] maps = populatedMaps();
+        final long expected = (long) SIZE * (SIZE - 1);
+        int[] thresholds = { 1000, 1000000 };
+        for (int m = 0; m < maps.length; m++) {
+            for (int t = 0; t < thresholds.length; t++) {
+                final AtomicLong sum = new AtomicLong();
+                ParallelHMaps.forEach(maps[m], thresholds[t], new ParallelHMaps.Action() {
+                    public void apply(Object key, Object value) {
+                        sum.addAndGet(((Integer) value).intValue());
+                    }
+                });
+                assertEquals(expected, sum.get());
+
+                Object total = ParallelHMaps.reduce(maps[m], thresholds[t], new ParallelHMaps.Function() {
+                    public Object apply(Object key, Object value) {
+                        return Long.valueOf(((Integer) value).intValue());
+                    }
+                }, new ParallelHMaps.Reducer() {
+                    public Object reduce(Object a, Object b) {
+                        return Long.valueOf(((Long) a).longValue() + ((Long) b).longValue());
+                    }
+                });
+                assertEquals(Long.valueOf(expected), total);
+
+                assertEquals(Integer.valueOf(155554), ParallelHMaps.search(maps[m], thresholds[t], keyEquals(77777)));
+                assertNull(ParallelHMaps.search(maps[m], thresholds[t], keyEquals(-1)));
+                assertEquals(SIZE, maps[m].size());
+            }
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code replaceAll} e la gestione degli argomenti non validi.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Ogni valore deve essere sostituito esattamente una volta e le mappe
+     * devono restare uguali tra loro; una funzione che restituisce
+     * {@code null} e una soglia non positiva devono essere rifiutate.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola ogni mappa e si incrementa ogni valore di 1.<br>
+     * 2. Si verificano i valori e l'uguaglianza tra le mappe.<br>
+     * 3. Si invocano le operazioni con argomenti non validi.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Ogni chiave {@code k} è associata al valore {@code 2k + 1}.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I valori sono quelli attesi; gli argomenti non validi lanciano
+     * {@code NullPointerException} o {@code IllegalArgumentException}.
+     */
+    @Test
+    public void testReplaceAll() {
+        HMap[] maps = populatedMaps();
+        ParallelHMaps.Function increment = new ParallelHMaps.Function() {
+            public Object apply(Object key, Object value) {
+                return Integer.valueOf(((Integer) value).intValue() + 1);
+            }
+        };
+        for (int m = 0; m < maps.length; m++) {
+            ParallelHMaps.replaceAll(maps[m], 1000, increment);
+            for (int i = 0; i < SIZE; i++)
+                assertEquals(Integer.valueOf(2 * i + 1), maps[m].get(i));
+        }
+        assertEquals(maps[0], maps[1]);
+        assertEquals(maps[0], maps[2]);
+        assertEquals(maps[0].hashCode(), maps[1].hashCode());
+
+        try {
+            ParallelHMaps.replaceAll(maps[0], 1000, keyEquals(5));
+            fail("Valore null");
+        } catch (NullPointerException e) {
+            // Atteso
+        }
+        try {
+            ParallelHMaps.forEach(maps[1], 0, null);
+            fail("Azione null");
+        } catch (NullPointerException e) {
+            // Atteso
+        }
+        try {
+            ParallelHMaps.search(maps[1], 0, keyEquals(5));
+            fail("Soglia non valida");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+    }
+
+    /**
+     * Crea una {@code MapAdapter}, una {@code OpenHashMap} e una
+     * {@code BTreeHMap} che associano a ogni chiave da 0 a {@code SIZE - 1} il
+     * suo doppio.
+     *
+     * @return le mappe.
+     */
+    private static HMap[] populatedMaps() {
+        HMap[] maps = { new MapAdapter(), new OpenHashMap(), new BTreeHMap(BTreeHMap.INTEGER_ORDER) };
+        for (int m = 0; m < maps.length; m++) {
+            for (int i = 0; i < SIZE; i++)
+                maps[m].put(i, 2 * i);
+        }
+        return maps;
+    }
+
+    /**
+     * Crea una funzione che restituisce il valore della mappatura con la
+     * chiave specificata e {@code null} per tutte le altre.
+     *
+     * @param key la chiave cercata.
+     * @return la funzione.
+     */
+    private static ParallelHMaps.Function keyEquals(final int key) {
+        return new ParallelHMaps.Function() {
+            public Object apply(Object k, Object value) {
+                return ((Integer) k).intValue() == key ? value : null;
+            }
+        };
+    }
+}
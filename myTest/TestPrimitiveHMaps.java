@@ -0,0 +1,413 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica le mappe specializzate per chiavi o valori
+ * primitivi: {@link myAdapter.IntObjectHMap}, {@link myAdapter.LongObjectHMap},
+ * {@link myAdapter.ObjectIntHMap}, {@link myAdapter.ObjectLongHMap} e
+ * {@link myAdapter.LongLongHMap}.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Le cinque classi condividono la stessa tabella a indirizzamento aperto e
+ * differiscono solo nel tipo degli array: i test verificano i metodi
+ * specializzati di ciascuna (in particolare i casi limite dei primitivi, come
+ * la chiave 0 e i valori estremi) e, con sequenze casuali di operazioni, che
+ * attraverso l'interfaccia generica si comportino esattamente come una
+ * {@link myAdapter.MapAdapter} con chiavi e valori in forma oggetto.
+ */
+public class TestPrimitiveHMaps {
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestPrimitiveHMaps() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica i metodi specializzati di {@code IntObjectHMap} e la loro
+     * coerenza con l'interfaccia generica.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le chiavi {@code int} devono essere tutte valide, compresi 0 e i valori
+     * negativi; attraverso l'interfaccia generica la mappa deve essere
+     * indistinguibile da una {@code MapAdapter} con chiavi {@code Integer}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono le chiavi 0, -1, {@code Integer.MIN_VALUE} e 7 con i
+     * metodi specializzati.<br>
+     * 2. Si leggono e si rimuovono chiavi sia come {@code int} sia come
+     * {@code Integer}, e con una chiave {@code Long}.<br>
+     * 3. Si confronta la mappa con una {@code MapAdapter}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene tre mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I valori restituiti sono quelli attesi e le due mappe sono uguali, con
+     * lo stesso codice hash.
+     */
+    @Test
+    public void testIntObjectHMap() {
+        IntObjectHMap map = new IntObjectHMap();
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-1, "meno uno"));
+        assertNull(map.put(Integer.MIN_VALUE, "minimo"));
+        assertNull(map.put(7, "sette"));
+        assertEquals("zero", map.put(0, "nulla"));
+
+        assertEquals("nulla", map.get(0));
+        assertEquals("minimo", map.get(Integer.valueOf(Integer.MIN_VALUE)));
+        assertTrue(map.containsKey(-1));
+        assertFalse(map.containsKey(1));
+        assertNull("Una chiave Long non deve essere trovata", map.get(Long.valueOf(7)));
+        assertEquals("sette", map.remove(Integer.valueOf(7)));
+        assertNull(map.remove(7));
+        assertEquals(3, map.size());
+
+        MapAdapter expected = new MapAdapter();
+        expected.put(0, "nulla");
+        expected.put(-1, "meno uno");
+        expected.put(Integer.MIN_VALUE, "minimo");
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(map, new IntObjectHMap(expected));
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica l'uso di {@code ObjectIntHMap} come tabella di contatori.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * {@code addTo} deve creare la mappatura partendo dal valore predefinito e
+     * incrementarla in seguito; i metodi specializzati segnalano l'assenza con
+     * il valore predefinito, mentre quelli generici con {@code null}.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si contano le parole di una frase con {@code addTo}.<br>
+     * 2. Si imposta il valore predefinito a -1 e si leggono una parola
+     * presente e una assente.<br>
+     * 3. Si rimuove una parola con il metodo generico e con quello
+     * specializzato.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Una mappa vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene i conteggi delle parole rimaste.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I conteggi e i valori restituiti sono quelli attesi.
+     */
+    @Test
+    public void testObjectIntHMapCounters() {
+        ObjectIntHMap counts = new ObjectIntHMap();
+        String[] words = { "a", "b", "a", "c", "a", "b" };
+        for (int i = 0; i < words.length; i++)
+            counts.addTo(words[i], 1);
+
+        assertEquals(3, counts.size());
+        assertEquals(3, counts.getInt("a"));
+        assertEquals(Integer.valueOf(2), counts.get("b"));
+        assertEquals(0, counts.getInt("z"));
+        assertNull(counts.get("z"));
+        assertTrue(counts.containsValue(1));
+        assertTrue(counts.containsValue(Integer.valueOf(2)));
+        assertFalse(counts.containsValue(Long.valueOf(2)));
+
+        counts.defaultReturnValue(-1);
+        assertEquals(-1, counts.getInt("z"));
+        assertEquals(-1, counts.addTo("z", 5));
+        assertEquals(4, counts.getInt("z"));
+
+        assertEquals(Integer.valueOf(1), counts.remove("c"));
+        assertEquals(-1, counts.removeInt("c"));
+        assertEquals(3, counts.putInt("a", 10));
+        assertEquals(Integer.valueOf(10), counts.put("a", Integer.valueOf(11)));
+
+        MapAdapter expected = new MapAdapter();
+        expected.put("a", 11);
+        expected.put("b", 2);
+        expected.put("z", 4);
+        assertEquals(expected, counts);
+        assertEquals(expected.hashCode(), counts.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica i casi limite di {@code LongLongHMap} e
+     * {@code ObjectLongHMap}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * In {@code LongLongHMap} nessun valore di chiave è riservato per indicare
+     * una cella vuota: la chiave 0 e i valori estremi devono comportarsi come
+     * tutte le altre. Il codice hash deve coincidere con quello calcolato sui
+     * {@code Long} corrispondenti.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono in una {@code LongLongHMap} le chiavi 0,
+     * {@code Long.MIN_VALUE} e {@code Long.MAX_VALUE}.<br>
+     * 2. Si verificano lettura, incremento e rimozione.<br>
+     * 3. Si ripetono le operazioni su una {@code ObjectLongHMap} e si
+     * confrontano entrambe con una {@code MapAdapter}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Due mappe vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Ogni mappa contiene due mappature.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * I valori restituiti sono quelli attesi e le mappe sono uguali a quella di
+     * riferimento.
+     */
+    @Test
+    public void testLongValuedMaps() {
+        LongLongHMap map = new LongLongHMap();
+        map.defaultReturnValue(-1);
+        assertEquals(-1, map.get(0L));
+        assertFalse(map.containsKey(0L));
+        assertEquals(-1, map.put(0L, 0L));
+        assertEquals(-1, map.put(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(-1, map.put(Long.MAX_VALUE, 5L));
+        assertTrue(map.containsKey(0L));
+        assertEquals(0L, map.get(0L));
+        assertEquals(Long.MAX_VALUE, map.addTo(Long.MIN_VALUE, -Long.MAX_VALUE));
+        assertEquals(0L, map.get(Long.MIN_VALUE));
+        assertEquals(5L, map.remove(Long.MAX_VALUE));
+        assertEquals(-1, map.remove(Long.MAX_VALUE));
+        assertNull(map.get(Integer.valueOf(0)));
+
+        ObjectLongHMap other = new ObjectLongHMap();
+        assertEquals(0L, other.putLong("x", Long.MIN_VALUE));
+        assertEquals(Long.MIN_VALUE, other.addTo("x", 1));
+        assertEquals(7L, other.addTo("y", 7) + 7);
+        assertEquals(Long.valueOf(Long.MIN_VALUE + 1), other.get("x"));
+        assertEquals(7L, other.removeLong("y"));
+        assertNull(other.remove("y"));
+
+        MapAdapter expected = new MapAdapter();
+        expected.put(Long.valueOf(0), Long.valueOf(0));
+        expected.put(Long.valueOf(Long.MIN_VALUE), Long.valueOf(0));
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        expected.clear();
+        expected.put("x", Long.valueOf(Long.MIN_VALUE + 1));
+        assertEquals(expected, other);
+        assertEquals(expected.hashCode(), other.hashCode());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica che i metodi generici rifiutino chiavi e valori del tipo
+     * sbagliato o {@code null}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Una mappa specializzata non può memorizzare un oggetto che non
+     * corrisponde al suo tipo primitivo: l'inserimento deve fallire senza
+     * modificare la mappa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * Si tenta di inserire una chiave {@code String} in una
+     * {@code IntObjectHMap}, un valore {@code Integer} in una
+     * {@code ObjectLongHMap} e un valore {@code null} in una
+     * {@code LongObjectHMap}.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Mappe vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le mappe sono ancora vuote.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Vengono lanciate {@code ClassCastException} e
+     * {@code NullPointerException}.
+     */
+    @Test
+    public void testWrongTypesRejected() {
+        IntObjectHMap intKeys = new IntObjectHMap();
+        try {
+            intKeys.put("uno", "valore");
+            fail("Chiave String accettata");
+        } catch (ClassCastException e) {
+            // Comportamento atteso
+        }
+        ObjectLongHMap longValues = new ObjectLongHMap();
+        try {
+            longValues.put("uno", Integer.valueOf(1));
+            fail("Valore Integer accettato");
+        } catch (ClassCastException e) {
+            // Comportamento atteso
+        }
+        LongObjectHMap longKeys = new LongObjectHMap();
+        try {
+            longKeys.put(1L, null);
+            fail("Valore null accettato");
+        } catch (NullPointerException e) {
+            // Comportamento atteso
+        }
+        assertTrue(intKeys.isEmpty());
+        assertTrue(longValues.isEmpty());
+        assertTrue(longKeys.isEmpty());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Confronta ciascuna mappa specializzata con una {@code MapAdapter}
+     * durante una lunga sequenza casuale di operazioni generiche.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Inserimenti e rimozioni su un intervallo ristretto di chiavi producono
+     * molte collisioni e molti spostamenti all'indietro, anche attorno alla
+     * fine della tabella; la rimozione tramite iteratore delle viste deve
+     * visitare ogni mappatura una sola volta nonostante gli spostamenti.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Per ogni mappa si eseguono 20000 inserimenti e rimozioni casuali,
+     * ripetuti su una {@code MapAdapter} di riferimento.<br>
+     * 2. Si confrontano le due mappe.<br>
+     * 3. Si rimuovono tramite l'iteratore del key set le mappature con chiave
+     * di hash pari e si confrontano di nuovo le mappe.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Mappe vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Ogni mappa contiene solo le chiavi con hash dispari.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Ogni mappa è sempre uguale a quella di riferimento.
+     */
+    @Test
+    public void testRandomOperationsMatchMapAdapter() {
+        HMap[] maps = { new IntObjectHMap(), new LongObjectHMap(), new ObjectIntHMap(), new ObjectLongHMap(),
+                new LongLongHMap() };
+        for (int i = 0; i < maps.length; i++) {
+            HMap map = maps[i];
+            MapAdapter expected = new MapAdapter();
+            Random random = new Random(i);
+            for (int op = 0; op < 20000; op++) {
+                int n = random.nextInt(500) - 250;
+                Object key = keyFor(map, n);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), map.remove(key));
+                } else {
+                    Object value = valueFor(map, random.nextInt(100));
+                    assertEquals(expected.put(key, value), map.put(key, value));
+                }
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+
+            MapAdapter visited = new MapAdapter();
+            HIterator it = map.keySet().iterator();
+            while (it.hasNext()) {
+                Object key = it.next();
+                assertNull("Chiave visitata due volte", visited.put(key, key));
+                if (key.hashCode() % 2 == 0) {
+                    it.remove();
+                    expected.remove(key);
+                }
+            }
+            assertEquals(expected.size() + countEven(visited), visited.size());
+            assertEquals(expected, map);
+        }
+    }
+
+    /**
+     * Restituisce la chiave in forma oggetto adatta alla mappa specificata.
+     *
+     * @param map la mappa.
+     * @param n   il numero da cui ricavare la chiave.
+     * @return un {@code Integer}, un {@code Long} o una {@code String}.
+     */
+    private static Object keyFor(HMap map, int n) {
+        if (map instanceof IntObjectHMap)
+            return Integer.valueOf(n);
+        if (map instanceof LongObjectHMap || map instanceof LongLongHMap)
+            return Long.valueOf((long) n << 20);
+        return "k" + n;
+    }
+
+    /**
+     * Restituisce il valore in forma oggetto adatto alla mappa specificata.
+     *
+     * @param map la mappa.
+     * @param n   il numero da cui ricavare il valore.
+     * @return un {@code Integer}, un {@code Long} o una {@code String}.
+     */
+    private static Object valueFor(HMap map, int n) {
+        if (map instanceof ObjectIntHMap)
+            return Integer.valueOf(n);
+        if (map instanceof ObjectLongHMap || map instanceof LongLongHMap)
+            return Long.valueOf(n);
+        return "v" + n;
+    }
+
+    /**
+     * Conta le chiavi con codice hash pari.
+     *
+     * @param map la mappa di cui contare le chiavi.
+     * @return il numero di chiavi con codice hash pari.
+     */
+    private static int countEven(HMap map) {
+        int count = 0;
+        HIterator it = map.keySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().hashCode() % 2 == 0)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,242 @@
+package myTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import myAdapter.*;
+
+/**
+ * <b>Summary</b>
+ * <p>
+ * Questa suite di test verifica la classe {@link myAdapter.ReferenceHMap},
+ * la mappa con chiavi e valori riferiti tramite riferimenti deboli o
+ * soffici.
+ * <p>
+ * <b>Test Case Design</b>
+ * <p>
+ * Con riferimenti forti la mappa deve comportarsi come una
+ * {@code MapAdapter}. Con riferimenti deboli i test rendono irraggiungibili
+ * alcune chiavi o alcuni valori e invocano il garbage collector finché le
+ * mappature corrispondenti scompaiono; i riferimenti soffici, che il garbage
+ * collector recupera solo sotto pressione di memoria, vengono verificati solo
+ * nel comportamento ordinario.
+ */
+public class TestReferenceHMap {
+    /**
+     * Questo costruttore è vuoto e serve a soddisfare i requisiti
+     * dello strumento Javadoc, evitando warning di documentazione.
+     */
+    public TestReferenceHMap() {
+        // Costruttore intenzionalmente lasciato vuoto.
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica le operazioni di base con riferimenti forti e soffici.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Finché chiavi e valori sono raggiungibili, la forza dei riferimenti non
+     * deve cambiare il comportamento della mappa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Per entrambe le combinazioni si inseriscono 1000 chiavi, se ne
+     * sostituiscono e rimuovono alcune, anche tramite iteratore.<br>
+     * 2. Si confronta la mappa con una {@code MapAdapter}.<br>
+     * 3. Si tenta di creare una mappa con una forza non valida.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Le mappe sono vuote.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Ogni mappa contiene le 499 chiavi pari diverse da 4.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le mappe sono uguali alla {@code MapAdapter}; la forza non valida lancia
+     * {@code IllegalArgumentException}.
+     */
+    @Test
+    public void testStrongAndSoftBehaveLikeMapAdapter() {
+        ReferenceHMap[] maps = {
+                new ReferenceHMap(ReferenceHMap.STRONG, ReferenceHMap.STRONG),
+                new ReferenceHMap(ReferenceHMap.SOFT, ReferenceHMap.SOFT) };
+        for (int m = 0; m < maps.length; m++) {
+            ReferenceHMap map = maps[m];
+            MapAdapter expected = new MapAdapter();
+            for (int i = 0; i < 1000; i++) {
+                assertNull(map.put(i, "v" + i));
+                expected.put(i, "v" + i);
+            }
+            assertEquals("v3", map.put(3, "w3"));
+            expected.put(3, "w3");
+            assertEquals("v4", map.remove(4));
+            expected.remove(4);
+            assertNull(map.remove(4));
+
+            HIterator it = map.entrySet().iterator();
+            while (it.hasNext()) {
+                HEntry e = (HEntry) it.next();
+                int key = ((Integer) e.getKey()).intValue();
+                if (key % 2 == 1) {
+                    it.remove();
+                    expected.remove(key);
+                } else if (key % 10 == 0) {
+                    e.setValue("x" + key);
+                    expected.put(key, "x" + key);
+                }
+            }
+            assertEquals(499, map.size());
+            assertEquals(expected, map);
+            assertEquals(map, expected);
+            assertEquals(expected.hashCode(), map.hashCode());
+        }
+
+        try {
+            new ReferenceHMap(ReferenceHMap.WEAK, 3);
+            fail("Forza non valida");
+        } catch (IllegalArgumentException e) {
+            // Atteso
+        }
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la scomparsa delle mappature con chiavi deboli non più
+     * raggiungibili.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le chiavi sono oggetti senza {@code equals} ridefinito: quando il test
+     * abbandona il riferimento a metà di esse, il garbage collector le
+     * recupera e la mappa deve rimuovere le mappature durante le operazioni
+     * successive.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 200 chiavi e si conservano le sole chiavi pari.<br>
+     * 2. Si invoca il garbage collector finché la dimensione scende a 100.<br>
+     * 3. Si verificano le mappature rimaste e l'iterazione.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le 100 chiavi conservate.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Restano esattamente le mappature delle chiavi conservate.
+     *
+     * @throws InterruptedException se l'attesa del garbage collector viene
+     *                              interrotta.
+     */
+    @Test
+    public void testWeakKeys() throws InterruptedException {
+        ReferenceHMap map = new ReferenceHMap(ReferenceHMap.WEAK, ReferenceHMap.STRONG);
+        Object[] kept = new Object[100];
+        for (int i = 0; i < 200; i++) {
+            Object key = new Object();
+            if (i % 2 == 0)
+                kept[i / 2] = key;
+            map.put(key, Integer.valueOf(i));
+        }
+        assertEquals(200, map.size());
+
+        awaitSize(map, 100);
+        for (int i = 0; i < kept.length; i++)
+            assertEquals(Integer.valueOf(2 * i), map.get(kept[i]));
+        int visited = 0;
+        HIterator it = map.values().iterator();
+        while (it.hasNext()) {
+            assertTrue(((Integer) it.next()).intValue() % 2 == 0);
+            visited++;
+        }
+        assertEquals(100, visited);
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica la scomparsa delle mappature con valori deboli non più
+     * raggiungibili e la gestione dei valori sostituiti.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Un valore sostituito non deve far rimuovere la mappatura quando viene
+     * recuperato, perché il riferimento non appartiene più alla mappa.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si inseriscono 100 chiavi con valori di cui si conservano solo quelli
+     * delle chiavi minori di 50.<br>
+     * 2. Si sostituisce il valore della chiave 0 con un altro valore
+     * conservato e si abbandona il vecchio.<br>
+     * 3. Si invoca il garbage collector finché la dimensione scende a 50.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * La mappa è vuota.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene le chiavi da 0 a 49.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Restano esattamente le mappature con valore conservato, compresa quella
+     * della chiave 0 con il nuovo valore.
+     *
+     * @throws InterruptedException se l'attesa del garbage collector viene
+     *                              interrotta.
+     */
+    @Test
+    public void testWeakValues() throws InterruptedException {
+        ReferenceHMap map = new ReferenceHMap(ReferenceHMap.STRONG, ReferenceHMap.WEAK);
+        Object[] kept = new Object[50];
+        for (int i = 0; i < 100; i++) {
+            Object value = new StringBuffer("v" + i);
+            if (i < 50)
+                kept[i] = value;
+            map.put(Integer.valueOf(i), value);
+        }
+        kept[0] = new StringBuffer("nuovo");
+        map.put(Integer.valueOf(0), kept[0]);
+
+        awaitSize(map, 50);
+        for (int i = 0; i < 100; i++) {
+            if (i < 50)
+                assertSame(kept[i], map.get(Integer.valueOf(i)));
+            else
+                assertFalse(map.containsKey(Integer.valueOf(i)));
+        }
+    }
+
+    /**
+     * Invoca il garbage collector finché la mappa non scende alla dimensione
+     * attesa, per al più cinque secondi.
+     *
+     * @param map      la mappa.
+     * @param expected la dimensione attesa.
+     * @throws InterruptedException se l'attesa viene interrotta.
+     */
+    private static void awaitSize(ReferenceHMap map, int expected) throws InterruptedException {
+        for (int attempt = 0; attempt < 500 && map.size() != expected; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(expected, map.size());
+    }
+}
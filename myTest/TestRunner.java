@@ -71,7 +71,22 @@ public class TestRunner {
                     TestMapAdapter.class,
                     TestMapEntry.class,
                     TestKeySet.class,
-                    TestSetIterator.class
+                    TestSetIterator.class,
+                    TestOpenHashMap.class,
+                    TestIndexedMapAdapter.class,
+                    TestConcurrentHMap.class,
+                    TestMappedHMap.class,
+                    TestPrimitiveHMaps.class,
+                    TestFrozenHMap.class,
+                    TestCopyOnWriteHMap.class,
+                    TestBTreeHMap.class,
+                    TestLruHMap.class,
+                    TestExpiringHMap.class,
+                    TestReferenceHMap.class,
+                    TestParallelHMaps.class,
+                    TestHStreams.class,
+                    TestMapCursor.class,
+                    TestIncrementalHMap.class
             };
         }
 
@@ -1613,6 +1613,126 @@ public class TestValueCollection {
                 collection1);
     }
 
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code equals} su collezioni grandi con molti duplicati, anche
+     * quando le somme dei codici hash coincidono e quando l'altra collezione
+     * non è la vista dei valori di una {@code MapAdapter}.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Il confronto tra viste dei valori esclude subito le collezioni con somme
+     * dei codici hash diverse; se le somme coincidono deve comunque
+     * confrontare le cardinalità. Le stringhe "Aa" e "BB" hanno lo stesso
+     * codice hash, quindi due collezioni che differiscono solo per questi
+     * elementi hanno la stessa somma ma non sono uguali.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si creano due mappe con 10000 valori, ciascuno ripetuto dieci volte,
+     * inseriti in ordine diverso, e si confrontano le loro viste dei valori
+     * tra loro e con la vista dei valori di una {@code OpenHashMap}.<br>
+     * 2. In una delle due mappe si sostituisce un "Aa" con un "BB" e si
+     * ripete il confronto.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * Le collezioni rimangono invariate.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Le collezioni sono uguali prima della sostituzione e diverse dopo, in
+     * entrambe le direzioni del confronto.
+     */
+    @Test
+    public void testEqualsLargeCollectionsWithDuplicates() {
+        MapAdapter map1 = new MapAdapter();
+        MapAdapter map2 = new MapAdapter();
+        for (int i = 0; i < 10000; i++) {
+            map1.put(i, "v" + (i % 1000));
+            map2.put(9999 - i, "v" + (i % 1000));
+        }
+        map1.put(-1, "Aa");
+        map2.put(-1, "Aa");
+        OpenHashMap other = new OpenHashMap(map2);
+
+        assertEquals(map1.values(), map2.values());
+        assertEquals(map1.values(), other.values());
+        assertEquals(other.values(), map1.values());
+
+        map2.put(-1, "BB");
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertEquals(map1.values().hashCode(), map2.values().hashCode());
+        assertNotEquals(map1.values(), map2.values());
+        assertNotEquals(map2.values(), map1.values());
+    }
+
+    /**
+     * <b>Summary</b>
+     * <p>
+     * Verifica {@code removeAll} e {@code retainAll} su una collezione grande
+     * con valori duplicati, con argomenti di tipo diverso.
+     * <p>
+     * <b>Test Case Design</b>
+     * <p>
+     * Le due operazioni scandiscono la mappa una sola volta, verificando
+     * l'appartenenza di ogni valore su una copia hash dell'argomento o, se
+     * l'argomento è un {@code HSet}, direttamente su di esso. Il test copre
+     * entrambi i casi e verifica che vengano rimosse tutte le occorrenze dei
+     * valori interessati e solo quelle.
+     * <p>
+     * <b>Test Description</b>
+     * <p>
+     * 1. Si popola una mappa con 20000 chiavi e 100 valori distinti.<br>
+     * 2. Si rimuovono i valori contenuti nella vista dei valori di un'altra
+     * mappa (con duplicati).<br>
+     * 3. Si mantengono solo i valori contenuti nel key set di un'altra mappa.
+     * <p>
+     * <b>Pre-Condition</b>
+     * <p>
+     * Nessuna.
+     * <p>
+     * <b>Post-Condition</b>
+     * <p>
+     * La mappa contiene solo le chiavi associate ai valori mantenuti.
+     * <p>
+     * <b>Expected Results</b>
+     * <p>
+     * Dopo ogni operazione la mappa contiene esattamente le mappature attese.
+     */
+    @Test
+    public void testBulkRemovalLargeCollection() {
+        MapAdapter map = new MapAdapter();
+        for (int i = 0; i < 20000; i++)
+            map.put(i, "v" + (i % 100));
+
+        // Valori da rimuovere: v0..v49, ciascuno ripetuto due volte.
+        MapAdapter toRemove = new MapAdapter();
+        for (int i = 0; i < 100; i++)
+            toRemove.put(i, "v" + (i % 50));
+        assertTrue(map.values().removeAll(toRemove.values()));
+        assertFalse(map.values().removeAll(toRemove.values()));
+        assertEquals(10000, map.size());
+
+        // Valori da mantenere: v50..v59, come chiavi di un set.
+        MapAdapter toRetain = new MapAdapter();
+        for (int i = 50; i < 60; i++)
+            toRetain.put("v" + i, "x");
+        assertTrue(map.values().retainAll(toRetain.keySet()));
+        assertFalse(map.values().retainAll(toRetain.keySet()));
+        assertEquals(2000, map.size());
+
+        for (int i = 0; i < 20000; i++) {
+            int v = i % 100;
+            assertEquals(v >= 50 && v < 60 ? "v" + v : null, map.get(i));
+        }
+    }
+
     /**
      * <b>Summary</b>
      * <p>